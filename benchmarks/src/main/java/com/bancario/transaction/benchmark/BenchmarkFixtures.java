@@ -0,0 +1,82 @@
+package com.bancario.transaction.benchmark;
+
+import com.bancario.transaction.dto.AccountResponse;
+import com.bancario.transaction.dto.TransactionRequest;
+import com.bancario.transaction.dto.TransactionResponse;
+import com.bancario.transaction.enums.AccountStatus;
+import com.bancario.transaction.enums.AccountType;
+import com.bancario.transaction.enums.ProductType;
+import com.bancario.transaction.enums.TransactionType;
+import com.bancario.transaction.money.Money;
+import com.bancario.transaction.repository.entity.Transaction;
+import com.bancario.transaction.repository.projection.CommissionProjection;
+import org.bson.types.ObjectId;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/** Datos representativos de una operación sobre una cuenta de ahorro con comisión. */
+final class BenchmarkFixtures {
+
+    static final LocalDateTime NOW = LocalDateTime.of(2025, 1, 15, 10, 30, 45, 123_000_000);
+
+    private BenchmarkFixtures() {
+    }
+
+    static AccountResponse savingsAccount() {
+        return new AccountResponse(
+                "65a1f0c2e4b0a1b2c3d4e5f6", "CUST-000123", "191-0001234567",
+                ProductType.PASSIVE, AccountType.SAVINGS_ACCOUNT, null, AccountStatus.ACTIVE,
+                NOW.minusYears(2),
+                new BigDecimal("15230.75"), BigDecimal.ZERO,
+                BigDecimal.ZERO, null,
+                5, new BigDecimal("2.50"), 7, 12, null,
+                List.of("CUST-000123"), List.of()
+        );
+    }
+
+    static TransactionRequest depositRequest() {
+        return new TransactionRequest("65a1f0c2e4b0a1b2c3d4e5f6", "CUST-000123", new BigDecimal("100.00"), "Depósito en ventanilla");
+    }
+
+    static Transaction transaction() {
+        Transaction transaction = new Transaction();
+        transaction.setId(new ObjectId("65a1f0c2e4b0a1b2c3d4e5f7"));
+        transaction.setAccountId("65a1f0c2e4b0a1b2c3d4e5f6");
+        transaction.setCustomerId("CUST-000123");
+        transaction.setTransactionType(TransactionType.DEPOSIT);
+        transaction.setAmount(Money.ofMinor(9_750));
+        transaction.setFee(Money.ofMinor(250));
+        transaction.setProductType(ProductType.PASSIVE);
+        transaction.setProductName(AccountType.SAVINGS_ACCOUNT.name());
+        transaction.setTransactionDate(NOW);
+        transaction.setDescription("Depósito en ventanilla (Fee: 2.50)");
+        transaction.setExternalReference("5f2b7c1e-3d4a-4b8e-9c6f-0a1b2c3d4e5f");
+        return transaction;
+    }
+
+    static CommissionProjection commission() {
+        CommissionProjection commission = new CommissionProjection();
+        commission.setAccountId("65a1f0c2e4b0a1b2c3d4e5f6");
+        commission.setProductType(ProductType.PASSIVE);
+        commission.setProductName(AccountType.SAVINGS_ACCOUNT.name());
+        commission.setFee(Money.ofMinor(250));
+        commission.setTransactionDate(NOW);
+        return commission;
+    }
+
+    static TransactionResponse transactionResponse() {
+        return TransactionResponse.builder()
+                .id("65a1f0c2e4b0a1b2c3d4e5f7")
+                .accountId("65a1f0c2e4b0a1b2c3d4e5f6")
+                .customerId("CUST-000123")
+                .transactionType(TransactionType.DEPOSIT)
+                .amount(new BigDecimal("97.50"))
+                .fee(new BigDecimal("2.50"))
+                .transactionDate(NOW)
+                .description("Depósito en ventanilla (Fee: 2.50)")
+                .externalReference("5f2b7c1e-3d4a-4b8e-9c6f-0a1b2c3d4e5f")
+                .build();
+    }
+}
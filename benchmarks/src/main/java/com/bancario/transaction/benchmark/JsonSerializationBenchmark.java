@@ -0,0 +1,63 @@
+package com.bancario.transaction.benchmark;
+
+import com.bancario.transaction.dto.TransactionResponse;
+import com.bancario.transaction.exception.ApiError;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/** Serialización Jackson de las respuestas del API con la configuración por defecto de Quarkus (fechas ISO-8601). */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    private ObjectWriter transactionResponseWriter;
+    private ObjectWriter apiErrorWriter;
+    private TransactionResponse transactionResponse;
+    private ApiError apiError;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        transactionResponseWriter = objectMapper.writerFor(TransactionResponse.class);
+        apiErrorWriter = objectMapper.writerFor(ApiError.class);
+        transactionResponse = BenchmarkFixtures.transactionResponse();
+        apiError = ApiError.builder()
+                .timestamp(BenchmarkFixtures.NOW)
+                .status(400)
+                .error("Insufficient Funds")
+                .message("Insufficient funds. Cannot withdraw 102.50.")
+                .path("/transactions/withdrawal")
+                .build();
+    }
+
+    @Benchmark
+    public byte[] transactionResponse() throws JsonProcessingException {
+        return transactionResponseWriter.writeValueAsBytes(transactionResponse);
+    }
+
+    @Benchmark
+    public byte[] apiError() throws JsonProcessingException {
+        return apiErrorWriter.writeValueAsBytes(apiError);
+    }
+}
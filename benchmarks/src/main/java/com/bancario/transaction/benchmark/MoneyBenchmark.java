@@ -0,0 +1,75 @@
+package com.bancario.transaction.benchmark;
+
+import com.bancario.transaction.dto.AccountResponse;
+import com.bancario.transaction.money.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aritmética de un depósito con comisión (comisión, neto, nuevo saldo y texto de la descripción)
+ * con Money frente a la versión BigDecimal que había antes.
+ * <p>
+ * Para ver bytes/op: mvn -Palloc exec:exec -Djmh.args="MoneyBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyBenchmark {
+
+    private AccountResponse account;
+    private BigDecimal requestAmount;
+    private Money amount;
+
+    @Setup
+    public void setUp() {
+        account = BenchmarkFixtures.savingsAccount();
+        requestAmount = BenchmarkFixtures.depositRequest().amount();
+        amount = Money.of(requestAmount);
+    }
+
+    @Benchmark
+    public String depositWithMoney() {
+        Money fee = Money.fromExternal(account.transactionFeeAmount());
+        Money netAmount = amount.subtract(fee);
+        Money newBalance = Money.fromExternal(account.balance()).add(netAmount);
+        return newBalance.toBigDecimal().signum() >= 0 ? "Depósito (Fee: " + fee + ")" : null;
+    }
+
+    @Benchmark
+    public String depositWithBigDecimal() {
+        BigDecimal fee = account.transactionFeeAmount();
+        BigDecimal netAmount = requestAmount.subtract(fee);
+        BigDecimal newBalance = account.balance().add(netAmount);
+        return newBalance.signum() >= 0 ? "Depósito (Fee: " + fee.toPlainString() + ")" : null;
+    }
+
+    /** Conversión de entrada de un importe del Account-Service (ya con 2 decimales). */
+    @Benchmark
+    public Money fromExternal() {
+        return Money.fromExternal(account.balance());
+    }
+
+    @Benchmark
+    public String toStringMoney() {
+        return amount.toString();
+    }
+
+    @Benchmark
+    public String toStringBigDecimal() {
+        return requestAmount.toPlainString();
+    }
+}
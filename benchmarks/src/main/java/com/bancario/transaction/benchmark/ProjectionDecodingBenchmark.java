@@ -0,0 +1,124 @@
+package com.bancario.transaction.benchmark;
+
+import com.bancario.transaction.enums.ProductType;
+import com.bancario.transaction.enums.TransactionType;
+import com.bancario.transaction.repository.codec.EnumEncoding;
+import com.bancario.transaction.repository.codec.LenientEnumCodec;
+import com.bancario.transaction.repository.codec.MoneyCodec;
+import com.bancario.transaction.repository.codec.TransactionCodec;
+import com.bancario.transaction.repository.entity.Transaction;
+import com.bancario.transaction.repository.projection.CommissionProjection;
+import com.bancario.transaction.repository.projection.TransactionHistoryProjection;
+import com.mongodb.MongoClientSettings;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentWriter;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.BsonDocumentCodec;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.codecs.pojo.PojoCodecProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bytes por documento que llegan desde MongoDB y coste de decodificarlos, sin proyección
+ * (Transaction completo) y con las proyecciones de TransactionRepository (comisiones e historial SLIM).
+ * <p>
+ * Los tamaños BSON se imprimen al iniciar la ejecución; las asignaciones por operación
+ * (gc.alloc.rate.norm) se obtienen con el perfil 'alloc': mvn -Palloc exec:exec -Djmh.args=ProjectionDecoding
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProjectionDecodingBenchmark {
+
+    // Mismos campos que COMMISSION_FIELDS y que TransactionHistoryProjection.
+    private static final List<String> COMMISSION_FIELDS = List.of("accountId", "productType", "productName", "fee", "transactionDate");
+    private static final List<String> HISTORY_SLIM_FIELDS = List.of("_id", "accountId", "transactionType", "amount", "fee", "transactionDate");
+
+    private final DecoderContext decoderContext = DecoderContext.builder().build();
+
+    private Codec<Transaction> transactionCodec;
+    private Codec<CommissionProjection> commissionCodec;
+    private Codec<TransactionHistoryProjection> historySlimCodec;
+    private RawBsonDocument fullDocument;
+    private RawBsonDocument commissionDocument;
+    private RawBsonDocument historySlimDocument;
+
+    @Setup
+    public void setUp() {
+        // Las proyecciones se leen con el codec POJO del driver, con los codecs de Money y enums del servicio.
+        CodecRegistry registry = CodecRegistries.fromRegistries(
+                CodecRegistries.fromCodecs(new MoneyCodec(),
+                        new LenientEnumCodec<>(TransactionType.class, TransactionType.values()),
+                        new LenientEnumCodec<>(ProductType.class, ProductType.values())),
+                MongoClientSettings.getDefaultCodecRegistry(),
+                CodecRegistries.fromProviders(PojoCodecProvider.builder().automatic(true).build()));
+        transactionCodec = new TransactionCodec(EnumEncoding.STRING);
+        commissionCodec = registry.get(CommissionProjection.class);
+        historySlimCodec = registry.get(TransactionHistoryProjection.class);
+
+        BsonDocument stored = new BsonDocument();
+        transactionCodec.encode(new BsonDocumentWriter(stored), BenchmarkFixtures.transaction(), EncoderContext.builder().build());
+        fullDocument = raw(stored);
+        commissionDocument = raw(project(stored, COMMISSION_FIELDS));
+        historySlimDocument = raw(project(stored, HISTORY_SLIM_FIELDS));
+
+        System.out.printf(Locale.ROOT, "%nBSON por documento: completo %d B, comisión %d B (%.0f%%), historial SLIM %d B (%.0f%%)%n",
+                size(fullDocument),
+                size(commissionDocument), 100.0 * size(commissionDocument) / size(fullDocument),
+                size(historySlimDocument), 100.0 * size(historySlimDocument) / size(fullDocument));
+    }
+
+    @Benchmark
+    public Transaction fullTransaction() {
+        return transactionCodec.decode(fullDocument.asBsonReader(), decoderContext);
+    }
+
+    @Benchmark
+    public CommissionProjection commissionProjection() {
+        return commissionCodec.decode(commissionDocument.asBsonReader(), decoderContext);
+    }
+
+    @Benchmark
+    public TransactionHistoryProjection historySlimProjection() {
+        return historySlimCodec.decode(historySlimDocument.asBsonReader(), decoderContext);
+    }
+
+    /** Lo que devuelve MongoDB con Projections.include(fields): solo esos campos, en el orden del documento. */
+    private static BsonDocument project(BsonDocument document, List<String> fields) {
+        BsonDocument projected = new BsonDocument();
+        document.forEach((name, value) -> {
+            if (fields.contains(name)) {
+                projected.append(name, value);
+            }
+        });
+        return projected;
+    }
+
+    private static RawBsonDocument raw(BsonDocument document) {
+        return new RawBsonDocument(document, new BsonDocumentCodec());
+    }
+
+    private static int size(RawBsonDocument document) {
+        return document.getByteBuffer().remaining();
+    }
+}
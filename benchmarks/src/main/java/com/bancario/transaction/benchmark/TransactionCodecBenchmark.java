@@ -0,0 +1,89 @@
+package com.bancario.transaction.benchmark;
+
+import com.bancario.transaction.enums.ProductType;
+import com.bancario.transaction.enums.TransactionType;
+import com.bancario.transaction.repository.codec.EnumEncoding;
+import com.bancario.transaction.repository.codec.LenientEnumCodec;
+import com.bancario.transaction.repository.codec.MoneyCodec;
+import com.bancario.transaction.repository.codec.TransactionCodec;
+import com.bancario.transaction.repository.entity.Transaction;
+import com.mongodb.MongoClientSettings;
+import org.bson.BsonBinaryWriter;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.codecs.pojo.PojoCodecProvider;
+import org.bson.io.BasicOutputBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Codec escrito a mano de Transaction frente al codec POJO del driver (transaction-service.codec.enabled=false).
+ * <p>
+ * decode: lo que cuesta cada documento en las lecturas de historial y comisiones.
+ * encode: lo que cuesta cada documento en persist e ingesta masiva (a bytes BSON, como en el envío al servidor).
+ * Asignaciones por operación: mvn -Palloc exec:exec -Djmh.args=TransactionCodec
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransactionCodecBenchmark {
+
+    @Param({"HAND_WRITTEN_STRING", "HAND_WRITTEN_ORDINAL", "POJO"})
+    public String codecKind;
+
+    private final DecoderContext decoderContext = DecoderContext.builder().build();
+    private final EncoderContext encoderContext = EncoderContext.builder().isEncodingCollectibleDocument(true).build();
+
+    private Codec<Transaction> codec;
+    private Transaction transaction;
+    private RawBsonDocument stored;
+
+    @Setup
+    public void setUp() {
+        codec = switch (codecKind) {
+            case "HAND_WRITTEN_STRING" -> new TransactionCodec(EnumEncoding.STRING);
+            case "HAND_WRITTEN_ORDINAL" -> new TransactionCodec(EnumEncoding.ORDINAL);
+            case "POJO" -> CodecRegistries.fromRegistries(
+                    CodecRegistries.fromCodecs(new MoneyCodec(),
+                            new LenientEnumCodec<>(TransactionType.class, TransactionType.values()),
+                            new LenientEnumCodec<>(ProductType.class, ProductType.values())),
+                    MongoClientSettings.getDefaultCodecRegistry(),
+                    CodecRegistries.fromProviders(PojoCodecProvider.builder().automatic(true).build()))
+                    .get(Transaction.class);
+            default -> throw new IllegalArgumentException("Unknown codec: " + codecKind);
+        };
+        transaction = BenchmarkFixtures.transaction();
+        stored = new RawBsonDocument(transaction, codec);
+    }
+
+    @Benchmark
+    public Transaction decode() {
+        return codec.decode(stored.asBsonReader(), decoderContext);
+    }
+
+    @Benchmark
+    public int encode() {
+        BasicOutputBuffer buffer = new BasicOutputBuffer(512);
+        try (BsonBinaryWriter writer = new BsonBinaryWriter(buffer)) {
+            codec.encode(writer, transaction, encoderContext);
+        }
+        return buffer.getPosition();
+    }
+}
@@ -0,0 +1,64 @@
+package com.bancario.transaction.benchmark;
+
+import com.bancario.transaction.dto.CommissionReportDto;
+import com.bancario.transaction.dto.TransactionRequest;
+import com.bancario.transaction.dto.TransactionResponse;
+import com.bancario.transaction.mapper.TransactionMapper;
+import com.bancario.transaction.mapper.TransactionMapperImpl;
+import com.bancario.transaction.repository.entity.Transaction;
+import com.bancario.transaction.repository.projection.CommissionProjection;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/** Mapeos MapStruct del camino de escritura (toEntity/toResponse) y del reporte de comisiones. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransactionMapperBenchmark {
+
+    private TransactionMapper mapper;
+    private TransactionRequest request;
+    private Transaction transaction;
+    private CommissionProjection commission;
+
+    @Setup
+    public void setUp() {
+        mapper = new TransactionMapperImpl();
+        request = BenchmarkFixtures.depositRequest();
+        transaction = BenchmarkFixtures.transaction();
+        commission = BenchmarkFixtures.commission();
+    }
+
+    @Benchmark
+    public Transaction toEntity() {
+        return mapper.toEntity(request);
+    }
+
+    @Benchmark
+    public TransactionResponse toResponse() {
+        return mapper.toResponse(transaction);
+    }
+
+    @Benchmark
+    public CommissionReportDto toCommissionReportDtoFromEntity() {
+        return mapper.toCommissionReportDto(transaction);
+    }
+
+    @Benchmark
+    public CommissionReportDto toCommissionReportDtoFromProjection() {
+        return mapper.toCommissionReportDto(commission);
+    }
+}
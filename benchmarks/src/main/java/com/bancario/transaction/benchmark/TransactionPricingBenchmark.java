@@ -0,0 +1,67 @@
+package com.bancario.transaction.benchmark;
+
+import com.bancario.transaction.dto.AccountResponse;
+import com.bancario.transaction.enums.TransactionType;
+import com.bancario.transaction.money.Money;
+import com.bancario.transaction.service.impl.TransactionPricing;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tarificación y copia de AccountResponse: lo que hacen depositCore/withdrawalPipeline,
+ * updateAccount (pagos y consumos) y applyCoreTransaction en cada operación.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransactionPricingBenchmark {
+
+    private AccountResponse account;
+    private Money amount;
+
+    @Setup
+    public void setUp() {
+        account = BenchmarkFixtures.savingsAccount();
+        amount = Money.of(BenchmarkFixtures.depositRequest().amount());
+    }
+
+    @Benchmark
+    public Money feeFor() {
+        return TransactionPricing.feeFor(account);
+    }
+
+    /** Depósito completo: comisión, monto neto y nuevo saldo (como depositCore + applyCoreTransaction). */
+    @Benchmark
+    public AccountResponse depositBalanceUpdate() {
+        Money fee = TransactionPricing.feeFor(account);
+        Money netAmount = amount.subtract(fee);
+        Money newBalance = Money.fromExternal(account.balance()).add(netAmount);
+        return account.withBalances(newBalance.toBigDecimal(), account.amountUsed());
+    }
+
+    /** Copia del record en updateAccount (pagos, consumos). */
+    @Benchmark
+    public AccountResponse applyToAccount() {
+        return TransactionPricing.applyToAccount(account, amount, TransactionType.DEPOSIT);
+    }
+
+    /** Texto de la descripción con la comisión, como en persistLocalTransaction. */
+    @Benchmark
+    public String feeDescription() {
+        Money fee = TransactionPricing.feeFor(account);
+        return "Depósito en ventanilla" + (fee.isPositive() ? " (Fee: " + fee + ")" : "");
+    }
+}
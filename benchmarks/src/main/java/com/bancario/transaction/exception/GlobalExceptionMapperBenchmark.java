@@ -0,0 +1,55 @@
+package com.bancario.transaction.exception;
+
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.UriInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Construcción de la respuesta de error (ApiError + Response) para un fallo de negocio y uno genérico.
+ * Está en el paquete del mapper para poder inyectar el UriInfo (campo de paquete).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GlobalExceptionMapperBenchmark {
+
+    private GlobalExceptionMapper mapper;
+    private Exception insufficientFunds;
+    private Exception unexpected;
+
+    @Setup
+    public void setUp() {
+        mapper = new GlobalExceptionMapper();
+        mapper.uriInfo = (UriInfo) Proxy.newProxyInstance(
+                UriInfo.class.getClassLoader(),
+                new Class<?>[]{UriInfo.class},
+                (proxy, method, args) -> "getPath".equals(method.getName()) ? "/transactions/withdrawal" : null);
+        insufficientFunds = new InsufficientFundsException("Insufficient funds. Cannot withdraw 102.50.");
+        unexpected = new IllegalStateException("Core banking transaction failed.");
+    }
+
+    @Benchmark
+    public Response insufficientFunds() {
+        return mapper.toResponse(insufficientFunds);
+    }
+
+    @Benchmark
+    public Response unexpectedFailure() {
+        return mapper.toResponse(unexpected);
+    }
+}
@@ -0,0 +1,349 @@
+package com.bancario.transaction.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Prueba de carga de lazo abierto contra los endpoints de TransactionResource, con el servicio
+ * arrancado en el perfil 'loadtest' (Account-Service sustituido por el stub en proceso).
+ * <p>
+ * Cada escenario fija la degradación del stub (latencia, jitter, errores), envía peticiones a una
+ * tasa constante durante el tiempo indicado y reporta, por tipo de operación, p50/p95/p99/p999 y la
+ * distribución de códigos HTTP: 503 corresponde a @Fallback (timeout o circuito abierto).
+ * La latencia se mide desde el instante PLANIFICADO de cada petición, no desde su envío real,
+ * para no ocultar las esperas cuando el servicio se satura (coordinated omission).
+ * <p>
+ * Uso (argumentos clave=valor, todos opcionales):
+ * <pre>
+ * java -cp target/benchmarks.jar com.bancario.transaction.loadtest.LoadTestRunner \
+ *      baseUrl=http://localhost:8082 rate=200 durationSeconds=30 accounts=1000 \
+ *      mix=deposit:40,withdrawal:30,transfer:10,history:20 scenarios=baseline,slow,failing,recovery
+ * </pre>
+ * Tras cada escenario se muestran también las llamadas que recibió el Account-Service (stub) por
+ * operación y por petición. Para comparar el micro-batching de búsquedas, se repite la misma carga
+ * con el servicio arrancado con -Dtransaction-service.account-batching.enabled=false y =true, p. ej.
+ * {@code mix=transfer:100 accounts=100000 scenarios=baseline,slow} (muchas cuentas: más fallos de caché).
+ */
+public final class LoadTestRunner {
+
+    /** Degradación del stub por escenario: {latencyMs, jitterMs, errorRate}. */
+    private static final Map<String, double[]> SCENARIOS = new LinkedHashMap<>();
+
+    static {
+        SCENARIOS.put("baseline", new double[]{0, 0, 0});
+        // Depósitos/retiros hacen dos llamadas seguidas: con 400-900 ms cada una, parte supera el @Timeout de 1000 ms.
+        SCENARIOS.put("slow", new double[]{400, 500, 0});
+        // Suficientes fallos para superar failureRatio=0.6 y abrir los Circuit Breakers.
+        SCENARIOS.put("failing", new double[]{0, 0, 0.7});
+        // Sin degradación: muestra el paso por HALF_OPEN hasta cerrar los circuitos.
+        SCENARIOS.put("recovery", new double[]{0, 0, 0});
+    }
+
+    private static final int MAX_IN_FLIGHT = 20_000;
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final String baseUrl;
+    private final int accounts;
+
+    private LoadTestRunner(String baseUrl, int accounts) {
+        this.baseUrl = baseUrl;
+        this.accounts = accounts;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator > 0) {
+                options.put(arg.substring(0, separator), arg.substring(separator + 1));
+            }
+        }
+        String baseUrl = options.getOrDefault("baseUrl", "http://localhost:8082");
+        int rate = Integer.parseInt(options.getOrDefault("rate", "200"));
+        int durationSeconds = Integer.parseInt(options.getOrDefault("durationSeconds", "30"));
+        int accounts = Integer.parseInt(options.getOrDefault("accounts", "1000"));
+        Map<Workload, Integer> mix = parseMix(options.getOrDefault("mix", "deposit:40,withdrawal:30,transfer:10,history:20"));
+        List<String> scenarios = Arrays.asList(options.getOrDefault("scenarios", String.join(",", SCENARIOS.keySet())).split(","));
+
+        LoadTestRunner runner = new LoadTestRunner(baseUrl, accounts);
+        runner.seed();
+        for (String scenario : scenarios) {
+            double[] faults = SCENARIOS.get(scenario);
+            if (faults == null) {
+                throw new IllegalArgumentException("Unknown scenario: " + scenario + ". Available: " + SCENARIOS.keySet());
+            }
+            runner.setFaults(faults);
+            runner.resetAccountServiceCalls();
+            Map<Workload, Stats> results = runner.run(mix, rate, durationSeconds);
+            print(scenario, faults, rate, durationSeconds, results);
+            runner.printServerSnapshot(results, durationSeconds);
+            runner.printAccountServiceCalls(results);
+        }
+        runner.setFaults(SCENARIOS.get("baseline"));
+    }
+
+    private void seed() throws Exception {
+        send(HttpRequest.newBuilder(URI.create(baseUrl + "/stub/accounts/_seed?count=" + accounts))
+                .POST(HttpRequest.BodyPublishers.noBody()).build());
+    }
+
+    private void setFaults(double[] faults) throws Exception {
+        String body = String.format(Locale.ROOT, "{\"latencyMs\":%d,\"jitterMs\":%d,\"errorRate\":%.3f}",
+                (long) faults[0], (long) faults[1], faults[2]);
+        send(HttpRequest.newBuilder(URI.create(baseUrl + "/stub/accounts/_faults"))
+                .header("Content-Type", "application/json")
+                .PUT(HttpRequest.BodyPublishers.ofString(body)).build());
+    }
+
+    private void resetAccountServiceCalls() throws Exception {
+        send(HttpRequest.newBuilder(URI.create(baseUrl + "/stub/accounts/_calls")).DELETE().build());
+    }
+
+    /**
+     * Llamadas recibidas por el stub durante el escenario, por operación y por petición enviada
+     * (p. ej. getAccountByNumber frente a getAccountsByNumbers con el micro-batching activo).
+     */
+    private void printAccountServiceCalls(Map<Workload, Stats> results) {
+        int requests = results.values().stream().mapToInt(Stats::count).sum();
+        try {
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/stub/accounts/_calls")).GET().build(),
+                    HttpResponse.BodyHandlers.ofString());
+            // Respuesta plana {"operacion":n,...}: no hace falta un parser JSON.
+            Map<String, Long> calls = new LinkedHashMap<>();
+            for (String entry : response.body().replaceAll("[{}\"\\s]", "").split(",")) {
+                int separator = entry.indexOf(':');
+                if (separator > 0) {
+                    calls.put(entry.substring(0, separator), Long.parseLong(entry.substring(separator + 1)));
+                }
+            }
+            long total = calls.values().stream().mapToLong(Long::longValue).sum();
+            System.out.printf(Locale.ROOT, "account-service: %d calls (%.2f per request) %s%n",
+                    total, requests > 0 ? (double) total / requests : 0, calls);
+        } catch (Exception e) {
+            System.out.println("account-service: calls unavailable (" + e.getMessage() + ")");
+        }
+    }
+
+    private void send(HttpRequest request) throws Exception {
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 300) {
+            throw new IllegalStateException("Stub call " + request.uri() + " failed with " + response.statusCode()
+                    + ". Is the service running with -Dquarkus.profile=loadtest?");
+        }
+    }
+
+    private Map<Workload, Stats> run(Map<Workload, Integer> mix, int rate, int durationSeconds) throws Exception {
+        Map<Workload, Stats> results = new ConcurrentHashMap<>();
+        mix.keySet().forEach(workload -> results.put(workload, new Stats()));
+        Workload[] schedule = weightedSchedule(mix);
+
+        long total = (long) rate * durationSeconds;
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        AtomicInteger inFlight = new AtomicInteger();
+        LongAdder dropped = new LongAdder();
+        List<CompletableFuture<?>> pending = new ArrayList<>();
+        long start = System.nanoTime();
+
+        for (long i = 0; i < total; i++) {
+            long intended = start + i * intervalNanos;
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Workload workload = schedule[(int) (i % schedule.length)];
+            Stats stats = results.get(workload);
+            if (inFlight.get() >= MAX_IN_FLIGHT) {
+                dropped.increment();
+                stats.record(intended, -1);
+                continue;
+            }
+            inFlight.incrementAndGet();
+            CompletableFuture<?> call = client.sendAsync(workload.request(this), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, failure) -> {
+                        inFlight.decrementAndGet();
+                        stats.record(intended, failure != null ? -1 : response.statusCode());
+                    });
+            pending.add(call);
+            if (pending.size() > 4096) {
+                pending.removeIf(CompletableFuture::isDone);
+            }
+        }
+        CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new)).exceptionally(ignored -> null)
+                .get(60, TimeUnit.SECONDS);
+        if (dropped.sum() > 0) {
+            System.out.printf("  %d requests not sent: more than %d in flight%n", dropped.sum(), MAX_IN_FLIGHT);
+        }
+        return results;
+    }
+
+    private String randomAccountSuffix() {
+        return String.format("%06d", ThreadLocalRandom.current().nextInt(1, accounts + 1));
+    }
+
+    private static Workload[] weightedSchedule(Map<Workload, Integer> mix) {
+        List<Workload> slots = new ArrayList<>();
+        mix.forEach((workload, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                slots.add(workload);
+            }
+        });
+        // Se intercalan para que la mezcla sea uniforme dentro de cada segundo.
+        Collections.shuffle(slots, new Random(42));
+        return slots.toArray(Workload[]::new);
+    }
+
+    private static Map<Workload, Integer> parseMix(String mix) {
+        Map<Workload, Integer> weights = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.split(":");
+            weights.put(Workload.valueOf(parts[0].trim().toUpperCase(Locale.ROOT)), Integer.parseInt(parts[1].trim()));
+        }
+        return weights;
+    }
+
+    private static void print(String scenario, double[] faults, int rate, int durationSeconds, Map<Workload, Stats> results) {
+        System.out.printf(Locale.ROOT, "%n=== %s (stub latency %.0f ms + jitter %.0f ms, error rate %.0f%%) | %d req/s x %d s ===%n",
+                scenario, faults[0], faults[1], faults[2] * 100, rate, durationSeconds);
+        System.out.printf("%-11s %7s %7s %6s %6s %6s %6s %9s %9s %9s %9s %9s%n",
+                "workload", "count", "2xx", "4xx", "500", "503", "error", "p50 ms", "p95 ms", "p99 ms", "p999 ms", "max ms");
+        results.forEach((workload, stats) -> stats.print(workload.name().toLowerCase(Locale.ROOT)));
+    }
+
+    /**
+     * Throughput efectivo (respuestas 2xx por segundo) y memoria/hilos del servicio al terminar el
+     * escenario, leídos de /q/metrics. Sirve para comparar los modos de ejecución (reactive vs
+     * virtual-threads) con la misma carga.
+     */
+    private void printServerSnapshot(Map<Workload, Stats> results, int durationSeconds) {
+        int successes = results.values().stream().mapToInt(Stats::successes).sum();
+        System.out.printf(Locale.ROOT, "throughput: %.1f ok/s%n", (double) successes / durationSeconds);
+        try {
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/q/metrics")).GET().build(),
+                    HttpResponse.BodyHandlers.ofString());
+            String metrics = response.body();
+            System.out.printf(Locale.ROOT, "server: heap used %.1f MB, live platform threads %.0f, process cpu %.0f%%%n",
+                    sumMetric(metrics, "jvm_memory_used_bytes{area=\"heap\"") / (1024 * 1024),
+                    sumMetric(metrics, "jvm_threads_live_threads"),
+                    sumMetric(metrics, "process_cpu_usage") * 100);
+        } catch (Exception e) {
+            System.out.println("server: metrics unavailable (" + e.getMessage() + ")");
+        }
+    }
+
+    private static double sumMetric(String metrics, String prefix) {
+        return metrics.lines()
+                .filter(line -> line.startsWith(prefix))
+                .mapToDouble(line -> Double.parseDouble(line.substring(line.lastIndexOf(' ') + 1)))
+                .sum();
+    }
+
+    private enum Workload {
+        DEPOSIT {
+            @Override
+            HttpRequest request(LoadTestRunner runner) {
+                String suffix = runner.randomAccountSuffix();
+                return runner.post("/transactions/deposit", String.format(
+                        "{\"accountId\":\"acc-%s\",\"customerId\":\"cust-%s\",\"amount\":10.00,\"description\":\"load test\"}", suffix, suffix));
+            }
+        },
+        WITHDRAWAL {
+            @Override
+            HttpRequest request(LoadTestRunner runner) {
+                String suffix = runner.randomAccountSuffix();
+                return runner.post("/transactions/withdrawal", String.format(
+                        "{\"accountId\":\"acc-%s\",\"customerId\":\"cust-%s\",\"amount\":5.00,\"description\":\"load test\"}", suffix, suffix));
+            }
+        },
+        TRANSFER {
+            @Override
+            HttpRequest request(LoadTestRunner runner) {
+                return runner.post("/transactions/transfers", String.format(
+                        "{\"sourceAccountNumber\":\"num-%s\",\"targetAccountNumber\":\"num-%s\",\"amount\":1.00,\"description\":\"load test\"}",
+                        runner.randomAccountSuffix(), runner.randomAccountSuffix()));
+            }
+        },
+        HISTORY {
+            @Override
+            HttpRequest request(LoadTestRunner runner) {
+                return HttpRequest.newBuilder(URI.create(runner.baseUrl + "/transactions/history?limit=20&accountId=acc-"
+                                + runner.randomAccountSuffix()))
+                        .timeout(Duration.ofSeconds(10))
+                        .GET().build();
+            }
+        };
+
+        abstract HttpRequest request(LoadTestRunner runner);
+    }
+
+    private HttpRequest post(String path, String body) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(10))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    /** Latencias (ns, desde el instante planificado) y códigos de respuesta de un tipo de operación. */
+    private static final class Stats {
+        private long[] latencies = new long[1024];
+        private int count;
+        private final Map<String, Integer> statuses = new LinkedHashMap<>();
+
+        synchronized void record(long intendedNanos, int status) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = System.nanoTime() - intendedNanos;
+            String bucket = status < 0 ? "error"
+                    : status < 300 ? "2xx"
+                    : status == 500 || status == 503 ? String.valueOf(status)
+                    : status < 500 ? "4xx" : "error";
+            statuses.merge(bucket, 1, Integer::sum);
+        }
+
+        synchronized int count() {
+            return count;
+        }
+
+        synchronized int successes() {
+            return statuses.getOrDefault("2xx", 0);
+        }
+
+        synchronized void print(String name) {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            System.out.printf(Locale.ROOT, "%-11s %7d %7d %6d %6d %6d %6d %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+                    name, count,
+                    statuses.getOrDefault("2xx", 0), statuses.getOrDefault("4xx", 0),
+                    statuses.getOrDefault("500", 0), statuses.getOrDefault("503", 0), statuses.getOrDefault("error", 0),
+                    percentile(sorted, 0.50), percentile(sorted, 0.95), percentile(sorted, 0.99), percentile(sorted, 0.999),
+                    sorted.length > 0 ? sorted[sorted.length - 1] / 1e6 : 0);
+        }
+
+        private static double percentile(long[] sorted, double percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile * sorted.length) - 1;
+            return sorted[Math.max(index, 0)] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.bancario.transaction.client;
+
+import com.bancario.transaction.dto.AccountResponse;
+import com.bancario.transaction.metrics.TransactionMetrics;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.smallrye.mutiny.Uni;
+import io.vertx.core.Vertx;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.NotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.rest.client.inject.RestClient;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Micro-batching (estilo DataLoader) de las búsquedas de cuentas.
+ * <p>
+ * Las búsquedas de distintas claves que llegan dentro de una ventana corta (o hasta completar
+ * el tamaño máximo de lote) se resuelven con UNA llamada masiva al Account-Service
+ * (GET /accounts?ids=... o GET /accounts/by-number?numbers=...), y el resultado se reparte a
+ * cada Uni en espera. Las claves repetidas dentro de un lote se consultan una sola vez.
+ */
+@Slf4j
+@ApplicationScoped
+public class AccountLookupBatcher {
+
+    @Inject
+    @RestClient
+    AccountServiceRestClient accountServiceRestClient;
+
+    @Inject
+    Vertx vertx;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @Inject
+    TransactionMetrics transactionMetrics;
+
+    @ConfigProperty(name = "transaction-service.account-batching.window-ms", defaultValue = "5")
+    long windowMs;
+
+    @ConfigProperty(name = "transaction-service.account-batching.max-batch-size", defaultValue = "50")
+    int maxBatchSize;
+
+    private Batch byId;
+    private Batch byNumber;
+
+    @PostConstruct
+    void init() {
+        byId = new Batch("id",
+                ids -> transactionMetrics.accountCall("getAccountsByIds",
+                        accountServiceRestClient.getAccountsByIds(String.join(",", ids))),
+                AccountResponse::id);
+        byNumber = new Batch("number",
+                numbers -> transactionMetrics.accountCall("getAccountsByNumbers",
+                        accountServiceRestClient.getAccountsByNumbers(String.join(",", numbers))),
+                AccountResponse::accountNumber);
+    }
+
+    public Uni<AccountResponse> getAccountById(String accountId) {
+        return byId.load(accountId);
+    }
+
+    public Uni<AccountResponse> getAccountByNumber(String accountNumber) {
+        return byNumber.load(accountNumber);
+    }
+
+    /** Lote en construcción para un tipo de clave (ID o número de cuenta). */
+    private final class Batch {
+
+        private final String keyType;
+        private final Function<List<String>, Uni<List<AccountResponse>>> bulkLoader;
+        private final Function<AccountResponse, String> keyOf;
+        private final DistributionSummary batchSizes;
+
+        private Map<String, List<CompletableFuture<AccountResponse>>> pending = new LinkedHashMap<>();
+        private long timerId = -1;
+
+        private Batch(String keyType,
+                      Function<List<String>, Uni<List<AccountResponse>>> bulkLoader,
+                      Function<AccountResponse, String> keyOf) {
+            this.keyType = keyType;
+            this.bulkLoader = bulkLoader;
+            this.keyOf = keyOf;
+            this.batchSizes = DistributionSummary.builder("account.lookup.batch.size")
+                    .description("Claves distintas resueltas por cada llamada masiva al Account-Service")
+                    .tag("key", keyType)
+                    .register(meterRegistry);
+        }
+
+        Uni<AccountResponse> load(String key) {
+            return Uni.createFrom().deferred(() -> {
+                CompletableFuture<AccountResponse> result = new CompletableFuture<>();
+                Map<String, List<CompletableFuture<AccountResponse>>> ready = null;
+
+                synchronized (this) {
+                    pending.computeIfAbsent(key, k -> new ArrayList<>(1)).add(result);
+                    if (pending.size() >= maxBatchSize) {
+                        ready = drain();
+                    } else if (timerId < 0) {
+                        timerId = vertx.setTimer(windowMs, this::onWindowElapsed);
+                    }
+                }
+
+                if (ready != null) {
+                    dispatch(ready);
+                }
+                return Uni.createFrom().completionStage(result);
+            });
+        }
+
+        private void onWindowElapsed(long firedTimerId) {
+            Map<String, List<CompletableFuture<AccountResponse>>> ready;
+            synchronized (this) {
+                // El lote ya se despachó por tamaño y este temporizador quedó obsoleto.
+                if (firedTimerId != timerId) {
+                    return;
+                }
+                ready = drain();
+            }
+            dispatch(ready);
+        }
+
+        // Debe llamarse con el monitor tomado.
+        private Map<String, List<CompletableFuture<AccountResponse>>> drain() {
+            if (timerId >= 0) {
+                vertx.cancelTimer(timerId);
+                timerId = -1;
+            }
+            Map<String, List<CompletableFuture<AccountResponse>>> ready = pending;
+            pending = new LinkedHashMap<>();
+            return ready;
+        }
+
+        private void dispatch(Map<String, List<CompletableFuture<AccountResponse>>> batch) {
+            if (batch.isEmpty()) {
+                return;
+            }
+            List<String> keys = new ArrayList<>(batch.keySet());
+            batchSizes.record(keys.size());
+            log.debug("Búsqueda masiva por {} de {} cuentas", keyType, keys.size());
+
+            bulkLoader.apply(keys).subscribe().with(
+                    accounts -> {
+                        Map<String, AccountResponse> found = new HashMap<>();
+                        if (accounts != null) {
+                            accounts.forEach(account -> found.put(keyOf.apply(account), account));
+                        }
+                        batch.forEach((key, waiters) -> {
+                            AccountResponse account = found.get(key);
+                            if (account == null) {
+                                NotFoundException notFound = new NotFoundException("Account not found with " + keyType + ": " + key);
+                                waiters.forEach(waiter -> waiter.completeExceptionally(notFound));
+                            } else {
+                                waiters.forEach(waiter -> waiter.complete(account));
+                            }
+                        });
+                    },
+                    failure -> {
+                        log.error("Fallo en búsqueda masiva por {} ({} cuentas): {}", keyType, keys.size(), failure.getMessage());
+                        batch.values().forEach(waiters -> waiters.forEach(waiter -> waiter.completeExceptionally(failure)));
+                    }
+            );
+        }
+    }
+}
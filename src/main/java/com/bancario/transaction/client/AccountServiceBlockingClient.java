@@ -0,0 +1,32 @@
+package com.bancario.transaction.client;
+
+import com.bancario.transaction.dto.AccountResponse;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.MediaType;
+import org.eclipse.microprofile.rest.client.inject.RegisterRestClient;
+
+/**
+ * Variante bloqueante de {@link AccountServiceRestClient} (mismo configKey y endpoints) para el modo
+ * de ejecución en hilos virtuales: cada llamada bloquea el hilo virtual, no un hilo de plataforma.
+ * Solo incluye las operaciones del camino transaccional.
+ */
+@RegisterRestClient(configKey = "account-service")
+@Path("/accounts")
+public interface AccountServiceBlockingClient {
+
+    @GET
+    @Path("/{accountId}")
+    @Produces(MediaType.APPLICATION_JSON)
+    AccountResponse getAccountById(@PathParam("accountId") String accountId);
+
+    @PUT
+    @Path("/{accountId}/update-balance")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    AccountResponse updateAccountBalance(@PathParam("accountId") String accountId, AccountResponse accountResponse);
+
+    @GET
+    @Path("/by-number/{accountNumber}")
+    @Produces(MediaType.APPLICATION_JSON)
+    AccountResponse getAccountByNumber(@PathParam("accountNumber") String accountNumber);
+}
@@ -5,8 +5,11 @@ import com.bancario.transaction.dto.AccountTransactionStatus;
 import io.smallrye.mutiny.Uni;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.MediaType;
+import org.eclipse.microprofile.faulttolerance.CircuitBreaker;
 import org.eclipse.microprofile.rest.client.inject.RegisterRestClient;
 
+import java.util.List;
+
 @RegisterRestClient(configKey = "account-service")
 @Path("/accounts")
 public interface AccountServiceRestClient {
@@ -14,6 +17,7 @@ public interface AccountServiceRestClient {
     @GET
     @Path("/{accountId}")
     @Produces(MediaType.APPLICATION_JSON)
+    @CircuitBreaker
     Uni<AccountResponse> getAccountById(@PathParam("accountId") String accountId);
 
     @PUT
@@ -28,6 +32,7 @@ public interface AccountServiceRestClient {
      */
     @GET
     @Path("/{accountId}/transaction-status")
+    @CircuitBreaker
     Uni<AccountTransactionStatus> getTransactionStatus(@PathParam("accountId") String accountId);
 
     /**
@@ -38,6 +43,14 @@ public interface AccountServiceRestClient {
     @Path("/{accountId}/increment-transactions")
     Uni<Void> incrementTransactions(@PathParam("accountId") String accountId);
 
+    /**
+     * Llama al PATCH /accounts/{accountId}/increment-transactions?count=N
+     * Aplica en una sola llamada el incremento acumulado (delta) de varias operaciones.
+     */
+    @PATCH
+    @Path("/{accountId}/increment-transactions")
+    Uni<Void> incrementTransactionsBy(@PathParam("accountId") String accountId, @QueryParam("count") int count);
+
     /**
      * Obtiene los detalles de una cuenta usando su número de cuenta.
      * Utilizado para resolver IDs y validar cuentas de origen/destino en transferencias.
@@ -47,5 +60,26 @@ public interface AccountServiceRestClient {
     @GET
     @Path("/by-number/{accountNumber}")
     @Produces(MediaType.APPLICATION_JSON)
+    @CircuitBreaker
     Uni<AccountResponse> getAccountByNumber(@PathParam("accountNumber") String accountNumber);
+
+    /**
+     * Llama al GET /accounts?ids=id1,id2,...
+     * Consulta masiva usada por el micro-batching de búsquedas (AccountLookupBatcher).
+     * Las cuentas inexistentes simplemente no aparecen en la respuesta.
+     */
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    @CircuitBreaker
+    Uni<List<AccountResponse>> getAccountsByIds(@QueryParam("ids") String ids);
+
+    /**
+     * Llama al GET /accounts/by-number?numbers=n1,n2,...
+     * Variante masiva de getAccountByNumber para el micro-batching de búsquedas.
+     */
+    @GET
+    @Path("/by-number")
+    @Produces(MediaType.APPLICATION_JSON)
+    @CircuitBreaker
+    Uni<List<AccountResponse>> getAccountsByNumbers(@QueryParam("numbers") String accountNumbers);
 }
\ No newline at end of file
@@ -0,0 +1,164 @@
+package com.bancario.transaction.client;
+
+import com.bancario.transaction.dto.AccountResponse;
+import com.bancario.transaction.dto.AccountTransactionStatus;
+import com.bancario.transaction.metrics.TransactionMetrics;
+import io.quarkus.cache.Cache;
+import io.quarkus.cache.CacheName;
+import io.quarkus.cache.CaffeineCache;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.faulttolerance.exceptions.CircuitBreakerOpenException;
+import org.eclipse.microprofile.rest.client.inject.RestClient;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Fachada con caché sobre {@link AccountServiceRestClient}.
+ * <p>
+ * - Las lecturas (por ID, por número y estado transaccional) se sirven desde cachés Caffeine
+ *   acotadas por tamaño y TTL. Las lecturas concurrentes de una misma clave que fallan en caché
+ *   se agrupan en una única llamada HTTP.
+ * - El AccountResponse devuelto por updateAccountBalance refresca las entradas (write-through).
+ * - Mientras el Circuit Breaker del cliente REST está abierto, se devuelve la última copia conocida
+ *   (stale) si existe.
+ * - Con transaction-service.account-batching.enabled=true, los fallos de caché por ID o por número
+ *   se agrupan en llamadas masivas mediante {@link AccountLookupBatcher}.
+ * <p>
+ * IMPORTANTE: el cálculo de saldo del Core NO debe usar la caché; para eso existe {@link #loadAccountById(String)}.
+ */
+@Slf4j
+@ApplicationScoped
+public class CachedAccountServiceClient {
+
+    private static final String ID_PREFIX = "id:";
+    private static final String NUMBER_PREFIX = "number:";
+    private static final String STATUS_PREFIX = "status:";
+
+    @Inject
+    @RestClient
+    AccountServiceRestClient accountServiceRestClient;
+
+    @Inject
+    @CacheName("account-by-id")
+    Cache accountsById;
+
+    @Inject
+    @CacheName("account-by-number")
+    Cache accountsByNumber;
+
+    @Inject
+    @CacheName("account-transaction-status")
+    Cache transactionStatuses;
+
+    @Inject
+    AccountLookupBatcher accountLookupBatcher;
+
+    @Inject
+    TransactionMetrics transactionMetrics;
+
+    @ConfigProperty(name = "transaction-service.account-batching.enabled", defaultValue = "false")
+    boolean batchingEnabled;
+
+    // Última copia conocida de cada entrada, con un TTL mayor, usada solo con el circuito abierto.
+    @Inject
+    @CacheName("account-stale")
+    Cache staleSnapshots;
+
+    public Uni<AccountResponse> getAccountById(String accountId) {
+        return accountsById.getAsync(accountId, id ->
+                withStaleFallback(ID_PREFIX + id, () -> batchingEnabled
+                        ? accountLookupBatcher.getAccountById(id)
+                        : transactionMetrics.accountCall("getAccountById", accountServiceRestClient.getAccountById(id))));
+    }
+
+    public Uni<AccountResponse> getAccountByNumber(String accountNumber) {
+        return accountsByNumber.getAsync(accountNumber, number ->
+                withStaleFallback(NUMBER_PREFIX + number, () -> batchingEnabled
+                        ? accountLookupBatcher.getAccountByNumber(number)
+                        : transactionMetrics.accountCall("getAccountByNumber", accountServiceRestClient.getAccountByNumber(number))));
+    }
+
+    public Uni<AccountTransactionStatus> getTransactionStatus(String accountId) {
+        return transactionStatuses.getAsync(accountId, id ->
+                withStaleFallback(STATUS_PREFIX + id, () -> transactionMetrics.accountCall("getTransactionStatus", accountServiceRestClient.getTransactionStatus(id))));
+    }
+
+    /**
+     * Lectura SIEMPRE contra el Account-Service (sin caché ni copia stale).
+     * Usada en los read-modify-write de saldo; el resultado refresca la caché.
+     */
+    public Uni<AccountResponse> loadAccountById(String accountId) {
+        return transactionMetrics.accountCall("getAccountById", accountServiceRestClient.getAccountById(accountId))
+                .onItem().ifNotNull().invoke(this::refresh);
+    }
+
+    /** Actualiza el saldo y refresca la caché con la respuesta del Account-Service (write-through). */
+    public Uni<AccountResponse> updateAccountBalance(String accountId, AccountResponse accountResponse) {
+        return transactionMetrics.accountCall("updateAccountBalance", accountServiceRestClient.updateAccountBalance(accountId, accountResponse))
+                .onItem().ifNotNull().invoke(this::refresh)
+                .onFailure().call(() -> invalidateAccount(accountId));
+    }
+
+    /** Incrementa el contador y descarta las entradas que dependen de él (tarificación). */
+    public Uni<Void> incrementTransactions(String accountId) {
+        return transactionMetrics.accountCall("incrementTransactions", accountServiceRestClient.incrementTransactions(accountId))
+                .call(() -> invalidateAccount(accountId));
+    }
+
+    /** Aplica un incremento acumulado del contador y descarta las entradas que dependen de él. */
+    public Uni<Void> incrementTransactionsBy(String accountId, int count) {
+        return transactionMetrics.accountCall("incrementTransactionsBy", accountServiceRestClient.incrementTransactionsBy(accountId, count))
+                .call(() -> invalidateAccount(accountId));
+    }
+
+    /**
+     * Descarta las entradas de la cuenta. Público para las escrituras que no pasan por esta fachada
+     * (cliente bloqueante de VirtualThreadTransactionServiceImpl).
+     */
+    public Uni<Void> invalidateAccount(String accountId) {
+        CompletableFuture<AccountResponse> cached = accountsById.as(CaffeineCache.class).getIfPresent(accountId);
+        Uni<Void> byNumber = Uni.createFrom().voidItem();
+        if (cached != null && cached.isDone() && !cached.isCompletedExceptionally()) {
+            AccountResponse account = cached.join();
+            if (account != null && account.accountNumber() != null) {
+                byNumber = accountsByNumber.invalidate(account.accountNumber());
+            }
+        }
+        return Uni.combine().all().unis(
+                accountsById.invalidate(accountId),
+                transactionStatuses.invalidate(accountId),
+                byNumber
+        ).discardItems();
+    }
+
+    private void refresh(AccountResponse account) {
+        put(accountsById, account.id(), account);
+        put(staleSnapshots, ID_PREFIX + account.id(), account);
+        if (account.accountNumber() != null) {
+            put(accountsByNumber, account.accountNumber(), account);
+            put(staleSnapshots, NUMBER_PREFIX + account.accountNumber(), account);
+        }
+    }
+
+    private <T> Uni<T> withStaleFallback(String staleKey, Supplier<Uni<T>> loader) {
+        return loader.get()
+                .onItem().ifNotNull().invoke(value -> put(staleSnapshots, staleKey, value))
+                .onFailure(CircuitBreakerOpenException.class).recoverWithUni(failure -> {
+                    CompletableFuture<T> stale = staleSnapshots.as(CaffeineCache.class).getIfPresent(staleKey);
+                    if (stale == null) {
+                        return Uni.createFrom().failure(failure);
+                    }
+                    log.warn("Circuit Breaker abierto hacia Account-Service. Sirviendo copia stale para {}", staleKey);
+                    return Uni.createFrom().completionStage(stale);
+                });
+    }
+
+    private static <T> void put(Cache cache, String key, T value) {
+        cache.as(CaffeineCache.class).put(key, CompletableFuture.completedFuture(value));
+    }
+}
@@ -0,0 +1,106 @@
+package com.bancario.transaction.client;
+
+import com.bancario.transaction.enums.SideEffectType;
+import com.bancario.transaction.service.SideEffectDispatcher;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import io.vertx.core.Vertx;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Acumula los incrementos del contador de transacciones por cuenta y los envía como deltas
+ * (PATCH /increment-transactions?count=N) una vez por ventana, en lugar de una llamada por operación.
+ * <p>
+ * Los envíos pasan por SideEffectDispatcher (cola y concurrencia acotadas, reintentos con jitter y
+ * dead-letter). Si la cola está llena, el delta se vuelve a sumar al pendiente de la cuenta y se
+ * intenta en la siguiente ventana: ante un Account-Service lento, lo acumulado crece por cuenta y no
+ * por operación. Al apagar el servicio se hace un último vaciado hacia el dispatcher.
+ */
+@Slf4j
+@ApplicationScoped
+public class TransactionCounterAggregator {
+
+    @Inject
+    CachedAccountServiceClient accountServiceClient;
+
+    @Inject
+    SideEffectDispatcher sideEffectDispatcher;
+
+    @Inject
+    Vertx vertx;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "transaction-service.counter-aggregation.window-ms", defaultValue = "1000")
+    long windowMs;
+
+    private final ConcurrentMap<String, Integer> pendingDeltas = new ConcurrentHashMap<>();
+    private Counter flushDeferred;
+    private long timerId = -1;
+
+    void onStart(@Observes StartupEvent event) {
+        Gauge.builder("account.counter.pending.deltas", pendingDeltas,
+                        deltas -> deltas.values().stream().mapToInt(Integer::intValue).sum())
+                .description("Incrementos de contador pendientes de enviar al Account-Service")
+                .register(meterRegistry);
+        Gauge.builder("account.counter.pending.accounts", pendingDeltas, Map::size)
+                .description("Cuentas con incrementos de contador pendientes")
+                .register(meterRegistry);
+        flushDeferred = Counter.builder("account.counter.flush.deferred")
+                .description("Deltas de contador aplazados a la siguiente ventana por cola de efectos llena")
+                .register(meterRegistry);
+
+        timerId = vertx.setPeriodic(windowMs, id -> flush());
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        if (timerId >= 0) {
+            vertx.cancelTimer(timerId);
+        }
+        log.info("Vaciando {} deltas de contador pendientes antes del apagado.", pendingDeltas.size());
+        flush();
+        if (!pendingDeltas.isEmpty()) {
+            log.warn("{} deltas de contador no cupieron en la cola de efectos y se pierden: {}", pendingDeltas.size(), pendingDeltas);
+        }
+    }
+
+    /** Registra una operación sobre la cuenta; el contador se actualizará en el próximo vaciado. */
+    public void increment(String accountId) {
+        pendingDeltas.merge(accountId, 1, Integer::sum);
+    }
+
+    /**
+     * Entrega los deltas acumulados al dispatcher de efectos secundarios. No espera a los envíos:
+     * los reintentos y la dead-letter quedan a cargo del dispatcher.
+     */
+    public void flush() {
+        for (String accountId : List.copyOf(pendingDeltas.keySet())) {
+            Integer delta = pendingDeltas.remove(accountId);
+            if (delta == null) {
+                continue;
+            }
+            boolean accepted = sideEffectDispatcher.dispatch(SideEffectType.ACCOUNT_COUNTER_INCREMENT, accountId, String.valueOf(delta),
+                    () -> accountServiceClient.incrementTransactionsBy(accountId, delta)
+                            .invoke(() -> log.debug("Contador incrementado en {} para cuenta: {}", delta, accountId)));
+            if (!accepted) {
+                // Cola llena: se devuelve el delta al acumulado y el resto espera a la siguiente ventana.
+                pendingDeltas.merge(accountId, delta, Integer::sum);
+                flushDeferred.increment();
+                return;
+            }
+        }
+    }
+}
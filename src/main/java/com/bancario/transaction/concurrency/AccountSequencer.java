@@ -0,0 +1,116 @@
+package com.bancario.transaction.concurrency;
+
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Serializa de forma NO bloqueante las operaciones que afectan a una misma cuenta.
+ * <p>
+ * Cada cuenta tiene una "cola" implícita: la operación que llega se encadena detrás de la
+ * anterior (mailbox por accountId) y solo se suscribe cuando ésta termina. Ningún hilo del
+ * event-loop se bloquea esperando su turno, y cuentas distintas nunca comparten cola, por lo
+ * que siguen ejecutándose en paralelo.
+ * <p>
+ * Cancelación (p. ej. @Timeout del llamador):
+ * - Si llega antes del turno, la operación no se ejecuta y el turno pasa al siguiente en orden.
+ * - Si la operación ya empezó, sigue hasta terminar desacoplada del llamador y el turno solo se
+ *   libera con su resultado o su fallo. Liberarlo antes dejaría entrar a la siguiente operación
+ *   mientras la escritura de saldo anterior sigue en vuelo (actualización perdida).
+ * <p>
+ * Las entradas del mapa se eliminan cuando la última operación de la cuenta termina, así que
+ * la memoria usada es proporcional a las cuentas con operaciones en curso.
+ */
+@Slf4j
+@ApplicationScoped
+public class AccountSequencer {
+
+    private final ConcurrentMap<String, CompletableFuture<Void>> tails = new ConcurrentHashMap<>();
+
+    /**
+     * Ejecuta la operación cuando hayan terminado todas las operaciones previas de la misma cuenta.
+     * La operación se construye de forma perezosa: el Supplier solo se invoca al llegar su turno.
+     *
+     * @param accountId La cuenta sobre la que se serializa.
+     * @param operation Proveedor del Uni a ejecutar en exclusiva para la cuenta.
+     * @return Uni que emite el resultado de la operación.
+     */
+    public <T> Uni<T> run(String accountId, Supplier<Uni<T>> operation) {
+        return run(accountId, operation, result -> Uni.createFrom().item(result));
+    }
+
+    /**
+     * Como {@link #run(String, Supplier)}, seguido de una continuación que ya NO ocupa el turno de la
+     * cuenta pero que, una vez ejecutada la operación, también termina aunque el llamador cancele.
+     * Sirve para lo que debe acompañar sin falta a un movimiento ya aplicado (registro local,
+     * segunda pata o compensación de una transferencia) sin alargar la sección serializada.
+     *
+     * @param accountId    La cuenta sobre la que se serializa.
+     * @param operation    Proveedor del Uni a ejecutar en exclusiva para la cuenta.
+     * @param continuation Paso posterior, con el resultado de la operación, fuera del turno.
+     * @return Uni que emite el resultado de la continuación.
+     */
+    public <T, R> Uni<R> run(String accountId, Supplier<Uni<T>> operation, Function<T, Uni<R>> continuation) {
+        return Uni.createFrom().deferred(() -> {
+            CompletableFuture<Void> released = new CompletableFuture<>();
+            CompletableFuture<Void> previous = tails.put(accountId, released);
+
+            Uni<Void> turn = previous == null
+                    ? Uni.createFrom().voidItem()
+                    : Uni.createFrom().completionStage(previous);
+
+            AtomicBoolean cancelled = new AtomicBoolean();
+            AtomicBoolean started = new AtomicBoolean();
+
+            // La cadena se suscribe aquí y no a través del llamador: su cancelación no la interrumpe
+            // (ni cancela el 'previous' de otra operación, que solo debe completarse al liberar su turno).
+            CompletableFuture<R> outcome = turn
+                    .onItem().transformToUni(ignored -> {
+                        if (cancelled.get()) {
+                            return Uni.createFrom().<T>nullItem();
+                        }
+                        started.set(true);
+                        return operation.get();
+                    })
+                    .onTermination().invoke(() -> complete(accountId, released))
+                    .onItem().transformToUni(item -> started.get()
+                            ? continuation.apply(item)
+                            : Uni.createFrom().<R>nullItem())
+                    .onTermination().invoke((item, failure, ignored) -> {
+                        if (cancelled.get() && started.get()) {
+                            log.warn("Operación sobre la cuenta {} cancelada por el llamador; terminó igualmente en segundo plano ({}).",
+                                    accountId, failure == null ? "aplicada" : "fallo: " + failure.getMessage());
+                        }
+                    })
+                    .subscribeAsCompletionStage();
+
+            return Uni.createFrom().<R>emitter(emitter -> outcome.whenComplete((item, failure) -> {
+                        if (failure != null) {
+                            emitter.fail(failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure);
+                        } else {
+                            emitter.complete(item);
+                        }
+                    }))
+                    .onCancellation().invoke(() -> cancelled.set(true));
+        });
+    }
+
+    /** Número de cuentas con operaciones en curso o en espera. */
+    public int activeAccounts() {
+        return tails.size();
+    }
+
+    private void complete(String accountId, CompletableFuture<Void> released) {
+        tails.remove(accountId, released);
+        released.complete(null);
+        log.trace("Turno liberado para cuenta: {}", accountId);
+    }
+}
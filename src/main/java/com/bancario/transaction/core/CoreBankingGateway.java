@@ -0,0 +1,53 @@
+package com.bancario.transaction.core;
+
+import com.bancario.transaction.dto.AccountResponse;
+import com.bancario.transaction.dto.CoreTransactionResult;
+import com.bancario.transaction.enums.TransactionType;
+import com.bancario.transaction.money.Money;
+import io.smallrye.mutiny.Uni;
+
+/**
+ * Punto de integración con el Core bancario: aplica el movimiento de saldo de una operación.
+ * <p>
+ * Implementaciones (propiedad de build transaction-service.core.gateway):
+ * - rest (por defecto): {@link RestSimulatedCoreBankingGateway}, simulación sobre el Account-Service.
+ * - embedded-ledger: {@link EmbeddedLedgerCoreBankingGateway}, ledger en memoria con asientos en Mongo.
+ * <p>
+ * Los llamadores invocan post() dentro del turno de la cuenta (AccountSequencer): las
+ * implementaciones pueden asumir que no hay dos movimientos simultáneos sobre la misma cuenta.
+ */
+public interface CoreBankingGateway {
+
+    /**
+     * Aplica un movimiento sobre la cuenta.
+     *
+     * @param account   Cuenta cargada dentro del turno (saldo vigente en el Account-Service si
+     *                  {@link #requiresFreshAccount()}; si no, puede venir de la caché).
+     * @param netAmount Importe neto: positivo para abonos, negativo para débitos (monto + comisión).
+     * @param fee       Comisión incluida en el movimiento (informativa).
+     * @param type      Tipo de operación; en WITHDRAWAL el saldo resultante no puede ser negativo.
+     * @return Uni con la referencia del Core y el saldo final.
+     * @throws com.bancario.transaction.exception.InsufficientFundsException (como fallo del Uni) si un
+     *         débito deja el saldo en negativo.
+     */
+    Uni<CoreTransactionResult> post(AccountResponse account, Money netAmount, Money fee, TransactionType type);
+
+    /**
+     * Aplica un pago o un consumo sobre la línea de crédito (amountUsed) de un producto activo.
+     *
+     * @param updatedAccount Cuenta cargada dentro del turno con amountUsed ya recalculado.
+     * @param type           PAYMENT o CONSUMPTION.
+     * @return Uni con la referencia del Core y el saldo final.
+     * @throws IllegalArgumentException (como fallo del Uni) si el Core no gestiona líneas de crédito.
+     */
+    Uni<CoreTransactionResult> postCredit(AccountResponse updatedAccount, TransactionType type);
+
+    /**
+     * Indica si post() necesita la cuenta leída del Account-Service sin caché dentro del turno, porque
+     * calcula el nuevo saldo a partir de ella. Un Core que lleva su propio saldo devuelve false y los
+     * llamadores le pasan la cuenta ya cargada (con caché), sin otra lectura.
+     */
+    default boolean requiresFreshAccount() {
+        return true;
+    }
+}
@@ -0,0 +1,167 @@
+package com.bancario.transaction.core;
+
+import com.bancario.transaction.dto.AccountResponse;
+import com.bancario.transaction.dto.CoreTransactionResult;
+import com.bancario.transaction.enums.TransactionType;
+import com.bancario.transaction.exception.InsufficientFundsException;
+import com.bancario.transaction.metrics.TransactionMetrics;
+import com.bancario.transaction.money.Money;
+import com.bancario.transaction.repository.LedgerEntryRepository;
+import com.bancario.transaction.repository.entity.LedgerEntry;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.arc.properties.IfBuildProperty;
+import io.quarkus.runtime.StartupEvent;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Core embebido: saldos por cuenta en memoria con débito/abono atómico y asientos en 'ledger_entries'.
+ * <p>
+ * - El saldo de una cuenta se inicializa la primera vez que se usa: desde su último asiento si existe
+ *   (reinicio del servicio) o, si no, desde el saldo que informa el Account-Service.
+ * - El movimiento se aplica en memoria (con el control de saldo insuficiente) y, con durable=true,
+ *   la operación solo se confirma cuando Mongo guarda el asiento. Si el asiento falla, se deshace.
+ * - El saldo del ledger es el autoritativo para débitos y abonos: el gateway no llama al Account-Service y,
+ *   como {@link #requiresFreshAccount()} es false, los llamadores solo leen la cuenta con caché (para validar
+ *   y tarificar; su saldo únicamente abre el ledger de una cuenta sin asientos).
+ * - Pagos y consumos (línea de crédito) se rechazan: el ledger no lleva amountUsed.
+ * <p>
+ * Pensado para pruebas funcionales y de carga sin servicio externo y como referencia de la latencia
+ * mínima del Core.
+ */
+@Slf4j
+@ApplicationScoped
+@IfBuildProperty(name = "transaction-service.core.gateway", stringValue = "embedded-ledger")
+public class EmbeddedLedgerCoreBankingGateway implements CoreBankingGateway {
+
+    @Inject
+    LedgerEntryRepository ledgerEntryRepository;
+
+    @Inject
+    TransactionMetrics transactionMetrics;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "transaction-service.core.ledger.durable", defaultValue = "true")
+    boolean durable;
+
+    private final ConcurrentMap<String, AccountLedger> ledgers = new ConcurrentHashMap<>();
+
+    void onStart(@Observes StartupEvent event) {
+        Gauge.builder("core.ledger.accounts", ledgers, Map::size)
+                .description("Cuentas con saldo cargado en el ledger embebido")
+                .register(meterRegistry);
+        if (!durable) {
+            log.warn("LEDGER | Asientos sin persistir (transaction-service.core.ledger.durable=false): los saldos se pierden al reiniciar.");
+            return;
+        }
+        ledgerEntryRepository.ensureIndexes().subscribe().with(
+                ignored -> log.info("LEDGER | Índices de 'ledger_entries' verificados."),
+                failure -> log.error("LEDGER | No se pudieron crear los índices de 'ledger_entries': {}", failure.getMessage()));
+    }
+
+    @Override
+    public Uni<CoreTransactionResult> post(AccountResponse account, Money netAmount, Money fee, TransactionType type) {
+        return ledgerFor(account)
+                .onItem().transformToUni(ledger -> {
+                    // Débito/abono atómico en memoria (lanza InsufficientFundsException sin modificar el saldo).
+                    Posting posting = ledger.apply(netAmount, type);
+                    CoreTransactionResult result = new CoreTransactionResult(posting.id(), true, posting.balanceAfter().toBigDecimal());
+                    if (!durable) {
+                        return Uni.createFrom().item(result);
+                    }
+
+                    LedgerEntry entry = new LedgerEntry();
+                    entry.setId(posting.id());
+                    entry.setAccountId(account.id());
+                    entry.setTransactionType(type);
+                    entry.setNetAmount(netAmount);
+                    entry.setFee(fee);
+                    entry.setBalanceAfter(posting.balanceAfter());
+                    entry.setSequence(posting.sequence());
+                    entry.setCreatedAt(Instant.now());
+
+                    return transactionMetrics.stage(type, "ledger.append", ledgerEntryRepository.persist(entry))
+                            .replaceWith(result)
+                            .onFailure().invoke(failure -> ledger.revert(posting, netAmount))
+                            .onFailure().transform(e -> new RuntimeException("Fallo al registrar el asiento en el ledger: " + e.getMessage(), e));
+                });
+    }
+
+    /**
+     * El ledger solo lleva saldos: un pago o consumo no puede escribir amountUsed en el Account-Service
+     * sin que ese PUT pise el saldo que el ledger lleva aparte. Se rechaza sin mover nada.
+     */
+    @Override
+    public Uni<CoreTransactionResult> postCredit(AccountResponse updatedAccount, TransactionType type) {
+        return Uni.createFrom().failure(new IllegalArgumentException(
+                type + " is not supported by the embedded ledger core (transaction-service.core.gateway=embedded-ledger)."));
+    }
+
+    /** El movimiento no depende del saldo del Account-Service: basta la cuenta leída con caché. */
+    @Override
+    public boolean requiresFreshAccount() {
+        return false;
+    }
+
+    /** Saldo en memoria de la cuenta; se inicializa desde su último asiento o desde el Account-Service. */
+    private Uni<AccountLedger> ledgerFor(AccountResponse account) {
+        AccountLedger existing = ledgers.get(account.id());
+        if (existing != null) {
+            return Uni.createFrom().item(existing);
+        }
+        if (!durable) {
+            return Uni.createFrom().item(ledgers.computeIfAbsent(account.id(),
+                    id -> new AccountLedger(Money.fromExternal(account.balance()), 0)));
+        }
+        return ledgerEntryRepository.findLatest(account.id())
+                .onItem().transform(latest -> ledgers.computeIfAbsent(account.id(), id -> latest != null
+                        ? new AccountLedger(latest.getBalanceAfter(), latest.getSequence())
+                        : new AccountLedger(Money.fromExternal(account.balance()), 0)));
+    }
+
+    /** Movimiento aplicado en memoria, pendiente (o no) de su asiento. */
+    private record Posting(String id, long sequence, Money balanceAfter) {}
+
+    /** Saldo y secuencia de asientos de una cuenta; cada método es atómico para la cuenta. */
+    private static final class AccountLedger {
+
+        private Money balance;
+        private long sequence;
+
+        AccountLedger(Money openingBalance, long sequence) {
+            this.balance = openingBalance;
+            this.sequence = sequence;
+        }
+
+        synchronized Posting apply(Money netAmount, TransactionType type) {
+            Money newBalance = balance.add(netAmount); // netAmount ya es positivo para depósito, negativo para retiro
+            if (type == TransactionType.WITHDRAWAL && newBalance.signum() < 0) {
+                throw new InsufficientFundsException("Insufficient funds. Cannot withdraw " + netAmount.negate() + ".");
+            }
+            balance = newBalance;
+            sequence++;
+            return new Posting(UUID.randomUUID().toString(), sequence, newBalance);
+        }
+
+        /** Deshace un movimiento cuyo asiento no se pudo guardar, si sigue siendo el último de la cuenta. */
+        synchronized void revert(Posting posting, Money netAmount) {
+            if (sequence == posting.sequence()) {
+                balance = balance.subtract(netAmount);
+                sequence--;
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.bancario.transaction.core;
+
+import com.bancario.transaction.client.CachedAccountServiceClient;
+import com.bancario.transaction.dto.AccountResponse;
+import com.bancario.transaction.dto.CoreTransactionResult;
+import com.bancario.transaction.enums.TransactionType;
+import com.bancario.transaction.exception.InsufficientFundsException;
+import com.bancario.transaction.metrics.TransactionMetrics;
+import com.bancario.transaction.money.Money;
+import io.quarkus.arc.properties.IfBuildProperty;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.UUID;
+
+/**
+ * Core SIMULADO sobre el Account-Service: calcula el nuevo saldo a partir de la cuenta ya cargada y
+ * lo envía con el PUT completo de AccountResponse (update-balance).
+ */
+@Slf4j
+@ApplicationScoped
+@IfBuildProperty(name = "transaction-service.core.gateway", stringValue = "rest", enableIfMissing = true)
+public class RestSimulatedCoreBankingGateway implements CoreBankingGateway {
+
+    @Inject
+    CachedAccountServiceClient accountServiceClient;
+
+    @Inject
+    TransactionMetrics transactionMetrics;
+
+    @Override
+    public Uni<CoreTransactionResult> post(AccountResponse account, Money netAmount, Money fee, TransactionType type) {
+        log.info("CORE TRANSACTION SIMULATED ({}) for Account {}. Net Amount: {}. Fee: {}", type, account.id(), netAmount, fee);
+        String accountId = account.id();
+        return Uni.createFrom().item(() -> {
+                    // 1. Calcular el nuevo balance
+                    Money currentBalance = Money.fromExternal(account.balance());
+                    Money newBalance = currentBalance.add(netAmount); // netAmount ya es positivo para depósito, negativo para retiro
+
+                    // VALIDACIÓN DE SALDO contra el saldo leído dentro de la sección serializada
+                    // (los servicios no validan antes: el Core es el autoritativo).
+                    if (type == TransactionType.WITHDRAWAL && newBalance.signum() < 0) {
+                        throw new InsufficientFundsException("Insufficient funds. Cannot withdraw " + netAmount.negate() + ".");
+                    }
+
+                    return account.withBalances(newBalance.toBigDecimal(), account.amountUsed());
+                })
+                // 2. Llamar al endpoint de actualización de saldo del Account-Service
+                .onItem().transformToUni(updatedAccount ->
+                        transactionMetrics.stage(type, "account.update", accountServiceClient.updateAccountBalance(accountId, updatedAccount))
+                )
+                // 3. Retornar el resultado de la simulación
+                .onItem().transform(finalAccount ->
+                        new CoreTransactionResult(UUID.randomUUID().toString(), true, finalAccount.balance())
+                )
+                .onFailure(e -> !(e instanceof InsufficientFundsException))
+                .transform(e -> new RuntimeException("Fallo en la simulación del Core/updateAccountBalance: " + e.getMessage()));
+    }
+
+    @Override
+    public Uni<CoreTransactionResult> postCredit(AccountResponse updatedAccount, TransactionType type) {
+        log.info("CORE TRANSACTION SIMULATED ({}) for credit product {}. Amount used: {}", type, updatedAccount.id(), updatedAccount.amountUsed());
+        return transactionMetrics.stage(type, "account.update", accountServiceClient.updateAccountBalance(updatedAccount.id(), updatedAccount))
+                .onItem().transform(finalAccount ->
+                        new CoreTransactionResult(UUID.randomUUID().toString(), true, finalAccount.balance())
+                )
+                .onFailure().transform(e -> new RuntimeException("Fallo en la simulación del Core/updateAccountBalance: " + e.getMessage()));
+    }
+}
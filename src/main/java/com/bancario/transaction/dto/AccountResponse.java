@@ -34,4 +34,19 @@ public record AccountResponse(
         // --- Titulares y Firmantes ---
         List<String> holders,
         List<String> signatories
-) {}
\ No newline at end of file
+) {
+
+    /** Copia de la cuenta con el saldo y el monto usado indicados; el resto de campos se mantiene. */
+    public AccountResponse withBalances(BigDecimal newBalance, BigDecimal newAmountUsed) {
+        return new AccountResponse(
+                id, customerId, accountNumber,
+                productType, accountType, creditType,
+                status, openingDate,
+                newBalance, newAmountUsed,
+                maintenanceFeeAmount, requiredDailyAverage,
+                freeTransactionLimit, transactionFeeAmount,
+                currentMonthlyTransactions, monthlyMovements,
+                specificDepositDate, holders, signatories
+        );
+    }
+}
@@ -0,0 +1,8 @@
+package com.bancario.transaction.dto;
+
+/**
+ * Elemento del flujo de respuesta de una carga masiva:
+ * un resultado por línea procesada y un resumen final.
+ */
+public sealed interface BulkIngestionEvent permits BulkTransactionResult, BulkIngestionSummary {
+}
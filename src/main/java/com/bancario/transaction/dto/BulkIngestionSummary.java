@@ -0,0 +1,12 @@
+package com.bancario.transaction.dto;
+
+/**
+ * Estadísticas de la carga masiva, emitidas como último elemento del flujo.
+ */
+public record BulkIngestionSummary(
+        long total,
+        long succeeded,
+        long failed,
+        long elapsedMs,
+        double throughputPerSecond
+) implements BulkIngestionEvent {}
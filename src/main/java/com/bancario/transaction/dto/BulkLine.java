@@ -0,0 +1,21 @@
+package com.bancario.transaction.dto;
+
+/**
+ * Línea leída de una carga masiva: la operación, o el motivo por el que no pudo interpretarse
+ * (JSON mal formado o con tipos inválidos). Una línea mal formada se informa como resultado
+ * fallido de esa línea; el resto de la carga sigue procesándose.
+ */
+public record BulkLine(
+        long line,                       // Línea física en NDJSON; posición del elemento en un arreglo JSON
+        BulkTransactionRequest request,  // Solo si error = null
+        String error
+) {
+
+    public static BulkLine parsed(long line, BulkTransactionRequest request) {
+        return new BulkLine(line, request, null);
+    }
+
+    public static BulkLine malformed(long line, String error) {
+        return new BulkLine(line, null, error);
+    }
+}
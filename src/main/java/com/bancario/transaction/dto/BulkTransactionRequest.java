@@ -0,0 +1,28 @@
+package com.bancario.transaction.dto;
+
+import com.bancario.transaction.enums.TransactionType;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import java.math.BigDecimal;
+
+/**
+ * Línea de una carga masiva (NDJSON o arreglo JSON).
+ * Equivale a un TransactionRequest más el tipo de operación a aplicar.
+ */
+public record BulkTransactionRequest(
+        @NotNull(message = "El tipo de transacción no puede ser nulo.")
+        TransactionType transactionType,
+
+        @NotBlank(message = "El ID de la cuenta no puede estar en blanco.")
+        String accountId,
+
+        @NotBlank(message = "El ID del cliente no puede estar en blanco.")
+        String customerId,
+
+        @NotNull(message = "El monto no puede ser nulo.")
+        @Positive(message = "El monto debe ser un valor positivo.")
+        BigDecimal amount,
+
+        String description
+) {}
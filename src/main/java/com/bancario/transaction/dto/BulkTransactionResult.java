@@ -0,0 +1,18 @@
+package com.bancario.transaction.dto;
+
+import com.bancario.transaction.enums.TransactionType;
+import lombok.Builder;
+
+/**
+ * Resultado de una línea de la carga masiva. Se emite en cuanto la operación termina,
+ * por lo que el orden puede diferir del de entrada (usar 'line' para correlacionar).
+ */
+@Builder
+public record BulkTransactionResult(
+        long line,
+        String accountId,
+        TransactionType transactionType,
+        boolean success,
+        TransactionResponse transaction, // Solo si success = true
+        String error                     // Solo si success = false
+) implements BulkIngestionEvent {}
@@ -0,0 +1,30 @@
+package com.bancario.transaction.dto;
+
+import com.bancario.transaction.enums.ProductType;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Comparación entre 'commission_rollups' y la agregación sobre 'transactions' para un rango de días.
+ * consistent es true cuando no hay diferencias.
+ */
+public record CommissionRollupCheck(
+        LocalDate startDate,
+        LocalDate endDate,
+        int bucketsCompared,
+        boolean consistent,
+        List<Mismatch> mismatches
+) {
+
+    /** Bucket cuyos totales difieren entre ambas fuentes (null si el bucket falta en una de ellas). */
+    public record Mismatch(
+            LocalDate day,
+            ProductType productType,
+            String productName,
+            BigDecimal rollupTotalFee,
+            BigDecimal transactionsTotalFee,
+            Long rollupCount,
+            Long transactionsCount
+    ) {}
+}
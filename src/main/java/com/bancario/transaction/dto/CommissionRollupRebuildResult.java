@@ -0,0 +1,14 @@
+package com.bancario.transaction.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Resultado de regenerar 'commission_rollups' a partir de la colección 'transactions'.
+ */
+public record CommissionRollupRebuildResult(
+        LocalDate startDate,
+        LocalDate endDate,
+        int bucketsWritten,
+        long bucketsRemoved,
+        long elapsedMs
+) {}
@@ -0,0 +1,18 @@
+package com.bancario.transaction.dto;
+
+import com.bancario.transaction.enums.ProductType;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Fila agregada del reporte de comisiones (calculada en MongoDB).
+ * Una fila por día, tipo y nombre de producto (y cuenta, si se agrupa por cuenta).
+ */
+public record CommissionSummaryDto(
+        LocalDate day,
+        ProductType productType,
+        String productName,
+        String accountId,          // Solo si se agrupa por cuenta
+        BigDecimal totalFee,
+        long transactionCount
+) {}
@@ -0,0 +1,22 @@
+package com.bancario.transaction.dto;
+
+import com.bancario.transaction.enums.TransactionHistoryView;
+import com.bancario.transaction.enums.TransactionType;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Filtros y posición de una página del historial de movimientos.
+ * Todos los filtros salvo accountId son opcionales (null = sin filtro).
+ */
+public record TransactionHistoryQuery(
+        String accountId,
+        LocalDate startDate,          // Inclusivo
+        LocalDate endDate,            // Inclusivo (se incluye todo el día)
+        TransactionType transactionType,
+        BigDecimal minAmount,
+        BigDecimal maxAmount,
+        String cursor,                // Token 'nextCursor' de la página anterior; null para la primera página
+        int limit,
+        TransactionHistoryView view   // Campos devueltos por movimiento
+) {}
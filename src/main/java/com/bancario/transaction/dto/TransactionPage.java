@@ -0,0 +1,12 @@
+package com.bancario.transaction.dto;
+
+import java.util.List;
+
+/**
+ * Página del historial de movimientos, del más reciente al más antiguo.
+ * nextCursor es null cuando no hay más resultados.
+ */
+public record TransactionPage(
+        List<TransactionResponse> items,
+        String nextCursor
+) {}
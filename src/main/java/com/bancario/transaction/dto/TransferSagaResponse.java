@@ -0,0 +1,27 @@
+package com.bancario.transaction.dto;
+
+import com.bancario.transaction.enums.TransferSagaStatus;
+import lombok.Builder;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Estado de una transferencia asíncrona (respuesta del 202 y de GET /transactions/transfers/{id}).
+ */
+@Builder
+public record TransferSagaResponse(
+        String id,
+        TransferSagaStatus status,
+        String sourceAccountNumber,
+        String targetAccountNumber,
+        BigDecimal amount,
+        String description,
+        String withdrawalTransactionId,
+        String depositTransactionId,
+        String reversalTransactionId,
+        int attempts,
+        String lastError,
+        Instant createdAt,
+        Instant updatedAt
+) {}
@@ -0,0 +1,7 @@
+package com.bancario.transaction.enums;
+
+/** Origen de los datos del resumen de comisiones. */
+public enum CommissionReportSource {
+    TRANSACTIONS,   // Agregación sobre la colección 'transactions' (coste proporcional a las transacciones)
+    ROLLUPS         // Lectura de 'commission_rollups' (coste proporcional a los días del rango)
+}
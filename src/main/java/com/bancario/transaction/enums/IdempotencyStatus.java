@@ -0,0 +1,8 @@
+package com.bancario.transaction.enums;
+
+/** Estado de una clave de idempotencia en 'idempotency_keys'. */
+public enum IdempotencyStatus {
+    IN_PROGRESS, // Reclamada: la primera ejecución sigue en curso
+    COMPLETED,   // Terminada con éxito: guarda la respuesta para los reintentos
+    FAILED       // Falló con resultado incierto (pudo aplicarse en el Core): no se vuelve a ejecutar
+}
@@ -0,0 +1,10 @@
+package com.bancario.transaction.enums;
+
+/**
+ * Efectos secundarios posteriores al commit que se ejecutan a través de SideEffectDispatcher.
+ * El tipo se guarda en la dead-letter junto con el destino y el payload para poder re-aplicarlos.
+ */
+public enum SideEffectType {
+    ACCOUNT_COUNTER_INCREMENT,  // PATCH del contador de transacciones (target = accountId, payload = delta)
+    TRANSFER_WITHDRAWAL_RECORD  // Registro local del retiro de una transferencia ya aplicada en el Core (target = accountId, payload = registro completo en JSON, con su _id)
+}
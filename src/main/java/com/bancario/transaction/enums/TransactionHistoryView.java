@@ -0,0 +1,7 @@
+package com.bancario.transaction.enums;
+
+/** Campos devueltos por cada movimiento del historial. */
+public enum TransactionHistoryView {
+    FULL,   // Todos los campos de TransactionResponse
+    SLIM    // Sin customerId, description ni externalReference (MongoDB no los lee)
+}
@@ -0,0 +1,27 @@
+package com.bancario.transaction.enums;
+
+/**
+ * Estados de la saga de transferencia asíncrona.
+ * Los estados "-ING" marcan un paso en ejecución: si el worker cae durante uno de ellos, el
+ * resultado del paso es incierto y la saga pasa a REQUIRES_ATTENTION en lugar de repetirlo.
+ */
+public enum TransferSagaStatus {
+    PENDING,            // Aceptada: pendiente de resolver cuentas y retirar
+    WITHDRAWING,        // Retiro en la cuenta de origen en curso
+    WITHDRAWN,          // Retiro aplicado: pendiente del depósito
+    DEPOSITING,         // Depósito en la cuenta de destino en curso
+    COMPLETED,          // Final: transferencia aplicada
+    COMPENSATING,       // El depósito falló: pendiente de revertir el retiro
+    REVERSING,          // Reversión en la cuenta de origen en curso
+    COMPENSATED,        // Final: retiro revertido
+    FAILED,             // Final: rechazada antes de mover fondos
+    REQUIRES_ATTENTION; // Final: reversión agotada o paso interrumpido; requiere intervención manual
+
+    public boolean isFinal() {
+        return this == COMPLETED || this == COMPENSATED || this == FAILED || this == REQUIRES_ATTENTION;
+    }
+
+    public boolean isInFlight() {
+        return this == WITHDRAWING || this == DEPOSITING || this == REVERSING;
+    }
+}
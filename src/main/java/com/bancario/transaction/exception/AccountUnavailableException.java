@@ -0,0 +1,12 @@
+package com.bancario.transaction.exception;
+
+/**
+ * No se pudo leer la cuenta en el Account-Service ANTES de aplicar el movimiento en el Core:
+ * la operación no tuvo efecto y puede reintentarse sin riesgo (la clave de idempotencia se libera).
+ * Se mapea a 503 como el resto de {@link ServiceUnavailableException}.
+ */
+public class AccountUnavailableException extends ServiceUnavailableException {
+    public AccountUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
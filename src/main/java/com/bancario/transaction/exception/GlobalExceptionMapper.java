@@ -30,6 +30,11 @@ public class GlobalExceptionMapper implements ExceptionMapper<Exception> {
                 status = Response.Status.SERVICE_UNAVAILABLE.getStatusCode(); // 503
                 error = "Service Unavailable (Fault Tolerance)";
             }
+            case IdempotencyConflictException idempotencyConflictException -> {
+                // Clave en curso en otra instancia o reutilizada con otra petición
+                status = Response.Status.CONFLICT.getStatusCode(); // 409
+                error = "Idempotency Key Conflict";
+            }
             // 2. FALLO DE VALIDACIÓN GENÉRICO (400)
             case IllegalArgumentException illegalArgumentException -> {
                 status = Response.Status.BAD_REQUEST.getStatusCode(); // 400
@@ -38,7 +43,7 @@ public class GlobalExceptionMapper implements ExceptionMapper<Exception> {
             // 3. FALLO CRÍTICO DE ORQUESTACIÓN (500)
             case TransferIncompleteException transferIncompleteException -> {
                 status = Response.Status.INTERNAL_SERVER_ERROR.getStatusCode(); // 500
-                error = "Transfer Incomplete - Funds Reverted"; // Indica que el proceso falló a mitad y se compensó.
+                error = "Transfer Incomplete"; // Falló a mitad: revertida, o aplicada con el retiro pendiente de conciliación (ver mensaje).
             }
             // 4. MANEJO DE ERRORES DE INFRAESTRUCTURA (500)
             case MongoCommandException mongoCommandException -> {
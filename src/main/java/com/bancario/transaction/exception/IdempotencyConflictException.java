@@ -0,0 +1,11 @@
+package com.bancario.transaction.exception;
+
+/**
+ * La clave de idempotencia no se puede usar ahora: la primera ejecución sigue en curso en otra
+ * instancia, o la clave ya se usó con una petición distinta. Se mapea a 409 (Conflict).
+ */
+public class IdempotencyConflictException extends RuntimeException {
+    public IdempotencyConflictException(String message) {
+        super(message);
+    }
+}
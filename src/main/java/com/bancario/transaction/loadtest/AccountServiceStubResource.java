@@ -0,0 +1,227 @@
+package com.bancario.transaction.loadtest;
+
+import com.bancario.transaction.dto.AccountResponse;
+import com.bancario.transaction.dto.AccountTransactionStatus;
+import com.bancario.transaction.enums.AccountStatus;
+import com.bancario.transaction.enums.AccountType;
+import com.bancario.transaction.enums.ProductType;
+import io.quarkus.arc.profile.IfBuildProfile;
+import io.smallrye.mutiny.Uni;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import lombok.extern.slf4j.Slf4j;
+import org.jboss.resteasy.reactive.RestResponse;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Stand-in en proceso del API /accounts del Account-Service, solo en los perfiles de build 'loadtest' y 'test'.
+ * <p>
+ * Mantiene saldos y contadores reales en memoria (el PUT update-balance aplica el saldo enviado) y
+ * permite inyectar latencia, jitter y errores en tiempo de ejecución (PUT /stub/accounts/_faults)
+ * para observar el comportamiento de @Timeout, @CircuitBreaker y @Fallback.
+ * Cuenta además las llamadas recibidas por operación (GET /stub/accounts/_calls).
+ * En esos perfiles, el cliente 'account-service' apunta a este recurso (ver application.properties).
+ */
+@Slf4j
+@IfBuildProfile(anyOf = {"loadtest", "test"})
+@Path("/stub/accounts")
+@Produces(MediaType.APPLICATION_JSON)
+@Consumes(MediaType.APPLICATION_JSON)
+public class AccountServiceStubResource {
+
+    private final ConcurrentMap<String, AccountResponse> accountsById = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, String> idsByNumber = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LongAdder> calls = new ConcurrentHashMap<>();
+    private volatile StubFaults faults = StubFaults.NONE;
+
+    // --- Administración del stub ---
+
+    /** Crea (o reinicia) las cuentas acc-000001..acc-N / num-000001..num-N, de ahorro y activas. */
+    @POST
+    @Path("/_seed")
+    public Response seed(@QueryParam("count") @DefaultValue("1000") int count,
+                         @QueryParam("balance") @DefaultValue("1000000.00") BigDecimal balance) {
+        accountsById.clear();
+        idsByNumber.clear();
+        for (int i = 1; i <= count; i++) {
+            String suffix = String.format("%06d", i);
+            AccountResponse account = new AccountResponse(
+                    "acc-" + suffix, "cust-" + suffix, "num-" + suffix,
+                    ProductType.PASSIVE, AccountType.SAVINGS_ACCOUNT, null, AccountStatus.ACTIVE,
+                    LocalDateTime.now(), balance, BigDecimal.ZERO,
+                    BigDecimal.ZERO, null, 20, new BigDecimal("1.00"), 0, 0, null,
+                    List.of("cust-" + suffix), List.of());
+            accountsById.put(account.id(), account);
+            idsByNumber.put(account.accountNumber(), account.id());
+        }
+        log.info("STUB ACCOUNT-SERVICE | {} cuentas creadas con saldo {}", count, balance);
+        return Response.noContent().build();
+    }
+
+    @GET
+    @Path("/_faults")
+    public StubFaults getFaults() {
+        return faults;
+    }
+
+    @PUT
+    @Path("/_faults")
+    public StubFaults setFaults(StubFaults newFaults) {
+        faults = newFaults != null ? newFaults : StubFaults.NONE;
+        log.info("STUB ACCOUNT-SERVICE | Degradación: {}", faults);
+        return faults;
+    }
+
+    /** Llamadas recibidas por operación del API /accounts desde el último reinicio. */
+    @GET
+    @Path("/_calls")
+    public Map<String, Long> getCalls() {
+        Map<String, Long> snapshot = new TreeMap<>();
+        calls.forEach((operation, count) -> snapshot.put(operation, count.sum()));
+        return snapshot;
+    }
+
+    @DELETE
+    @Path("/_calls")
+    public Response resetCalls() {
+        calls.clear();
+        return Response.noContent().build();
+    }
+
+    // --- API /accounts (mismo contrato que AccountServiceRestClient) ---
+
+    @GET
+    @Path("/{accountId}")
+    public Uni<RestResponse<AccountResponse>> getAccountById(@PathParam("accountId") String accountId) {
+        return degraded("getAccountById", () -> existing(accountId));
+    }
+
+    @PUT
+    @Path("/{accountId}/update-balance")
+    public Uni<RestResponse<AccountResponse>> updateAccountBalance(@PathParam("accountId") String accountId, AccountResponse update) {
+        // Solo se aplican los campos financieros; el resto de la cuenta lo conserva el stub.
+        return degraded("updateAccountBalance", () -> accountsById.compute(accountId, (id, current) -> {
+            if (current == null) {
+                throw new AccountNotFound();
+            }
+            return current.withBalances(update.balance(), update.amountUsed());
+        }));
+    }
+
+    @GET
+    @Path("/{accountId}/transaction-status")
+    public Uni<RestResponse<AccountTransactionStatus>> getTransactionStatus(@PathParam("accountId") String accountId) {
+        return degraded("getTransactionStatus", () -> {
+            AccountResponse account = existing(accountId);
+            return new AccountTransactionStatus(account.freeTransactionLimit(), account.currentMonthlyTransactions(),
+                    account.transactionFeeAmount());
+        });
+    }
+
+    @PATCH
+    @Path("/{accountId}/increment-transactions")
+    public Uni<RestResponse<Void>> incrementTransactions(@PathParam("accountId") String accountId,
+                                           @QueryParam("count") @DefaultValue("1") int count) {
+        return degraded("incrementTransactions", () -> {
+            AccountResponse updated = accountsById.computeIfPresent(accountId, (id, current) -> new AccountResponse(
+                current.id(), current.customerId(), current.accountNumber(), current.productType(),
+                current.accountType(), current.creditType(), current.status(), current.openingDate(),
+                current.balance(), current.amountUsed(), current.maintenanceFeeAmount(), current.requiredDailyAverage(),
+                current.freeTransactionLimit(), current.transactionFeeAmount(),
+                current.currentMonthlyTransactions() + count, current.monthlyMovements(),
+                current.specificDepositDate(), current.holders(), current.signatories()));
+            if (updated == null) {
+                throw new AccountNotFound();
+            }
+            return null;
+        });
+    }
+
+    @GET
+    @Path("/by-number/{accountNumber}")
+    public Uni<RestResponse<AccountResponse>> getAccountByNumber(@PathParam("accountNumber") String accountNumber) {
+        return degraded("getAccountByNumber", () -> {
+            String id = idsByNumber.get(accountNumber);
+            if (id == null) {
+                throw new AccountNotFound();
+            }
+            return existing(id);
+        });
+    }
+
+    @GET
+    public Uni<RestResponse<List<AccountResponse>>> getAccountsByIds(@QueryParam("ids") String ids) {
+        return degraded("getAccountsByIds", () -> split(ids).stream().map(accountsById::get).filter(Objects::nonNull).toList());
+    }
+
+    @GET
+    @Path("/by-number")
+    public Uni<RestResponse<List<AccountResponse>>> getAccountsByNumbers(@QueryParam("numbers") String numbers) {
+        return degraded("getAccountsByNumbers", () -> split(numbers).stream()
+                .map(idsByNumber::get).filter(Objects::nonNull)
+                .map(accountsById::get).filter(Objects::nonNull)
+                .toList());
+    }
+
+    private AccountResponse existing(String accountId) {
+        AccountResponse account = accountsById.get(accountId);
+        if (account == null) {
+            throw new AccountNotFound();
+        }
+        return account;
+    }
+
+    /**
+     * Aplica la degradación configurada: espera (sin bloquear) y luego responde, o devuelve 503.
+     * Los errores se devuelven como respuesta (no como excepción) para que GlobalExceptionMapper no los convierta en 500.
+     */
+    private <T> Uni<RestResponse<T>> degraded(String operation, Supplier<T> call) {
+        calls.computeIfAbsent(operation, name -> new LongAdder()).increment();
+        StubFaults current = faults;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long delayMs = current.latencyMs() + (current.jitterMs() > 0 ? random.nextLong(current.jitterMs() + 1) : 0);
+        boolean fail = current.errorRate() > 0 && random.nextDouble() < current.errorRate();
+
+        Uni<Void> wait = delayMs > 0
+                ? Uni.createFrom().voidItem().onItem().delayIt().by(Duration.ofMillis(delayMs))
+                : Uni.createFrom().voidItem();
+        return wait.onItem().transform(ignored -> {
+            if (fail) {
+                return RestResponse.status(RestResponse.Status.SERVICE_UNAVAILABLE);
+            }
+            try {
+                return RestResponse.ok(call.get());
+            } catch (AccountNotFound e) {
+                return RestResponse.notFound();
+            }
+        });
+    }
+
+    /** Cuenta o número inexistente: el stub responde 404 como el Account-Service real. */
+    private static final class AccountNotFound extends RuntimeException {
+        AccountNotFound() {
+            super(null, null, false, false);
+        }
+    }
+
+    private static List<String> split(String values) {
+        if (values == null || values.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(values.split(",")).map(String::trim).filter(value -> !value.isEmpty()).toList();
+    }
+}
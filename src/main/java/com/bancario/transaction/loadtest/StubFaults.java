@@ -0,0 +1,13 @@
+package com.bancario.transaction.loadtest;
+
+/**
+ * Degradación inyectada en el stub del Account-Service.
+ *
+ * @param latencyMs Latencia fija añadida a cada llamada.
+ * @param jitterMs  Latencia aleatoria adicional, uniforme en [0, jitterMs].
+ * @param errorRate Fracción de llamadas (0-1) que responden 503.
+ */
+public record StubFaults(long latencyMs, long jitterMs, double errorRate) {
+
+    public static final StubFaults NONE = new StubFaults(0, 0, 0);
+}
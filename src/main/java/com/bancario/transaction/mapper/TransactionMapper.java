@@ -1,16 +1,33 @@
 package com.bancario.transaction.mapper;
 
 import com.bancario.transaction.dto.CommissionReportDto;
+import com.bancario.transaction.dto.CommissionSummaryDto;
 import com.bancario.transaction.dto.TransactionRequest;
 import com.bancario.transaction.dto.TransactionResponse;
+import com.bancario.transaction.dto.TransferSagaResponse;
+import com.bancario.transaction.enums.ProductType;
+import com.bancario.transaction.money.Money;
+import com.bancario.transaction.repository.entity.CommissionRollup;
 import com.bancario.transaction.repository.entity.Transaction;
+import com.bancario.transaction.repository.entity.TransferSaga;
+import com.bancario.transaction.repository.projection.CommissionProjection;
+import com.bancario.transaction.repository.projection.TransactionHistoryProjection;
+import org.bson.Document;
+import org.bson.types.Decimal128;
 import org.bson.types.ObjectId;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
 @Mapper(componentModel = "cdi")
 public interface TransactionMapper {
 
+    /** Cabecera del export CSV de comisiones (mismas columnas y orden que toCommissionCsvRow). */
+    String COMMISSION_CSV_HEADER = "accountId,productType,productName,fee,transactionDate\n";
+
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "transactionType", ignore = true)
     @Mapping(target = "transactionDate", ignore = true)
@@ -32,6 +49,91 @@ public interface TransactionMapper {
     @Mapping(target = "transactionDate", source = "transactionDate")
     CommissionReportDto toCommissionReportDto(Transaction transaction);
 
+    CommissionReportDto toCommissionReportDto(CommissionProjection commission);
+
+    /** Vista reducida del historial: los campos que no se leyeron de MongoDB quedan en null. */
+    @Mapping(target = "customerId", ignore = true)
+    @Mapping(target = "description", ignore = true)
+    @Mapping(target = "externalReference", ignore = true)
+    TransactionResponse toResponse(TransactionHistoryProjection transaction);
+
+    /** Estado público de una transferencia asíncrona (sin los campos internos del lease). */
+    TransferSagaResponse toSagaResponse(TransferSaga saga);
+
+    /** Línea CSV (terminada en salto de línea) de una comisión del export en streaming. */
+    default String toCommissionCsvRow(CommissionReportDto dto) {
+        return csv(dto.accountId()) + ','
+                + (dto.productType() != null ? dto.productType().name() : "") + ','
+                + csv(dto.productName()) + ','
+                + (dto.fee() != null ? dto.fee().toPlainString() : "") + ','
+                + (dto.transactionDate() != null ? dto.transactionDate().toString() : "") + '\n';
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /** Mapea un grupo de la agregación de comisiones (ver TransactionRepository.aggregateCommissionsByDay). */
+    default CommissionSummaryDto toCommissionSummaryDto(Document group) {
+        Document key = group.get("_id", Document.class);
+        Object totalFee = group.get("totalFee");
+        return new CommissionSummaryDto(
+                LocalDate.parse(key.getString("day")),
+                toProductType(key.get("productType")),
+                key.getString("productName"),
+                key.getString("accountId"),
+                totalFee instanceof Decimal128 decimal ? decimal.bigDecimalValue() : new BigDecimal(String.valueOf(totalFee)),
+                ((Number) group.get("count")).longValue()
+        );
+    }
+
+    /** productType agrupado tal como está almacenado: nombre u ordinal (ver TransactionCodec). */
+    private static ProductType toProductType(Object stored) {
+        if (stored instanceof Number ordinal) {
+            return ProductType.values()[ordinal.intValue()];
+        }
+        return stored != null ? ProductType.valueOf(stored.toString()) : null;
+    }
+
+    default CommissionSummaryDto toCommissionSummaryDto(CommissionRollup rollup) {
+        return new CommissionSummaryDto(
+                LocalDate.parse(rollup.getDay()),
+                rollup.getProductType(),
+                rollup.getProductName(),
+                null,
+                rollup.getTotalFee(),
+                rollup.getTransactionCount()
+        );
+    }
+
+    /** Bucket de 'commission_rollups' regenerado a partir de un grupo de la agregación (sin cuenta). */
+    default CommissionRollup toCommissionRollup(CommissionSummaryDto summary) {
+        CommissionRollup rollup = new CommissionRollup();
+        rollup.setId(CommissionRollup.bucketId(summary.day(), summary.productType(), summary.productName()));
+        rollup.setDay(summary.day().toString());
+        rollup.setProductType(summary.productType());
+        rollup.setProductName(summary.productName());
+        rollup.setTotalFee(summary.totalFee());
+        rollup.setTransactionCount(summary.transactionCount());
+        rollup.setLastUpdated(LocalDateTime.now());
+        return rollup;
+    }
+
+    /** Frontera del API: los importes internos (Money) se exponen como BigDecimal. */
+    default BigDecimal map(Money money) {
+        return money != null ? money.toBigDecimal() : null;
+    }
+
+    default Money map(BigDecimal amount) {
+        return amount != null ? Money.of(amount) : null;
+    }
+
     default String map(ObjectId objectId) {
         return objectId != null ? objectId.toHexString() : null;
     }
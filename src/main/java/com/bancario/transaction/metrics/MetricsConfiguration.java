@@ -0,0 +1,58 @@
+package com.bancario.transaction.metrics;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import jakarta.enterprise.inject.Produces;
+import jakarta.inject.Singleton;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Histogramas de latencia para los timers del servicio y los de HTTP de Quarkus.
+ * <p>
+ * Se publican buckets (percentiles-histogram) en lugar de percentiles calculados en el proceso:
+ * cada record() solo incrementa un bucket y los percentiles se calculan en Prometheus
+ * (histogram_quantile), agregables entre instancias. El rango esperado acota el número de buckets.
+ */
+@Singleton
+public class MetricsConfiguration {
+
+    private static final List<String> HISTOGRAM_PREFIXES = List.of(
+            "transaction.operation",
+            "transaction.stage",
+            "account.client.requests",
+            "side.effect.lag",
+            "http.server.requests",
+            "http.client.requests");
+
+    @ConfigProperty(name = "transaction-service.metrics.histograms.enabled", defaultValue = "true")
+    boolean histogramsEnabled;
+
+    @ConfigProperty(name = "transaction-service.metrics.histograms.min-ms", defaultValue = "1")
+    long minExpectedMs;
+
+    @ConfigProperty(name = "transaction-service.metrics.histograms.max-ms", defaultValue = "10000")
+    long maxExpectedMs;
+
+    @Produces
+    @Singleton
+    public MeterFilter latencyHistograms() {
+        return new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if (!histogramsEnabled || HISTOGRAM_PREFIXES.stream().noneMatch(id.getName()::startsWith)) {
+                    return config;
+                }
+                return DistributionStatisticConfig.builder()
+                        .percentilesHistogram(true)
+                        .minimumExpectedValue((double) Duration.ofMillis(minExpectedMs).toNanos())
+                        .maximumExpectedValue((double) Duration.ofMillis(maxExpectedMs).toNanos())
+                        .build()
+                        .merge(config);
+            }
+        };
+    }
+}
@@ -0,0 +1,153 @@
+package com.bancario.transaction.metrics;
+
+import com.bancario.transaction.enums.TransactionType;
+import com.bancario.transaction.exception.InsufficientFundsException;
+import com.bancario.transaction.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.smallrye.mutiny.Uni;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.NotFoundException;
+import org.eclipse.microprofile.faulttolerance.exceptions.CircuitBreakerOpenException;
+import org.eclipse.microprofile.faulttolerance.exceptions.TimeoutException;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Métricas de los pipelines de transacciones, expuestas en /q/metrics (Prometheus).
+ * <p>
+ * - transaction.operation{type, outcome}: duración de cada operación completa; su _count es el
+ *   contador de operaciones por tipo y resultado.
+ * - transaction.stage{type, stage, outcome}: duración de cada etapa (lecturas y escrituras al
+ *   Account-Service, persistencia en Mongo, bucket de comisiones, tramos de la transferencia).
+ * - transaction.inflight{type}: operaciones en curso.
+ * - transaction.fallbacks{type, cause}: invocaciones de @Fallback (timeout, circuit_open, failure).
+ * - account.client.requests{method, outcome}: duración de cada llamada al AccountServiceRestClient.
+ * <p>
+ * Los tags solo toman valores acotados (nunca IDs de cuenta) y los medidores se crean una vez y se
+ * reutilizan, así que el coste por medición es una búsqueda en un mapa y un record().
+ * Los histogramas se configuran en {@link MetricsConfiguration}.
+ */
+@ApplicationScoped
+public class TransactionMetrics {
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    private final ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Counter> counters = new ConcurrentHashMap<>();
+    private final Map<TransactionType, AtomicInteger> inFlight = new EnumMap<>(TransactionType.class);
+
+    @PostConstruct
+    void init() {
+        for (TransactionType type : TransactionType.values()) {
+            AtomicInteger current = new AtomicInteger();
+            inFlight.put(type, current);
+            Gauge.builder("transaction.inflight", current, AtomicInteger::get)
+                    .description("Operaciones en curso por tipo de transacción")
+                    .tag("type", tag(type))
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Mide una operación completa (duración, resultado y operaciones en curso).
+     * El Uni se mide desde su suscripción hasta que emite, falla o se cancela (p. ej. por @Timeout).
+     */
+    public <T> Uni<T> operation(TransactionType type, Uni<T> pipeline) {
+        AtomicInteger current = inFlight.get(type);
+        return Uni.createFrom().deferred(() -> {
+            current.incrementAndGet();
+            long start = System.nanoTime();
+            return pipeline.onTermination().invoke((item, failure, cancelled) -> {
+                current.decrementAndGet();
+                String outcome = outcome(failure, cancelled);
+                timer("transaction.operation", "Duración de las operaciones de transacción",
+                        "type", tag(type), "outcome", outcome)
+                        .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            });
+        });
+    }
+
+    /** Mide una etapa de un pipeline (p. ej. "account.load", "account.update", "persist"). */
+    public <T> Uni<T> stage(TransactionType type, String stage, Uni<T> step) {
+        return Uni.createFrom().deferred(() -> {
+            long start = System.nanoTime();
+            return step.onTermination().invoke((item, failure, cancelled) ->
+                    timer("transaction.stage", "Duración de cada etapa de los pipelines de transacción",
+                            "type", tag(type), "stage", stage, "outcome", outcome(failure, cancelled))
+                            .record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+        });
+    }
+
+    /** Mide una llamada al AccountServiceRestClient (incluye los rechazos del Circuit Breaker del cliente). */
+    public <T> Uni<T> accountCall(String method, Uni<T> call) {
+        return Uni.createFrom().deferred(() -> {
+            long start = System.nanoTime();
+            return call.onTermination().invoke((item, failure, cancelled) ->
+                    timer("account.client.requests", "Duración de las llamadas al Account-Service por método",
+                            "method", method, "outcome", outcome(failure, cancelled))
+                            .record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+        });
+    }
+
+    /** Registra la activación de un @Fallback con la causa que lo disparó. */
+    public void fallback(TransactionType type, Throwable failure) {
+        String cause = failure instanceof TimeoutException ? "timeout"
+                : failure instanceof CircuitBreakerOpenException ? "circuit_open"
+                : "failure";
+        counters.computeIfAbsent("transaction.fallbacks|" + type + "|" + cause, key ->
+                Counter.builder("transaction.fallbacks")
+                        .description("Invocaciones de @Fallback por tipo de transacción y causa")
+                        .tag("type", tag(type))
+                        .tag("cause", cause)
+                        .register(meterRegistry))
+                .increment();
+    }
+
+    private Timer timer(String name, String description, String... tags) {
+        return timers.computeIfAbsent(name + "|" + String.join("|", tags), key ->
+                Timer.builder(name)
+                        .description(description)
+                        .tags(tags)
+                        .register(meterRegistry));
+    }
+
+    /**
+     * Resultado acotado de una ejecución: los rechazos de negocio (400/404) se separan de los
+     * fallos de la dependencia para no mezclar validaciones con degradación.
+     */
+    private static String outcome(Throwable failure, boolean cancelled) {
+        if (cancelled) {
+            return "cancelled";
+        }
+        if (failure == null) {
+            return "success";
+        }
+        if (failure instanceof IllegalArgumentException || failure instanceof InsufficientFundsException
+                || failure instanceof NotFoundException) {
+            return "rejected";
+        }
+        if (failure instanceof TimeoutException) {
+            return "timeout";
+        }
+        if (failure instanceof CircuitBreakerOpenException || failure instanceof ServiceUnavailableException) {
+            return "unavailable";
+        }
+        return "error";
+    }
+
+    private static String tag(TransactionType type) {
+        return type.name().toLowerCase(Locale.ROOT);
+    }
+}
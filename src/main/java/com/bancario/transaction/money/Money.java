@@ -0,0 +1,114 @@
+package com.bancario.transaction.money;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Importe monetario en punto fijo: un long de unidades mínimas (céntimos) en la escala de la
+ * moneda de las cuentas ({@link #SCALE} decimales).
+ * <p>
+ * Se usa en el cálculo de comisiones y saldos y en los campos amount/fee de Transaction.
+ * Las operaciones son aritmética entera (sin intermedios BigDecimal); la conversión a BigDecimal
+ * solo se hace en la frontera del API (DTOs y Account-Service).
+ * Un desbordamiento del long lanza ArithmeticException en lugar de perder precisión.
+ * <p>
+ * Hay dos formas de construirlo a partir de un BigDecimal:
+ * - {@link #of(BigDecimal)}: estricta, para importes del cliente (un decimal de más es un error de entrada).
+ * - {@link #fromExternal(BigDecimal)}: redondea con {@link #EXTERNAL_ROUNDING}, para valores que
+ *   no controlamos (saldos, montos usados y comisiones del Account-Service, Decimal128 guardados).
+ */
+public record Money(long minorUnits) implements Comparable<Money> {
+
+    /** Escala de la moneda de las cuentas (2 decimales). */
+    public static final int SCALE = 2;
+
+    /** Redondeo de los importes externos con más decimales que la moneda (redondeo bancario). */
+    public static final RoundingMode EXTERNAL_ROUNDING = RoundingMode.HALF_EVEN;
+
+    public static final Money ZERO = new Money(0);
+
+    private static final long SCALE_DIVISOR = 100L;
+
+    public static Money ofMinor(long minorUnits) {
+        return minorUnits == 0 ? ZERO : new Money(minorUnits);
+    }
+
+    /**
+     * Importe introducido por el cliente.
+     *
+     * @throws IllegalArgumentException Si el importe tiene más decimales que la moneda o no cabe en un long.
+     */
+    public static Money of(BigDecimal amount) {
+        try {
+            return ofMinor(amount.setScale(SCALE).unscaledValue().longValueExact());
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amount " + amount.toPlainString()
+                    + " cannot be represented with " + SCALE + " decimals.");
+        }
+    }
+
+    /** Como {@link #of(BigDecimal)}, pero redondeando los decimales sobrantes. */
+    public static Money of(BigDecimal amount, RoundingMode roundingMode) {
+        return of(amount.setScale(SCALE, roundingMode));
+    }
+
+    /**
+     * Importe que viene de otro sistema (Account-Service, Core, documentos guardados). Un saldo o una
+     * comisión con más decimales que la moneda no debe romper la operación del cliente: se redondea
+     * con {@link #EXTERNAL_ROUNDING}.
+     *
+     * @throws IllegalArgumentException Si el importe no cabe en un long.
+     */
+    public static Money fromExternal(BigDecimal amount) {
+        return of(amount, EXTERNAL_ROUNDING);
+    }
+
+    public Money add(Money other) {
+        return other.minorUnits == 0 ? this : new Money(Math.addExact(minorUnits, other.minorUnits));
+    }
+
+    public Money subtract(Money other) {
+        return other.minorUnits == 0 ? this : new Money(Math.subtractExact(minorUnits, other.minorUnits));
+    }
+
+    public Money negate() {
+        return minorUnits == 0 ? this : new Money(Math.negateExact(minorUnits));
+    }
+
+    public int signum() {
+        return Long.signum(minorUnits);
+    }
+
+    public boolean isZero() {
+        return minorUnits == 0;
+    }
+
+    public boolean isPositive() {
+        return minorUnits > 0;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    /** Representación plana (ej. "-100.50"), igual a toBigDecimal().toPlainString(). */
+    @Override
+    public String toString() {
+        long units = Math.abs(minorUnits / SCALE_DIVISOR);
+        long fraction = Math.abs(minorUnits % SCALE_DIVISOR);
+        StringBuilder text = new StringBuilder(24);
+        if (minorUnits < 0) {
+            text.append('-');
+        }
+        text.append(units).append('.');
+        if (fraction < 10) {
+            text.append('0');
+        }
+        return text.append(fraction).toString();
+    }
+}
@@ -0,0 +1,80 @@
+package com.bancario.transaction.repository;
+
+import com.bancario.transaction.repository.entity.CommissionRollup;
+import com.bancario.transaction.repository.entity.Transaction;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import io.quarkus.mongodb.panache.reactive.ReactivePanacheMongoRepositoryBase;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.Decimal128;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@ApplicationScoped
+public class CommissionRollupRepository implements ReactivePanacheMongoRepositoryBase<CommissionRollup, String> {
+
+    /**
+     * Suma la comisión de la transacción a su bucket con un único upsert atómico ($inc), sin leer el documento.
+     */
+    public Uni<Void> increment(Transaction transaction) {
+        LocalDate day = CommissionRollup.dayOf(transaction.getTransactionDate());
+        String id = CommissionRollup.bucketId(day, transaction.getProductType(), transaction.getProductName());
+        Bson update = Updates.combine(
+                Updates.setOnInsert("day", day.toString()),
+                Updates.setOnInsert("productType", transaction.getProductType() != null ? transaction.getProductType().name() : null),
+                Updates.setOnInsert("productName", transaction.getProductName()),
+                Updates.inc("totalFee", new Decimal128(transaction.getFee().toBigDecimal())),
+                Updates.inc("transactionCount", 1L),
+                Updates.set("lastUpdated", LocalDateTime.now())
+        );
+        return mongoCollection()
+                .updateOne(Filters.eq("_id", id), update, new UpdateOptions().upsert(true))
+                .replaceWithVoid();
+    }
+
+    /**
+     * Buckets de los días [startDate, endDate], ordenados por día y producto.
+     * Usa el índice de _id: el id empieza por el día, así que el rango de días es un rango de _id.
+     */
+    public Uni<List<CommissionRollup>> findByDayRange(LocalDate startDate, LocalDate endDate) {
+        Document query = new Document("_id", new Document("$gte", startDate.toString())
+                .append("$lt", endDate.plusDays(1).toString()));
+        return find(query, new Document("_id", 1)).list();
+    }
+
+    /**
+     * Reemplaza los buckets de los días [startDate, endDate] por los indicados: cada bucket se
+     * sobreescribe (upsert) y se eliminan los que ya no existen en la colección de origen.
+     *
+     * @return Uni con el número de buckets eliminados.
+     */
+    public Uni<Long> replaceRange(LocalDate startDate, LocalDate endDate, List<CommissionRollup> rollups) {
+        Uni<Void> upserts = rollups.isEmpty()
+                ? Uni.createFrom().voidItem()
+                : mongoCollection().bulkWrite(rollups.stream()
+                        .map(rollup -> new ReplaceOneModel<>(Filters.eq("_id", rollup.getId()), rollup, new ReplaceOptions().upsert(true)))
+                        .toList())
+                .replaceWithVoid();
+
+        List<String> ids = rollups.stream().map(CommissionRollup::getId).toList();
+        return upserts
+                .onItem().transformToUni(ignored -> mongoCollection()
+                        .deleteMany(Filters.and(dayRange(startDate, endDate), Filters.nin("_id", ids))))
+                .onItem().transform(result -> result.getDeletedCount());
+    }
+
+    private static Bson dayRange(LocalDate startDate, LocalDate endDate) {
+        // "2025-01-31|..." < "2025-02-01": el límite superior exclusivo es el día siguiente.
+        return Filters.and(
+                Filters.gte("_id", startDate.toString()),
+                Filters.lt("_id", endDate.plusDays(1).toString()));
+    }
+}
@@ -0,0 +1,69 @@
+package com.bancario.transaction.repository;
+
+import com.bancario.transaction.enums.IdempotencyStatus;
+import com.bancario.transaction.repository.entity.IdempotencyRecord;
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoWriteException;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.Updates;
+import io.quarkus.mongodb.panache.reactive.ReactivePanacheMongoRepositoryBase;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+@ApplicationScoped
+public class IdempotencyRepository implements ReactivePanacheMongoRepositoryBase<IdempotencyRecord, String> {
+
+    static final String TTL_INDEX = "createdAt_ttl";
+
+    /**
+     * Reclama la clave insertando el registro IN_PROGRESS. El _id único hace la reclamación atómica
+     * entre instancias.
+     *
+     * @return true si se reclamó; false si la clave ya existía.
+     */
+    public Uni<Boolean> claim(IdempotencyRecord record) {
+        return mongoCollection().insertOne(record)
+                .replaceWith(true)
+                .onFailure(e -> e instanceof MongoWriteException write
+                        && write.getError().getCategory() == ErrorCategory.DUPLICATE_KEY)
+                .recoverWithItem(false);
+    }
+
+    /** Marca la clave como COMPLETED y guarda la respuesta serializada. */
+    public Uni<Void> complete(String id, String responseJson) {
+        return mongoCollection()
+                .updateOne(Filters.eq("_id", id), Updates.combine(
+                        Updates.set("status", IdempotencyStatus.COMPLETED.name()),
+                        Updates.set("response", responseJson)))
+                .replaceWithVoid();
+    }
+
+    /** Marca la clave como FAILED: la operación falló después de poder aplicar el movimiento. */
+    public Uni<Void> fail(String id, String error) {
+        return mongoCollection()
+                .updateOne(Filters.eq("_id", id), Updates.combine(
+                        Updates.set("status", IdempotencyStatus.FAILED.name()),
+                        Updates.set("error", error)))
+                .replaceWithVoid();
+    }
+
+    /** Libera una clave que sigue IN_PROGRESS (la ejecución falló sin efecto) para permitir el reintento. */
+    public Uni<Void> release(String id) {
+        return mongoCollection()
+                .deleteOne(Filters.and(Filters.eq("_id", id), Filters.eq("status", IdempotencyStatus.IN_PROGRESS.name())))
+                .replaceWithVoid();
+    }
+
+    /** Crea (si no existe) el índice TTL que elimina las claves pasado el tiempo de retención. */
+    public Uni<Void> ensureTtlIndex(Duration ttl) {
+        return mongoCollection()
+                .createIndex(Indexes.ascending("createdAt"),
+                        new IndexOptions().name(TTL_INDEX).expireAfter(ttl.toSeconds(), TimeUnit.SECONDS))
+                .replaceWithVoid();
+    }
+}
@@ -0,0 +1,31 @@
+package com.bancario.transaction.repository;
+
+import com.bancario.transaction.repository.entity.LedgerEntry;
+import com.mongodb.client.model.IndexModel;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import io.quarkus.mongodb.panache.reactive.ReactivePanacheMongoRepositoryBase;
+import io.quarkus.panache.common.Sort;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.util.List;
+
+@ApplicationScoped
+public class LedgerEntryRepository implements ReactivePanacheMongoRepositoryBase<LedgerEntry, String> {
+
+    // Único: dos asientos con la misma secuencia de cuenta indicarían dos escritores sobre el mismo saldo.
+    private static final List<IndexModel> INDEXES = List.of(
+            new IndexModel(
+                    Indexes.compoundIndex(Indexes.ascending("accountId"), Indexes.descending("sequence")),
+                    new IndexOptions().name("accountId_1_sequence_-1").unique(true)));
+
+    /** Último asiento de la cuenta (null si no tiene), usado para reconstruir su saldo. */
+    public Uni<LedgerEntry> findLatest(String accountId) {
+        return find("accountId", Sort.descending("sequence"), accountId).firstResult();
+    }
+
+    public Uni<Void> ensureIndexes() {
+        return mongoCollection().createIndexes(INDEXES).replaceWithVoid();
+    }
+}
@@ -0,0 +1,9 @@
+package com.bancario.transaction.repository;
+
+import com.bancario.transaction.repository.entity.SideEffectDeadLetter;
+import io.quarkus.mongodb.panache.reactive.ReactivePanacheMongoRepository;
+import jakarta.enterprise.context.ApplicationScoped;
+
+@ApplicationScoped
+public class SideEffectDeadLetterRepository implements ReactivePanacheMongoRepository<SideEffectDeadLetter> {
+}
@@ -0,0 +1,276 @@
+package com.bancario.transaction.repository;
+
+import com.bancario.transaction.exception.ServiceUnavailableException;
+import com.bancario.transaction.repository.entity.Transaction;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.model.InsertManyOptions;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.runtime.ShutdownEvent;
+import io.smallrye.mutiny.Uni;
+import io.vertx.core.Vertx;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Escritura diferida (write-behind) de transacciones: agrupa las inserciones pendientes en una
+ * sola llamada insertMany, que se despacha al alcanzar el tamaño de lote o el tiempo máximo de espera.
+ * <p>
+ * El Uni de cada llamador se completa SOLO cuando Mongo confirma el lote que contiene su documento.
+ * Como máximo hay max-pending documentos sin confirmar; por encima de ese límite los llamadores
+ * esperan turno (backpressure) en lugar de acumular trabajo sin límite. La espera también está
+ * acotada (max-waiting): con ella llena, la inserción falla de inmediato con ServiceUnavailableException.
+ * <p>
+ * Un lote se da por confirmado solo si Mongo no informa errores de escritura NI de write concern;
+ * un error de write concern afecta a todo el lote.
+ */
+@Slf4j
+@ApplicationScoped
+public class TransactionBatchWriter {
+
+    @Inject
+    TransactionRepository transactionRepository;
+
+    @Inject
+    Vertx vertx;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "transaction-service.write-behind.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "transaction-service.write-behind.max-batch-size", defaultValue = "100")
+    int maxBatchSize;
+
+    @ConfigProperty(name = "transaction-service.write-behind.max-delay-ms", defaultValue = "10")
+    long maxDelayMs;
+
+    @ConfigProperty(name = "transaction-service.write-behind.max-pending", defaultValue = "10000")
+    int maxPending;
+
+    @ConfigProperty(name = "transaction-service.write-behind.max-waiting", defaultValue = "10000")
+    int maxWaiting;
+
+    @ConfigProperty(name = "transaction-service.write-behind.shutdown-timeout-ms", defaultValue = "10000")
+    long shutdownTimeoutMs;
+
+    private final Deque<PendingWrite> queue = new ArrayDeque<>();
+    private final Deque<PendingWrite> waitingForCapacity = new ArrayDeque<>();
+    private int unacknowledged;
+    private long timerId = -1;
+
+    private DistributionSummary batchSizes;
+    private Timer flushLatency;
+
+    @PostConstruct
+    void init() {
+        batchSizes = DistributionSummary.builder("transaction.persist.batch.size")
+                .description("Documentos por cada insertMany del write-behind")
+                .register(meterRegistry);
+        flushLatency = Timer.builder("transaction.persist.flush")
+                .description("Latencia de cada insertMany del write-behind")
+                .register(meterRegistry);
+        Gauge.builder("transaction.persist.pending", this, writer -> writer.pendingCount())
+                .description("Transacciones pendientes de confirmar por Mongo (en cola o en espera de capacidad)")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Persiste la transacción. Con el write-behind deshabilitado equivale a transactionRepository.persist.
+     *
+     * @return Uni que emite la transacción (con su id asignado) cuando Mongo confirma la inserción.
+     */
+    public Uni<Transaction> persist(Transaction transaction) {
+        if (!enabled) {
+            return transactionRepository.persist(transaction);
+        }
+        return Uni.createFrom().deferred(() -> {
+            if (transaction.getId() == null) {
+                // El id se asigna antes de encolar para poder correlacionar los errores del lote.
+                transaction.setId(new ObjectId());
+            }
+            PendingWrite write = new PendingWrite(transaction, new CompletableFuture<>());
+            List<PendingWrite> ready = null;
+
+            synchronized (this) {
+                if (unacknowledged < maxPending) {
+                    unacknowledged++;
+                    ready = enqueue(write);
+                } else if (waitingForCapacity.size() < maxWaiting) {
+                    waitingForCapacity.addLast(write);
+                } else {
+                    log.warn("WRITE-BEHIND | Capacidad agotada ({} sin confirmar, {} en espera). Inserción rechazada.",
+                            unacknowledged, waitingForCapacity.size());
+                    return Uni.createFrom().failure(new ServiceUnavailableException(
+                            "Transaction persistence is saturated. Please try again later."));
+                }
+            }
+
+            if (ready != null) {
+                flush(ready);
+            }
+            return Uni.createFrom().completionStage(write.result());
+        });
+    }
+
+    /**
+     * Despacha inmediatamente todo lo encolado, incluidos los llamadores que esperaban capacidad
+     * (por encima de max-pending: se usa al apagar, cuando ya no llegan inserciones nuevas).
+     */
+    public Uni<Void> flushAll() {
+        List<Uni<Void>> flushes = new ArrayList<>();
+        synchronized (this) {
+            unacknowledged += waitingForCapacity.size();
+            queue.addAll(waitingForCapacity);
+            waitingForCapacity.clear();
+            while (!queue.isEmpty()) {
+                flushes.add(flushUni(drain()));
+            }
+        }
+        if (flushes.isEmpty()) {
+            return Uni.createFrom().voidItem();
+        }
+        return Uni.join().all(flushes).andCollectFailures().replaceWithVoid();
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        if (!enabled) {
+            return;
+        }
+        log.info("WRITE-BEHIND | Vaciando {} transacciones pendientes antes del apagado.", pendingCount());
+        flushAll().await().atMost(Duration.ofMillis(shutdownTimeoutMs));
+    }
+
+    // Debe llamarse con el monitor tomado. Devuelve un lote listo si se alcanzó el tamaño máximo.
+    private List<PendingWrite> enqueue(PendingWrite write) {
+        queue.addLast(write);
+        if (queue.size() >= maxBatchSize) {
+            return drain();
+        }
+        if (timerId < 0) {
+            timerId = vertx.setTimer(maxDelayMs, this::onDelayElapsed);
+        }
+        return null;
+    }
+
+    private void onDelayElapsed(long firedTimerId) {
+        List<PendingWrite> ready;
+        synchronized (this) {
+            if (firedTimerId != timerId) {
+                return;
+            }
+            ready = drain();
+        }
+        flush(ready);
+    }
+
+    // Debe llamarse con el monitor tomado.
+    private List<PendingWrite> drain() {
+        if (timerId >= 0) {
+            vertx.cancelTimer(timerId);
+            timerId = -1;
+        }
+        int size = Math.min(queue.size(), maxBatchSize);
+        List<PendingWrite> batch = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            batch.add(queue.pollFirst());
+        }
+        if (!queue.isEmpty()) {
+            timerId = vertx.setTimer(maxDelayMs, this::onDelayElapsed);
+        }
+        return batch;
+    }
+
+    private void flush(List<PendingWrite> batch) {
+        flushUni(batch).subscribe().with(ignored -> { }, failure -> { });
+    }
+
+    private Uni<Void> flushUni(List<PendingWrite> batch) {
+        if (batch.isEmpty()) {
+            return Uni.createFrom().voidItem();
+        }
+        List<Transaction> documents = batch.stream().map(PendingWrite::transaction).toList();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        batchSizes.record(documents.size());
+
+        // ordered(false): un documento con error no impide insertar el resto del lote.
+        return transactionRepository.mongoCollection()
+                .insertMany(documents, new InsertManyOptions().ordered(false))
+                .onItem().invoke(ignored -> batch.forEach(write -> write.result().complete(write.transaction())))
+                .onFailure().invoke(failure -> completeWithFailure(batch, failure))
+                .onTermination().invoke(() -> {
+                    sample.stop(flushLatency);
+                    release(batch.size());
+                })
+                .replaceWithVoid();
+    }
+
+    private void completeWithFailure(List<PendingWrite> batch, Throwable failure) {
+        if (failure instanceof MongoBulkWriteException bulkFailure && bulkFailure.getWriteConcernError() != null) {
+            // Sin la confirmación del write concern ningún documento del lote se considera persistido.
+            log.error("WRITE-BEHIND | Error de write concern en un lote de {} transacciones: {}",
+                    batch.size(), bulkFailure.getWriteConcernError().getMessage());
+            IllegalStateException notAcknowledged = new IllegalStateException(
+                    "Transaction persistence not acknowledged: " + bulkFailure.getWriteConcernError().getMessage(), failure);
+            batch.forEach(write -> write.result().completeExceptionally(notAcknowledged));
+            return;
+        }
+        if (failure instanceof MongoBulkWriteException bulkFailure) {
+            Map<Integer, BulkWriteError> errorsByIndex = new HashMap<>();
+            bulkFailure.getWriteErrors().forEach(error -> errorsByIndex.put(error.getIndex(), error));
+            log.error("WRITE-BEHIND | {} de {} inserciones fallaron en el lote.", errorsByIndex.size(), batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                PendingWrite write = batch.get(i);
+                if (errorsByIndex.containsKey(i)) {
+                    write.result().completeExceptionally(new IllegalStateException(
+                            "Transaction persistence failed: " + errorsByIndex.get(i).getMessage()));
+                } else {
+                    write.result().complete(write.transaction());
+                }
+            }
+            return;
+        }
+        log.error("WRITE-BEHIND | Falló la inserción de un lote de {} transacciones: {}", batch.size(), failure.getMessage());
+        batch.forEach(write -> write.result().completeExceptionally(failure));
+    }
+
+    private void release(int acknowledged) {
+        List<List<PendingWrite>> ready = new ArrayList<>();
+        synchronized (this) {
+            unacknowledged -= acknowledged;
+            // Los llamadores que esperaban capacidad entran a la cola en orden de llegada.
+            while (unacknowledged < maxPending && !waitingForCapacity.isEmpty()) {
+                unacknowledged++;
+                List<PendingWrite> batch = enqueue(waitingForCapacity.pollFirst());
+                if (batch != null) {
+                    ready.add(batch);
+                }
+            }
+        }
+        ready.forEach(this::flush);
+    }
+
+    private synchronized int pendingCount() {
+        return unacknowledged + waitingForCapacity.size();
+    }
+
+    private record PendingWrite(Transaction transaction, CompletableFuture<Transaction> result) {}
+}
@@ -0,0 +1,26 @@
+package com.bancario.transaction.repository;
+
+import com.bancario.transaction.repository.entity.Transaction;
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoWriteException;
+import io.quarkus.mongodb.panache.PanacheMongoRepository;
+import jakarta.enterprise.context.ApplicationScoped;
+
+/**
+ * Repositorio Panache bloqueante sobre 'transactions', usado por el modo de ejecución en hilos
+ * virtuales. Comparte entidad y codecs con {@link TransactionRepository}.
+ */
+@ApplicationScoped
+public class TransactionBlockingRepository implements PanacheMongoRepository<Transaction> {
+
+    /** Versión bloqueante de {@link TransactionRepository#insertIfAbsent}: un _id duplicado cuenta como insertado. */
+    public void insertIfAbsent(Transaction transaction) {
+        try {
+            mongoCollection().insertOne(transaction);
+        } catch (MongoWriteException e) {
+            if (e.getError().getCategory() != ErrorCategory.DUPLICATE_KEY) {
+                throw e;
+            }
+        }
+    }
+}
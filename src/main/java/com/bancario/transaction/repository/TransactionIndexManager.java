@@ -0,0 +1,235 @@
+package com.bancario.transaction.repository;
+
+import com.mongodb.client.model.IndexModel;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import io.quarkus.runtime.StartupEvent;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.Decimal128;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Gestión declarativa de los índices de la colección 'transactions'.
+ * <p>
+ * Al arrancar: crea los índices declarados que falten, avisa si uno existente difiere de su
+ * definición y, opcionalmente, ejecuta 'explain' sobre las consultas del repositorio para
+ * avisar si alguna se resolvería con un COLLSCAN.
+ * Con dry-run=true solo informa lo que haría, sin modificar la base de datos.
+ */
+@Slf4j
+@ApplicationScoped
+public class TransactionIndexManager {
+
+    /** Índices requeridos por las consultas de TransactionRepository. */
+    static final List<IndexModel> INDEXES = List.of(
+            // findByAccountId y findHistoryPage: movimientos de una cuenta, del más reciente al más antiguo
+            // (_id desempata el keyset cuando dos movimientos comparten fecha).
+            new IndexModel(
+                    Indexes.compoundIndex(Indexes.ascending("accountId"), Indexes.descending("transactionDate"), Indexes.descending("_id")),
+                    new IndexOptions().name("accountId_1_transactionDate_-1__id_-1")),
+            // findHistoryPage filtrado por tipo de transacción.
+            new IndexModel(
+                    Indexes.compoundIndex(Indexes.ascending("accountId"), Indexes.ascending("transactionType"),
+                            Indexes.descending("transactionDate"), Indexes.descending("_id")),
+                    new IndexOptions().name("accountId_1_transactionType_1_transactionDate_-1__id_-1")),
+            // findCommissionsByDateRange: solo los documentos con comisión entran al índice.
+            new IndexModel(
+                    Indexes.ascending("transactionDate"),
+                    new IndexOptions().name("transactionDate_1_fee_gt_0")
+                            .partialFilterExpression(new Document("fee", new Document("$gt", new Decimal128(BigDecimal.ZERO))))),
+            // Búsquedas por referencia del Core (conciliación).
+            new IndexModel(
+                    Indexes.ascending("externalReference"),
+                    new IndexOptions().name("externalReference_1"))
+    );
+
+    @Inject
+    TransactionRepository transactionRepository;
+
+    @ConfigProperty(name = "transaction-service.indexes.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "transaction-service.indexes.dry-run", defaultValue = "false")
+    boolean dryRun;
+
+    @ConfigProperty(name = "transaction-service.indexes.verify-query-plans", defaultValue = "true")
+    boolean verifyQueryPlans;
+
+    void onStart(@Observes StartupEvent event) {
+        if (!enabled) {
+            return;
+        }
+        // No se bloquea el arranque: si Mongo no está disponible solo se registra el error.
+        ensureIndexes()
+                .onItem().transformToUni(ignored -> verifyQueryPlans ? verifyQueryPlans() : Uni.createFrom().voidItem())
+                .subscribe().with(
+                        ignored -> log.info("INDICES | Verificación de índices de 'transactions' completada."),
+                        failure -> log.error("INDICES | No se pudieron verificar los índices de 'transactions': {}", failure.getMessage())
+                );
+    }
+
+    /** Crea los índices declarados que no existan (o solo los informa en dry-run). */
+    public Uni<Void> ensureIndexes() {
+        return transactionRepository.mongoCollection().listIndexes()
+                .collect().asMap(index -> index.getString("name"))
+                .onItem().transformToUni(existing -> {
+                    List<IndexModel> missing = new ArrayList<>();
+                    for (IndexModel index : INDEXES) {
+                        String name = index.getOptions().getName();
+                        Document current = existing.get(name);
+                        if (current == null) {
+                            missing.add(index);
+                        } else if (!sameDefinition(index, current)) {
+                            log.warn("INDICES | El índice {} existe pero difiere de su definición. Actual: {}", name, current.toJson());
+                        }
+                    }
+                    if (missing.isEmpty()) {
+                        return Uni.createFrom().voidItem();
+                    }
+                    String names = missing.stream().map(index -> index.getOptions().getName()).collect(Collectors.joining(", "));
+                    if (dryRun) {
+                        log.warn("INDICES | [dry-run] Se crearían los índices: {}", names);
+                        return Uni.createFrom().voidItem();
+                    }
+                    log.info("INDICES | Creando índices: {}", names);
+                    return transactionRepository.mongoCollection().createIndexes(missing).replaceWithVoid();
+                });
+    }
+
+    /** Ejecuta 'explain' sobre las consultas del repositorio y avisa de los COLLSCAN. */
+    public Uni<Void> verifyQueryPlans() {
+        return explainQueryPlans()
+                .onItem().invoke(plans -> plans.forEach((repositoryMethod, plan) -> {
+                    if (containsStage(plan, "COLLSCAN")) {
+                        log.warn("INDICES | La consulta {} se resuelve con COLLSCAN. Plan: {}", repositoryMethod, plan.toJson());
+                    } else {
+                        log.info("INDICES | La consulta {} usa índice.", repositoryMethod);
+                    }
+                }))
+                .replaceWithVoid();
+    }
+
+    /** Plan ganador ('winningPlan') de cada consulta representativa del repositorio, por nombre de método. */
+    public Uni<Map<String, Document>> explainQueryPlans() {
+        return Multi.createFrom().iterable(queryProbes())
+                .onItem().transformToUniAndConcatenate(probe -> explain(probe)
+                        .onItem().transform(plan -> Map.entry(probe.repositoryMethod(), plan)))
+                .collect().asMap(Map.Entry::getKey, Map.Entry::getValue);
+    }
+
+    /** Consultas representativas de cada método del repositorio (mismos filtros y orden). */
+    private List<QueryProbe> queryProbes() {
+        LocalDateTime now = LocalDateTime.now();
+        return List.of(
+                new QueryProbe("findByAccountId",
+                        new Document("accountId", "__probe__"),
+                        null),
+                new QueryProbe("findHistoryPage",
+                        new Document("accountId", "__probe__").append("transactionType", "DEPOSIT"),
+                        new Document("transactionDate", -1).append("_id", -1)),
+                new QueryProbe("findCommissionsByDateRange",
+                        new Document("fee", new Document("$gt", new Decimal128(BigDecimal.ZERO)))
+                                .append("transactionDate", new Document("$gte", now.minusDays(1)).append("$lt", now)),
+                        null)
+        );
+    }
+
+    private Uni<Document> explain(QueryProbe probe) {
+        Document find = new Document("find", transactionRepository.mongoCollection().getNamespace().getCollectionName())
+                .append("filter", probe.filter());
+        if (probe.sort() != null) {
+            find.append("sort", probe.sort());
+        }
+        Bson command = new Document("explain", find).append("verbosity", "queryPlanner");
+        return transactionRepository.mongoDatabase().runCommand(command)
+                .onItem().transform(result -> result.get("queryPlanner", Document.class))
+                .onItem().transform(planner -> planner.get("winningPlan", Document.class));
+    }
+
+    static boolean containsStage(Object node, String stage) {
+        if (node instanceof Document document) {
+            if (stage.equals(document.get("stage"))) {
+                return true;
+            }
+            return document.values().stream().anyMatch(value -> containsStage(value, stage));
+        }
+        if (node instanceof List<?> list) {
+            return list.stream().anyMatch(value -> containsStage(value, stage));
+        }
+        return false;
+    }
+
+    static boolean sameDefinition(IndexModel index, Document current) {
+        Document expectedKeys = Document.parse(index.getKeys().toBsonDocument().toJson());
+        Document currentKeys = current.get("key", Document.class);
+        if (currentKeys == null || !List.copyOf(expectedKeys.keySet()).equals(List.copyOf(currentKeys.keySet()))) {
+            return false;
+        }
+        // La dirección puede venir como int32 o double según quién creó el índice.
+        for (Map.Entry<String, Object> key : expectedKeys.entrySet()) {
+            Object currentDirection = currentKeys.get(key.getKey());
+            if (!(currentDirection instanceof Number number)
+                    || number.intValue() != ((Number) key.getValue()).intValue()) {
+                return false;
+            }
+        }
+        Bson expectedFilter = index.getOptions().getPartialFilterExpression();
+        Document currentFilter = current.get("partialFilterExpression", Document.class);
+        if (expectedFilter == null || currentFilter == null) {
+            return expectedFilter == null && currentFilter == null;
+        }
+        return sameValue(expectedFilter.toBsonDocument(), currentFilter.toBsonDocument());
+    }
+
+    /**
+     * Igualdad estructural de dos valores BSON. Los números se comparan por valor (0, 0.0 y
+     * Decimal128 "0" son equivalentes en un filtro) y los documentos respetan el orden de sus campos.
+     */
+    private static boolean sameValue(BsonValue expected, BsonValue current) {
+        if (expected.isNumber() && current.isNumber()) {
+            return expected.asNumber().decimal128Value().bigDecimalValue()
+                    .compareTo(current.asNumber().decimal128Value().bigDecimalValue()) == 0;
+        }
+        if (expected.isDocument() && current.isDocument()) {
+            BsonDocument expectedDocument = expected.asDocument();
+            BsonDocument currentDocument = current.asDocument();
+            if (!List.copyOf(expectedDocument.keySet()).equals(List.copyOf(currentDocument.keySet()))) {
+                return false;
+            }
+            return expectedDocument.entrySet().stream()
+                    .allMatch(entry -> sameValue(entry.getValue(), currentDocument.get(entry.getKey())));
+        }
+        if (expected.isArray() && current.isArray()) {
+            List<BsonValue> expectedValues = expected.asArray().getValues();
+            List<BsonValue> currentValues = current.asArray().getValues();
+            if (expectedValues.size() != currentValues.size()) {
+                return false;
+            }
+            for (int i = 0; i < expectedValues.size(); i++) {
+                if (!sameValue(expectedValues.get(i), currentValues.get(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return expected.equals(current);
+    }
+
+    private record QueryProbe(String repositoryMethod, Document filter, Document sort) {}
+}
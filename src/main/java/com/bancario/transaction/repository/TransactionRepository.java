@@ -1,16 +1,50 @@
 package com.bancario.transaction.repository;
 
+import com.bancario.transaction.enums.TransactionType;
 import com.bancario.transaction.repository.entity.Transaction;
+import com.bancario.transaction.repository.projection.CommissionProjection;
+import com.bancario.transaction.repository.projection.TransactionHistoryProjection;
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoWriteException;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Sorts;
+import io.quarkus.mongodb.FindOptions;
 import io.quarkus.mongodb.panache.reactive.ReactivePanacheMongoRepository;
+import io.smallrye.mutiny.Multi;
 import io.smallrye.mutiny.Uni;
 import jakarta.enterprise.context.ApplicationScoped;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.Decimal128;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 @ApplicationScoped
 public class TransactionRepository implements ReactivePanacheMongoRepository<Transaction> {
+
+    /** Campos de CommissionProjection (sin _id): lo único que viaja desde MongoDB en los reportes. */
+    private static final Bson COMMISSION_FIELDS = Projections.fields(
+            Projections.include("accountId", "productType", "productName", "fee", "transactionDate"),
+            Projections.excludeId());
+
+    /** Orden del historial: del más reciente al más antiguo, _id desempata el keyset. */
+    private static final Document HISTORY_SORT = new Document("transactionDate", -1).append("_id", -1);
+    /**
+     * Inserta una transacción con el _id ya asignado. Un _id duplicado significa que un intento anterior
+     * llegó a Mongo aunque no se confirmara (p. ej. error de write concern): cuenta como insertada.
+     */
+    public Uni<Transaction> insertIfAbsent(Transaction transaction) {
+        return mongoCollection().insertOne(transaction)
+                .replaceWith(transaction)
+                .onFailure(e -> e instanceof MongoWriteException write
+                        && write.getError().getCategory() == ErrorCategory.DUPLICATE_KEY)
+                .recoverWithItem(transaction);
+    }
+
     /**
      * Declara el método de búsqueda por accountId.
      * Panache se encarga automáticamente de la implementación de la consulta
@@ -28,9 +62,9 @@ public class TransactionRepository implements ReactivePanacheMongoRepository<Tra
      * Consulta transacciones con comisión cobrada (fee > 0) dentro de un rango de fechas.
      * * @param startDate La fecha de inicio del periodo (inclusiva).
      * @param endDate La fecha de fin del periodo (exclusiva, ya que en el servicio se usa endDate.plusDays(1)).
-     * @return Uni que emite una lista de entidades Transaction.
+     * @return Uni que emite la proyección de cada transacción (solo los campos del reporte).
      */
-    public Uni<List<Transaction>> findCommissionsByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
+    public Uni<List<CommissionProjection>> findCommissionsByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
 
         // 1. Definición del query en formato MongoDB Extended JSON:
         // Criterios:
@@ -39,7 +73,108 @@ public class TransactionRepository implements ReactivePanacheMongoRepository<Tra
         // - 'transactionDate' debe ser menor que el parámetro 3 (endDate).
         String query = "{ 'fee' : { $gt: ?1 }, 'transactionDate' : { $gte: ?2, $lt: ?3 } }";
 
-        // 2. Ejecución de la consulta reactiva
-        return find(query, BigDecimal.ZERO, startDate, endDate).list();
+        // 2. Ejecución de la consulta reactiva, proyectada a los campos del reporte
+        return find(query, BigDecimal.ZERO, startDate, endDate).project(CommissionProjection.class).list();
+    }
+
+    /**
+     * Variante en streaming de findCommissionsByDateRange: los documentos se leen del cursor de
+     * MongoDB por lotes de batchSize y solo a medida que el suscriptor los pide (backpressure),
+     * en orden de transactionDate. La memoria usada no depende del tamaño del rango.
+     * Solo se leen los campos de CommissionProjection.
+     */
+    public Multi<CommissionProjection> streamCommissionsByDateRange(LocalDateTime startDate, LocalDateTime endDate, int batchSize) {
+        FindOptions options = new FindOptions()
+                .filter(Filters.and(
+                        Filters.gt("fee", new Decimal128(BigDecimal.ZERO)),
+                        Filters.gte("transactionDate", startDate),
+                        Filters.lt("transactionDate", endDate)))
+                .sort(Sorts.ascending("transactionDate"))
+                .projection(COMMISSION_FIELDS)
+                .batchSize(batchSize);
+        return mongoCollection().withDocumentClass(CommissionProjection.class).find(options);
+    }
+
+    /**
+     * Página del historial de una cuenta ordenada por (transactionDate, _id) descendente, usando
+     * paginación por keyset: la página siguiente filtra por la posición del último elemento en
+     * lugar de saltar documentos, por lo que cualquier página cuesta lo mismo que la primera.
+     *
+     * @param after Posición del último elemento de la página anterior; null para la primera página.
+     * @param limit Número máximo de documentos a devolver.
+     */
+    public Uni<List<Transaction>> findHistoryPage(String accountId, LocalDateTime startDate, LocalDateTime endDate,
+                                                  TransactionType transactionType, BigDecimal minAmount, BigDecimal maxAmount,
+                                                  TransactionCursor after, int limit) {
+        Document query = historyQuery(accountId, startDate, endDate, transactionType, minAmount, maxAmount, after);
+        return find(query, HISTORY_SORT).page(0, limit).list();
+    }
+
+    /**
+     * Igual que findHistoryPage, pero MongoDB solo devuelve los campos de TransactionHistoryProjection.
+     */
+    public Uni<List<TransactionHistoryProjection>> findHistoryPageSlim(String accountId, LocalDateTime startDate, LocalDateTime endDate,
+                                                                      TransactionType transactionType, BigDecimal minAmount, BigDecimal maxAmount,
+                                                                      TransactionCursor after, int limit) {
+        Document query = historyQuery(accountId, startDate, endDate, transactionType, minAmount, maxAmount, after);
+        return find(query, HISTORY_SORT).project(TransactionHistoryProjection.class).page(0, limit).list();
+    }
+
+    private static Document historyQuery(String accountId, LocalDateTime startDate, LocalDateTime endDate,
+                                         TransactionType transactionType, BigDecimal minAmount, BigDecimal maxAmount,
+                                         TransactionCursor after) {
+        List<Document> criteria = new ArrayList<>();
+        criteria.add(new Document("accountId", accountId));
+        if (transactionType != null) {
+            // Nombre u ordinal, según transaction-service.codec.enum-encoding al escribir el documento.
+            criteria.add(new Document("transactionType", new Document("$in", List.of(transactionType.name(), transactionType.ordinal()))));
+        }
+        if (startDate != null) {
+            criteria.add(new Document("transactionDate", new Document("$gte", startDate)));
+        }
+        if (endDate != null) {
+            criteria.add(new Document("transactionDate", new Document("$lt", endDate)));
+        }
+        if (minAmount != null) {
+            criteria.add(new Document("amount", new Document("$gte", minAmount)));
+        }
+        if (maxAmount != null) {
+            criteria.add(new Document("amount", new Document("$lte", maxAmount)));
+        }
+        if (after != null) {
+            // Estrictamente "después" del cursor en orden descendente (desempate por _id).
+            criteria.add(new Document("$or", List.of(
+                    new Document("transactionDate", new Document("$lt", after.transactionDate())),
+                    new Document("transactionDate", after.transactionDate()).append("_id", new Document("$lt", after.id()))
+            )));
+        }
+        return new Document("$and", criteria);
+    }
+
+    /**
+     * Agrega en MongoDB las comisiones cobradas (fee > 0) en el rango de fechas, agrupadas por día,
+     * productType y productName (y opcionalmente accountId). Solo viajan los totales, no las filas.
+     *
+     * @return Uni con un documento por grupo: {_id: {day, productType, productName[, accountId]}, totalFee, count}.
+     */
+    public Uni<List<Document>> aggregateCommissionsByDay(LocalDateTime startDate, LocalDateTime endDate, boolean groupByAccount) {
+        // Mismo día que CommissionRollup.dayOf: transactionDate se guarda en UTC.
+        Document groupKey = new Document("day", new Document("$dateToString",
+                new Document("format", "%Y-%m-%d").append("date", "$transactionDate").append("timezone", "UTC")))
+                .append("productType", "$productType")
+                .append("productName", "$productName");
+        if (groupByAccount) {
+            groupKey.append("accountId", "$accountId");
+        }
+
+        List<Document> pipeline = List.of(
+                new Document("$match", new Document("fee", new Document("$gt", new Decimal128(BigDecimal.ZERO)))
+                        .append("transactionDate", new Document("$gte", startDate).append("$lt", endDate))),
+                new Document("$group", new Document("_id", groupKey)
+                        .append("totalFee", new Document("$sum", "$fee"))
+                        .append("count", new Document("$sum", 1))),
+                new Document("$sort", new Document("_id.day", 1).append("_id.productName", 1))
+        );
+        return mongoCollection().aggregate(pipeline, Document.class).collect().asList();
     }
 }
\ No newline at end of file
@@ -0,0 +1,94 @@
+package com.bancario.transaction.repository;
+
+import com.bancario.transaction.enums.TransferSagaStatus;
+import com.bancario.transaction.repository.entity.TransferSaga;
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoWriteException;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.IndexModel;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.Updates;
+import io.quarkus.mongodb.panache.reactive.ReactivePanacheMongoRepositoryBase;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.bson.conversions.Bson;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+@ApplicationScoped
+public class TransferSagaRepository implements ReactivePanacheMongoRepositoryBase<TransferSaga, String> {
+
+    private static final List<String> ACTIONABLE = List.of(
+            TransferSagaStatus.PENDING.name(), TransferSagaStatus.WITHDRAWN.name(), TransferSagaStatus.COMPENSATING.name());
+    private static final List<String> IN_FLIGHT = List.of(
+            TransferSagaStatus.WITHDRAWING.name(), TransferSagaStatus.DEPOSITING.name(), TransferSagaStatus.REVERSING.name());
+
+    static final List<IndexModel> INDEXES = List.of(
+            // claimNext: sagas pendientes por estado y vencimiento del siguiente intento.
+            new IndexModel(
+                    Indexes.compoundIndex(Indexes.ascending("status"), Indexes.ascending("nextAttemptAt")),
+                    new IndexOptions().name("status_1_nextAttemptAt_1")),
+            // Reintentos del POST asíncrono con la misma Idempotency-Key.
+            new IndexModel(
+                    Indexes.ascending("idempotencyKey"),
+                    new IndexOptions().name("idempotencyKey_1").unique(true).sparse(true))
+    );
+
+    /**
+     * Inserta la saga.
+     *
+     * @return true si se insertó; false si ya existía una saga con la misma Idempotency-Key.
+     */
+    public Uni<Boolean> insert(TransferSaga saga) {
+        return mongoCollection().insertOne(saga)
+                .replaceWith(true)
+                .onFailure(e -> e instanceof MongoWriteException write
+                        && write.getError().getCategory() == ErrorCategory.DUPLICATE_KEY)
+                .recoverWithItem(false);
+    }
+
+    public Uni<TransferSaga> findByIdempotencyKey(String idempotencyKey) {
+        return find("idempotencyKey", idempotencyKey).firstResult();
+    }
+
+    /**
+     * Reclama de forma atómica la siguiente saga a procesar: una con paso pendiente y vencido, o una
+     * con un paso en curso cuyo lease expiró (su worker cayó). Devuelve null si no hay ninguna.
+     */
+    public Uni<TransferSaga> claimNext(String owner, Duration lease) {
+        Instant now = Instant.now();
+        Bson filter = Filters.and(
+                Filters.or(
+                        Filters.and(Filters.in("status", ACTIONABLE), Filters.lte("nextAttemptAt", now)),
+                        Filters.in("status", IN_FLIGHT)),
+                Filters.or(Filters.eq("leaseUntil", null), Filters.lt("leaseUntil", now)));
+        return mongoCollection().findOneAndUpdate(filter,
+                Updates.combine(Updates.set("leaseOwner", owner), Updates.set("leaseUntil", now.plus(lease))),
+                new FindOneAndUpdateOptions().sort(Sorts.ascending("nextAttemptAt")).returnDocument(ReturnDocument.AFTER));
+    }
+
+    /**
+     * Guarda la saga solo si el lease sigue siendo de este worker y no ha vencido (evita que dos workers la
+     * avancen: con el lease vencido, claimNext puede estar entregándola a otro aunque leaseOwner aún no cambió).
+     *
+     * @return true si se guardó; false si el lease se perdió o expiró.
+     */
+    public Uni<Boolean> saveIfOwner(TransferSaga saga, String owner) {
+        return mongoCollection()
+                .replaceOne(Filters.and(
+                        Filters.eq("_id", saga.getId()),
+                        Filters.eq("leaseOwner", owner),
+                        Filters.gt("leaseUntil", Instant.now())), saga)
+                .onItem().transform(result -> result.getMatchedCount() == 1);
+    }
+
+    public Uni<Void> ensureIndexes() {
+        return mongoCollection().createIndexes(INDEXES).replaceWithVoid();
+    }
+}
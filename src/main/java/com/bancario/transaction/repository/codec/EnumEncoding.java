@@ -0,0 +1,7 @@
+package com.bancario.transaction.repository.codec;
+
+/** Representación BSON de los enums de Transaction (transaction-service.codec.enum-encoding). */
+public enum EnumEncoding {
+    STRING,     // Nombre del enum (formato del codec POJO; legible en consultas ad-hoc)
+    ORDINAL     // int32 con el ordinal (documentos más pequeños; el orden de las constantes no debe cambiar)
+}
@@ -0,0 +1,53 @@
+package com.bancario.transaction.repository.codec;
+
+import org.bson.BsonInvalidOperationException;
+import org.bson.BsonReader;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+/**
+ * Codec de enum que escribe el nombre y lee tanto el nombre como el ordinal.
+ * Permite que las proyecciones y entidades mapeadas por el codec POJO lean documentos
+ * escritos por {@link TransactionCodec} con enum-encoding=ORDINAL.
+ */
+public class LenientEnumCodec<E extends Enum<E>> implements Codec<E> {
+
+    private final Class<E> enumClass;
+    private final E[] constants;
+
+    // Las constantes se reciben explícitamente (E.values()) para no depender de reflexión en native.
+    public LenientEnumCodec(Class<E> enumClass, E[] constants) {
+        this.enumClass = enumClass;
+        this.constants = constants;
+    }
+
+    @Override
+    public void encode(BsonWriter writer, E value, EncoderContext encoderContext) {
+        writer.writeString(value.name());
+    }
+
+    @Override
+    public E decode(BsonReader reader, DecoderContext decoderContext) {
+        return switch (reader.getCurrentBsonType()) {
+            case STRING -> {
+                String name = reader.readString();
+                for (E constant : constants) {
+                    if (constant.name().equals(name)) {
+                        yield constant;
+                    }
+                }
+                throw new BsonInvalidOperationException("Unknown " + enumClass.getSimpleName() + " constant: " + name);
+            }
+            case INT32 -> constants[reader.readInt32()];
+            default -> throw new BsonInvalidOperationException(
+                    "Cannot decode " + enumClass.getSimpleName() + " from BSON type " + reader.getCurrentBsonType());
+        };
+    }
+
+    @Override
+    public Class<E> getEncoderClass() {
+        return enumClass;
+    }
+}
@@ -0,0 +1,41 @@
+package com.bancario.transaction.repository.codec;
+
+import com.bancario.transaction.money.Money;
+import org.bson.BsonInvalidOperationException;
+import org.bson.BsonReader;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.types.Decimal128;
+
+/**
+ * Codec BSON de {@link Money}.
+ * <p>
+ * Se escribe como Decimal128, el mismo tipo BSON que ya tenían amount y fee: los documentos
+ * existentes, el índice parcial (fee > 0) y las agregaciones ($sum, $inc) siguen funcionando sin migración.
+ * Al leer también se acepta int64 (unidades mínimas).
+ */
+public class MoneyCodec implements Codec<Money> {
+
+    @Override
+    public void encode(BsonWriter writer, Money value, EncoderContext encoderContext) {
+        writer.writeDecimal128(new Decimal128(value.toBigDecimal()));
+    }
+
+    @Override
+    public Money decode(BsonReader reader, DecoderContext decoderContext) {
+        return switch (reader.getCurrentBsonType()) {
+            // Los documentos antiguos pueden tener más decimales que la moneda.
+            case DECIMAL128 -> Money.fromExternal(reader.readDecimal128().bigDecimalValue());
+            case INT64 -> Money.ofMinor(reader.readInt64());
+            default -> throw new BsonInvalidOperationException(
+                    "Cannot decode Money from BSON type " + reader.getCurrentBsonType());
+        };
+    }
+
+    @Override
+    public Class<Money> getEncoderClass() {
+        return Money.class;
+    }
+}
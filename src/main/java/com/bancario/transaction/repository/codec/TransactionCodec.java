@@ -0,0 +1,140 @@
+package com.bancario.transaction.repository.codec;
+
+import com.bancario.transaction.enums.ProductType;
+import com.bancario.transaction.enums.TransactionType;
+import com.bancario.transaction.repository.entity.Transaction;
+import org.bson.BsonObjectId;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonValue;
+import org.bson.BsonWriter;
+import org.bson.codecs.CollectibleCodec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.types.ObjectId;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Codec escrito a mano para {@link Transaction}: lee y escribe cada campo directamente, sin la
+ * introspección ni los accesos reflexivos del codec POJO, y sin necesitar registro de reflexión en native.
+ * <p>
+ * El formato es el mismo que producía el codec POJO (mismos nombres de campo, fechas como
+ * DateTime UTC, importes como Decimal128, campos null omitidos), así que los documentos
+ * existentes se leen sin migración. Los enums se escriben según {@link EnumEncoding} y al leer
+ * se aceptan ambas representaciones.
+ */
+public class TransactionCodec implements CollectibleCodec<Transaction> {
+
+    private static final String ID = "_id";
+    private final MoneyCodec moneyCodec = new MoneyCodec();
+    private final LenientEnumCodec<TransactionType> transactionTypeCodec = new LenientEnumCodec<>(TransactionType.class, TransactionType.values());
+    private final LenientEnumCodec<ProductType> productTypeCodec = new LenientEnumCodec<>(ProductType.class, ProductType.values());
+    private final EnumEncoding enumEncoding;
+
+    public TransactionCodec(EnumEncoding enumEncoding) {
+        this.enumEncoding = enumEncoding;
+    }
+
+    @Override
+    public void encode(BsonWriter writer, Transaction value, EncoderContext encoderContext) {
+        generateIdIfAbsentFromDocument(value);
+        writer.writeStartDocument();
+        writer.writeObjectId(ID, value.getId());
+        writeString(writer, "accountId", value.getAccountId());
+        writeString(writer, "customerId", value.getCustomerId());
+        writeEnum(writer, "transactionType", value.getTransactionType());
+        if (value.getAmount() != null) {
+            writer.writeName("amount");
+            moneyCodec.encode(writer, value.getAmount(), encoderContext);
+        }
+        if (value.getFee() != null) {
+            writer.writeName("fee");
+            moneyCodec.encode(writer, value.getFee(), encoderContext);
+        }
+        writeEnum(writer, "productType", value.getProductType());
+        writeString(writer, "productName", value.getProductName());
+        if (value.getTransactionDate() != null) {
+            // Igual que el LocalDateTimeCodec del driver: milisegundos UTC.
+            writer.writeDateTime("transactionDate", value.getTransactionDate().toInstant(ZoneOffset.UTC).toEpochMilli());
+        }
+        writeString(writer, "description", value.getDescription());
+        writeString(writer, "externalReference", value.getExternalReference());
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public Transaction decode(BsonReader reader, DecoderContext decoderContext) {
+        Transaction transaction = new Transaction();
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            String name = reader.readName();
+            if (reader.getCurrentBsonType() == BsonType.NULL) {
+                reader.readNull();
+                continue;
+            }
+            switch (name) {
+                case ID -> transaction.setId(reader.readObjectId());
+                case "accountId" -> transaction.setAccountId(reader.readString());
+                case "customerId" -> transaction.setCustomerId(reader.readString());
+                case "transactionType" -> transaction.setTransactionType(transactionTypeCodec.decode(reader, decoderContext));
+                case "amount" -> transaction.setAmount(moneyCodec.decode(reader, decoderContext));
+                case "fee" -> transaction.setFee(moneyCodec.decode(reader, decoderContext));
+                case "productType" -> transaction.setProductType(productTypeCodec.decode(reader, decoderContext));
+                case "productName" -> transaction.setProductName(reader.readString());
+                case "transactionDate" -> transaction.setTransactionDate(
+                        LocalDateTime.ofInstant(Instant.ofEpochMilli(reader.readDateTime()), ZoneOffset.UTC));
+                case "description" -> transaction.setDescription(reader.readString());
+                case "externalReference" -> transaction.setExternalReference(reader.readString());
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return transaction;
+    }
+
+    @Override
+    public Class<Transaction> getEncoderClass() {
+        return Transaction.class;
+    }
+
+    @Override
+    public Transaction generateIdIfAbsentFromDocument(Transaction document) {
+        if (document.getId() == null) {
+            document.setId(new ObjectId());
+        }
+        return document;
+    }
+
+    @Override
+    public boolean documentHasId(Transaction document) {
+        return document.getId() != null;
+    }
+
+    @Override
+    public BsonValue getDocumentId(Transaction document) {
+        if (document.getId() == null) {
+            throw new IllegalStateException("The transaction does not contain an _id");
+        }
+        return new BsonObjectId(document.getId());
+    }
+
+    private static void writeString(BsonWriter writer, String name, String value) {
+        if (value != null) {
+            writer.writeString(name, value);
+        }
+    }
+
+    private void writeEnum(BsonWriter writer, String name, Enum<?> value) {
+        if (value == null) {
+            return;
+        }
+        if (enumEncoding == EnumEncoding.ORDINAL) {
+            writer.writeInt32(name, value.ordinal());
+        } else {
+            writer.writeString(name, value.name());
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.bancario.transaction.repository.codec;
+
+import com.bancario.transaction.enums.ProductType;
+import com.bancario.transaction.enums.TransactionType;
+import com.bancario.transaction.money.Money;
+import com.bancario.transaction.repository.entity.Transaction;
+import org.bson.codecs.Codec;
+import org.bson.codecs.configuration.CodecProvider;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.eclipse.microprofile.config.Config;
+import org.eclipse.microprofile.config.ConfigProvider;
+
+/**
+ * Codecs propios de la colección 'transactions'.
+ * Quarkus registra automáticamente los CodecProvider de la aplicación en el cliente MongoDB,
+ * por delante del codec POJO.
+ * <p>
+ * Con transaction-service.codec.enabled=false, Transaction vuelve al codec POJO (útil para comparar).
+ */
+public class TransactionCodecProvider implements CodecProvider {
+
+    private final boolean transactionCodecEnabled;
+    private final EnumEncoding enumEncoding;
+
+    public TransactionCodecProvider() {
+        // El cliente MongoDB instancia el provider fuera de CDI: la configuración se lee directamente.
+        Config config = ConfigProvider.getConfig();
+        this.transactionCodecEnabled = config.getOptionalValue("transaction-service.codec.enabled", Boolean.class).orElse(true);
+        this.enumEncoding = config.getOptionalValue("transaction-service.codec.enum-encoding", EnumEncoding.class)
+                .orElse(EnumEncoding.STRING);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> Codec<T> get(Class<T> clazz, CodecRegistry registry) {
+        if (clazz == Money.class) {
+            return (Codec<T>) new MoneyCodec();
+        }
+        if (clazz == Transaction.class && transactionCodecEnabled) {
+            return (Codec<T>) new TransactionCodec(enumEncoding);
+        }
+        // El codec POJO consulta el registro antes de usar su propio codec de enums.
+        if (clazz == TransactionType.class) {
+            return (Codec<T>) new LenientEnumCodec<>(TransactionType.class, TransactionType.values());
+        }
+        if (clazz == ProductType.class) {
+            return (Codec<T>) new LenientEnumCodec<>(ProductType.class, ProductType.values());
+        }
+        return null;
+    }
+}
@@ -0,0 +1,39 @@
+package com.bancario.transaction.repository.entity;
+
+import com.bancario.transaction.enums.ProductType;
+import io.quarkus.mongodb.panache.common.MongoEntity;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Total de comisiones cobradas por día, productType y productName, mantenido en escritura.
+ * El id es "día|productType|productName", de modo que un rango de días es un rango de _id.
+ */
+@Data
+@NoArgsConstructor
+@MongoEntity(collection = "commission_rollups")
+public class CommissionRollup {
+
+    public String id;
+    public String day;                  // yyyy-MM-dd (UTC, igual que $dateToString)
+    public ProductType productType;
+    public String productName;
+    public BigDecimal totalFee;
+    public long transactionCount;
+    public LocalDateTime lastUpdated;
+
+    /**
+     * Día del bucket de una transacción. El codec guarda transactionDate como DateTime UTC sin desplazar
+     * (ver TransactionCodec), así que su fecha local es el día UTC que calcula $dateToString con timezone UTC.
+     */
+    public static LocalDate dayOf(LocalDateTime transactionDate) {
+        return transactionDate.toLocalDate();
+    }
+
+    public static String bucketId(LocalDate day, ProductType productType, String productName) {
+        return day + "|" + productType + "|" + productName;
+    }
+}
@@ -0,0 +1,31 @@
+package com.bancario.transaction.repository.entity;
+
+import com.bancario.transaction.enums.IdempotencyStatus;
+import com.bancario.transaction.enums.TransactionType;
+import io.quarkus.mongodb.panache.common.MongoEntity;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Clave de idempotencia de una operación de escritura. El id es "TIPO:clave", de modo que la misma
+ * clave en endpoints distintos no colisiona. Se elimina por TTL sobre createdAt.
+ */
+@Data
+@NoArgsConstructor
+@MongoEntity(collection = "idempotency_keys")
+public class IdempotencyRecord {
+
+    public String id;
+    public TransactionType transactionType;
+    public String requestFingerprint;   // SHA-256 de la petición original
+    public IdempotencyStatus status;
+    public String response;             // TransactionResponse en JSON (solo COMPLETED)
+    public String error;                // Causa del fallo (solo FAILED)
+    public Instant createdAt;           // Instant (no LocalDateTime): el TTL se evalúa en UTC
+
+    public static String recordId(TransactionType type, String key) {
+        return type.name() + ":" + key;
+    }
+}
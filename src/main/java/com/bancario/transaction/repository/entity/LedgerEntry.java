@@ -0,0 +1,28 @@
+package com.bancario.transaction.repository.entity;
+
+import com.bancario.transaction.enums.TransactionType;
+import com.bancario.transaction.money.Money;
+import io.quarkus.mongodb.panache.common.MongoEntity;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Asiento del ledger embebido (EmbeddedLedgerCoreBankingGateway). El id es la referencia del Core
+ * que queda en Transaction.externalReference; balanceAfter permite reconstruir el saldo al arrancar.
+ */
+@Data
+@NoArgsConstructor
+@MongoEntity(collection = "ledger_entries")
+public class LedgerEntry {
+
+    public String id;
+    public String accountId;
+    public TransactionType transactionType;
+    public Money netAmount;         // Positivo abono, negativo débito
+    public Money fee;
+    public Money balanceAfter;
+    public long sequence;           // Orden de los asientos de la cuenta (1, 2, ...)
+    public Instant createdAt;
+}
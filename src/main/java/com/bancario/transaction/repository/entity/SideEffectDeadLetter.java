@@ -0,0 +1,28 @@
+package com.bancario.transaction.repository.entity;
+
+import com.bancario.transaction.enums.SideEffectType;
+import io.quarkus.mongodb.panache.common.MongoEntity;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.bson.types.ObjectId;
+
+import java.time.Instant;
+
+/**
+ * Efecto secundario que agotó sus reintentos (o seguía en cola al apagar el servicio).
+ * Contiene lo necesario para re-aplicarlo o conciliarlo manualmente.
+ */
+@Data
+@NoArgsConstructor
+@MongoEntity(collection = "side_effect_dead_letters")
+public class SideEffectDeadLetter {
+
+    public ObjectId id;
+    public SideEffectType type;
+    public String target;       // p. ej. accountId
+    public String payload;      // p. ej. delta del contador
+    public int attempts;        // 0 si no llegó a ejecutarse (pendiente al apagar)
+    public String lastError;
+    public Instant enqueuedAt;
+    public Instant failedAt;
+}
@@ -2,11 +2,11 @@ package com.bancario.transaction.repository.entity;
 
 import com.bancario.transaction.enums.ProductType;
 import com.bancario.transaction.enums.TransactionType;
+import com.bancario.transaction.money.Money;
 import io.quarkus.mongodb.panache.common.MongoEntity;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.bson.types.ObjectId;
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Data
@@ -18,9 +18,9 @@ public class Transaction {
     public String accountId;
     public String customerId;
     public TransactionType transactionType;
-    public BigDecimal amount;
+    public Money amount;
     // --- CAMPOS NECESARIOS PARA REPORTES ---
-    public BigDecimal fee;
+    public Money fee;
     public ProductType productType;     // (PASSIVE o ACTIVE)
     public String productName;          // (Detalle: ej., SAVINGS_ACCOUNT, CREDIT_CARD)
 
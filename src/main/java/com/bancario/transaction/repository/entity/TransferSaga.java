@@ -0,0 +1,48 @@
+package com.bancario.transaction.repository.entity;
+
+import com.bancario.transaction.enums.TransferSagaStatus;
+import io.quarkus.mongodb.panache.common.MongoEntity;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Estado persistido de una transferencia asíncrona. Un worker la reclama con un lease
+ * (leaseOwner/leaseUntil) y la avanza paso a paso; si el worker cae, el lease expira y otra
+ * instancia la retoma.
+ */
+@Data
+@NoArgsConstructor
+@MongoEntity(collection = "transfer_sagas")
+public class TransferSaga {
+
+    public String id;
+    public String idempotencyKey;           // Opcional (índice único disperso)
+    public String requestFingerprint;       // SHA-256 de la petición original (solo con idempotencyKey)
+    public String sourceAccountNumber;
+    public String targetAccountNumber;
+    public BigDecimal amount;
+    public String description;
+
+    public TransferSagaStatus status;
+    public String sourceAccountId;          // Resueltos en el primer paso
+    public String targetAccountId;
+    public String withdrawalTransactionId;
+    public String depositTransactionId;
+    public String reversalTransactionId;
+    // Referencias del Core, guardadas antes del registro local: con ellas el paso cuenta como aplicado
+    // (sin el transactionId local correspondiente, el movimiento está pendiente de conciliación).
+    public String withdrawalCoreTransactionId;
+    public String depositCoreTransactionId;
+    public String reversalCoreTransactionId;
+
+    public int attempts;                    // Intentos fallidos del paso actual
+    public String lastError;
+    public Instant nextAttemptAt;
+    public String leaseOwner;
+    public Instant leaseUntil;
+    public Instant createdAt;
+    public Instant updatedAt;
+}
@@ -0,0 +1,25 @@
+package com.bancario.transaction.repository.projection;
+
+import com.bancario.transaction.enums.ProductType;
+import com.bancario.transaction.money.Money;
+import com.bancario.transaction.repository.entity.Transaction;
+import io.quarkus.mongodb.panache.common.ProjectionFor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Proyección de Transaction con los campos del reporte de comisiones.
+ * MongoDB solo devuelve (y el driver solo decodifica) estos campos.
+ */
+@Data
+@NoArgsConstructor
+@ProjectionFor(Transaction.class)
+public class CommissionProjection {
+
+    public String accountId;
+    public ProductType productType;
+    public String productName;
+    public Money fee;
+    public LocalDateTime transactionDate;
+}
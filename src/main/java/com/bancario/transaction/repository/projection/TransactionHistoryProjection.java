@@ -0,0 +1,28 @@
+package com.bancario.transaction.repository.projection;
+
+import com.bancario.transaction.enums.TransactionType;
+import com.bancario.transaction.money.Money;
+import com.bancario.transaction.repository.entity.Transaction;
+import io.quarkus.mongodb.panache.common.ProjectionFor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.bson.types.ObjectId;
+import java.time.LocalDateTime;
+
+/**
+ * Proyección de Transaction para la vista reducida del historial (view=SLIM):
+ * sin customerId, description, externalReference ni datos de producto.
+ * id y transactionDate se mantienen porque forman el cursor de paginación.
+ */
+@Data
+@NoArgsConstructor
+@ProjectionFor(Transaction.class)
+public class TransactionHistoryProjection {
+
+    public ObjectId id;
+    public String accountId;
+    public TransactionType transactionType;
+    public Money amount;
+    public Money fee;
+    public LocalDateTime transactionDate;
+}
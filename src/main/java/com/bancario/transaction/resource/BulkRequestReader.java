@@ -0,0 +1,128 @@
+package com.bancario.transaction.resource;
+
+import com.bancario.transaction.dto.BulkLine;
+import com.bancario.transaction.dto.BulkTransactionRequest;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.exc.StreamReadException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectReader;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Lee el cuerpo de POST /transactions/bulk de forma incremental, una línea por demanda.
+ * <p>
+ * - NDJSON: cada línea se interpreta por separado, así que una línea mal formada solo produce un
+ *   {@link BulkLine#malformed} y la lectura sigue en la línea siguiente. Las líneas en blanco se ignoran.
+ * - Arreglo JSON: un elemento con tipos inválidos se informa y se salta; un error de sintaxis deja
+ *   el resto del arreglo ilegible, por lo que se informa y la lectura termina.
+ */
+@Slf4j
+final class BulkRequestReader implements Iterator<BulkLine> {
+
+    private final ObjectReader reader;
+    private final BufferedReader body;
+    private MappingIterator<BulkTransactionRequest> array;
+    private boolean started;
+    private boolean finished;
+    private long line;
+    private BulkLine next;
+
+    BulkRequestReader(ObjectReader reader, InputStream body) {
+        this.reader = reader;
+        this.body = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null && !finished) {
+            next = read();
+        }
+        return next != null;
+    }
+
+    @Override
+    public BulkLine next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        BulkLine current = next;
+        next = null;
+        return current;
+    }
+
+    private BulkLine read() {
+        try {
+            if (!started) {
+                started = true;
+                if (startsWithArray()) {
+                    array = reader.readValues(body);
+                }
+            }
+            BulkLine read = array != null ? readElement() : readLine();
+            if (read == null) {
+                finished = true;
+            }
+            return read;
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer la carga masiva.", e);
+        }
+    }
+
+    private BulkLine readLine() throws IOException {
+        String text;
+        do {
+            text = body.readLine();
+            if (text == null) {
+                return null;
+            }
+            line++;
+        } while (text.isBlank());
+
+        try {
+            return BulkLine.parsed(line, reader.readValue(text));
+        } catch (JsonProcessingException e) {
+            log.warn("CARGA MASIVA | Línea {} mal formada: {}", line, e.getOriginalMessage());
+            return BulkLine.malformed(line, "Línea mal formada: " + e.getOriginalMessage());
+        }
+    }
+
+    private BulkLine readElement() throws IOException {
+        line++;
+        try {
+            return array.hasNextValue() ? BulkLine.parsed(line, array.nextValue()) : null;
+        } catch (StreamReadException e) {
+            // JSON sintácticamente inválido: no hay forma fiable de encontrar el siguiente elemento.
+            finished = true;
+            log.warn("CARGA MASIVA | Arreglo JSON mal formado en el elemento {}: {}", line, e.getOriginalMessage());
+            return BulkLine.malformed(line, "JSON mal formado; el resto de la carga no se procesó: " + e.getOriginalMessage());
+        } catch (JsonProcessingException e) {
+            // Tipos inválidos: el MappingIterator se resincroniza al final del elemento y sigue con el próximo.
+            log.warn("CARGA MASIVA | Elemento {} mal formado: {}", line, e.getOriginalMessage());
+            return BulkLine.malformed(line, "Línea mal formada: " + e.getOriginalMessage());
+        }
+    }
+
+    /** Mira el primer carácter significativo sin consumirlo. */
+    private boolean startsWithArray() throws IOException {
+        while (true) {
+            body.mark(1);
+            int c = body.read();
+            if (c < 0) {
+                return false;
+            }
+            if (!Character.isWhitespace(c)) {
+                body.reset();
+                return c == '[';
+            }
+        }
+    }
+}
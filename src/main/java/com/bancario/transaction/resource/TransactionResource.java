@@ -1,12 +1,31 @@
 package com.bancario.transaction.resource;
 
+import com.bancario.transaction.dto.BulkIngestionEvent;
+import com.bancario.transaction.dto.BulkLine;
+import com.bancario.transaction.dto.BulkTransactionRequest;
 import com.bancario.transaction.dto.CommissionReportDto;
+import com.bancario.transaction.dto.CommissionRollupCheck;
+import com.bancario.transaction.dto.CommissionRollupRebuildResult;
+import com.bancario.transaction.dto.CommissionSummaryDto;
+import com.bancario.transaction.dto.TransactionHistoryQuery;
+import com.bancario.transaction.dto.TransactionPage;
 import com.bancario.transaction.dto.TransactionRequest;
 import com.bancario.transaction.dto.TransactionResponse;
 import com.bancario.transaction.dto.TransferRequest;
+import com.bancario.transaction.dto.TransferSagaResponse;
+import com.bancario.transaction.enums.CommissionReportSource;
+import com.bancario.transaction.enums.TransactionHistoryView;
+import com.bancario.transaction.enums.TransactionType;
+import com.bancario.transaction.mapper.TransactionMapper;
+import com.bancario.transaction.service.BulkTransactionService;
+import com.bancario.transaction.service.CommissionRollupService;
 import com.bancario.transaction.service.TransactionService;
+import com.bancario.transaction.service.TransferSagaService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.smallrye.common.annotation.Blocking;
 import io.smallrye.mutiny.Multi;
 import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
 import jakarta.inject.Inject;
 import jakarta.validation.Valid;
 import jakarta.ws.rs.*;
@@ -20,7 +39,11 @@ import org.eclipse.microprofile.openapi.annotations.parameters.Parameter;
 import org.eclipse.microprofile.openapi.annotations.parameters.RequestBody;
 import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
 import org.eclipse.microprofile.openapi.annotations.tags.Tag;
+import org.jboss.resteasy.reactive.RestStreamElementType;
 
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.net.URI;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -31,9 +54,28 @@ import java.util.List;
 @Tag(name = "Transactions", description = "Operations for managing bank account transactions.")
 public class TransactionResource {
 
+    static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    static final String IDEMPOTENCY_KEY_DESCRIPTION =
+            "Clave única por operación (p. ej. un UUID). Los reintentos con la misma clave devuelven la respuesta original sin volver a ejecutarla.";
+
     @Inject
     TransactionService transactionService;
 
+    @Inject
+    BulkTransactionService bulkTransactionService;
+
+    @Inject
+    CommissionRollupService commissionRollupService;
+
+    @Inject
+    TransferSagaService transferSagaService;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Inject
+    TransactionMapper transactionMapper;
+
     @POST
     @Path("/deposit")
     @Operation(summary = "Process a deposit into a bank account.")
@@ -46,6 +88,7 @@ public class TransactionResource {
             )
     )
     @APIResponse(responseCode = "400", description = "Invalid request or account not found/inactive")
+    @APIResponse(responseCode = "409", description = "Idempotency-Key in progress on another instance or reused with a different request")
     @APIResponse(responseCode = "500", description = "Internal server error")
     public Uni<Response> processDeposit(
             @RequestBody(
@@ -53,8 +96,12 @@ public class TransactionResource {
                     required = true,
                     content = @Content(schema = @Schema(implementation = TransactionRequest.class))
             )
-            TransactionRequest request) {
-        return transactionService.processDeposit(request)
+            TransactionRequest request,
+
+            @HeaderParam(IDEMPOTENCY_KEY)
+            @Parameter(description = IDEMPOTENCY_KEY_DESCRIPTION)
+            String idempotencyKey) {
+        return transactionService.processDeposit(request, idempotencyKey)
                 .onItem().transform(transactionResponse ->
                         Response.ok(transactionResponse).build()
                 );
@@ -72,6 +119,7 @@ public class TransactionResource {
             )
     )
     @APIResponse(responseCode = "400", description = "Invalid request, insufficient funds, or account not found/inactive")
+    @APIResponse(responseCode = "409", description = "Idempotency-Key in progress on another instance or reused with a different request")
     @APIResponse(responseCode = "500", description = "Internal server error")
     public Uni<Response> processWithdrawal(
             @RequestBody(
@@ -79,8 +127,12 @@ public class TransactionResource {
                     required = true,
                     content = @Content(schema = @Schema(implementation = TransactionRequest.class))
             )
-            TransactionRequest request) {
-        return transactionService.processWithdrawal(request)
+            TransactionRequest request,
+
+            @HeaderParam(IDEMPOTENCY_KEY)
+            @Parameter(description = IDEMPOTENCY_KEY_DESCRIPTION)
+            String idempotencyKey) {
+        return transactionService.processWithdrawal(request, idempotencyKey)
                 .onItem().transform(transactionResponse ->
                         Response.ok(transactionResponse).build()
                 );
@@ -158,6 +210,67 @@ public class TransactionResource {
         return transactionService.findByAccountId(accountId);
     }
 
+    @GET
+    @Path("/history")
+    @Operation(summary = "Obtiene el historial de movimientos de una cuenta, paginado por cursor.",
+            description = "Devuelve los movimientos del más reciente al más antiguo. Para la página siguiente, " +
+                    "enviar el valor 'nextCursor' recibido en el parámetro 'cursor' manteniendo los mismos filtros.")
+    @APIResponse(
+            responseCode = "200",
+            description = "Página de movimientos",
+            content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = TransactionPage.class)
+            )
+    )
+    @APIResponse(responseCode = "400", description = "Filtros, tamaño de página o cursor inválidos.")
+    @APIResponse(responseCode = "500", description = "Error interno del servidor")
+    public Uni<TransactionPage> getTransactionHistory(
+            @QueryParam("accountId")
+            @Parameter(description = "ID de la cuenta", required = true)
+            String accountId,
+
+            @QueryParam("startDate")
+            @Parameter(description = "Fecha de inicio (YYYY-MM-DD, inclusiva)", example = "2025-01-01")
+            LocalDate startDate,
+
+            @QueryParam("endDate")
+            @Parameter(description = "Fecha de fin (YYYY-MM-DD, inclusiva)", example = "2025-01-31")
+            LocalDate endDate,
+
+            @QueryParam("transactionType")
+            @Parameter(description = "Tipo de transacción")
+            TransactionType transactionType,
+
+            @QueryParam("minAmount")
+            @Parameter(description = "Monto mínimo (inclusivo)")
+            BigDecimal minAmount,
+
+            @QueryParam("maxAmount")
+            @Parameter(description = "Monto máximo (inclusivo)")
+            BigDecimal maxAmount,
+
+            @QueryParam("cursor")
+            @Parameter(description = "Cursor opaco 'nextCursor' de la página anterior")
+            String cursor,
+
+            @QueryParam("limit")
+            @DefaultValue("50")
+            @Parameter(description = "Tamaño de página (1-500)")
+            int limit,
+
+            @QueryParam("view")
+            @DefaultValue("FULL")
+            @Parameter(description = "FULL devuelve todos los campos; SLIM omite customerId, description y externalReference")
+            TransactionHistoryView view
+    ) {
+        if (limit < 1 || limit > 500) {
+            throw new IllegalArgumentException("El tamaño de página debe estar entre 1 y 500.");
+        }
+        return transactionService.findHistory(new TransactionHistoryQuery(
+                accountId, startDate, endDate, transactionType, minAmount, maxAmount, cursor, limit, view));
+    }
+
     @POST
     @Path("/transfers")
     @Operation(summary = "Realiza una transferencia de fondos entre dos cuentas.",
@@ -170,15 +283,60 @@ public class TransactionResource {
             content = @Content(schema = @Schema(implementation = TransactionResponse.class)))
     @APIResponse(responseCode = "400", description = "Solicitud inválida, cuenta no encontrada, saldo insuficiente, o cuenta no activa (Manejado por GlobalExceptionMapper).",
             content = @Content(mediaType = MediaType.APPLICATION_JSON))
+    @APIResponse(responseCode = "409", description = "Idempotency-Key en curso en otra instancia o reutilizada con otra petición.",
+            content = @Content(mediaType = MediaType.APPLICATION_JSON))
     @APIResponse(responseCode = "500", description = "Fallo interno del servidor o error de compensación.",
             content = @Content(mediaType = MediaType.APPLICATION_JSON))
-    public Uni<Response> processTransfer(@Valid TransferRequest request) {
-        return transactionService.processTransfer(request)
+    public Uni<Response> processTransfer(
+            @Valid TransferRequest request,
+
+            @HeaderParam(IDEMPOTENCY_KEY)
+            @Parameter(description = IDEMPOTENCY_KEY_DESCRIPTION)
+            String idempotencyKey) {
+        return transactionService.processTransfer(request, idempotencyKey)
                 .onItem().transform(response ->
                         Response.ok(response).build()
                 );
     }
 
+    @POST
+    @Path("/transfers/async")
+    @Operation(summary = "Registra una transferencia asíncrona y responde sin esperar a la orquestación.",
+            description = "Persiste la transferencia y responde 202 con la URL de estado (cabecera Location). " +
+                    "Un worker ejecuta después el retiro, el depósito y, si el depósito falla, la reversión, con reintentos.")
+    @RequestBody(required = true, description = "Datos de la cuenta de origen, destino y monto.",
+            content = @Content(schema = @Schema(implementation = TransferRequest.class)))
+    @APIResponse(responseCode = "202", description = "Transferencia aceptada.",
+            content = @Content(schema = @Schema(implementation = TransferSagaResponse.class)))
+    @APIResponse(responseCode = "400", description = "Solicitud inválida.",
+            content = @Content(mediaType = MediaType.APPLICATION_JSON))
+    @APIResponse(responseCode = "409", description = "Idempotency-Key reutilizada con una petición diferente.",
+            content = @Content(mediaType = MediaType.APPLICATION_JSON))
+    public Uni<Response> submitTransfer(
+            @Valid TransferRequest request,
+
+            @HeaderParam(IDEMPOTENCY_KEY)
+            @Parameter(description = IDEMPOTENCY_KEY_DESCRIPTION)
+            String idempotencyKey) {
+        return transferSagaService.submit(request, idempotencyKey)
+                .onItem().transform(saga -> Response.accepted(saga)
+                        .location(URI.create("/transactions/transfers/" + saga.id()))
+                        .build());
+    }
+
+    @GET
+    @Path("/transfers/{id}")
+    @Operation(summary = "Consulta el estado de una transferencia asíncrona.")
+    @APIResponse(responseCode = "200", description = "Estado de la transferencia.",
+            content = @Content(schema = @Schema(implementation = TransferSagaResponse.class)))
+    @APIResponse(responseCode = "404", description = "La transferencia no existe.")
+    public Uni<Response> getTransferStatus(@PathParam("id") String id) {
+        return transferSagaService.findById(id)
+                .onItem().transform(saga -> saga != null
+                        ? Response.ok(saga).build()
+                        : Response.status(Response.Status.NOT_FOUND).build());
+    }
+
     @GET
     @Path("/commissions")
     @Operation(summary = "Obtiene el detalle de comisiones cobradas en un rango de fechas.")
@@ -213,4 +371,192 @@ public class TransactionResource {
                         log.error("API | Error al devolver datos de comisiones: {}", e.getMessage())
                 );
     }
+
+    @GET
+    @Path("/commissions/export")
+    @Produces("application/x-ndjson")
+    @RestStreamElementType(MediaType.APPLICATION_JSON)
+    @Operation(summary = "Exporta en streaming las comisiones cobradas en un rango de fechas (NDJSON).",
+            description = "Mismo contenido que /commissions, una comisión por línea. Las filas se leen de la base de datos " +
+                    "a medida que el cliente las consume, por lo que el rango no está limitado por la memoria del servicio. " +
+                    "Con 'Accept: text/csv' devuelve el mismo contenido en CSV.")
+    @APIResponse(responseCode = "200", description = "Flujo de comisiones, una por línea.")
+    @APIResponse(responseCode = "400", description = "Fechas inválidas o formato incorrecto.")
+    public Multi<CommissionReportDto> exportCommissionsNdjson(
+            @QueryParam("startDate")
+            @Parameter(description = "Fecha de inicio del periodo (YYYY-MM-DD)", required = true, example = "2025-01-01")
+            LocalDate startDate,
+
+            @QueryParam("endDate")
+            @Parameter(description = "Fecha de fin del periodo (YYYY-MM-DD)", required = true, example = "2025-01-31")
+            LocalDate endDate
+    ) {
+        log.info("API | Exportación NDJSON de comisiones recibida. Inicio: {}, Fin: {}", startDate, endDate);
+        validateDateRange(startDate, endDate);
+        return transactionService.streamCommissionsReportData(startDate, endDate);
+    }
+
+    @GET
+    @Path("/commissions/export")
+    @Produces("text/csv")
+    @Operation(summary = "Exporta en streaming las comisiones cobradas en un rango de fechas (CSV).",
+            description = "Cabecera y una fila por comisión. Las filas se escriben a medida que el cliente las consume.")
+    @APIResponse(responseCode = "200", description = "Archivo CSV de comisiones.")
+    @APIResponse(responseCode = "400", description = "Fechas inválidas o formato incorrecto.")
+    public Multi<String> exportCommissionsCsv(
+            @QueryParam("startDate")
+            @Parameter(description = "Fecha de inicio del periodo (YYYY-MM-DD)", required = true, example = "2025-01-01")
+            LocalDate startDate,
+
+            @QueryParam("endDate")
+            @Parameter(description = "Fecha de fin del periodo (YYYY-MM-DD)", required = true, example = "2025-01-31")
+            LocalDate endDate
+    ) {
+        log.info("API | Exportación CSV de comisiones recibida. Inicio: {}, Fin: {}", startDate, endDate);
+        validateDateRange(startDate, endDate);
+
+        // Cada fila es un chunk de la respuesta; la siguiente solo se pide al cursor cuando la anterior se escribió.
+        Multi<String> rows = transactionService.streamCommissionsReportData(startDate, endDate)
+                .onItem().transform(transactionMapper::toCommissionCsvRow);
+        return Multi.createBy().concatenating().streams(
+                Multi.createFrom().item(TransactionMapper.COMMISSION_CSV_HEADER), rows);
+    }
+
+    @GET
+    @Path("/commissions/summary")
+    @Operation(summary = "Obtiene el resumen de comisiones cobradas, agregado por día y producto.",
+            description = "Devuelve totales y cantidad de transacciones por día, productType y productName " +
+                    "(y por cuenta si groupByAccount=true), calculados en la base de datos.")
+    @APIResponse(
+            responseCode = "200",
+            description = "Totales de comisiones agregados.",
+            content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = CommissionSummaryDto.class)
+            )
+    )
+    @APIResponse(responseCode = "400", description = "Fechas inválidas o formato incorrecto.")
+    @APIResponse(responseCode = "500", description = "Error interno del servidor")
+    public Uni<List<CommissionSummaryDto>> getCommissionsSummary(
+            @QueryParam("startDate")
+            @Parameter(description = "Fecha de inicio del periodo (YYYY-MM-DD)", required = true, example = "2025-01-01")
+            LocalDate startDate,
+
+            @QueryParam("endDate")
+            @Parameter(description = "Fecha de fin del periodo (YYYY-MM-DD)", required = true, example = "2025-01-31")
+            LocalDate endDate,
+
+            @QueryParam("groupByAccount")
+            @DefaultValue("false")
+            @Parameter(description = "Agrupar también por cuenta (solo con source=TRANSACTIONS)")
+            boolean groupByAccount,
+
+            @QueryParam("source")
+            @DefaultValue("TRANSACTIONS")
+            @Parameter(description = "TRANSACTIONS agrega las transacciones; ROLLUPS lee los totales diarios precalculados")
+            CommissionReportSource source
+    ) {
+        log.info("API | Petición de resumen de comisiones recibida. Inicio: {}, Fin: {}, Por cuenta: {}, Origen: {}",
+                startDate, endDate, groupByAccount, source);
+
+        if (startDate.isAfter(endDate)) {
+            log.warn("API | Validación fallida: startDate ({}) es posterior a endDate ({}).", startDate, endDate);
+            throw new IllegalArgumentException("La fecha de inicio no puede ser posterior a la fecha de fin.");
+        }
+        if (groupByAccount && source == CommissionReportSource.ROLLUPS) {
+            throw new IllegalArgumentException("groupByAccount is not supported with source=ROLLUPS.");
+        }
+
+        return transactionService.getCommissionsSummary(startDate, endDate, groupByAccount, source);
+    }
+
+    @POST
+    @Path("/commissions/rollups/rebuild")
+    @Operation(summary = "Regenera los totales diarios de comisiones a partir de las transacciones.",
+            description = "Recalcula los buckets de 'commission_rollups' del rango indicado y elimina los que ya no correspondan. " +
+                    "El día en curso se excluye (sigue recibiendo comisiones): el resultado indica el rango regenerado.")
+    @APIResponse(
+            responseCode = "200",
+            description = "Buckets regenerados.",
+            content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = CommissionRollupRebuildResult.class)
+            )
+    )
+    @APIResponse(responseCode = "400", description = "Fechas inválidas o formato incorrecto.")
+    public Uni<CommissionRollupRebuildResult> rebuildCommissionRollups(
+            @QueryParam("startDate")
+            @Parameter(description = "Fecha de inicio del periodo (YYYY-MM-DD)", required = true, example = "2025-01-01")
+            LocalDate startDate,
+
+            @QueryParam("endDate")
+            @Parameter(description = "Fecha de fin del periodo (YYYY-MM-DD)", required = true, example = "2025-01-31")
+            LocalDate endDate
+    ) {
+        log.info("API | Petición de regeneración de rollups de comisiones. Inicio: {}, Fin: {}", startDate, endDate);
+        validateDateRange(startDate, endDate);
+        return commissionRollupService.rebuild(startDate, endDate);
+    }
+
+    @GET
+    @Path("/commissions/rollups/check")
+    @Operation(summary = "Compara los totales diarios de comisiones con las transacciones.",
+            description = "Devuelve los buckets cuyos totales o cantidades difieren entre 'commission_rollups' y 'transactions'.")
+    @APIResponse(
+            responseCode = "200",
+            description = "Resultado de la comparación.",
+            content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = CommissionRollupCheck.class)
+            )
+    )
+    @APIResponse(responseCode = "400", description = "Fechas inválidas o formato incorrecto.")
+    public Uni<CommissionRollupCheck> checkCommissionRollups(
+            @QueryParam("startDate")
+            @Parameter(description = "Fecha de inicio del periodo (YYYY-MM-DD)", required = true, example = "2025-01-01")
+            LocalDate startDate,
+
+            @QueryParam("endDate")
+            @Parameter(description = "Fecha de fin del periodo (YYYY-MM-DD)", required = true, example = "2025-01-31")
+            LocalDate endDate
+    ) {
+        validateDateRange(startDate, endDate);
+        return commissionRollupService.check(startDate, endDate);
+    }
+
+    private static void validateDateRange(LocalDate startDate, LocalDate endDate) {
+        if (startDate == null || endDate == null) {
+            throw new IllegalArgumentException("startDate and endDate are required.");
+        }
+        if (startDate.isAfter(endDate)) {
+            log.warn("API | Validación fallida: startDate ({}) es posterior a endDate ({}).", startDate, endDate);
+            throw new IllegalArgumentException("La fecha de inicio no puede ser posterior a la fecha de fin.");
+        }
+    }
+
+    @POST
+    @Path("/bulk")
+    @Blocking
+    @Consumes({"application/x-ndjson", MediaType.APPLICATION_JSON})
+    @Produces("application/x-ndjson")
+    @RestStreamElementType(MediaType.APPLICATION_JSON)
+    @Operation(summary = "Carga masiva de depósitos, retiros, pagos y consumos.",
+            description = "Recibe un flujo NDJSON (o un arreglo JSON) de operaciones y devuelve, también en NDJSON, " +
+                    "un resultado por línea a medida que termina y un resumen final con el throughput. " +
+                    "Las operaciones de una misma cuenta se aplican en el orden de entrada.")
+    @RequestBody(required = true, description = "Una operación por línea (BulkTransactionRequest).",
+            content = @Content(schema = @Schema(implementation = BulkTransactionRequest.class)))
+    @APIResponse(responseCode = "200", description = "Flujo de resultados por línea y resumen final.")
+    public Multi<BulkIngestionEvent> ingestBulk(InputStream body) {
+        log.info("API | Carga masiva recibida.");
+
+        // El cuerpo se lee de forma incremental (una línea por demanda) en un hilo worker:
+        // nunca se carga completo en memoria ni se bloquea el event-loop.
+        // Admite tanto NDJSON como un arreglo JSON; una línea mal formada se informa como fallo de esa línea.
+        Multi<BulkLine> lines = Multi.createFrom()
+                .<BulkLine>iterable(() -> new BulkRequestReader(objectMapper.readerFor(BulkTransactionRequest.class), body))
+                .runSubscriptionOn(Infrastructure.getDefaultWorkerPool());
+
+        return bulkTransactionService.ingest(lines);
+    }
 }
\ No newline at end of file
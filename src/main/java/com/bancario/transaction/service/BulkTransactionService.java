@@ -0,0 +1,19 @@
+package com.bancario.transaction.service;
+
+import com.bancario.transaction.dto.BulkIngestionEvent;
+import com.bancario.transaction.dto.BulkLine;
+import io.smallrye.mutiny.Multi;
+
+public interface BulkTransactionService {
+
+    /**
+     * Procesa un flujo de operaciones (depósitos, retiros, pagos o consumos) con concurrencia acotada.
+     * Las operaciones de una misma cuenta se aplican en el orden de entrada.
+     *
+     * Las líneas mal formadas se informan como resultado fallido sin interrumpir la carga.
+     *
+     * @param lines Flujo de líneas de la carga masiva, consumido bajo demanda (backpressure).
+     * @return Flujo con un resultado por línea, a medida que terminan, y un resumen final.
+     */
+    Multi<BulkIngestionEvent> ingest(Multi<BulkLine> lines);
+}
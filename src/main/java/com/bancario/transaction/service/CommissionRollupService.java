@@ -0,0 +1,33 @@
+package com.bancario.transaction.service;
+
+import com.bancario.transaction.dto.CommissionRollupCheck;
+import com.bancario.transaction.dto.CommissionRollupRebuildResult;
+import com.bancario.transaction.repository.entity.Transaction;
+import io.smallrye.mutiny.Uni;
+
+import java.time.LocalDate;
+
+public interface CommissionRollupService {
+
+    /**
+     * Suma la comisión de una transacción ya persistida a su bucket diario.
+     * No falla: si el $inc no se aplica se registra el error y el bucket se corrige con rebuild.
+     */
+    Uni<Void> record(Transaction transaction);
+
+    /**
+     * Regenera los buckets de los días [startDate, endDate] a partir de la colección 'transactions'.
+     * <p>
+     * El reemplazo no es atómico respecto de record(): un $inc sobre un día del rango que llegue mientras
+     * se regenera se pierde. Por eso el día en curso (y los posteriores) se excluye y endDate se recorta
+     * al día anterior; el resultado indica el rango realmente regenerado. Aun así, un registro tardío de
+     * un día ya cerrado (reintento en segundo plano, lote del write-behind en torno a medianoche) puede
+     * cruzarse con el rebuild: check() lo detecta y basta con volver a regenerar ese día.
+     */
+    Uni<CommissionRollupRebuildResult> rebuild(LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Compara los buckets de los días [startDate, endDate] con la agregación sobre 'transactions'.
+     */
+    Uni<CommissionRollupCheck> check(LocalDate startDate, LocalDate endDate);
+}
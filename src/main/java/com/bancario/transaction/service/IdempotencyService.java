@@ -0,0 +1,34 @@
+package com.bancario.transaction.service;
+
+import com.bancario.transaction.dto.TransactionResponse;
+import com.bancario.transaction.enums.TransactionType;
+import io.smallrye.mutiny.Uni;
+
+import java.util.function.Supplier;
+
+public interface IdempotencyService {
+
+    /**
+     * Ejecuta la operación una sola vez por clave de idempotencia.
+     * <p>
+     * - Sin clave, la operación se ejecuta normalmente.
+     * - Una clave ya completada devuelve la respuesta guardada, sin llamadas al Account-Service.
+     * - Un duplicado concurrente en la misma instancia espera el resultado de la primera ejecución;
+     *   en otra instancia recibe IdempotencyConflictException (409) mientras siga en curso.
+     * - La ejecución no se cancela si el llamador abandona (p. ej. por @Timeout): su resultado
+     *   queda guardado para el reintento.
+     * - Si la operación falla sin haber tenido efecto, la clave se libera y el reintento vuelve a
+     *   ejecutarla. Solo cuentan como "sin efecto" IllegalArgumentException (validación, incluida
+     *   InsufficientFundsException) y AccountUnavailableException (la cuenta no se pudo leer antes del
+     *   Core); la operación no debe lanzarlas después de aplicar el movimiento. Cualquier otro fallo
+     *   puede haber movido saldo: la clave queda FAILED y los reintentos reciben 409, nunca una
+     *   segunda ejecución.
+     *
+     * @param type      Tipo de operación; la misma clave en tipos distintos son claves distintas.
+     * @param key       Valor de la cabecera Idempotency-Key (puede ser null).
+     * @param request   Petición original; una clave reutilizada con otra petición se rechaza (409).
+     * @param operation Proveedor del Uni de la operación.
+     */
+    Uni<TransactionResponse> execute(TransactionType type, String key, Object request,
+                                     Supplier<Uni<TransactionResponse>> operation);
+}
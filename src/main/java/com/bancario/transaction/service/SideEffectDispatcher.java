@@ -0,0 +1,26 @@
+package com.bancario.transaction.service;
+
+import com.bancario.transaction.enums.SideEffectType;
+import io.smallrye.mutiny.Uni;
+
+import java.util.function.Supplier;
+
+public interface SideEffectDispatcher {
+
+    /**
+     * Encola un efecto secundario posterior al commit para ejecutarlo en segundo plano.
+     * <p>
+     * - La cola es acotada y la ejecución usa un número máximo de efectos simultáneos.
+     * - Los fallos se reintentan con backoff exponencial con jitter; agotados los reintentos,
+     *   el efecto se guarda en la dead-letter ('side_effect_dead_letters').
+     * - Al apagar, se espera a vaciar la cola; lo que quede pendiente va a la dead-letter.
+     *
+     * @param type    Tipo de efecto (se guarda en la dead-letter).
+     * @param target  Destino del efecto, p. ej. el id de la cuenta.
+     * @param payload Datos necesarios para re-aplicarlo, p. ej. el delta del contador.
+     * @param action  Proveedor del Uni que ejecuta el efecto; se invoca de nuevo en cada reintento.
+     * @return false si la cola está llena o el servicio se está apagando. El efecto NO se encola y
+     *         el llamador decide qué hacer (p. ej. volver a acumularlo).
+     */
+    boolean dispatch(SideEffectType type, String target, String payload, Supplier<Uni<Void>> action);
+}
@@ -1,9 +1,13 @@
 package com.bancario.transaction.service;
 
 import com.bancario.transaction.dto.CommissionReportDto;
+import com.bancario.transaction.dto.CommissionSummaryDto;
+import com.bancario.transaction.dto.TransactionHistoryQuery;
+import com.bancario.transaction.dto.TransactionPage;
 import com.bancario.transaction.dto.TransactionRequest;
 import com.bancario.transaction.dto.TransactionResponse;
 import com.bancario.transaction.dto.TransferRequest;
+import com.bancario.transaction.enums.CommissionReportSource;
 import io.smallrye.mutiny.Multi;
 import io.smallrye.mutiny.Uni;
 
@@ -16,17 +20,37 @@ public interface TransactionService {
      * Processes a deposit transaction.
      *
      * @param request The details of the deposit.
+     * @param idempotencyKey Optional Idempotency-Key; a retry with the same key returns the stored response.
      * @return A Uni that emits the processed transaction response.
      */
-    Uni<TransactionResponse> processDeposit(TransactionRequest request);
+    Uni<TransactionResponse> processDeposit(TransactionRequest request, String idempotencyKey);
 
     /**
      * Processes a withdrawal transaction.
      *
      * @param request The details of the withdrawal.
+     * @param idempotencyKey Optional Idempotency-Key; a retry with the same key returns the stored response.
      * @return A Uni that emits the processed transaction response.
      */
-    Uni<TransactionResponse> processWithdrawal(TransactionRequest request);
+    Uni<TransactionResponse> processWithdrawal(TransactionRequest request, String idempotencyKey);
+
+    /**
+     * Depósito de una línea de carga masiva: mismo pipeline que processDeposit, sin Idempotency-Key
+     * y sin su @Timeout ni su @CircuitBreaker, pensados para el tráfico interactivo. Así, muchas líneas
+     * lentas o rechazadas de una misma cuenta no abren el circuito de los depósitos de los clientes.
+     *
+     * @param request The details of the deposit.
+     * @return A Uni that emits the processed transaction response.
+     */
+    Uni<TransactionResponse> processBulkDeposit(TransactionRequest request);
+
+    /**
+     * Retiro de una línea de carga masiva (ver processBulkDeposit).
+     *
+     * @param request The details of the withdrawal.
+     * @return A Uni that emits the processed transaction response.
+     */
+    Uni<TransactionResponse> processBulkWithdrawal(TransactionRequest request);
 
     /**
      * Processes a payment for a credit product.
@@ -51,13 +75,21 @@ public interface TransactionService {
      */
     Multi<TransactionResponse> findByAccountId(String accountId);
 
+    /**
+     * Obtiene una página del historial de movimientos de una cuenta (paginación por cursor).
+     * @param query Filtros opcionales (fechas, tipo, rango de montos), cursor y tamaño de página.
+     * @return Uni con la página y el cursor opaco de la siguiente (null si no hay más).
+     */
+    Uni<TransactionPage> findHistory(TransactionHistoryQuery query);
+
     /**
      * Procesa una transferencia de fondos entre dos cuentas (origen y destino).
      * Requiere los números de cuenta para la orquestación.
      * @param request Datos de la transferencia (números de cuenta, monto, descripción).
+     * @param idempotencyKey Idempotency-Key opcional; un reintento con la misma clave devuelve la respuesta guardada.
      * @return Uni<TransactionResponse> Respuesta consolidada de la transferencia.
      */
-    Uni<TransactionResponse> processTransfer(TransferRequest request);
+    Uni<TransactionResponse> processTransfer(TransferRequest request, String idempotencyKey);
 
     /**
      * Obtiene los datos detallados de comisiones cobradas, filtrados por rango de fechas.
@@ -67,4 +99,26 @@ public interface TransactionService {
      * @return Uni que emite una lista de CommissionReportDto.
      */
     Uni<List<CommissionReportDto>> getCommissionsReportData(LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Variante en streaming de getCommissionsReportData para exportaciones de rangos grandes:
+     * las filas se leen del cursor de MongoDB a medida que el consumidor las pide, sin acumular
+     * el resultado en memoria.
+     * @param startDate La fecha de inicio del periodo.
+     * @param endDate La fecha de fin del periodo (inclusiva).
+     * @return Flujo reactivo (Multi) de CommissionReportDto, ordenado por fecha.
+     */
+    Multi<CommissionReportDto> streamCommissionsReportData(LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Obtiene el reporte de comisiones ya agregado en MongoDB: totales y cantidad de transacciones
+     * por día, productType y productName (opcionalmente también por cuenta), en lugar de las filas.
+     * @param startDate La fecha de inicio del periodo.
+     * @param endDate La fecha de fin del periodo (inclusiva).
+     * @param groupByAccount Si es true, agrega además por accountId (solo con source TRANSACTIONS).
+     * @param source TRANSACTIONS agrega las transacciones; ROLLUPS lee los buckets diarios mantenidos en escritura.
+     * @return Uni que emite una lista de CommissionSummaryDto.
+     */
+    Uni<List<CommissionSummaryDto>> getCommissionsSummary(LocalDate startDate, LocalDate endDate, boolean groupByAccount,
+                                                          CommissionReportSource source);
 }
\ No newline at end of file
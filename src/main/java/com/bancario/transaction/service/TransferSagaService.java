@@ -0,0 +1,25 @@
+package com.bancario.transaction.service;
+
+import com.bancario.transaction.dto.TransferRequest;
+import com.bancario.transaction.dto.TransferSagaResponse;
+import io.smallrye.mutiny.Uni;
+
+public interface TransferSagaService {
+
+    /**
+     * Registra una transferencia asíncrona (un único insert en 'transfer_sagas').
+     * Los workers la avanzan después: retiro, depósito y, si el depósito falla, reversión.
+     * @param request Datos de la transferencia.
+     * @param idempotencyKey Idempotency-Key opcional; un reintento con la misma clave devuelve la saga existente;
+     *                       reutilizada con otra petición, falla con IdempotencyConflictException (409).
+     * @return Uni con el estado inicial de la saga.
+     */
+    Uni<TransferSagaResponse> submit(TransferRequest request, String idempotencyKey);
+
+    /**
+     * Consulta el estado de una transferencia asíncrona.
+     * @param id ID de la saga.
+     * @return Uni con el estado, o null si no existe.
+     */
+    Uni<TransferSagaResponse> findById(String id);
+}
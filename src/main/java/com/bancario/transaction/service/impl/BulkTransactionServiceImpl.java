@@ -0,0 +1,113 @@
+package com.bancario.transaction.service.impl;
+
+import com.bancario.transaction.dto.BulkIngestionEvent;
+import com.bancario.transaction.dto.BulkIngestionSummary;
+import com.bancario.transaction.dto.BulkLine;
+import com.bancario.transaction.dto.BulkTransactionRequest;
+import com.bancario.transaction.dto.BulkTransactionResult;
+import com.bancario.transaction.dto.TransactionRequest;
+import com.bancario.transaction.dto.TransactionResponse;
+import com.bancario.transaction.service.BulkTransactionService;
+import com.bancario.transaction.service.TransactionService;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+@Slf4j
+@ApplicationScoped
+public class BulkTransactionServiceImpl implements BulkTransactionService {
+
+    @Inject
+    TransactionService transactionService;
+
+    @Inject
+    Validator validator;
+
+    @ConfigProperty(name = "transaction-service.bulk.max-concurrency", defaultValue = "32")
+    int maxConcurrency;
+
+    @Override
+    public Multi<BulkIngestionEvent> ingest(Multi<BulkLine> lines) {
+        AtomicLong succeeded = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        long startNanos = System.nanoTime();
+
+        // merge(n) se suscribe a cada operación en el orden de entrada y solo pide n líneas a la vez:
+        // la memoria usada no depende del tamaño de la carga, y el AccountSequencer aplica las
+        // operaciones de una misma cuenta en ese mismo orden.
+        return lines
+                .onItem().transformToUni(this::process)
+                .merge(maxConcurrency)
+                .onItem().invoke(result -> (result.success() ? succeeded : failed).incrementAndGet())
+                .onItem().<BulkIngestionEvent>transform(result -> result)
+                .onCompletion().continueWith(() -> {
+                    BulkIngestionSummary summary = summarize(succeeded.get() + failed.get(), succeeded.get(), failed.get(), startNanos);
+                    log.info("CARGA MASIVA FINALIZADA: {} líneas ({} exitosas, {} fallidas) en {} ms. Throughput: {} ops/s",
+                            summary.total(), summary.succeeded(), summary.failed(), summary.elapsedMs(),
+                            String.format("%.1f", summary.throughputPerSecond()));
+                    return List.of(summary);
+                });
+    }
+
+    private Uni<BulkTransactionResult> process(BulkLine bulkLine) {
+        long line = bulkLine.line();
+        if (bulkLine.error() != null) {
+            return Uni.createFrom().item(BulkTransactionResult.builder().line(line).success(false).error(bulkLine.error()).build());
+        }
+
+        BulkTransactionRequest request = bulkLine.request();
+        BulkTransactionResult.BulkTransactionResultBuilder result = BulkTransactionResult.builder()
+                .line(line)
+                .accountId(request.accountId())
+                .transactionType(request.transactionType());
+
+        Set<ConstraintViolation<BulkTransactionRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            String error = violations.stream().map(ConstraintViolation::getMessage).collect(Collectors.joining(" "));
+            return Uni.createFrom().item(result.success(false).error(error).build());
+        }
+
+        return dispatch(request)
+                .onItem().transform(response -> result.success(true).transaction(response).build())
+                .onFailure().recoverWithItem(failure -> {
+                    log.warn("CARGA MASIVA | Línea {} rechazada para cuenta {}: {}", line, request.accountId(), failure.getMessage());
+                    return result.success(false).error(failure.getMessage()).build();
+                });
+    }
+
+    private Uni<TransactionResponse> dispatch(BulkTransactionRequest bulkRequest) {
+        TransactionRequest request = new TransactionRequest(
+                bulkRequest.accountId(),
+                bulkRequest.customerId(),
+                bulkRequest.amount(),
+                bulkRequest.description()
+        );
+        // Variantes sin el @Timeout ni el @CircuitBreaker interactivos: una carga masiva con muchas líneas
+        // lentas o rechazadas no debe abrir el circuito de los depósitos y retiros de los clientes.
+        // Las llamadas al Account-Service siguen protegidas por el Circuit Breaker de su cliente REST.
+        return switch (bulkRequest.transactionType()) {
+            case DEPOSIT -> transactionService.processBulkDeposit(request);
+            case WITHDRAWAL -> transactionService.processBulkWithdrawal(request);
+            case PAYMENT -> transactionService.processPayment(request);
+            case CONSUMPTION -> transactionService.processConsumption(request);
+            case TRANSFER -> Uni.createFrom().failure(
+                    new IllegalArgumentException("Transfers are not supported in bulk ingestion. Use /transactions/transfers."));
+        };
+    }
+
+    private static BulkIngestionSummary summarize(long total, long succeeded, long failed, long startNanos) {
+        long elapsedNanos = Math.max(System.nanoTime() - startNanos, 1);
+        double throughput = total * 1_000_000_000d / elapsedNanos;
+        return new BulkIngestionSummary(total, succeeded, failed, elapsedNanos / 1_000_000, throughput);
+    }
+}
@@ -0,0 +1,134 @@
+package com.bancario.transaction.service.impl;
+
+import com.bancario.transaction.dto.CommissionRollupCheck;
+import com.bancario.transaction.dto.CommissionRollupRebuildResult;
+import com.bancario.transaction.dto.CommissionSummaryDto;
+import com.bancario.transaction.mapper.TransactionMapper;
+import com.bancario.transaction.repository.CommissionRollupRepository;
+import com.bancario.transaction.repository.TransactionRepository;
+import com.bancario.transaction.repository.entity.CommissionRollup;
+import com.bancario.transaction.repository.entity.Transaction;
+import com.bancario.transaction.service.CommissionRollupService;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Slf4j
+@ApplicationScoped
+public class CommissionRollupServiceImpl implements CommissionRollupService {
+
+    @Inject
+    CommissionRollupRepository commissionRollupRepository;
+
+    @Inject
+    TransactionRepository transactionRepository;
+
+    @Inject
+    TransactionMapper transactionMapper;
+
+    @Override
+    public Uni<Void> record(Transaction transaction) {
+        if (transaction.getFee() == null || !transaction.getFee().isPositive()) {
+            return Uni.createFrom().voidItem();
+        }
+        return commissionRollupRepository.increment(transaction)
+                .onFailure().recoverWithItem(failure -> {
+                    // La transacción ya está persistida: el bucket queda desfasado hasta el próximo rebuild.
+                    log.error("ROLLUP COMISIONES | No se pudo sumar la comisión de la transacción {}: {}",
+                            transaction.getId(), failure.getMessage());
+                    return null;
+                });
+    }
+
+    @Override
+    public Uni<CommissionRollupRebuildResult> rebuild(LocalDate startDate, LocalDate requestedEndDate) {
+        long startNanos = System.nanoTime();
+        // El día en curso sigue recibiendo $inc: uno que llegue entre la agregación y el reemplazo se perdería.
+        LocalDate lastClosedDay = LocalDate.now().minusDays(1);
+        LocalDate endDate = requestedEndDate.isAfter(lastClosedDay) ? lastClosedDay : requestedEndDate;
+        if (startDate.isAfter(endDate)) {
+            log.warn("ROLLUP COMISIONES | Rango {} - {} sin días cerrados: no se regenera nada.", startDate, requestedEndDate);
+            return Uni.createFrom().item(new CommissionRollupRebuildResult(startDate, endDate, 0, 0, 0));
+        }
+        log.info("ROLLUP COMISIONES | Regenerando buckets desde {} hasta {}", startDate, endDate);
+
+        return aggregateTransactions(startDate, endDate)
+                .onItem().transformToUni(summaries -> {
+                    List<CommissionRollup> rollups = summaries.stream()
+                            .map(transactionMapper::toCommissionRollup)
+                            .toList();
+                    return commissionRollupRepository.replaceRange(startDate, endDate, rollups)
+                            .onItem().transform(removed -> new CommissionRollupRebuildResult(
+                                    startDate, endDate, rollups.size(), removed,
+                                    (System.nanoTime() - startNanos) / 1_000_000));
+                })
+                .onItem().invoke(result -> log.info("ROLLUP COMISIONES | Regenerados {} buckets ({} eliminados) en {} ms",
+                        result.bucketsWritten(), result.bucketsRemoved(), result.elapsedMs()));
+    }
+
+    @Override
+    public Uni<CommissionRollupCheck> check(LocalDate startDate, LocalDate endDate) {
+        Uni<Map<String, CommissionSummaryDto>> fromTransactions = aggregateTransactions(startDate, endDate)
+                .onItem().transform(CommissionRollupServiceImpl::byBucket);
+        Uni<Map<String, CommissionSummaryDto>> fromRollups = commissionRollupRepository.findByDayRange(startDate, endDate)
+                .onItem().transform(rollups -> byBucket(rollups.stream().map(transactionMapper::toCommissionSummaryDto).toList()));
+
+        return Uni.combine().all().unis(fromRollups, fromTransactions).asTuple()
+                .onItem().transform(sources -> {
+                    Map<String, CommissionSummaryDto> rollups = sources.getItem1();
+                    Map<String, CommissionSummaryDto> transactions = sources.getItem2();
+
+                    TreeSet<String> buckets = new TreeSet<>(rollups.keySet());
+                    buckets.addAll(transactions.keySet());
+
+                    List<CommissionRollupCheck.Mismatch> mismatches = new ArrayList<>();
+                    for (String bucket : buckets) {
+                        CommissionSummaryDto rollup = rollups.get(bucket);
+                        CommissionSummaryDto raw = transactions.get(bucket);
+                        if (!sameTotals(rollup, raw)) {
+                            CommissionSummaryDto any = rollup != null ? rollup : raw;
+                            mismatches.add(new CommissionRollupCheck.Mismatch(
+                                    any.day(), any.productType(), any.productName(),
+                                    rollup != null ? rollup.totalFee() : null,
+                                    raw != null ? raw.totalFee() : null,
+                                    rollup != null ? rollup.transactionCount() : null,
+                                    raw != null ? raw.transactionCount() : null));
+                        }
+                    }
+                    if (!mismatches.isEmpty()) {
+                        log.warn("ROLLUP COMISIONES | {} de {} buckets difieren de 'transactions' entre {} y {}",
+                                mismatches.size(), buckets.size(), startDate, endDate);
+                    }
+                    return new CommissionRollupCheck(startDate, endDate, buckets.size(), mismatches.isEmpty(), mismatches);
+                });
+    }
+
+    private Uni<List<CommissionSummaryDto>> aggregateTransactions(LocalDate startDate, LocalDate endDate) {
+        return transactionRepository.aggregateCommissionsByDay(startDate.atStartOfDay(), endDate.plusDays(1).atStartOfDay(), false)
+                .onItem().transform(groups -> groups.stream().map(transactionMapper::toCommissionSummaryDto).toList());
+    }
+
+    private static Map<String, CommissionSummaryDto> byBucket(List<CommissionSummaryDto> summaries) {
+        return summaries.stream().collect(Collectors.toMap(
+                summary -> CommissionRollup.bucketId(summary.day(), summary.productType(), summary.productName()),
+                Function.identity(),
+                (first, second) -> first,
+                LinkedHashMap::new));
+    }
+
+    private static boolean sameTotals(CommissionSummaryDto rollup, CommissionSummaryDto raw) {
+        return rollup != null && raw != null
+                && rollup.totalFee().compareTo(raw.totalFee()) == 0
+                && rollup.transactionCount() == raw.transactionCount();
+    }
+}
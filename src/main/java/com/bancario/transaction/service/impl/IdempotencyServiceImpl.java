@@ -0,0 +1,287 @@
+package com.bancario.transaction.service.impl;
+
+import com.bancario.transaction.dto.TransactionResponse;
+import com.bancario.transaction.enums.IdempotencyStatus;
+import com.bancario.transaction.enums.TransactionType;
+import com.bancario.transaction.exception.AccountUnavailableException;
+import com.bancario.transaction.exception.IdempotencyConflictException;
+import com.bancario.transaction.repository.IdempotencyRepository;
+import com.bancario.transaction.repository.entity.IdempotencyRecord;
+import com.bancario.transaction.service.IdempotencyService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.cache.Cache;
+import io.quarkus.cache.CacheName;
+import io.quarkus.cache.CaffeineCache;
+import io.quarkus.runtime.StartupEvent;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Idempotencia en dos niveles:
+ * <p>
+ * 1. Memoria: ejecuciones en curso (los duplicados concurrentes se unen al mismo resultado) y
+ *    respuestas recientes en la caché 'idempotency-responses'.
+ * 2. MongoDB ('idempotency_keys', con índice TTL): la reclamación de la clave es un insert sobre
+ *    el _id, atómico entre instancias, y el registro guarda la respuesta para los reintentos.
+ * <p>
+ * Si la operación falla sin efecto (validación, cuenta no disponible antes del Core), la clave se
+ * libera para que el cliente pueda reintentar. Si pudo aplicarse (fallo en el Core o después), la clave
+ * queda FAILED: reejecutarla podría duplicar el movimiento, así que los reintentos reciben 409.
+ */
+@Slf4j
+@ApplicationScoped
+public class IdempotencyServiceImpl implements IdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    @Inject
+    IdempotencyRepository idempotencyRepository;
+
+    @Inject
+    @CacheName("idempotency-responses")
+    Cache completedResponses;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "transaction-service.idempotency.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "transaction-service.idempotency.ttl", defaultValue = "24H")
+    Duration ttl;
+
+    private final ConcurrentMap<String, InFlight> inFlight = new ConcurrentHashMap<>();
+    private final Map<Result, Counter> results = new EnumMap<>(Result.class);
+
+    void onStart(@Observes StartupEvent event) {
+        for (Result result : Result.values()) {
+            results.put(result, Counter.builder("transaction.idempotency.requests")
+                    .description("Peticiones con Idempotency-Key por resultado (los replay_* y joined son duplicados)")
+                    .tag("result", result.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry));
+        }
+        if (!enabled) {
+            return;
+        }
+        // No se bloquea el arranque: si Mongo no está disponible solo se registra el error.
+        idempotencyRepository.ensureTtlIndex(ttl).subscribe().with(
+                ignored -> log.info("IDEMPOTENCIA | Índice TTL de 'idempotency_keys' verificado ({}).", ttl),
+                failure -> log.error("IDEMPOTENCIA | No se pudo crear el índice TTL de 'idempotency_keys': {}", failure.getMessage())
+        );
+    }
+
+    @Override
+    public Uni<TransactionResponse> execute(TransactionType type, String key, Object request,
+                                            Supplier<Uni<TransactionResponse>> operation) {
+        if (!enabled || key == null || key.isBlank()) {
+            return operation.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            return Uni.createFrom().failure(new IllegalArgumentException(
+                    "La cabecera Idempotency-Key no puede superar " + MAX_KEY_LENGTH + " caracteres."));
+        }
+        String id = IdempotencyRecord.recordId(type, key);
+
+        return Uni.createFrom().deferred(() -> {
+            String fingerprint = fingerprint(request);
+
+            // 1. Respuesta reciente en memoria
+            CompletableFuture<StoredResponse> cached = completedResponses.as(CaffeineCache.class).getIfPresent(id);
+            if (cached != null && cached.isDone() && !cached.isCompletedExceptionally()) {
+                StoredResponse stored = cached.join();
+                checkFingerprint(key, stored.fingerprint(), fingerprint);
+                count(Result.REPLAY_MEMORY);
+                return Uni.createFrom().item(stored.response());
+            }
+
+            // 2. Ejecución en curso en esta instancia: se espera su resultado
+            InFlight mine = new InFlight(fingerprint, new CompletableFuture<>());
+            InFlight existing = inFlight.putIfAbsent(id, mine);
+            if (existing != null) {
+                checkFingerprint(key, existing.fingerprint(), fingerprint);
+                count(Result.JOINED);
+                // copy(): cancelar este llamador no debe cancelar el resultado compartido.
+                return Uni.createFrom().completionStage(existing.result().copy());
+            }
+
+            // 3. Reclamación en Mongo (o respuesta guardada por otra instancia / ejecución previa)
+            IdempotencyRecord record = new IdempotencyRecord();
+            record.setId(id);
+            record.setTransactionType(type);
+            record.setRequestFingerprint(fingerprint);
+            record.setStatus(IdempotencyStatus.IN_PROGRESS);
+            record.setCreatedAt(Instant.now());
+
+            idempotencyRepository.claim(record).subscribe().with(
+                    claimed -> {
+                        if (claimed) {
+                            count(Result.EXECUTED);
+                            run(id, mine, operation);
+                        } else {
+                            replayStored(id, key, mine);
+                        }
+                    },
+                    failure -> settle(id, mine, null, failure));
+
+            return Uni.createFrom().completionStage(mine.result().copy());
+        });
+    }
+
+    /**
+     * Ejecuta la operación desacoplada del llamador: aunque éste se cancele, la ejecución termina
+     * y su resultado queda guardado para los duplicados.
+     */
+    private void run(String id, InFlight mine, Supplier<Uni<TransactionResponse>> operation) {
+        Uni.createFrom().deferred(operation::get)
+                .call(response -> idempotencyRepository.complete(id, toJson(response))
+                        .onFailure().recoverWithItem(failure -> {
+                            // La operación ya se aplicó: la clave queda IN_PROGRESS (los reintentos reciben 409 hasta el TTL).
+                            log.error("IDEMPOTENCIA | No se pudo guardar la respuesta de {}: {}", id, failure.getMessage());
+                            return null;
+                        }))
+                .subscribe().with(
+                        response -> {
+                            completedResponses.as(CaffeineCache.class)
+                                    .put(id, CompletableFuture.completedFuture(new StoredResponse(mine.fingerprint(), response)));
+                            settle(id, mine, response, null);
+                        },
+                        failure -> settleFailure(id, mine, failure));
+    }
+
+    /**
+     * Libera la clave solo si la operación no tuvo efecto; si no, la deja FAILED. Si Mongo no responde,
+     * la clave sigue IN_PROGRESS (los reintentos reciben 409 hasta el TTL): nunca se libera por error.
+     */
+    private void settleFailure(String id, InFlight mine, Throwable failure) {
+        Uni<Void> outcome;
+        if (hadNoEffect(failure)) {
+            outcome = idempotencyRepository.release(id)
+                    .onFailure().invoke(e -> log.error("IDEMPOTENCIA | No se pudo liberar la clave {}: {}", id, e.getMessage()));
+        } else {
+            log.error("IDEMPOTENCIA | {} falló con resultado incierto; la clave queda FAILED y no se reejecutará: {}", id, failure.toString());
+            outcome = idempotencyRepository.fail(id, failure.toString())
+                    .onFailure().invoke(e -> log.error("IDEMPOTENCIA | No se pudo marcar la clave {} como FAILED: {}", id, e.getMessage()));
+        }
+        outcome.onTermination().invoke(() -> settle(id, mine, null, failure))
+                .subscribe().with(ignored -> { }, ignored -> { });
+    }
+
+    /** Fallos que garantizan que no se movió saldo (ver IdempotencyService#execute). */
+    static boolean hadNoEffect(Throwable failure) {
+        return failure instanceof IllegalArgumentException || failure instanceof AccountUnavailableException;
+    }
+
+    private void replayStored(String id, String key, InFlight mine) {
+        idempotencyRepository.findById(id).subscribe().with(
+                stored -> {
+                    if (stored == null) {
+                        // Liberada entre el insert y la lectura (la ejecución previa falló sin efecto).
+                        settle(id, mine, null, new IdempotencyConflictException(
+                                "La petición con Idempotency-Key " + key + " acaba de fallar; reintente."));
+                        return;
+                    }
+                    try {
+                        checkFingerprint(key, stored.getRequestFingerprint(), mine.fingerprint());
+                        if (stored.getStatus() == IdempotencyStatus.FAILED) {
+                            count(Result.CONFLICT);
+                            throw new IdempotencyConflictException("La petición con Idempotency-Key " + key
+                                    + " falló con resultado incierto y no se volverá a ejecutar; consulte el historial de la cuenta.");
+                        }
+                        if (stored.getStatus() != IdempotencyStatus.COMPLETED) {
+                            count(Result.CONFLICT);
+                            throw new IdempotencyConflictException(
+                                    "La petición con Idempotency-Key " + key + " sigue en curso; reintente más tarde.");
+                        }
+                        TransactionResponse response = objectMapper.readValue(stored.getResponse(), TransactionResponse.class);
+                        completedResponses.as(CaffeineCache.class)
+                                .put(id, CompletableFuture.completedFuture(new StoredResponse(mine.fingerprint(), response)));
+                        count(Result.REPLAY_STORE);
+                        settle(id, mine, response, null);
+                    } catch (RuntimeException | JsonProcessingException e) {
+                        settle(id, mine, null, e);
+                    }
+                },
+                failure -> settle(id, mine, null, failure));
+    }
+
+    private void settle(String id, InFlight mine, TransactionResponse response, Throwable failure) {
+        inFlight.remove(id, mine);
+        if (failure != null) {
+            mine.result().completeExceptionally(failure);
+        } else {
+            mine.result().complete(response);
+        }
+    }
+
+    private void checkFingerprint(String key, String expected, String actual) {
+        if (!expected.equals(actual)) {
+            count(Result.CONFLICT);
+            throw new IdempotencyConflictException(
+                    "La Idempotency-Key " + key + " ya se usó con una petición diferente.");
+        }
+    }
+
+    private void count(Result result) {
+        Counter counter = results.get(result);
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+
+    private String toJson(TransactionResponse response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** SHA-256 de la petición en JSON (compartido con las sagas de TransferSagaServiceImpl). */
+    String fingerprint(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private enum Result {
+        EXECUTED,       // Primera ejecución de la clave
+        REPLAY_MEMORY,  // Duplicado servido desde la caché en memoria
+        REPLAY_STORE,   // Duplicado servido desde 'idempotency_keys'
+        JOINED,         // Duplicado concurrente unido a la ejecución en curso
+        CONFLICT        // En curso en otra instancia, fallida con resultado incierto o reutilizada con otra petición (409)
+    }
+
+    private record InFlight(String fingerprint, CompletableFuture<TransactionResponse> result) {}
+
+    private record StoredResponse(String fingerprint, TransactionResponse response) {}
+}
@@ -0,0 +1,226 @@
+package com.bancario.transaction.service.impl;
+
+import com.bancario.transaction.enums.SideEffectType;
+import com.bancario.transaction.repository.SideEffectDeadLetterRepository;
+import com.bancario.transaction.repository.entity.SideEffectDeadLetter;
+import com.bancario.transaction.service.SideEffectDispatcher;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.interceptor.Interceptor;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Ejecuta los efectos secundarios posteriores al commit con memoria y concurrencia acotadas:
+ * <p>
+ * 1. Cola acotada (queue-capacity): si está llena, dispatch() devuelve false en lugar de crecer.
+ * 2. Como mucho max-concurrency efectos en ejecución; el resto espera en la cola sin ocupar el event loop.
+ * 3. Reintentos con backoff exponencial y jitter; agotados, el efecto se guarda en la dead-letter.
+ * 4. Al apagar se deja de aceptar trabajo, se espera a vaciar la cola y lo pendiente va a la dead-letter.
+ * <p>
+ * Un efecto en backoff conserva su hueco de concurrencia: ante una degradación del destino, el ritmo
+ * de llamadas baja en lugar de acumular reintentos simultáneos.
+ */
+@Slf4j
+@ApplicationScoped
+public class SideEffectDispatcherImpl implements SideEffectDispatcher {
+
+    @Inject
+    SideEffectDeadLetterRepository deadLetterRepository;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "transaction-service.side-effects.queue-capacity", defaultValue = "10000")
+    int queueCapacity;
+
+    @ConfigProperty(name = "transaction-service.side-effects.max-concurrency", defaultValue = "8")
+    int maxConcurrency;
+
+    @ConfigProperty(name = "transaction-service.side-effects.max-retries", defaultValue = "4")
+    int maxRetries;
+
+    @ConfigProperty(name = "transaction-service.side-effects.retry-initial-backoff", defaultValue = "200MS")
+    Duration retryInitialBackoff;
+
+    @ConfigProperty(name = "transaction-service.side-effects.retry-max-backoff", defaultValue = "10S")
+    Duration retryMaxBackoff;
+
+    @ConfigProperty(name = "transaction-service.side-effects.retry-jitter", defaultValue = "0.5")
+    double retryJitter;
+
+    @ConfigProperty(name = "transaction-service.side-effects.shutdown-timeout", defaultValue = "10S")
+    Duration shutdownTimeout;
+
+    private final AtomicInteger running = new AtomicInteger();
+    private BlockingQueue<Task> queue;
+    private volatile boolean accepting = true;
+
+    @PostConstruct
+    void init() {
+        queue = new LinkedBlockingQueue<>(queueCapacity);
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        Gauge.builder("side.effect.queue.depth", queue, BlockingQueue::size)
+                .description("Efectos secundarios en cola pendientes de ejecutar")
+                .register(meterRegistry);
+        Gauge.builder("side.effect.inflight", running, AtomicInteger::get)
+                .description("Efectos secundarios en ejecución (incluye los que esperan un reintento)")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Se ejecuta después de los demás observadores de apagado (p. ej. el último vaciado del
+     * TransactionCounterAggregator), para drenar también lo que éstos encolen.
+     */
+    void onStop(@Observes @Priority(Interceptor.Priority.PLATFORM_AFTER) ShutdownEvent event) {
+        accepting = false;
+        log.info("EFECTOS | Drenando {} efectos en cola y {} en ejecución antes del apagado.", queue.size(), running.get());
+
+        long deadline = System.nanoTime() + shutdownTimeout.toNanos();
+        while ((!queue.isEmpty() || running.get() > 0) && System.nanoTime() < deadline) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        List<Task> pending = new ArrayList<>();
+        queue.drainTo(pending);
+        if (running.get() > 0) {
+            log.warn("EFECTOS | {} efectos seguían en ejecución al agotar el tiempo de apagado.", running.get());
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+        log.warn("EFECTOS | {} efectos no llegaron a ejecutarse; se guardan en la dead-letter.", pending.size());
+        Multi.createFrom().iterable(pending)
+                .onItem().transformToUniAndMerge(task -> deadLetter(task, 0, "Pendiente al apagar el servicio"))
+                .collect().last()
+                .await().atMost(shutdownTimeout);
+    }
+
+    @Override
+    public boolean dispatch(SideEffectType type, String target, String payload, Supplier<Uni<Void>> action) {
+        if (!accepting || !queue.offer(new Task(type, target, payload, action, Instant.now(), System.nanoTime()))) {
+            count(type, "rejected");
+            return false;
+        }
+        drain();
+        return true;
+    }
+
+    /** Arranca efectos de la cola mientras haya huecos de concurrencia libres. */
+    private void drain() {
+        while (true) {
+            int current = running.get();
+            if (current >= maxConcurrency) {
+                return;
+            }
+            if (!running.compareAndSet(current, current + 1)) {
+                continue;
+            }
+            Task task = queue.poll();
+            if (task == null) {
+                running.decrementAndGet();
+                // Un efecto encolado entre el poll y el decremento se quedaría sin ejecutar: se vuelve a mirar.
+                if (queue.isEmpty()) {
+                    return;
+                }
+                continue;
+            }
+            execute(task);
+        }
+    }
+
+    private void execute(Task task) {
+        Timer.builder("side.effect.lag")
+                .description("Tiempo en cola de un efecto secundario hasta que empieza a ejecutarse")
+                .tag("type", tag(task.type()))
+                .register(meterRegistry)
+                .record(System.nanoTime() - task.enqueuedNanos(), TimeUnit.NANOSECONDS);
+
+        AtomicInteger attempts = new AtomicInteger();
+        Uni.createFrom().deferred(() -> {
+                    attempts.incrementAndGet();
+                    return task.action().get();
+                })
+                .onFailure().invoke(failure -> {
+                    meterRegistry.counter("side.effect.failures", "type", tag(task.type())).increment();
+                    log.warn("EFECTOS | Fallo en {} para {} (intento {}): {}",
+                            task.type(), task.target(), attempts.get(), failure.getMessage());
+                })
+                .onFailure().retry()
+                .withBackOff(retryInitialBackoff, retryMaxBackoff)
+                .withJitter(retryJitter)
+                .atMost(maxRetries)
+                .invoke(() -> count(task.type(), "success"))
+                .onFailure().recoverWithUni(failure -> deadLetter(task, attempts.get(), failure.getMessage()))
+                .onTermination().invoke(() -> {
+                    running.decrementAndGet();
+                    drain();
+                })
+                .subscribe().with(ignored -> { }, failure -> { });
+    }
+
+    private Uni<Void> deadLetter(Task task, int attempts, String error) {
+        SideEffectDeadLetter letter = new SideEffectDeadLetter();
+        letter.setType(task.type());
+        letter.setTarget(task.target());
+        letter.setPayload(task.payload());
+        letter.setAttempts(attempts);
+        letter.setLastError(error);
+        letter.setEnqueuedAt(task.enqueuedAt());
+        letter.setFailedAt(Instant.now());
+
+        return deadLetterRepository.persist(letter)
+                .replaceWithVoid()
+                .invoke(() -> {
+                    count(task.type(), "dead_lettered");
+                    log.error("EFECTOS | {} para {} (payload {}) enviado a la dead-letter tras {} intentos: {}",
+                            task.type(), task.target(), task.payload(), attempts, error);
+                })
+                .onFailure().recoverWithItem(failure -> {
+                    // Último recurso: el log conserva los datos para conciliar manualmente.
+                    count(task.type(), "lost");
+                    log.error("EFECTOS | No se pudo guardar en la dead-letter {} para {} (payload {}): {}",
+                            task.type(), task.target(), task.payload(), failure.getMessage());
+                    return null;
+                });
+    }
+
+    private void count(SideEffectType type, String outcome) {
+        meterRegistry.counter("side.effect.completed", "type", tag(type), "outcome", outcome).increment();
+    }
+
+    private static String tag(SideEffectType type) {
+        return type.name().toLowerCase(Locale.ROOT);
+    }
+
+    private record Task(SideEffectType type, String target, String payload, Supplier<Uni<Void>> action,
+                        Instant enqueuedAt, long enqueuedNanos) {}
+}
@@ -0,0 +1,63 @@
+package com.bancario.transaction.service.impl;
+
+import com.bancario.transaction.dto.AccountResponse;
+import com.bancario.transaction.enums.ProductType;
+import com.bancario.transaction.enums.TransactionType;
+import com.bancario.transaction.money.Money;
+
+import java.math.BigDecimal;
+
+/**
+ * Reglas de tarificación y de actualización de saldos, sin estado ni dependencias.
+ * Se mantienen fuera de TransactionServiceImpl para poder medirlas de forma aislada (ver benchmarks/).
+ */
+public final class TransactionPricing {
+
+    private TransactionPricing() {
+    }
+
+    /** Calcula la comisión basada en los límites usando AccountResponse. */
+    public static Money feeFor(AccountResponse account) {
+        Integer current = account.currentMonthlyTransactions();
+        Integer limit = account.freeTransactionLimit();
+        BigDecimal feeAmount = account.transactionFeeAmount();
+
+        // Aseguramos que los valores existan y aplicamos la lógica
+        if (current == null || limit == null || feeAmount == null) {
+            return Money.ZERO;
+        }
+
+        // Si el contador actual es MAYOR o IGUAL al límite gratuito, aplica la tarifa.
+        if (current >= limit) {
+            return Money.fromExternal(feeAmount);
+        }
+        return Money.ZERO; // Transacción gratuita
+    }
+
+    /**
+     * Aplica el monto a la cuenta según el tipo de producto: saldo para PASIVOS (depósito/retiro),
+     * monto usado para ACTIVOS (pago/consumo).
+     *
+     * @return Copia de la cuenta con el saldo o el monto usado actualizados.
+     */
+    public static AccountResponse applyToAccount(AccountResponse account, Money amount, TransactionType transactionType) {
+        BigDecimal newBalance = account.balance();
+        BigDecimal newAmountUsed = account.amountUsed();
+
+        if (account.productType() == ProductType.PASSIVE) {
+            if (transactionType == TransactionType.DEPOSIT) {
+                newBalance = Money.fromExternal(newBalance).add(amount).toBigDecimal();
+            } else if (transactionType == TransactionType.WITHDRAWAL) {
+                newBalance = Money.fromExternal(newBalance).subtract(amount).toBigDecimal();
+            }
+        } else if (account.productType() == ProductType.ACTIVE) {
+            if (transactionType == TransactionType.PAYMENT) {
+                newAmountUsed = Money.fromExternal(newAmountUsed).subtract(amount).toBigDecimal();
+            } else if (transactionType == TransactionType.CONSUMPTION) {
+                newAmountUsed = Money.fromExternal(newAmountUsed).add(amount).toBigDecimal();
+            }
+        }
+
+        return account.withBalances(newBalance, newAmountUsed);
+    }
+}
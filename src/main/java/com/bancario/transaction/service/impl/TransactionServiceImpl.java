@@ -1,34 +1,55 @@
 package com.bancario.transaction.service.impl;
 
-import com.bancario.transaction.client.AccountServiceRestClient;
+import com.bancario.transaction.client.CachedAccountServiceClient;
+import com.bancario.transaction.client.TransactionCounterAggregator;
+import com.bancario.transaction.concurrency.AccountSequencer;
+import com.bancario.transaction.core.CoreBankingGateway;
 import com.bancario.transaction.dto.*;
 import com.bancario.transaction.enums.AccountStatus;
+import com.bancario.transaction.enums.CommissionReportSource;
 import com.bancario.transaction.enums.CreditType;
 import com.bancario.transaction.enums.ProductType;
+import com.bancario.transaction.enums.SideEffectType;
+import com.bancario.transaction.enums.TransactionHistoryView;
 import com.bancario.transaction.enums.TransactionType;
+import com.bancario.transaction.exception.AccountUnavailableException;
+import com.bancario.transaction.exception.IdempotencyConflictException;
 import com.bancario.transaction.exception.InsufficientFundsException;
 import com.bancario.transaction.exception.ServiceUnavailableException;
 import com.bancario.transaction.exception.TransferIncompleteException;
 import com.bancario.transaction.mapper.TransactionMapper;
+import com.bancario.transaction.metrics.TransactionMetrics;
+import com.bancario.transaction.money.Money;
+import com.bancario.transaction.repository.CommissionRollupRepository;
+import com.bancario.transaction.repository.TransactionBatchWriter;
+import com.bancario.transaction.repository.TransactionCursor;
 import com.bancario.transaction.repository.TransactionRepository;
 import com.bancario.transaction.repository.entity.Transaction;
+import com.bancario.transaction.service.CommissionRollupService;
+import com.bancario.transaction.service.IdempotencyService;
+import com.bancario.transaction.service.SideEffectDispatcher;
 import com.bancario.transaction.service.TransactionService;
+import com.bancario.transaction.tracing.TransactionTracing;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.smallrye.mutiny.Multi;
 import io.smallrye.mutiny.Uni;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.NotFoundException;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.eclipse.microprofile.faulttolerance.CircuitBreaker;
 import org.eclipse.microprofile.faulttolerance.Fallback;
 import org.eclipse.microprofile.faulttolerance.Timeout;
-import org.eclipse.microprofile.rest.client.inject.RestClient;
 
-import java.math.BigDecimal;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -38,92 +59,166 @@ public class TransactionServiceImpl implements TransactionService {
     @Inject
     TransactionRepository transactionRepository;
 
+    @Inject
+    CommissionRollupRepository commissionRollupRepository;
+
+    @Inject
+    TransactionBatchWriter transactionBatchWriter;
+
     @Inject
     TransactionMapper transactionMapper;
 
     @Inject
-    @RestClient
-    AccountServiceRestClient accountServiceRestClient;
+    CachedAccountServiceClient accountServiceClient;
+
+    @Inject
+    AccountSequencer accountSequencer;
+
+    @Inject
+    TransactionCounterAggregator transactionCounterAggregator;
+
+    @Inject
+    CommissionRollupService commissionRollupService;
+
+    @Inject
+    TransactionMetrics transactionMetrics;
+
+    @Inject
+    TransactionTracing transactionTracing;
+
+    @Inject
+    IdempotencyService idempotencyService;
+
+    @Inject
+    CoreBankingGateway coreBankingGateway;
+
+    @Inject
+    SideEffectDispatcher sideEffectDispatcher;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @ConfigProperty(name = "transaction-service.commission-export.batch-size", defaultValue = "500")
+    int commissionExportBatchSize;
 
     @Override
     @Timeout
-    @CircuitBreaker
-    @Fallback(fallbackMethod = "fallbackProcessDeposit")
-    public Uni<TransactionResponse> processDeposit(TransactionRequest request) {
+    // Reusar una Idempotency-Key con otro cuerpo es un error del cliente (409): ni pasa por el fallback ni abre el circuito.
+    @CircuitBreaker(skipOn = IdempotencyConflictException.class)
+    @Fallback(fallbackMethod = "fallbackProcessDeposit", skipOn = IdempotencyConflictException.class)
+    public Uni<TransactionResponse> processDeposit(TransactionRequest request, String idempotencyKey) {
         log.info("Processing deposit for account ID: {}", request.accountId());
 
-        // 1. Obtener el estado de la cuenta para tarificación (DTO LIGERO)
-        return accountServiceRestClient.getTransactionStatus(request.accountId())
+        // Un reintento con la misma Idempotency-Key recibe la respuesta guardada sin volver a ejecutar el pipeline.
+        return idempotencyService.execute(TransactionType.DEPOSIT, idempotencyKey, request, () -> deposit(request));
+    }
+
+    @Override
+    public Uni<TransactionResponse> processBulkDeposit(TransactionRequest request) {
+        return deposit(request);
+    }
+
+    private Uni<TransactionResponse> deposit(TransactionRequest request) {
+        return transactionMetrics.operation(TransactionType.DEPOSIT,
+                transactionTracing.span("transaction.deposit", TransactionType.DEPOSIT, request.accountId(), () -> depositPipeline(request)));
+    }
+
+    private Uni<TransactionResponse> depositPipeline(TransactionRequest request) {
+        // 1-3. Lectura única de la cuenta y actualización del saldo, dentro del turno de la cuenta
+        // (las operaciones sobre la misma cuenta se serializan para evitar actualizaciones de saldo perdidas).
+        // 4-5. Fuera del turno, pero completados aunque el @Timeout cancele: el saldo ya se movió.
+        return accountSequencer.run(request.accountId(), () -> depositCore(request), context -> {
+
+                    // 4. Actualizar el contador (Se acumula y se envía como delta por el agregador)
+                    notifyAccountService(request.accountId());
+
+                    // 5. Persistir el registro localmente con la cuenta ya cargada (sin lecturas adicionales)
+                    return persistLocalTransaction(request, context.account(), context.coreTransactionId(),
+                            context.amount(), context.fee(), TransactionType.DEPOSIT);
+                });
+    }
+
+    /**
+     * Fase serializada del depósito: carga la cuenta UNA sola vez y la reutiliza para
+     * validación, tarificación y cálculo del nuevo saldo (1 lectura + 1 escritura al Account-Service).
+     */
+    private Uni<AccountContext> depositCore(TransactionRequest request) {
+        // 1. Obtener la cuenta completa (lectura fresca salvo con el ledger: se usa para calcular el nuevo saldo)
+        return transactionMetrics.stage(TransactionType.DEPOSIT, "account.load", loadAccountForCore(request.accountId()))
                 .onFailure().transform(e ->
-                        // Esto captura errores como Cuenta No Encontrada o Cuenta No Pasiva del Account-Service
+                        // Esto captura errores como Cuenta No Encontrada del Account-Service
                         new IllegalArgumentException("Validation failed in Account Service: " + e.getMessage())
                 )
-                .onItem().transformToUni(status -> {
+                .onItem().ifNull().failWith(() -> new IllegalArgumentException("Account not found with ID: " + request.accountId()))
+                .onItem().transformToUni(account -> {
 
-                    // 2. Aplicar la lógica de tarificación
-                    BigDecimal fee = calculateFee(status); // Se asume que este método usa AccountTransactionStatus
-                    BigDecimal netAmount = request.amount().subtract(fee); // Monto real a depositar
+                    validatePassiveAccount(account);
 
-                    // 3. Ejecutar la transacción central (Actualiza el SALDO de forma atómica en el Core/Account-Service)
-                    // Se usa el monto NETO
-                    return executeCoreTransaction(request.accountId(), netAmount, fee, TransactionType.DEPOSIT)
-                            .onItem().transformToUni(coreResult -> {
+                    // 2. Aplicar la lógica de tarificación con los límites de la cuenta cargada
+                    Money fee = TransactionPricing.feeFor(account);
+                    Money netAmount = Money.of(request.amount()).subtract(fee); // Monto real a depositar
 
+                    // 3. Ejecutar la transacción central sobre la cuenta ya cargada (Se usa el monto NETO)
+                    return applyCoreTransaction(account, netAmount, fee, TransactionType.DEPOSIT)
+                            .onItem().transformToUni(coreResult -> {
                                 if (!coreResult.success()) {
                                     return Uni.createFrom().failure(new IllegalStateException("Core banking transaction failed."));
                                 }
-
-                                // 4. Actualizar el contador (Llama al PATCH atómico, Fire and Forget)
-                                notifyAccountService(request.accountId());
-
-                                // 5. OBTENER LA CUENTA COMPLETA PARA PERSISTENCIA DE PRODUCTO (LLAMADA ADICIONAL)
-                                return accountServiceRestClient.getAccountById(request.accountId())
-                                        .onItem().ifNull().failWith(() -> {
-                                            log.error("DEPOSITO FALLIDO: Cuenta desapareció después del Core. Imposible persistir.");
-                                            // Esto es un fallo crítico, pero la compensación no aplica aquí.
-                                            return new IllegalStateException("Account data missing for persistence.");
-                                        })
-                                        .onItem().transformToUni(account ->
-                                                // 6. Persistir el registro localmente, incluyendo el externalReference y la cuenta
-                                                persistLocalTransaction(request, account, coreResult.coreTransactionId(), netAmount, fee, TransactionType.DEPOSIT)
-                                        );
+                                return Uni.createFrom().item(new AccountContext(account, fee, netAmount, coreResult.coreTransactionId()));
                             });
                 });
     }
 
     @Override
     @Timeout
-    @CircuitBreaker
-    @Fallback(fallbackMethod = "fallbackProcessWithdrawal")
-    public Uni<TransactionResponse> processWithdrawal(TransactionRequest request) {
+    @CircuitBreaker(skipOn = IdempotencyConflictException.class)
+    @Fallback(fallbackMethod = "fallbackProcessWithdrawal", skipOn = IdempotencyConflictException.class)
+    public Uni<TransactionResponse> processWithdrawal(TransactionRequest request, String idempotencyKey) {
         log.info("Processing withdrawal for account ID: {}", request.accountId());
 
-        // 1. OBTENER Cuenta Completa
-        return accountServiceRestClient.getAccountById(request.accountId())
+        return idempotencyService.execute(TransactionType.WITHDRAWAL, idempotencyKey, request, () -> withdrawal(request));
+    }
+
+    @Override
+    public Uni<TransactionResponse> processBulkWithdrawal(TransactionRequest request) {
+        return withdrawal(request);
+    }
+
+    private Uni<TransactionResponse> withdrawal(TransactionRequest request) {
+        // Las operaciones sobre la misma cuenta se serializan para evitar actualizaciones de saldo perdidas.
+        return transactionMetrics.operation(TransactionType.WITHDRAWAL,
+                transactionTracing.span("transaction.withdrawal", TransactionType.WITHDRAWAL, request.accountId(),
+                        () -> accountSequencer.run(request.accountId(), () -> withdrawalPipeline(request))));
+    }
+
+    private Uni<TransactionResponse> withdrawalPipeline(TransactionRequest request) {
+        // 1. OBTENER Cuenta Completa (lectura fresca ÚNICA dentro del turno de la cuenta: la misma lectura
+        // sirve para validar, tarificar y calcular el nuevo saldo, sin una segunda carga en el camino crítico)
+        return transactionMetrics.stage(TransactionType.WITHDRAWAL, "account.load", loadAccountForCore(request.accountId()))
+                .onFailure().transform(e -> accountUnavailable(request.accountId(), e))
                 .onItem().ifNull().failWith(() -> new IllegalArgumentException("Account not found with ID: " + request.accountId()))
                 .onItem().transformToUni(account -> {
 
                     validatePassiveAccount(account);
 
                     // 2. APLICAR TARIFICACIÓN y CALCULAR DÉBITO TOTAL
-                    BigDecimal fee = calculateFeeFromAccount(account);
+                    Money fee = TransactionPricing.feeFor(account);
+                    Money amount = Money.of(request.amount());
                     // Monto total a DEBITAR del balance (Monto solicitado + Comisión)
-                    BigDecimal totalDebitAmount = request.amount().add(fee); // <-- Ejemplo: 100.50
-
-                    // 3. VALIDACIÓN DE SALDO (Compara con 100.50)
-                    if (account.balance().compareTo(totalDebitAmount) < 0) {
-                        log.warn("RETIRO RECHAZADO: Saldo insuficiente. Cuenta: {}", request.accountId());
-                        return Uni.createFrom().failure(new InsufficientFundsException("Insufficient funds. Cannot withdraw " + totalDebitAmount + "."));
-                    }
+                    Money totalDebitAmount = amount.add(fee); // <-- Ejemplo: 100.50
 
-                    // 4. EJECUTAR CORE (Actualiza el SALDO de forma atómica)
+                    // 3-4. EJECUTAR CORE (Actualiza el SALDO de forma atómica)
+                    // La VALIDACIÓN DE SALDO (contra 100.50) la hace el Core (CoreBankingGateway): con el ledger
+                    // embebido, el saldo del Account-Service no es el vigente.
                     // ¡CORRECCIÓN CLAVE! Pasar el MONTO TOTAL A DEBITAR (totalDebitAmount) como NEGATIVO.
-                    return executeCoreTransaction(
-                            request.accountId(),
+                    return applyCoreTransaction(
+                            account,
                             totalDebitAmount.negate(), // <-- ¡AQUÍ ESTÁ LA CORRECCIÓN! (-100.50)
                             fee,
                             TransactionType.WITHDRAWAL
                     )
+                            .onFailure(InsufficientFundsException.class).invoke(() ->
+                                    log.warn("RETIRO RECHAZADO: Saldo insuficiente. Cuenta: {}", request.accountId()))
                             .onItem().transformToUni(coreResult -> {
 
                                 if (!coreResult.success()) {
@@ -135,7 +230,7 @@ public class TransactionServiceImpl implements TransactionService {
 
                                 // 6. PERSISTIR registro local
                                 // Se registra el monto solicitado original (100.00) en negativo.
-                                return persistLocalTransaction(request, account, coreResult.coreTransactionId(), request.amount().negate(), fee, TransactionType.WITHDRAWAL);
+                                return persistLocalTransaction(request, account, coreResult.coreTransactionId(), amount.negate(), fee, TransactionType.WITHDRAWAL);
                             });
                 });
     }
@@ -143,21 +238,30 @@ public class TransactionServiceImpl implements TransactionService {
     @Override
     public Uni<TransactionResponse> processPayment(TransactionRequest request) {
         log.info("Processing payment for credit product ID: {}", request.accountId());
-        return accountServiceRestClient.getAccountById(request.accountId())
+        return transactionMetrics.operation(TransactionType.PAYMENT,
+                transactionTracing.span("transaction.payment", TransactionType.PAYMENT, request.accountId(),
+                        () -> accountSequencer.run(request.accountId(), () -> paymentPipeline(request))));
+    }
+
+    private Uni<TransactionResponse> paymentPipeline(TransactionRequest request) {
+        return transactionMetrics.stage(TransactionType.PAYMENT, "account.load", accountServiceClient.loadAccountById(request.accountId()))
+                .onFailure().transform(e -> accountUnavailable(request.accountId(), e))
                 .onItem().ifNull().failWith(() -> new IllegalArgumentException("Credit product not found with ID: " + request.accountId()))
                 .onItem().transformToUni(account -> {
                     // Llama al método de validación
                     validateActiveAccount(account);
 
                     // Validar si hay deuda pendiente
-                    if (account.amountUsed().compareTo(BigDecimal.ZERO) == 0) {
+                    Money amountUsed = Money.fromExternal(account.amountUsed());
+                    Money amount = Money.of(request.amount());
+                    if (amountUsed.isZero()) {
                         return Uni.createFrom().failure(new IllegalArgumentException("No tiene deuda pendiente."));
                     }
-                    if (account.amountUsed().compareTo(request.amount()) < 0) {
+                    if (amountUsed.compareTo(amount) < 0) {
                         return Uni.createFrom().failure(new IllegalArgumentException("El pago excede el monto de la deuda pendiente."));
                     }
-                    // Lógica corregida: Pasas el monto directamente al método updateAccount
-                    AccountResponse updatedAccount = updateAccount(account, request.amount(), TransactionType.PAYMENT);
+                    // Lógica corregida: Pasas el monto directamente a TransactionPricing.applyToAccount
+                    AccountResponse updatedAccount = TransactionPricing.applyToAccount(account, amount, TransactionType.PAYMENT);
                     return processTransaction(updatedAccount, request, TransactionType.PAYMENT);
                 });
     }
@@ -165,11 +269,19 @@ public class TransactionServiceImpl implements TransactionService {
     @Override
     public Uni<TransactionResponse> processConsumption(TransactionRequest request) {
         log.info("Processing consumption for credit card ID: {}", request.accountId());
-        return accountServiceRestClient.getAccountById(request.accountId())
+        return transactionMetrics.operation(TransactionType.CONSUMPTION,
+                transactionTracing.span("transaction.consumption", TransactionType.CONSUMPTION, request.accountId(),
+                        () -> accountSequencer.run(request.accountId(), () -> consumptionPipeline(request))));
+    }
+
+    private Uni<TransactionResponse> consumptionPipeline(TransactionRequest request) {
+        return transactionMetrics.stage(TransactionType.CONSUMPTION, "account.load", accountServiceClient.loadAccountById(request.accountId()))
+                .onFailure().transform(e -> accountUnavailable(request.accountId(), e))
                 .onItem().ifNull().failWith(() -> new IllegalArgumentException("Account not found with ID: " + request.accountId()))
                 .onItem().transformToUni(account -> {
-                    validateConsumption(account, request.amount());
-                    AccountResponse updatedAccount = updateAccount(account, request.amount(), TransactionType.CONSUMPTION);
+                    Money amount = Money.of(request.amount());
+                    validateConsumption(account, amount);
+                    AccountResponse updatedAccount = TransactionPricing.applyToAccount(account, amount, TransactionType.CONSUMPTION);
                     log.info("Processing update for credit card of AccountResponse: {}", updatedAccount);
                     return processTransaction(updatedAccount, request, TransactionType.CONSUMPTION);
                 });
@@ -195,6 +307,45 @@ public class TransactionServiceImpl implements TransactionService {
                 .onItem().transform(transactionMapper::toResponse);
     }
 
+    @Override
+    public Uni<TransactionPage> findHistory(TransactionHistoryQuery query) {
+        log.info("Searching history page for account ID: {} (cursor: {})", query.accountId(), query.cursor() != null);
+
+        if (query.accountId() == null || query.accountId().isBlank()) {
+            return Uni.createFrom().failure(new IllegalArgumentException("El ID de la cuenta es obligatorio."));
+        }
+        if (query.startDate() != null && query.endDate() != null && query.startDate().isAfter(query.endDate())) {
+            return Uni.createFrom().failure(new IllegalArgumentException("La fecha de inicio no puede ser posterior a la fecha de fin."));
+        }
+        TransactionCursor after = query.cursor() != null ? TransactionCursor.decode(query.cursor()) : null;
+
+        LocalDateTime start = query.startDate() != null ? query.startDate().atStartOfDay() : null;
+        LocalDateTime end = query.endDate() != null ? query.endDate().plusDays(1).atStartOfDay() : null;
+
+        // Se pide un elemento extra para saber si existe una página siguiente sin hacer un count.
+        if (query.view() == TransactionHistoryView.SLIM) {
+            return transactionRepository.findHistoryPageSlim(query.accountId(), start, end, query.transactionType(),
+                            query.minAmount(), query.maxAmount(), after, query.limit() + 1)
+                    .onItem().transform(entities -> toPage(entities, query.limit(),
+                            last -> new TransactionCursor(last.getTransactionDate(), last.getId()),
+                            transactionMapper::toResponse));
+        }
+        return transactionRepository.findHistoryPage(query.accountId(), start, end, query.transactionType(),
+                        query.minAmount(), query.maxAmount(), after, query.limit() + 1)
+                .onItem().transform(entities -> toPage(entities, query.limit(),
+                        last -> new TransactionCursor(last.getTransactionDate(), last.getId()),
+                        transactionMapper::toResponse));
+    }
+
+    /** Recorta el elemento extra pedido a Mongo y genera el cursor de la página siguiente si existe. */
+    private static <T> TransactionPage toPage(List<T> entities, int limit, Function<T, TransactionCursor> cursorOf,
+                                              Function<T, TransactionResponse> toResponse) {
+        boolean hasMore = entities.size() > limit;
+        List<T> page = hasMore ? entities.subList(0, limit) : entities;
+        String nextCursor = hasMore ? cursorOf.apply(page.get(page.size() - 1)).encode() : null;
+        return new TransactionPage(page.stream().map(toResponse).toList(), nextCursor);
+    }
+
     /**
      * Procesa una transferencia de fondos entre dos cuentas, actuando como un orquestador.
      * * La transferencia sigue un proceso atómico:
@@ -212,26 +363,33 @@ public class TransactionServiceImpl implements TransactionService {
      */
     @Override
     @Timeout // Lee el valor de 1500ms (transaction-service.orchestration-timeout.ms)
-    @CircuitBreaker
-    @Fallback(fallbackMethod = "fallbackProcessTransfer")
-    public Uni<TransactionResponse> processTransfer(TransferRequest request) {
+    @CircuitBreaker(skipOn = IdempotencyConflictException.class)
+    @Fallback(fallbackMethod = "fallbackProcessTransfer", skipOn = IdempotencyConflictException.class)
+    public Uni<TransactionResponse> processTransfer(TransferRequest request, String idempotencyKey) {
+        return idempotencyService.execute(TransactionType.TRANSFER, idempotencyKey, request, () ->
+                transactionMetrics.operation(TransactionType.TRANSFER,
+                        transactionTracing.span("transaction.transfer", TransactionType.TRANSFER, null, () -> transferPipeline(request))));
+    }
+
+    private Uni<TransactionResponse> transferPipeline(TransferRequest request) {
         log.info("TRANSFERENCIA INICIADA: De {} a {} por {}",
                 request.sourceAccountNumber(), request.targetAccountNumber(), request.amount());
 
         // 1. OBTENER CUENTAS POR NÚMERO
-        Uni<AccountResponse> sourceAccountUni = accountServiceRestClient.getAccountByNumber(request.sourceAccountNumber());
-        Uni<AccountResponse> targetAccountUni = accountServiceRestClient.getAccountByNumber(request.targetAccountNumber());
-
         // Combinar los resultados de ambas búsquedas en un solo flujo
-        return Uni.combine().all().unis(sourceAccountUni, targetAccountUni)
-                .asTuple()
+        return transactionMetrics.stage(TransactionType.TRANSFER, "account.resolve",
+                        transactionTracing.span("transfer.resolve-accounts", TransactionType.TRANSFER, null, () -> {
+                            Uni<AccountResponse> sourceAccountUni = accountServiceClient.getAccountByNumber(request.sourceAccountNumber());
+                            Uni<AccountResponse> targetAccountUni = accountServiceClient.getAccountByNumber(request.targetAccountNumber());
+                            return Uni.combine().all().unis(sourceAccountUni, targetAccountUni).asTuple();
+                        }))
                 // Manejo de errores 404/NotFoundException del REST Client
                 .onFailure().transform(e -> {
                     if (e instanceof NotFoundException) {
                         log.error("Transferencia fallida: Una de las cuentas no fue encontrada. Detalles: {}", e.getMessage());
                         return new IllegalArgumentException("Source or target account not found. Check account numbers.");
                     }
-                    return new RuntimeException("Failed to retrieve account details for transfer.", e);
+                    return new AccountUnavailableException("Failed to retrieve account details for transfer.", e);
                 })
                 .onItem().transformToUni(tuple -> {
 
@@ -245,6 +403,7 @@ public class TransactionServiceImpl implements TransactionService {
                         return Uni.createFrom().failure(new IllegalArgumentException("One or both accounts are not active for transfer."));
                     }
                     log.info("Cuentas validadas: Origen ID: {}, Destino ID: {}", sourceAccount.id(), targetAccount.id());
+                    transactionTracing.tagTransfer(sourceAccount.id(), targetAccount.id());
 
                     // 2. PREPARAR Y EJECUTAR RETIRO (CUENTA DE ORIGEN)
                     TransactionRequest withdrawalRequest = new TransactionRequest(
@@ -254,31 +413,54 @@ public class TransactionServiceImpl implements TransactionService {
                             "Transferencia enviada a " + targetAccount.accountNumber() + ": " + request.description()
                     );
 
-                    log.info("Iniciando fase de retiro interno para cuenta de origen: {}", sourceAccount.id());
-                    // Llamada a la versión interna, pasando la cuenta de origen.
-                    return processWithdrawalInternal(withdrawalRequest, sourceAccount)
-
-                            // Manejo de fallo en retiro (ej. Saldo insuficiente).
-                            .onFailure().transform(e -> {
-                                if (e instanceof InsufficientFundsException) {
-                                    log.warn("Transferencia rechazada: Saldo insuficiente en cuenta de origen {}.", sourceAccount.id());
-                                }
-                                return e;
-                            })
-                            .onItem().transformToUni(withdrawalResponse -> {
-
-                                // Retiro exitoso.
-                                // 3. PREPARAR Y EJECUTAR DEPÓSITO (CUENTA DE DESTINO)
-                                TransactionRequest depositRequest = new TransactionRequest(
-                                        targetAccount.id(),
-                                        targetAccount.customerId(),
-                                        request.amount(),
-                                        "Transferencia recibida de " + sourceAccount.accountNumber() + ": " + request.description()
-                                );
+                    // 3. PREPARAR DEPÓSITO (CUENTA DE DESTINO): no depende del resultado del retiro,
+                    // se construye antes para no alargar el camino crítico entre ambas patas.
+                    TransactionRequest depositRequest = new TransactionRequest(
+                            targetAccount.id(),
+                            targetAccount.customerId(),
+                            request.amount(),
+                            "Transferencia recibida de " + sourceAccount.accountNumber() + ": " + request.description()
+                    );
 
+                    log.info("Iniciando fase de retiro interno para cuenta de origen: {}", sourceAccount.id());
+                    // Sólo la fase Core del retiro ocupa el turno de la cuenta de origen; el registro local
+                    // se persiste después, en paralelo con el depósito en destino. Una vez aplicado el retiro,
+                    // el resto (depósito o reversión y registros) termina aunque el @Timeout cancele la orquestación.
+                    return accountSequencer.run(sourceAccount.id(),
+                            () -> transactionMetrics.stage(TransactionType.TRANSFER, "leg.withdrawal",
+                                            transactionTracing.span("transfer.withdrawal", TransactionType.WITHDRAWAL, sourceAccount.id(),
+                                                    () -> withdrawalInternalCore(withdrawalRequest, sourceAccount)))
+
+                                    // Manejo de fallo en retiro (ej. Saldo insuficiente).
+                                    .onFailure().transform(e -> {
+                                        if (e instanceof InsufficientFundsException) {
+                                            log.warn("Transferencia rechazada: Saldo insuficiente en cuenta de origen {}.", sourceAccount.id());
+                                        }
+                                        return e;
+                                    }),
+                            withdrawal -> {
+
+                                // Retiro aplicado en el Core: el dinero ya salió de la cuenta de origen.
                                 log.info("Retiro exitoso. Procediendo a depósito en cuenta destino: {}", targetAccount.id());
 
-                                return processDepositInternal(depositRequest, targetAccount)
+                                // 4a. PERSISTIR el registro del retiro. No condiciona el movimiento de fondos: si falla, pasa a
+                                // reintentarse en segundo plano (con dead-letter), porque el saldo de origen ya fue debitado
+                                // y el depósito/reversión debe completarse. false = ni persistido ni encolado.
+                                Transaction withdrawalRecord = withdrawalRecord(withdrawalRequest, withdrawal.account(),
+                                        withdrawal.coreTransactionId(), withdrawal.amount(), withdrawal.fee());
+                                notifyAccountService(sourceAccount.id()); // Fire and Forget
+                                Uni<Boolean> withdrawalRecorded = persistRecord(withdrawalRecord)
+                                        .onItem().transform(withdrawalResponse -> true)
+                                        .onFailure().recoverWithItem(persistFailure -> {
+                                            log.error("REGISTRO DE RETIRO NO PERSISTIDO: Cuenta {}, referencia Core {}. Se reintenta en segundo plano.",
+                                                    sourceAccount.id(), withdrawal.coreTransactionId(), persistFailure);
+                                            return retryWithdrawalRecord(withdrawalRecord);
+                                        });
+
+                                // 4b. EJECUTAR DEPÓSITO (CUENTA DE DESTINO), con su compensación.
+                                Uni<TransactionResponse> depositLeg = transactionMetrics.stage(TransactionType.TRANSFER, "leg.deposit",
+                                                transactionTracing.span("transfer.deposit", TransactionType.DEPOSIT, targetAccount.id(),
+                                                        () -> processDepositInternal(depositRequest, targetAccount)))
 
                                         // *** LÓGICA DE COMPENSACIÓN (REVERSIÓN) ***
                                         .onFailure().recoverWithUni(depositFailure -> {
@@ -293,10 +475,14 @@ public class TransactionServiceImpl implements TransactionService {
                                             );
 
                                             // Ejecutamos la reversión (Depósito Interno a la cuenta de ORIGEN).
-                                            return processDepositInternal(reversalRequest, sourceAccount)
-                                                    .onFailure().invoke(reversalFailure -> {
+                                            return transactionMetrics.stage(TransactionType.TRANSFER, "compensation",
+                                                            transactionTracing.span("transfer.reversal", TransactionType.DEPOSIT, sourceAccount.id(),
+                                                                    () -> processDepositInternal(reversalRequest, sourceAccount)))
+                                                    .onFailure().transform(reversalFailure -> {
                                                         // ¡ALERTA CRÍTICA! Si la reversión falla, se necesita intervención manual URGENTE.
                                                         log.error("¡ALERTA CRÍTICA! La reversión a la cuenta de origen {} también falló.", sourceAccount.id(), reversalFailure);
+                                                        // El retiro sigue aplicado: el fallo no puede parecer uno sin efecto (validación, cuenta no disponible).
+                                                        return reversalFailed(sourceAccount.id(), reversalFailure);
                                                     })
                                                     .onItem().transformToUni(reversalSuccess -> {
                                                         // La reversión fue exitosa.
@@ -307,14 +493,26 @@ public class TransactionServiceImpl implements TransactionService {
                                                                         targetAccount.accountNumber())
                                                         );
                                                     });
-                                        })
+                                        });
                                         // Fin de la compensación
 
-                                        .onItem().transform(depositResponse -> {
+                                // 5. Ambas ramas corren concurrentemente. collectFailures() espera a que las dos terminen
+                                // (no cancela la persistencia del retiro si el depósito falla) y, como la rama del
+                                // registro nunca falla, propaga tal cual el fallo del depósito/reversión.
+                                return Uni.combine().all().unis(withdrawalRecorded, depositLeg)
+                                        .collectFailures()
+                                        .asTuple()
+                                        .onItem().transform(legs -> {
+                                            TransactionResponse depositResponse = legs.getItem2();
+
+                                            if (!legs.getItem1()) {
+                                                // Fondos movidos pero el retiro no quedó registrado ni pendiente de reintento.
+                                                throw withdrawalUnrecorded(sourceAccount.id(), withdrawal.coreTransactionId());
+                                            }
 
                                             log.info("TRANSFERENCIA EXITOSA: De {} a {} por {}", request.sourceAccountNumber(), request.targetAccountNumber(), request.amount());
 
-                                            // 4. RESPUESTA CONSOLIDADA
+                                            // 6. RESPUESTA CONSOLIDADA
                                             return TransactionResponse.builder()
                                                     .accountId(sourceAccount.id())
                                                     .id(UUID.randomUUID().toString())
@@ -357,68 +555,147 @@ public class TransactionServiceImpl implements TransactionService {
                 );
     }
 
+    @Override
+    public Multi<CommissionReportDto> streamCommissionsReportData(LocalDate startDate, LocalDate endDate) {
+        LocalDateTime start = startDate.atStartOfDay();
+        LocalDateTime end = endDate.plusDays(1).atStartOfDay();
+
+        log.info("EXPORT REPORTE | Servicio: Exportando comisiones desde {} hasta {} (exclusivo)", start, end);
+
+        // Sin @Timeout: la duración depende del rango y del ritmo al que el cliente consume la respuesta.
+        return transactionRepository.streamCommissionsByDateRange(start, end, commissionExportBatchSize)
+                .onItem().transform(transactionMapper::toCommissionReportDto)
+                .onFailure().invoke(e ->
+                        log.error("EXPORT REPORTE | Error al exportar datos de comisiones: {}", e.getMessage(), e)
+                );
+    }
+
+    @Override
+    @Timeout
+    @CircuitBreaker
+    @Fallback(fallbackMethod = "fallbackCommissionsSummary")
+    public Uni<List<CommissionSummaryDto>> getCommissionsSummary(LocalDate startDate, LocalDate endDate, boolean groupByAccount,
+                                                                 CommissionReportSource source) {
+        if (source == CommissionReportSource.ROLLUPS) {
+            log.info("RESUMEN REPORTE | Servicio: Leyendo buckets de comisiones desde {} hasta {}", startDate, endDate);
+            return commissionRollupRepository.findByDayRange(startDate, endDate)
+                    .onItem().transform(rollups -> rollups.stream()
+                            .map(transactionMapper::toCommissionSummaryDto)
+                            .toList())
+                    .onFailure().invoke(e ->
+                            log.error("RESUMEN REPORTE | Error al leer buckets de comisiones: {}", e.getMessage(), e)
+                    );
+        }
+
+        LocalDateTime start = startDate.atStartOfDay();
+        LocalDateTime end = endDate.plusDays(1).atStartOfDay();
+
+        log.info("RESUMEN REPORTE | Servicio: Agregando comisiones desde {} hasta {} (exclusivo). Por cuenta: {}", start, end, groupByAccount);
+
+        return transactionRepository.aggregateCommissionsByDay(start, end, groupByAccount)
+                .onItem().transform(groups -> groups.stream()
+                        .map(transactionMapper::toCommissionSummaryDto)
+                        .toList())
+                .onFailure().invoke(e ->
+                        log.error("RESUMEN REPORTE | Error al agregar datos de comisiones: {}", e.getMessage(), e)
+                );
+    }
+
     /**
-     * Versión interna de retiro utilizada durante la transferencia.
+     * Versión interna de retiro utilizada durante la transferencia (síncrona y saga de TransferSagaServiceImpl).
      * Recibe la cuenta ya cargada para evitar llamadas REST redundantes.
      * @param request La solicitud de retiro (monto, descripción).
      * @param account El objeto AccountResponse de la cuenta de origen (incluye saldo y reglas).
      * @return Uni<TransactionResponse> El resultado de la transacción (simulado el core).
      * @throws InsufficientFundsException Si la cuenta no tiene saldo suficiente.
      */
-    private Uni<TransactionResponse> processWithdrawalInternal(TransactionRequest request, AccountResponse account) {
+    Uni<TransactionResponse> processWithdrawalInternal(TransactionRequest request, AccountResponse account) {
         log.info("Processing internal withdrawal for account ID: {}", request.accountId());
+        return accountSequencer.run(request.accountId(), () -> withdrawalInternalCore(request, account),
+                context -> persistWithdrawalInternal(request, context));
+    }
+
+    /**
+     * Fase serializada del retiro interno: tarificación, validación de saldo y actualización en el Core.
+     * No persiste el registro local, de modo que el turno de la cuenta se libera en cuanto el saldo
+     * queda actualizado y la transferencia puede solapar la persistencia con el depósito en destino.
+     */
+    private Uni<AccountContext> withdrawalInternalCore(TransactionRequest request, AccountResponse account) {
 
         // 1. APLICAR TARIFICACIÓN y CALCULAR DÉBITO TOTAL
-        // NOTA: Se asume que calculateFeeFromAccount(account) devuelve la comisión
-        BigDecimal fee = calculateFeeFromAccount(account);
+        // NOTA: Se asume que TransactionPricing.feeFor(account) devuelve la comisión
+        Money fee = TransactionPricing.feeFor(account);
+        Money amount = Money.of(request.amount());
         // Monto total a DEBITAR del balance (Monto solicitado + Comisión)
-        BigDecimal totalDebitAmount = request.amount().add(fee);
-
-        // 2. VALIDACIÓN DE SALDO (Usando el balance ya cargado: account.balance())
-        if (account.balance().compareTo(totalDebitAmount) < 0) {
-            log.warn("RETIRO RECHAZADO: Saldo insuficiente. Cuenta: {}. Requiere: {}, Disponible: {}",
-                    request.accountId(), totalDebitAmount, account.balance());
-            return Uni.createFrom().failure(new InsufficientFundsException("Insufficient funds. Cannot withdraw " + totalDebitAmount + "."));
-        }
+        Money totalDebitAmount = amount.add(fee);
 
-        // 3. EJECUTAR CORE (Simulación: Actualizar el SALDO de forma atómica en el Account-Service)
+        // 2-3. EJECUTAR CORE (CoreBankingGateway). La VALIDACIÓN DE SALDO la hace el Core de forma atómica
+        // sobre el saldo vigente, no sobre el de la cuenta recibida (puede venir de la caché).
         // El core requiere el MONTO TOTAL A DEBITAR como NEGATIVO.
         return executeCoreTransaction(
-                request.accountId(),
+                account,
                 totalDebitAmount.negate(),
                 fee,
                 TransactionType.WITHDRAWAL
         )
+                .onFailure(InsufficientFundsException.class).invoke(() ->
+                        log.warn("RETIRO RECHAZADO: Saldo insuficiente. Cuenta: {}. Requiere: {}", request.accountId(), totalDebitAmount))
                 .onItem().transformToUni(coreResult -> {
 
                     if (!coreResult.success()) {
                         return Uni.createFrom().failure(new IllegalStateException("Core banking transaction failed for withdrawal."));
                     }
 
-                    // 4. ACTUALIZAR CONTADOR y PERSISTIR
-                    notifyAccountService(request.accountId()); // Fire and Forget
-                    // Persistir el registro local con el monto solicitado original en negativo.
-                    return persistLocalTransaction(request, account, coreResult.coreTransactionId(), request.amount().negate(), fee, TransactionType.WITHDRAWAL);
+                    // Se persistirá el monto solicitado original en negativo.
+                    return Uni.createFrom().item(new AccountContext(account, fee, amount.negate(), coreResult.coreTransactionId()));
                 });
     }
 
     /**
-     * Versión interna de depósito utilizada durante la transferencia.
+     * Solo la fase Core del retiro interno (en el turno de la cuenta), sin registro local. La saga de
+     * transferencia guarda el coreTransactionId devuelto antes de llamar a {@link #persistWithdrawalInternal},
+     * así un fallo del registro nunca lleva a repetir el cargo.
+     */
+    Uni<AccountContext> applyWithdrawalInternal(TransactionRequest request, AccountResponse account) {
+        log.info("Applying internal withdrawal in Core for account ID: {}", request.accountId());
+        return accountSequencer.run(request.accountId(), () -> withdrawalInternalCore(request, account));
+    }
+
+    /** 4. ACTUALIZAR CONTADOR y PERSISTIR el registro local de un retiro interno ya aplicado en el Core. */
+    Uni<TransactionResponse> persistWithdrawalInternal(TransactionRequest request, AccountContext context) {
+        notifyAccountService(request.accountId()); // Fire and Forget
+        return persistLocalTransaction(request, context.account(), context.coreTransactionId(),
+                context.amount(), context.fee(), TransactionType.WITHDRAWAL);
+    }
+
+    /**
+     * Versión interna de depósito utilizada durante la transferencia (síncrona y saga de TransferSagaServiceImpl).
      * Recibe la cuenta ya cargada para aplicar tarificación.
      * @param request La solicitud de depósito (monto, descripción).
      * @param account El objeto AccountResponse de la cuenta de destino (incluye reglas).
      * @return Uni<TransactionResponse> El resultado de la transacción (simulado el core).
      */
-    private Uni<TransactionResponse> processDepositInternal(TransactionRequest request, AccountResponse account) {
+    Uni<TransactionResponse> processDepositInternal(TransactionRequest request, AccountResponse account) {
         log.info("Processing internal deposit for account ID: {}", request.accountId());
+        return accountSequencer.run(request.accountId(), () -> depositInternalCore(request, account),
+                context -> persistDepositInternal(request, context));
+    }
+
+    /** Solo la fase Core del depósito interno, sin registro local (ver {@link #applyWithdrawalInternal}). */
+    Uni<AccountContext> applyDepositInternal(TransactionRequest request, AccountResponse account) {
+        log.info("Applying internal deposit in Core for account ID: {}", request.accountId());
+        return accountSequencer.run(request.accountId(), () -> depositInternalCore(request, account));
+    }
+
+    private Uni<AccountContext> depositInternalCore(TransactionRequest request, AccountResponse account) {
         // 1. Aplicar la lógica de tarificación
-        BigDecimal fee = calculateFeeFromAccount(account);
+        Money fee = TransactionPricing.feeFor(account);
         // Monto real a depositar (Monto solicitado - Comisión)
-        BigDecimal netAmount = request.amount().subtract(fee);
+        Money netAmount = Money.of(request.amount()).subtract(fee);
 
         // 2. Ejecutar CORE (Simulación: Actualiza el SALDO de forma atómica en el Account-Service)
         return executeCoreTransaction(
-                request.accountId(),
+                account,
                 netAmount, // Monto positivo
                 fee,
                 TransactionType.DEPOSIT
@@ -427,15 +704,19 @@ public class TransactionServiceImpl implements TransactionService {
                     if (!coreResult.success()) {
                         return Uni.createFrom().failure(new IllegalStateException("Core banking transaction failed for deposit."));
                     }
-                    // 3. Actualizar CONTADOR y PERSISTIR
-                    notifyAccountService(request.accountId()); // Fire and Forget
-                    // 4. Persistir el registro localmente.
-                    // CORRECCIÓN CLAVE: Usamos 'netAmount' y añadimos 'account'.
-                    return persistLocalTransaction(request, account, coreResult.coreTransactionId(), netAmount, fee, TransactionType.DEPOSIT);
+                    return Uni.createFrom().item(new AccountContext(account, fee, netAmount, coreResult.coreTransactionId()));
                 });
     }
 
-    private void validateActiveAccount(AccountResponse account) {
+    /** 3. ACTUALIZAR CONTADOR y PERSISTIR el registro local de un depósito interno ya aplicado en el Core. */
+    Uni<TransactionResponse> persistDepositInternal(TransactionRequest request, AccountContext context) {
+        notifyAccountService(request.accountId()); // Fire and Forget
+        // Se persiste el monto neto (solicitado - comisión).
+        return persistLocalTransaction(request, context.account(), context.coreTransactionId(),
+                context.amount(), context.fee(), TransactionType.DEPOSIT);
+    }
+
+    static void validateActiveAccount(AccountResponse account) {
         if (account.productType() != ProductType.ACTIVE) {
             throw new IllegalArgumentException("This service only processes transactions for active accounts.");
         }
@@ -444,7 +725,7 @@ public class TransactionServiceImpl implements TransactionService {
         }
     }
 
-    private void validatePassiveAccount(AccountResponse account) {
+    static void validatePassiveAccount(AccountResponse account) {
         if (account.productType() != ProductType.PASSIVE) {
             throw new IllegalArgumentException("This service only processes transactions for passive accounts.");
         }
@@ -453,7 +734,7 @@ public class TransactionServiceImpl implements TransactionService {
         }
     }
 
-    private void validateConsumption(AccountResponse account, BigDecimal amount) {
+    static void validateConsumption(AccountResponse account, Money amount) {
         log.debug("Validating consumption for account ID: {}", account.id());
 
         // Validación 1: El producto debe ser activo(credito)
@@ -475,154 +756,154 @@ public class TransactionServiceImpl implements TransactionService {
         }
 
         // Validación 4: El consumo no debe exceder el límite de crédito disponible
-        BigDecimal availableLimit = account.balance().subtract(account.amountUsed());
+        Money availableLimit = Money.fromExternal(account.balance()).subtract(Money.fromExternal(account.amountUsed()));
         if (amount.compareTo(availableLimit) > 0) {
             log.error("Consumption amount exceeds available limit. Amount: {}, Available: {}", amount, availableLimit);
             throw new IllegalArgumentException("El consumo excede el límite de crédito disponible.");
         }
     }
 
-    private AccountResponse updateAccount(AccountResponse account, BigDecimal amount, TransactionType transactionType) {
-        BigDecimal newBalance = account.balance();
-        BigDecimal newAmountUsed = account.amountUsed();
-
-        if (account.productType() == ProductType.PASSIVE) {
-            if (transactionType == TransactionType.DEPOSIT) {
-                newBalance = newBalance.add(amount);
-            } else if (transactionType == TransactionType.WITHDRAWAL) {
-                newBalance = newBalance.subtract(amount);
-            }
-        } else if (account.productType() == ProductType.ACTIVE) {
-            if (transactionType == TransactionType.PAYMENT) {
-                newAmountUsed = newAmountUsed.subtract(amount);
-            } else if (transactionType == TransactionType.CONSUMPTION) {
-                newAmountUsed = newAmountUsed.add(amount);
-            }
-        }
-
-        return new AccountResponse(
-                account.id(),
-                account.customerId(),
-                account.accountNumber(),
-                account.productType(),
-                account.accountType(),
-                account.creditType(),
-                account.status(),
-                account.openingDate(),
-                // --- Estado Financiero (Campos actualizados o mantenidos) ---
-                newBalance,   // Nuevo saldo/límite (Actualizado si es PASIVO)
-                newAmountUsed,// Nuevo monto usado (Actualizado si es ACTIVO)
-
-                // --- Configuración y Monitoreo (Mantenidos sin cambios) ---
-                account.maintenanceFeeAmount(),     // Costo de mantenimiento
-                account.requiredDailyAverage(),     // Promedio requerido
-                account.freeTransactionLimit(),     // Límite transacciones GRATUITAS
-                account.transactionFeeAmount(),     // Costo de la comisión
-                account.currentMonthlyTransactions(), // Contador de transacciones
-                account.monthlyMovements(),         // Movimientos mensuales
-                account.specificDepositDate(),      // Fecha de depósito específica
-                // --- Titulares y Firmantes (Mantenidos) ---
-                account.holders(),
-                account.signatories()
-        );
-    }
-
+    // Pagos y consumos: el movimiento sobre la línea de crédito también pasa por el Core (CoreBankingGateway)
     private Uni<TransactionResponse> processTransaction(AccountResponse updatedAccount, TransactionRequest request, TransactionType transactionType) {
-        return accountServiceRestClient.updateAccountBalance(updatedAccount.id(), updatedAccount)
+        return coreBankingGateway.postCredit(updatedAccount, transactionType)
                 .chain(result -> {
                     Transaction transaction = transactionMapper.toEntity(request);
                     transaction.setTransactionType(transactionType);
                     transaction.setTransactionDate(LocalDateTime.now());
-                    return transactionRepository.persist(transaction)
+                    return transactionMetrics.stage(transactionType, "persist", transactionBatchWriter.persist(transaction))
                             .onItem().transform(persistedTransaction -> transactionMapper.toResponse(persistedTransaction));
                 });
     }
 
-    /** Calcula la comisión basada en los límites usando AccountResponse. */
-    private BigDecimal calculateFeeFromAccount(AccountResponse account) {
-        Integer current = account.currentMonthlyTransactions();
-        Integer limit = account.freeTransactionLimit();
-        BigDecimal feeAmount = account.transactionFeeAmount();
+    /**
+     * Notifica al Account-Service el incremento del contador. El incremento se acumula y se envía
+     * como delta agrupado por cuenta en la siguiente ventana del agregador.
+     */
+    private void notifyAccountService(String accountId) {
+        transactionCounterAggregator.increment(accountId);
+    }
 
-        // Aseguramos que los valores existan y aplicamos la lógica
-        if (current == null || limit == null || feeAmount == null) {
-            return BigDecimal.ZERO;
+    // Carga la cuenta y aplica el movimiento en el Core (CoreBankingGateway)
+    private Uni<CoreTransactionResult> executeCoreTransaction(AccountResponse account, Money netAmount, Money fee, TransactionType type) {
+        if (!coreBankingGateway.requiresFreshAccount()) {
+            // Ledger embebido: el saldo vigente es el suyo, así que basta la cuenta ya cargada (sin otra lectura).
+            return applyCoreTransaction(account, netAmount, fee, type);
         }
+        // 1. Obtener la cuenta (el Core simulado calcula el nuevo saldo a partir de ella)
+        // Lectura fresca (sin caché): el saldo debe ser el vigente dentro de la sección serializada.
+        return transactionMetrics.stage(type, "account.load", accountServiceClient.loadAccountById(account.id()))
+                .onFailure().transform(e -> accountUnavailable(account.id(), e))
+                .onItem().transformToUni(loaded -> applyCoreTransaction(loaded, netAmount, fee, type));
+    }
 
-        // Si el contador actual es MAYOR o IGUAL al límite gratuito, aplica la tarifa.
-        if (current >= limit) {
-            return feeAmount;
-        }
-        return BigDecimal.ZERO; // Transacción gratuita
+    /**
+     * Cuenta sobre la que se valida, se tarifica y se aplica el movimiento. El Core simulado calcula el nuevo
+     * saldo a partir de ella, así que es una lectura fresca; con el ledger embebido el saldo vigente es el del
+     * ledger y basta la lectura con caché (compartido con la saga y el modo virtual threads).
+     */
+    Uni<AccountResponse> loadAccountForCore(String accountId) {
+        return coreBankingGateway.requiresFreshAccount()
+                ? accountServiceClient.loadAccountById(accountId)
+                : accountServiceClient.getAccountById(accountId);
     }
 
-    /** * Calcula la comisión basada en los límites.
-     * NOTA: Usa el DTO ligero AccountTransactionStatus (Opción A).
+    /**
+     * Reintenta en segundo plano (SideEffectDispatcher, con backoff y dead-letter) el registro local del retiro de
+     * una transferencia ya aplicado en el Core. Solo repite la persistencia: el contador ya se notificó.
+     * <p>
+     * Cada intento inserta el MISMO documento (mismo _id) que el intento original, y un _id duplicado cuenta como
+     * insertado: un intento que llegó a Mongo sin confirmarse no deja dos registros del retiro. La comisión se
+     * suma a su bucket también en ese caso, porque el intento que insertó no llegó a completarse.
+     * @return false si el dispatcher no lo aceptó (cola llena o apagado).
      */
-    private BigDecimal calculateFee(AccountTransactionStatus status) {
-        Integer current = status.currentMonthlyTransactions();
-        Integer limit = status.freeTransactionLimit();
-        BigDecimal feeAmount = status.transactionFeeAmount();
-        // Aseguramos que los valores existan y aplicamos la lógica
-        if (current == null || limit == null || feeAmount == null) {
-            return BigDecimal.ZERO;
-        }
-        // Si el contador actual es MAYOR o IGUAL al límite gratuito, aplica la tarifa.
-        if (current >= limit) {
-            return feeAmount;
+    private boolean retryWithdrawalRecord(Transaction withdrawalRecord) {
+        return sideEffectDispatcher.dispatch(SideEffectType.TRANSFER_WITHDRAWAL_RECORD, withdrawalRecord.getAccountId(),
+                withdrawalRecordPayload(withdrawalRecord),
+                () -> transactionRepository.insertIfAbsent(withdrawalRecord)
+                        .call(inserted -> commissionRollupService.record(inserted))
+                        .replaceWithVoid());
+    }
+
+    /**
+     * Registro local del retiro de una transferencia, construido una sola vez y con el _id ya asignado para
+     * que el intento original y sus reintentos escriban el mismo documento (compartido con el modo virtual threads).
+     */
+    Transaction withdrawalRecord(TransactionRequest request, AccountResponse account, String coreId, Money amount, Money fee) {
+        Transaction transaction = newLocalTransaction(request, account, coreId, amount, fee, TransactionType.WITHDRAWAL);
+        transaction.setId(new ObjectId());
+        return transaction;
+    }
+
+    /** Payload de la dead-letter: el registro completo del retiro, para re-aplicarlo o conciliarlo a mano. */
+    String withdrawalRecordPayload(Transaction withdrawalRecord) {
+        try {
+            return objectMapper.writeValueAsString(transactionMapper.toResponse(withdrawalRecord));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
         }
-        return BigDecimal.ZERO; // Transacción gratuita
     }
 
-    /** Notifica al Account-Service de forma asíncrona para incrementar el contador. */
-    private void notifyAccountService(String accountId) {
-        accountServiceRestClient.incrementTransactions(accountId)
-                .subscribe().with(
-                        success -> log.info("Contador incrementado exitosamente para cuenta: {}", accountId),
-                        failure -> log.error("Fallo al incrementar contador para cuenta {}: {}", accountId, failure.getMessage())
-                );
+    /** Transferencia aplicada en el Core cuyo retiro no se pudo registrar ni encolar para reintento. */
+    static TransferIncompleteException withdrawalUnrecorded(String sourceAccountId, String coreTransactionId) {
+        log.error("¡ALERTA CRÍTICA! Retiro de la cuenta {} (referencia Core {}) sin registro local ni reintento pendiente.",
+                sourceAccountId, coreTransactionId);
+        return new TransferIncompleteException(String.format(
+                "Transfer applied, but the withdrawal record for account %s (core reference %s) could not be persisted. Manual reconciliation required.",
+                sourceAccountId, coreTransactionId));
     }
 
-    // Método SIMULADO que ahora SÍ LAMA AL ENDPOINT DE SALDO DEL Account-Service
-    private Uni<CoreTransactionResult> executeCoreTransaction(String accountId, BigDecimal netAmount, BigDecimal fee, TransactionType type) {
-        log.info("CORE TRANSACTION SIMULATED ({}) for Account {}. Net Amount: {}. Fee: {}", type, accountId, netAmount, fee);
-
-        // 1. Obtener la cuenta para calcular el nuevo saldo (temporalmente necesario para la simulación)
-        return accountServiceRestClient.getAccountById(accountId)
-                .onItem().transform(account -> {
-                    // 2. Calcular el nuevo balance
-                    BigDecimal currentBalance = account.balance();
-                    BigDecimal newBalance = currentBalance.add(netAmount); // netAmount ya es positivo para depósito, negativo para retiro
-
-                    // 3. Retornar el AccountResponse actualizado directamente (CORRECCIÓN DEL WARNING)
-                    return new AccountResponse(
-                            account.id(), account.customerId(), account.accountNumber(),
-                            account.productType(), account.accountType(), account.creditType(),
-                            account.status(), account.openingDate(), newBalance, account.amountUsed(),
-                            account.maintenanceFeeAmount(), account.requiredDailyAverage(),
-                            account.freeTransactionLimit(), account.transactionFeeAmount(),
-                            account.currentMonthlyTransactions(), account.monthlyMovements(),
-                            account.specificDepositDate(), account.holders(), account.signatories()
-                    );
-                })
-                // 4. Llamar al endpoint de actualización de saldo del Account-Service
-                .onItem().transformToUni(updatedAccount ->
-                        accountServiceRestClient.updateAccountBalance(accountId, updatedAccount)
-                )
-                // 5. Retornar el resultado de la simulación
-                .onItem().transform(finalAccount ->
-                        new CoreTransactionResult(UUID.randomUUID().toString(), true, finalAccount.balance())
-                )
-                .onFailure().transform(e -> new RuntimeException("Fallo en la simulación del Core/updateAccountBalance: " + e.getMessage()));
+    /** La reversión de una transferencia falló: el retiro de origen sigue aplicado. */
+    static IllegalStateException reversalFailed(String sourceAccountId, Throwable failure) {
+        return new IllegalStateException("Transfer failed and the reversal to source account " + sourceAccountId
+                + " also failed. Manual intervention required.", failure);
+    }
+
+    /** Fallo de la lectura previa al Core: el movimiento no se aplicó (ver IdempotencyService). */
+    private static AccountUnavailableException accountUnavailable(String accountId, Throwable failure) {
+        return new AccountUnavailableException("Fallo en la simulación del Core/getAccountById (" + accountId + "): " + failure.getMessage(), failure);
     }
 
+    /**
+     * Aplica la transacción central sobre una cuenta YA CARGADA dentro del turno de la cuenta,
+     * evitando una segunda lectura al Account-Service. La implementación la elige CoreBankingGateway.
+     */
+    private Uni<CoreTransactionResult> applyCoreTransaction(AccountResponse account, Money netAmount, Money fee, TransactionType type) {
+        return coreBankingGateway.post(account, netAmount, fee, type);
+    }
+
+    /** Cuenta cargada una sola vez y resultado de la fase central, reutilizados hasta la persistencia. */
+    record AccountContext(AccountResponse account, Money fee, Money amount, String coreTransactionId) {}
+
     // Método para persistir la transacción localmente (asumiendo que está bien mapeado)
     private Uni<TransactionResponse> persistLocalTransaction(
             TransactionRequest request,
             AccountResponse account,
             String coreId,
-            BigDecimal finalAmountToPersist,
-            BigDecimal fee,
+            Money finalAmountToPersist,
+            Money fee,
+            TransactionType type
+    ) {
+        return persistRecord(newLocalTransaction(request, account, coreId, finalAmountToPersist, fee, type));
+    }
+
+    private Uni<TransactionResponse> persistRecord(Transaction transaction) {
+        TransactionType type = transaction.getTransactionType();
+        transactionTracing.tagFee(transaction.getFee());
+
+        // Inserción agrupada (write-behind): el Uni se completa cuando Mongo confirma el lote.
+        // Después se suma la comisión (si la hay) a su bucket diario de 'commission_rollups'.
+        return transactionMetrics.stage(type, "persist", transactionBatchWriter.persist(transaction))
+                .call(persisted -> transactionMetrics.stage(type, "commission.rollup", commissionRollupService.record(persisted)))
+                .onItem().transform(transactionMapper::toResponse);
+    }
+
+    /** Registro local de una operación aplicada en el Core (compartido con VirtualThreadTransactionServiceImpl). */
+    Transaction newLocalTransaction(
+            TransactionRequest request,
+            AccountResponse account,
+            String coreId,
+            Money finalAmountToPersist,
+            Money fee,
             TransactionType type
     ) {
         Transaction transaction = transactionMapper.toEntity(request);
@@ -640,15 +921,14 @@ public class TransactionServiceImpl implements TransactionService {
         transaction.setTransactionType(type);
         transaction.setTransactionDate(LocalDateTime.now());
         transaction.setAmount(finalAmountToPersist);
-        transaction.setDescription(request.description() + (fee.compareTo(BigDecimal.ZERO) > 0 ? " (Fee: " + fee + ")" : ""));
+        transaction.setDescription(request.description() + (fee.isPositive() ? " (Fee: " + fee + ")" : ""));
         transaction.setExternalReference(coreId);
-
-        return transactionRepository.persist(transaction)
-                .onItem().transform(transactionMapper::toResponse);
+        return transaction;
     }
 
     // FALLBACK para processDeposit
-    public Uni<TransactionResponse> fallbackProcessDeposit(TransactionRequest request, Throwable failure) {
+    public Uni<TransactionResponse> fallbackProcessDeposit(TransactionRequest request, String idempotencyKey, Throwable failure) {
+        transactionMetrics.fallback(TransactionType.DEPOSIT, failure);
         log.error("FALLBACK ACTIVO (Depósito) para cuenta {}. Causa: {}", request.accountId(), failure.getMessage());
         String errorMessage = "El servicio de depósito está inoperativo. No se pudo completar la transacción.";
         // Fallo crítico: No podemos asumir el éxito, así que lanzamos 503.
@@ -656,14 +936,16 @@ public class TransactionServiceImpl implements TransactionService {
     }
 
     // FALLBACK para processWithdrawal
-    public Uni<TransactionResponse> fallbackProcessWithdrawal(TransactionRequest request, Throwable failure) {
+    public Uni<TransactionResponse> fallbackProcessWithdrawal(TransactionRequest request, String idempotencyKey, Throwable failure) {
+        transactionMetrics.fallback(TransactionType.WITHDRAWAL, failure);
         log.error("FALLBACK ACTIVO (Retiro) para cuenta {}. Causa: {}", request.accountId(), failure.getMessage());
         String errorMessage = "El servicio de retiro está inoperativo. No se pudo completar la transacción.";
         return Uni.createFrom().failure(new ServiceUnavailableException(errorMessage, failure));
     }
 
     // FALLBACK para processTransfer
-    public Uni<TransactionResponse> fallbackProcessTransfer(TransferRequest request, Throwable failure) {
+    public Uni<TransactionResponse> fallbackProcessTransfer(TransferRequest request, String idempotencyKey, Throwable failure) {
+        transactionMetrics.fallback(TransactionType.TRANSFER, failure);
         log.error("FALLBACK ACTIVO (Transferencia) de {} a {}. Causa: {}", request.sourceAccountNumber(), request.targetAccountNumber(), failure.getMessage());
         String errorMessage = "El servicio de transferencias está inoperativo. No se pudo iniciar la orquestación.";
         // Fallo crítico: La transferencia no puede garantizarse.
@@ -678,4 +960,12 @@ public class TransactionServiceImpl implements TransactionService {
         return Uni.createFrom().failure(new ServiceUnavailableException(errorMessage, failure));
         // Alternativa: return Uni.createFrom().item(Collections.emptyList());
     }
+
+    // FALLBACK para getCommissionsSummary
+    public Uni<List<CommissionSummaryDto>> fallbackCommissionsSummary(LocalDate startDate, LocalDate endDate, boolean groupByAccount,
+                                                                      CommissionReportSource source, Throwable failure) {
+        log.error("FALLBACK ACTIVO (Resumen de reporte) desde {} hasta {}. Causa: {}", startDate, endDate, failure.getMessage());
+        String errorMessage = "El servicio de reportes de comisiones está inoperativo.";
+        return Uni.createFrom().failure(new ServiceUnavailableException(errorMessage, failure));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,503 @@
+package com.bancario.transaction.service.impl;
+
+import com.bancario.transaction.client.CachedAccountServiceClient;
+import com.bancario.transaction.dto.AccountResponse;
+import com.bancario.transaction.dto.TransactionRequest;
+import com.bancario.transaction.dto.TransactionResponse;
+import com.bancario.transaction.dto.TransferRequest;
+import com.bancario.transaction.dto.TransferSagaResponse;
+import com.bancario.transaction.enums.AccountStatus;
+import com.bancario.transaction.enums.TransactionType;
+import com.bancario.transaction.enums.TransferSagaStatus;
+import com.bancario.transaction.exception.AccountUnavailableException;
+import com.bancario.transaction.exception.IdempotencyConflictException;
+import com.bancario.transaction.exception.InsufficientFundsException;
+import com.bancario.transaction.mapper.TransactionMapper;
+import com.bancario.transaction.repository.TransferSagaRepository;
+import com.bancario.transaction.repository.entity.TransferSaga;
+import com.bancario.transaction.service.TransferSagaService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import io.smallrye.mutiny.Uni;
+import io.vertx.core.Vertx;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.NotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Transferencias asíncronas como saga persistida en 'transfer_sagas'.
+ * <p>
+ * El POST solo inserta la saga (PENDING) y responde 202. Un pool de workers, acotado por
+ * transaction-service.transfer-saga.concurrency, reclama sagas con un lease en Mongo y las avanza:
+ * <pre>
+ * PENDING -> WITHDRAWING -> WITHDRAWN -> DEPOSITING -> COMPLETED
+ *                                           \-> COMPENSATING -> REVERSING -> COMPENSATED
+ * </pre>
+ * - Rechazos de negocio (saldo insuficiente, cuenta inactiva): el retiro pasa a FAILED y el depósito
+ *   a COMPENSATING, sin reintentos.
+ * - Fallos técnicos sin efecto (la cuenta no se pudo leer): el paso se reintenta con backoff exponencial
+ *   hasta max-attempts; agotados, el retiro pasa a FAILED, el depósito a COMPENSATING y la reversión a
+ *   REQUIRES_ATTENTION.
+ * - Fallos del Core con resultado incierto (timeout, error tras el envío): REQUIRES_ATTENTION, sin reintento.
+ * - Cada paso guarda su estado "-ING", ejecuta solo el movimiento en el Core, guarda la referencia del Core
+ *   en la saga y después registra la transacción local. Desde que el Core responde el paso cuenta como
+ *   aplicado: un fallo del registro local queda pendiente de conciliación pero nunca repite el movimiento.
+ * - Si el worker cae, el lease expira y otra instancia reclama la saga. Un paso interrumpido con la
+ *   referencia del Core guardada continúa; sin ella tiene resultado incierto y pasa a REQUIRES_ATTENTION.
+ */
+@Slf4j
+@ApplicationScoped
+public class TransferSagaServiceImpl implements TransferSagaService {
+
+    @Inject
+    TransferSagaRepository transferSagaRepository;
+
+    @Inject
+    TransactionServiceImpl transactionService;
+
+    @Inject
+    CachedAccountServiceClient accountServiceClient;
+
+    @Inject
+    TransactionMapper transactionMapper;
+
+    @Inject
+    IdempotencyServiceImpl idempotencyService;
+
+    @Inject
+    Vertx vertx;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "transaction-service.transfer-saga.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "transaction-service.transfer-saga.concurrency", defaultValue = "16")
+    int concurrency;
+
+    @ConfigProperty(name = "transaction-service.transfer-saga.poll-interval-ms", defaultValue = "200")
+    long pollIntervalMs;
+
+    @ConfigProperty(name = "transaction-service.transfer-saga.lease", defaultValue = "30S")
+    Duration lease;
+
+    @ConfigProperty(name = "transaction-service.transfer-saga.max-attempts", defaultValue = "5")
+    int maxAttempts;
+
+    @ConfigProperty(name = "transaction-service.transfer-saga.retry-backoff-ms", defaultValue = "1000")
+    long retryBackoffMs;
+
+    // Identifica a esta instancia como dueña de los leases.
+    private final String workerId = UUID.randomUUID().toString();
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicBoolean polling = new AtomicBoolean();
+    private final Map<TransferSagaStatus, Counter> finished = new EnumMap<>(TransferSagaStatus.class);
+    private volatile boolean stopped;
+    private long timerId = -1;
+
+    void onStart(@Observes StartupEvent event) {
+        Gauge.builder("transfer.saga.active", active, AtomicInteger::get)
+                .description("Sagas de transferencia en proceso en esta instancia")
+                .register(meterRegistry);
+        for (TransferSagaStatus status : TransferSagaStatus.values()) {
+            if (status.isFinal()) {
+                finished.put(status, Counter.builder("transfer.saga.finished")
+                        .description("Sagas de transferencia terminadas por estado final")
+                        .tag("status", status.name().toLowerCase(Locale.ROOT))
+                        .register(meterRegistry));
+            }
+        }
+        if (!enabled) {
+            return;
+        }
+        transferSagaRepository.ensureIndexes().subscribe().with(
+                ignored -> log.info("SAGA | Índices de 'transfer_sagas' verificados."),
+                failure -> log.error("SAGA | No se pudieron crear los índices de 'transfer_sagas': {}", failure.getMessage()));
+        timerId = vertx.setPeriodic(pollIntervalMs, id -> poll());
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        // Las sagas en curso conservan su lease: al expirar, otra instancia las retoma.
+        stopped = true;
+        if (timerId >= 0) {
+            vertx.cancelTimer(timerId);
+        }
+    }
+
+    @Override
+    public Uni<TransferSagaResponse> submit(TransferRequest request, String idempotencyKey) {
+        Instant now = Instant.now();
+        TransferSaga saga = new TransferSaga();
+        saga.setId(UUID.randomUUID().toString());
+        saga.setIdempotencyKey(idempotencyKey != null && !idempotencyKey.isBlank() ? idempotencyKey : null);
+        if (saga.getIdempotencyKey() != null) {
+            saga.setRequestFingerprint(idempotencyService.fingerprint(request));
+        }
+        saga.setSourceAccountNumber(request.sourceAccountNumber());
+        saga.setTargetAccountNumber(request.targetAccountNumber());
+        saga.setAmount(request.amount());
+        saga.setDescription(request.description());
+        saga.setStatus(TransferSagaStatus.PENDING);
+        saga.setNextAttemptAt(now);
+        saga.setCreatedAt(now);
+        saga.setUpdatedAt(now);
+
+        return transferSagaRepository.insert(saga)
+                .onItem().transformToUni(inserted -> {
+                    if (inserted) {
+                        log.info("SAGA {} | Transferencia aceptada: De {} a {} por {}",
+                                saga.getId(), request.sourceAccountNumber(), request.targetAccountNumber(), request.amount());
+                        return Uni.createFrom().item(saga);
+                    }
+                    // Reintento del cliente con la misma Idempotency-Key: se devuelve la saga original, salvo que la
+                    // clave se haya usado con otra petición (409, como en el camino síncrono).
+                    return transferSagaRepository.findByIdempotencyKey(saga.getIdempotencyKey())
+                            .onItem().invoke(existing -> {
+                                if (existing.getRequestFingerprint() != null
+                                        && !existing.getRequestFingerprint().equals(saga.getRequestFingerprint())) {
+                                    throw new IdempotencyConflictException(
+                                            "La Idempotency-Key " + idempotencyKey + " ya se usó con una petición diferente.");
+                                }
+                            });
+                })
+                .onItem().transform(transactionMapper::toSagaResponse);
+    }
+
+    @Override
+    public Uni<TransferSagaResponse> findById(String id) {
+        return transferSagaRepository.findById(id)
+                .onItem().ifNotNull().transform(transactionMapper::toSagaResponse);
+    }
+
+    /** Reclama sagas hasta llenar los huecos libres del pool. Si ya hay un sondeo en curso, no hace nada. */
+    private void poll() {
+        if (stopped || !polling.compareAndSet(false, true)) {
+            return;
+        }
+        claimNext();
+    }
+
+    private void claimNext() {
+        if (stopped || active.get() >= concurrency) {
+            polling.set(false);
+            return;
+        }
+        active.incrementAndGet();
+        transferSagaRepository.claimNext(workerId, lease).subscribe().with(
+                saga -> {
+                    if (saga == null) {
+                        active.decrementAndGet();
+                        polling.set(false);
+                        return;
+                    }
+                    advance(saga).subscribe().with(
+                            ignored -> active.decrementAndGet(),
+                            failure -> {
+                                active.decrementAndGet();
+                                log.error("SAGA {} | Error al avanzar la saga: {}", saga.getId(), failure.getMessage());
+                            });
+                    claimNext();
+                },
+                failure -> {
+                    active.decrementAndGet();
+                    polling.set(false);
+                    log.error("SAGA | No se pudo reclamar la siguiente saga: {}", failure.getMessage());
+                });
+    }
+
+    /** Ejecuta pasos mientras la saga tenga uno pendiente y vencido, sin soltar el lease entre pasos. */
+    private Uni<TransferSaga> advance(TransferSaga saga) {
+        if (saga.getStatus().isFinal() || saga.getLeaseOwner() == null
+                || saga.getNextAttemptAt().isAfter(Instant.now())) {
+            return Uni.createFrom().item(saga);
+        }
+        return step(saga).onItem().transformToUni(this::advance);
+    }
+
+    private Uni<TransferSaga> step(TransferSaga saga) {
+        if (saga.getStatus().isInFlight()) {
+            return resume(saga);
+        }
+        return switch (saga.getStatus()) {
+            case PENDING -> withdraw(saga);
+            case WITHDRAWN -> deposit(saga);
+            case COMPENSATING -> reverse(saga);
+            default -> Uni.createFrom().item(saga);
+        };
+    }
+
+    /**
+     * El worker anterior cayó durante el paso. Con la referencia del Core ya guardada el movimiento está
+     * aplicado (solo pudo faltar su registro local) y la saga sigue; sin ella el resultado es incierto.
+     */
+    private Uni<TransferSaga> resume(TransferSaga saga) {
+        TransferSagaStatus status = saga.getStatus();
+        if (status == TransferSagaStatus.WITHDRAWING && saga.getWithdrawalCoreTransactionId() != null) {
+            log.warn("SAGA {} | Retiro ya aplicado en el Core ({}); se continúa con el depósito.", saga.getId(), saga.getWithdrawalCoreTransactionId());
+            return moveTo(saga, TransferSagaStatus.WITHDRAWN);
+        }
+        if (status == TransferSagaStatus.DEPOSITING && saga.getDepositCoreTransactionId() != null) {
+            log.warn("SAGA {} | Depósito ya aplicado en el Core ({}).", saga.getId(), saga.getDepositCoreTransactionId());
+            return finish(saga, TransferSagaStatus.COMPLETED, null);
+        }
+        if (status == TransferSagaStatus.REVERSING && saga.getReversalCoreTransactionId() != null) {
+            log.warn("SAGA {} | Reversión ya aplicada en el Core ({}).", saga.getId(), saga.getReversalCoreTransactionId());
+            return finish(saga, TransferSagaStatus.COMPENSATED, saga.getLastError());
+        }
+        log.error("¡ALERTA CRÍTICA! SAGA {} | Paso {} interrumpido. Requiere revisión manual.", saga.getId(), status);
+        return finish(saga, TransferSagaStatus.REQUIRES_ATTENTION, "Paso " + status + " interrumpido por caída del worker.");
+    }
+
+    private Uni<TransferSaga> withdraw(TransferSaga saga) {
+        return resolveAccounts(saga)
+                .onItemOrFailure().transformToUni((resolved, failure) -> {
+                    if (failure != null) {
+                        // Cuentas inexistentes o inactivas: se rechaza sin mover fondos.
+                        return failWithdrawal(saga, failure);
+                    }
+                    return begin(saga, TransferSagaStatus.WITHDRAWING)
+                            .onItem().transformToUni(current -> loadAccount(current.getSourceAccountId())
+                                    .onItem().transformToUni(source -> transactionService.applyWithdrawalInternal(withdrawalRequest(current, source), source))
+                                    // Solo se recuperan los fallos previos al movimiento: una vez aplicado en el Core,
+                                    // el paso cuenta como hecho aunque falle lo que sigue.
+                                    .onItemOrFailure().transformToUni((applied, stepFailure) -> {
+                                        if (stepFailure != null) {
+                                            return IdempotencyServiceImpl.hadNoEffect(stepFailure)
+                                                    ? failWithdrawal(current, stepFailure)
+                                                    : uncertain(current, stepFailure);
+                                        }
+                                        current.setWithdrawalCoreTransactionId(applied.coreTransactionId());
+                                        return save(current)
+                                                .onItem().transformToUni(saved -> recordLocally(saved, applied,
+                                                        () -> transactionService.persistWithdrawalInternal(withdrawalRequest(saved, applied.account()), applied),
+                                                        saved::setWithdrawalTransactionId))
+                                                .onItem().transformToUni(saved -> moveTo(saved, TransferSagaStatus.WITHDRAWN));
+                                    }));
+                });
+    }
+
+    private Uni<TransferSaga> failWithdrawal(TransferSaga saga, Throwable failure) {
+        return isRejection(failure) || saga.getAttempts() + 1 >= maxAttempts
+                ? finish(saga, TransferSagaStatus.FAILED, failure.getMessage())
+                : retry(saga, TransferSagaStatus.PENDING, failure);
+    }
+
+    private Uni<TransferSaga> deposit(TransferSaga saga) {
+        return begin(saga, TransferSagaStatus.DEPOSITING)
+                .onItem().transformToUni(current -> loadAccount(current.getTargetAccountId())
+                        .onItem().transformToUni(target -> transactionService.applyDepositInternal(depositRequest(current, target), target))
+                        .onItemOrFailure().transformToUni((applied, failure) -> {
+                            if (failure == null) {
+                                current.setDepositCoreTransactionId(applied.coreTransactionId());
+                                return save(current)
+                                        .onItem().transformToUni(saved -> recordLocally(saved, applied,
+                                                () -> transactionService.persistDepositInternal(depositRequest(saved, applied.account()), applied),
+                                                saved::setDepositTransactionId))
+                                        .onItem().transformToUni(saved -> finish(saved, TransferSagaStatus.COMPLETED, null));
+                            }
+                            if (!IdempotencyServiceImpl.hadNoEffect(failure)) {
+                                return uncertain(current, failure);
+                            }
+                            if (isRejection(failure) || current.getAttempts() + 1 >= maxAttempts) {
+                                log.error("SAGA {} | Depósito fallido en destino {}. Iniciando reversión: {}",
+                                        current.getId(), current.getTargetAccountNumber(), failure.getMessage());
+                                current.setLastError(failure.getMessage());
+                                return moveTo(current, TransferSagaStatus.COMPENSATING);
+                            }
+                            return retry(current, TransferSagaStatus.WITHDRAWN, failure);
+                        }));
+    }
+
+    private Uni<TransferSaga> reverse(TransferSaga saga) {
+        return begin(saga, TransferSagaStatus.REVERSING)
+                .onItem().transformToUni(current -> loadAccount(current.getSourceAccountId())
+                        .onItem().transformToUni(source -> transactionService.applyDepositInternal(reversalRequest(current, source), source))
+                        .onItemOrFailure().transformToUni((applied, failure) -> {
+                            if (failure == null) {
+                                log.info("SAGA {} | REVERSIÓN EXITOSA: Saldo restaurado en cuenta de origen {}.", current.getId(), current.getSourceAccountId());
+                                current.setReversalCoreTransactionId(applied.coreTransactionId());
+                                return save(current)
+                                        .onItem().transformToUni(saved -> recordLocally(saved, applied,
+                                                () -> transactionService.persistDepositInternal(reversalRequest(saved, applied.account()), applied),
+                                                saved::setReversalTransactionId))
+                                        .onItem().transformToUni(saved -> finish(saved, TransferSagaStatus.COMPENSATED, saved.getLastError()));
+                            }
+                            if (!IdempotencyServiceImpl.hadNoEffect(failure)) {
+                                return uncertain(current, failure);
+                            }
+                            if (current.getAttempts() + 1 >= maxAttempts) {
+                                log.error("¡ALERTA CRÍTICA! SAGA {} | La reversión a la cuenta de origen {} falló {} veces. Requiere revisión manual.",
+                                        current.getId(), current.getSourceAccountId(), maxAttempts, failure);
+                                return finish(current, TransferSagaStatus.REQUIRES_ATTENTION, failure.getMessage());
+                            }
+                            return retry(current, TransferSagaStatus.COMPENSATING, failure);
+                        }));
+    }
+
+    private static TransactionRequest withdrawalRequest(TransferSaga saga, AccountResponse source) {
+        return new TransactionRequest(source.id(), source.customerId(), saga.getAmount(),
+                "Transferencia enviada a " + saga.getTargetAccountNumber() + ": " + saga.getDescription());
+    }
+
+    private static TransactionRequest depositRequest(TransferSaga saga, AccountResponse target) {
+        return new TransactionRequest(target.id(), target.customerId(), saga.getAmount(),
+                "Transferencia recibida de " + saga.getSourceAccountNumber() + ": " + saga.getDescription());
+    }
+
+    private static TransactionRequest reversalRequest(TransferSaga saga, AccountResponse source) {
+        return new TransactionRequest(source.id(), source.customerId(), saga.getAmount(),
+                "REVERSION: Fallo en transferencia a " + saga.getTargetAccountNumber());
+    }
+
+    /**
+     * Registra localmente un movimiento ya aplicado (y con su referencia del Core guardada en la saga).
+     * Si falla, el movimiento NO se repite: queda la referencia del Core sin transactionId local, pendiente
+     * de conciliación, y la saga sigue adelante.
+     */
+    private Uni<TransferSaga> recordLocally(TransferSaga saga, TransactionServiceImpl.AccountContext applied,
+                                            Supplier<Uni<TransactionResponse>> persist, Consumer<String> transactionId) {
+        return Uni.createFrom().deferred(persist::get)
+                .onItem().transform(transaction -> {
+                    transactionId.accept(transaction.id());
+                    return saga;
+                })
+                .onFailure().recoverWithItem(failure -> {
+                    log.error("SAGA {} | Movimiento aplicado en el Core ({}) sin registro local; pendiente de conciliación: {}",
+                            saga.getId(), applied.coreTransactionId(), failure.getMessage());
+                    return saga;
+                });
+    }
+
+    /** El Core pudo aplicar el movimiento o no (timeout, error tras el envío): no se reintenta. */
+    private Uni<TransferSaga> uncertain(TransferSaga saga, Throwable failure) {
+        log.error("¡ALERTA CRÍTICA! SAGA {} | Paso {} con resultado incierto en el Core. Requiere revisión manual.",
+                saga.getId(), saga.getStatus(), failure);
+        return finish(saga, TransferSagaStatus.REQUIRES_ATTENTION, "Paso " + saga.getStatus() + " con resultado incierto: " + failure.getMessage());
+    }
+
+    /** Resuelve y valida las cuentas por número (solo la primera vez). */
+    private Uni<TransferSaga> resolveAccounts(TransferSaga saga) {
+        if (saga.getSourceAccountId() != null && saga.getTargetAccountId() != null) {
+            return Uni.createFrom().item(saga);
+        }
+        return Uni.combine().all().unis(
+                        accountServiceClient.getAccountByNumber(saga.getSourceAccountNumber()),
+                        accountServiceClient.getAccountByNumber(saga.getTargetAccountNumber()))
+                .asTuple()
+                .onFailure(NotFoundException.class).transform(e ->
+                        new IllegalArgumentException("Source or target account not found. Check account numbers."))
+                .onItem().transform(tuple -> {
+                    AccountResponse source = tuple.getItem1();
+                    AccountResponse target = tuple.getItem2();
+                    if (source == null || target == null) {
+                        throw new IllegalArgumentException("Source or target account not found. Check account numbers.");
+                    }
+                    if (source.status() != AccountStatus.ACTIVE || target.status() != AccountStatus.ACTIVE) {
+                        throw new IllegalArgumentException("One or both accounts are not active for transfer.");
+                    }
+                    saga.setSourceAccountId(source.id());
+                    saga.setTargetAccountId(target.id());
+                    return saga;
+                });
+    }
+
+    /** Lectura de la cuenta (fresca salvo con el ledger embebido): el paso valida y calcula el saldo sobre ella. */
+    private Uni<AccountResponse> loadAccount(String accountId) {
+        return transactionService.loadAccountForCore(accountId)
+                .onFailure().transform(e -> new AccountUnavailableException(
+                        "No se pudo cargar la cuenta " + accountId + ": " + e.getMessage(), e))
+                .onItem().ifNull().failWith(() -> new IllegalArgumentException("Account not found with ID: " + accountId));
+    }
+
+    /** Persiste el estado "-ING" antes de ejecutar el paso (renovando el lease). */
+    private Uni<TransferSaga> begin(TransferSaga saga, TransferSagaStatus inFlight) {
+        saga.setLeaseUntil(Instant.now().plus(lease));
+        return moveTo(saga, inFlight);
+    }
+
+    /** Pasa al siguiente paso conservando el lease (el worker continúa con él sin esperar al sondeo). */
+    private Uni<TransferSaga> moveTo(TransferSaga saga, TransferSagaStatus status) {
+        if (!status.isInFlight()) {
+            saga.setAttempts(0);
+        }
+        saga.setStatus(status);
+        saga.setUpdatedAt(Instant.now());
+        return save(saga);
+    }
+
+    /** Programa un reintento del paso con backoff exponencial y suelta el lease. */
+    private Uni<TransferSaga> retry(TransferSaga saga, TransferSagaStatus status, Throwable failure) {
+        int attempts = saga.getAttempts() + 1;
+        long delayMs = retryBackoffMs << Math.min(attempts - 1, 10);
+        log.warn("SAGA {} | Paso fallido (intento {}/{}), reintento en {} ms: {}",
+                saga.getId(), attempts, maxAttempts, delayMs, failure.getMessage());
+        saga.setAttempts(attempts);
+        saga.setLastError(failure.getMessage());
+        saga.setNextAttemptAt(Instant.now().plusMillis(delayMs));
+        return release(saga, status);
+    }
+
+    private Uni<TransferSaga> finish(TransferSaga saga, TransferSagaStatus status, String error) {
+        saga.setLastError(error);
+        Counter counter = finished.get(status);
+        if (counter != null) {
+            counter.increment();
+        }
+        log.info("SAGA {} | Terminada con estado {}", saga.getId(), status);
+        return release(saga, status);
+    }
+
+    private Uni<TransferSaga> release(TransferSaga saga, TransferSagaStatus status) {
+        saga.setStatus(status);
+        saga.setUpdatedAt(Instant.now());
+        // Se guarda con el lease aún asignado (condición de guardado) y se suelta en el mismo reemplazo.
+        saga.setLeaseOwner(null);
+        saga.setLeaseUntil(null);
+        return transferSagaRepository.saveIfOwner(saga, workerId)
+                .onItem().transform(saved -> {
+                    if (!saved) {
+                        throw new LeaseLostException(saga.getId());
+                    }
+                    return saga;
+                });
+    }
+
+    private Uni<TransferSaga> save(TransferSaga saga) {
+        return transferSagaRepository.saveIfOwner(saga, workerId)
+                .onItem().transform(saved -> {
+                    if (!saved) {
+                        throw new LeaseLostException(saga.getId());
+                    }
+                    return saga;
+                });
+    }
+
+    private static boolean isRejection(Throwable failure) {
+        return failure instanceof IllegalArgumentException || failure instanceof InsufficientFundsException;
+    }
+
+    /** Otro worker reclamó la saga (lease expirado): este worker deja de avanzarla. */
+    private static final class LeaseLostException extends IllegalStateException {
+        LeaseLostException(String sagaId) {
+            super("Lease perdido para la saga " + sagaId);
+        }
+    }
+}
@@ -0,0 +1,549 @@
+package com.bancario.transaction.service.impl;
+
+import com.bancario.transaction.client.AccountServiceBlockingClient;
+import com.bancario.transaction.client.TransactionCounterAggregator;
+import com.bancario.transaction.concurrency.AccountSequencer;
+import com.bancario.transaction.core.CoreBankingGateway;
+import com.bancario.transaction.dto.*;
+import com.bancario.transaction.enums.AccountStatus;
+import com.bancario.transaction.enums.CommissionReportSource;
+import com.bancario.transaction.enums.SideEffectType;
+import com.bancario.transaction.enums.TransactionType;
+import com.bancario.transaction.exception.AccountUnavailableException;
+import com.bancario.transaction.exception.IdempotencyConflictException;
+import com.bancario.transaction.exception.InsufficientFundsException;
+import com.bancario.transaction.exception.TransferIncompleteException;
+import com.bancario.transaction.mapper.TransactionMapper;
+import com.bancario.transaction.metrics.TransactionMetrics;
+import com.bancario.transaction.money.Money;
+import com.bancario.transaction.repository.TransactionBlockingRepository;
+import com.bancario.transaction.repository.entity.Transaction;
+import com.bancario.transaction.service.CommissionRollupService;
+import com.bancario.transaction.service.IdempotencyService;
+import com.bancario.transaction.service.SideEffectDispatcher;
+import com.bancario.transaction.service.TransactionService;
+import io.quarkus.arc.properties.IfBuildProperty;
+import io.quarkus.virtual.threads.VirtualThreads;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Alternative;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.WebApplicationException;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.faulttolerance.CircuitBreaker;
+import org.eclipse.microprofile.faulttolerance.Fallback;
+import org.eclipse.microprofile.faulttolerance.Timeout;
+import org.eclipse.microprofile.rest.client.inject.RestClient;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Implementación IMPERATIVA de los pipelines transaccionales sobre hilos virtuales, alternativa a
+ * {@link TransactionServiceImpl} para comparar ambos estilos (perfilado, latencia y memoria).
+ * <p>
+ * Se activa en build con transaction-service.execution-mode=virtual-threads. Cada operación corre de
+ * principio a fin en un hilo virtual con código secuencial: cliente REST bloqueante
+ * ({@link AccountServiceBlockingClient}) y repositorio Panache bloqueante. Las esperas bloquean el
+ * hilo virtual, nunca el event loop.
+ * <p>
+ * Se mantiene el contrato Uni de TransactionService (el recurso y el bulk no cambian): el Uni solo
+ * transporta el resultado del hilo virtual. Se conservan la serialización por cuenta (el mismo
+ * AccountSequencer que usa la saga, con la misma semántica de cancelación), la idempotencia, las
+ * métricas por operación y la compensación de transferencias. Las consultas y reportes se delegan
+ * en la implementación reactiva.
+ */
+@Slf4j
+@Alternative
+@Priority(1)
+@IfBuildProperty(name = "transaction-service.execution-mode", stringValue = "virtual-threads")
+@ApplicationScoped
+public class VirtualThreadTransactionServiceImpl implements TransactionService {
+
+    // Cancelación del llamador de la operación que corre en este hilo virtual (ver onVirtualThread).
+    private static final ThreadLocal<AtomicBoolean> CALLER_CANCELLED = new ThreadLocal<>();
+
+    @Inject
+    TransactionServiceImpl reactive;
+
+    @Inject
+    @RestClient
+    AccountServiceBlockingClient accountClient;
+
+    @Inject
+    TransactionBlockingRepository transactionRepository;
+
+    @Inject
+    AccountSequencer accountSequencer;
+
+    @Inject
+    TransactionCounterAggregator transactionCounterAggregator;
+
+    @Inject
+    CommissionRollupService commissionRollupService;
+
+    @Inject
+    TransactionMapper transactionMapper;
+
+    @Inject
+    TransactionMetrics transactionMetrics;
+
+    @Inject
+    IdempotencyService idempotencyService;
+
+    @Inject
+    CoreBankingGateway coreBankingGateway;
+
+    @Inject
+    SideEffectDispatcher sideEffectDispatcher;
+
+    @Inject
+    @VirtualThreads
+    ExecutorService virtualThreads;
+
+    @Override
+    @Timeout
+    // Reusar una Idempotency-Key con otro cuerpo es un error del cliente (409): ni pasa por el fallback ni abre el circuito.
+    @CircuitBreaker(skipOn = IdempotencyConflictException.class)
+    @Fallback(fallbackMethod = "fallbackProcessDeposit", skipOn = IdempotencyConflictException.class)
+    public Uni<TransactionResponse> processDeposit(TransactionRequest request, String idempotencyKey) {
+        return idempotencyService.execute(TransactionType.DEPOSIT, idempotencyKey, request, () -> processBulkDeposit(request));
+    }
+
+    @Override
+    public Uni<TransactionResponse> processBulkDeposit(TransactionRequest request) {
+        return transactionMetrics.operation(TransactionType.DEPOSIT, onVirtualThread(() -> deposit(request)));
+    }
+
+    private TransactionResponse deposit(TransactionRequest request) {
+        log.info("Processing deposit (virtual thread) for account ID: {}", request.accountId());
+
+        // 1-3. Lectura única de la cuenta y actualización del saldo, en exclusiva para la cuenta
+        AppliedCore applied = exclusive(request.accountId(), () -> {
+            AccountResponse account;
+            try {
+                account = fetchAccount(request.accountId());
+            } catch (RuntimeException e) {
+                // Esto captura errores como Cuenta No Encontrada del Account-Service
+                throw new IllegalArgumentException("Validation failed in Account Service: " + e.getMessage());
+            }
+            if (account == null) {
+                throw new IllegalArgumentException("Account not found with ID: " + request.accountId());
+            }
+            TransactionServiceImpl.validatePassiveAccount(account);
+            return credit(account, request);
+        });
+
+        // 4-5. Contador y registro local
+        return record(request, applied, TransactionType.DEPOSIT);
+    }
+
+    @Override
+    @Timeout
+    @CircuitBreaker(skipOn = IdempotencyConflictException.class)
+    @Fallback(fallbackMethod = "fallbackProcessWithdrawal", skipOn = IdempotencyConflictException.class)
+    public Uni<TransactionResponse> processWithdrawal(TransactionRequest request, String idempotencyKey) {
+        return idempotencyService.execute(TransactionType.WITHDRAWAL, idempotencyKey, request, () -> processBulkWithdrawal(request));
+    }
+
+    @Override
+    public Uni<TransactionResponse> processBulkWithdrawal(TransactionRequest request) {
+        return transactionMetrics.operation(TransactionType.WITHDRAWAL, onVirtualThread(() -> withdrawal(request)));
+    }
+
+    private TransactionResponse withdrawal(TransactionRequest request) {
+        log.info("Processing withdrawal (virtual thread) for account ID: {}", request.accountId());
+
+        AppliedCore applied = exclusive(request.accountId(), () -> {
+            AccountResponse account = loadAccount(request.accountId(), "Account not found with ID: ");
+            TransactionServiceImpl.validatePassiveAccount(account);
+            return debit(account, request);
+        });
+
+        return record(request, applied, TransactionType.WITHDRAWAL);
+    }
+
+    @Override
+    public Uni<TransactionResponse> processPayment(TransactionRequest request) {
+        return transactionMetrics.operation(TransactionType.PAYMENT, onVirtualThread(() -> {
+            log.info("Processing payment (virtual thread) for credit product ID: {}", request.accountId());
+
+            return exclusive(request.accountId(), () -> {
+                AccountResponse account = loadAccount(request.accountId(), "Credit product not found with ID: ");
+                TransactionServiceImpl.validateActiveAccount(account);
+
+                // Validar si hay deuda pendiente
+                Money amountUsed = Money.fromExternal(account.amountUsed());
+                Money amount = Money.of(request.amount());
+                if (amountUsed.isZero()) {
+                    throw new IllegalArgumentException("No tiene deuda pendiente.");
+                }
+                if (amountUsed.compareTo(amount) < 0) {
+                    throw new IllegalArgumentException("El pago excede el monto de la deuda pendiente.");
+                }
+                AccountResponse updatedAccount = TransactionPricing.applyToAccount(account, amount, TransactionType.PAYMENT);
+                return updateAndRecord(updatedAccount, request, TransactionType.PAYMENT);
+            });
+        }));
+    }
+
+    @Override
+    public Uni<TransactionResponse> processConsumption(TransactionRequest request) {
+        return transactionMetrics.operation(TransactionType.CONSUMPTION, onVirtualThread(() -> {
+            log.info("Processing consumption (virtual thread) for credit card ID: {}", request.accountId());
+
+            return exclusive(request.accountId(), () -> {
+                AccountResponse account = loadAccount(request.accountId(), "Account not found with ID: ");
+                Money amount = Money.of(request.amount());
+                TransactionServiceImpl.validateConsumption(account, amount);
+                AccountResponse updatedAccount = TransactionPricing.applyToAccount(account, amount, TransactionType.CONSUMPTION);
+                return updateAndRecord(updatedAccount, request, TransactionType.CONSUMPTION);
+            });
+        }));
+    }
+
+    @Override
+    @Timeout
+    @CircuitBreaker(skipOn = IdempotencyConflictException.class)
+    @Fallback(fallbackMethod = "fallbackProcessTransfer", skipOn = IdempotencyConflictException.class)
+    public Uni<TransactionResponse> processTransfer(TransferRequest request, String idempotencyKey) {
+        return idempotencyService.execute(TransactionType.TRANSFER, idempotencyKey, request, () ->
+                transactionMetrics.operation(TransactionType.TRANSFER, onVirtualThread(() -> transfer(request))));
+    }
+
+    private TransactionResponse transfer(TransferRequest request) {
+        log.info("TRANSFERENCIA INICIADA (hilo virtual): De {} a {} por {}",
+                request.sourceAccountNumber(), request.targetAccountNumber(), request.amount());
+
+        // 1. OBTENER CUENTAS POR NÚMERO
+        TransferAccounts accounts = resolveAccounts(request);
+        AccountResponse sourceAccount = accounts.source();
+        AccountResponse targetAccount = accounts.target();
+
+        // VALIDACIONES DE ESTADO DE CUENTA
+        if (sourceAccount.status() != AccountStatus.ACTIVE || targetAccount.status() != AccountStatus.ACTIVE) {
+            log.error("TRANSFERENCIA FALLIDA: Una o ambas cuentas no están activas. Origen: {}, Destino: {}",
+                    sourceAccount.status(), targetAccount.status());
+            throw new IllegalArgumentException("One or both accounts are not active for transfer.");
+        }
+
+        TransactionRequest withdrawalRequest = new TransactionRequest(
+                sourceAccount.id(),
+                sourceAccount.customerId(),
+                request.amount(),
+                "Transferencia enviada a " + targetAccount.accountNumber() + ": " + request.description()
+        );
+        TransactionRequest depositRequest = new TransactionRequest(
+                targetAccount.id(),
+                targetAccount.customerId(),
+                request.amount(),
+                "Transferencia recibida de " + sourceAccount.accountNumber() + ": " + request.description()
+        );
+
+        // 2. RETIRO EN ORIGEN: solo la fase Core ocupa el turno de la cuenta de origen.
+        AppliedCore withdrawal = debitSource(sourceAccount.id(), withdrawalRequest);
+        log.info("Retiro exitoso. Procediendo a depósito en cuenta destino: {}", targetAccount.id());
+        // Retiro aplicado: el depósito (o la reversión) y los registros terminan aunque el @Timeout cancele.
+        detachFromCaller();
+
+        // 3. El registro del retiro se persiste en paralelo con el depósito. Como en el modo reactivo, su
+        // fallo no condiciona el movimiento de fondos: pasa a reintentarse en segundo plano (con dead-letter).
+        // false = ni persistido ni encolado. El registro se construye una vez (con su _id) y los reintentos escriben el mismo.
+        Transaction withdrawalTransaction = reactive.withdrawalRecord(withdrawalRequest, withdrawal.account(),
+                withdrawal.coreTransactionId(), withdrawal.amount(), withdrawal.fee());
+        CompletableFuture<Boolean> withdrawalRecord = CompletableFuture.supplyAsync(() -> {
+            try {
+                record(withdrawalTransaction);
+                return true;
+            } catch (RuntimeException persistFailure) {
+                log.error("REGISTRO DE RETIRO NO PERSISTIDO: Cuenta {}, referencia Core {}. Se reintenta en segundo plano.",
+                        sourceAccount.id(), withdrawal.coreTransactionId(), persistFailure);
+                return retryWithdrawalRecord(withdrawalTransaction);
+            }
+        }, virtualThreads);
+
+        try {
+            // 4. DEPÓSITO EN DESTINO
+            TransactionResponse depositResponse;
+            try {
+                depositResponse = creditAndRecord(depositRequest);
+            } catch (RuntimeException depositFailure) {
+                // *** LÓGICA DE COMPENSACIÓN (REVERSIÓN) ***
+                log.error("FALLO CRÍTICO EN DEPÓSITO: Transferencia fallida en destino {}. Iniciando reversión...", targetAccount.id(), depositFailure);
+                TransactionRequest reversalRequest = new TransactionRequest(
+                        sourceAccount.id(),
+                        sourceAccount.customerId(),
+                        request.amount(),
+                        "REVERSION: Fallo en transferencia a " + targetAccount.accountNumber()
+                );
+                try {
+                    creditAndRecord(reversalRequest);
+                } catch (RuntimeException reversalFailure) {
+                    // ¡ALERTA CRÍTICA! Si la reversión falla, se necesita intervención manual URGENTE.
+                    log.error("¡ALERTA CRÍTICA! La reversión a la cuenta de origen {} también falló.", sourceAccount.id(), reversalFailure);
+                    throw TransactionServiceImpl.reversalFailed(sourceAccount.id(), reversalFailure);
+                }
+                log.info("REVERSIÓN EXITOSA: Saldo restaurado en cuenta de origen {}.", sourceAccount.id());
+                throw new TransferIncompleteException(
+                        String.format("Transfer failed: Deposit to target account %s failed, but withdrawal was successfully reverted.",
+                                targetAccount.accountNumber()));
+            }
+
+            if (!withdrawalRecord.join()) {
+                // Fondos movidos pero el retiro no quedó registrado ni pendiente de reintento.
+                throw TransactionServiceImpl.withdrawalUnrecorded(sourceAccount.id(), withdrawal.coreTransactionId());
+            }
+
+            log.info("TRANSFERENCIA EXITOSA: De {} a {} por {}", request.sourceAccountNumber(), request.targetAccountNumber(), request.amount());
+
+            // 5. RESPUESTA CONSOLIDADA
+            return TransactionResponse.builder()
+                    .accountId(sourceAccount.id())
+                    .id(UUID.randomUUID().toString())
+                    .customerId(sourceAccount.customerId())
+                    .transactionType(TransactionType.TRANSFER)
+                    .amount(request.amount())
+                    .transactionDate(depositResponse.transactionDate())
+                    .description("Transferencia exitosa a " + targetAccount.accountNumber())
+                    .externalReference(depositResponse.externalReference())
+                    .build();
+        } finally {
+            // La respuesta (o el error) no sale antes de que termine la persistencia del retiro.
+            withdrawalRecord.join();
+        }
+    }
+
+    /** Búsqueda de ambas cuentas en paralelo, cada una en su hilo virtual. */
+    private TransferAccounts resolveAccounts(TransferRequest request) {
+        CompletableFuture<AccountResponse> sourceLookup =
+                CompletableFuture.supplyAsync(() -> accountClient.getAccountByNumber(request.sourceAccountNumber()), virtualThreads);
+        CompletableFuture<AccountResponse> targetLookup =
+                CompletableFuture.supplyAsync(() -> accountClient.getAccountByNumber(request.targetAccountNumber()), virtualThreads);
+        TransferAccounts accounts;
+        try {
+            accounts = new TransferAccounts(sourceLookup.join(), targetLookup.join());
+        } catch (CompletionException e) {
+            // Manejo de errores 404 del REST Client
+            if (e.getCause() instanceof WebApplicationException web && web.getResponse().getStatus() == 404) {
+                log.error("Transferencia fallida: Una de las cuentas no fue encontrada. Detalles: {}", web.getMessage());
+                throw new IllegalArgumentException("Source or target account not found. Check account numbers.");
+            }
+            throw new AccountUnavailableException("Failed to retrieve account details for transfer.", e.getCause());
+        }
+        if (accounts.source() == null || accounts.target() == null) {
+            throw new IllegalArgumentException("Source or target account not found. Check account numbers.");
+        }
+        return accounts;
+    }
+
+    /** Fase Core del retiro de una transferencia, en exclusiva para la cuenta de origen. */
+    private AppliedCore debitSource(String sourceAccountId, TransactionRequest withdrawalRequest) {
+        try {
+            return exclusive(sourceAccountId, () -> debit(loadAccount(sourceAccountId, "Account not found with ID: "), withdrawalRequest));
+        } catch (InsufficientFundsException e) {
+            log.warn("Transferencia rechazada: Saldo insuficiente en cuenta de origen {}.", sourceAccountId);
+            throw e;
+        }
+    }
+
+    // --- Consultas y reportes: sin pipeline transaccional, se delegan en la implementación reactiva ---
+
+    @Override
+    public Multi<TransactionResponse> findByAccountId(String accountId) {
+        return reactive.findByAccountId(accountId);
+    }
+
+    @Override
+    public Uni<TransactionPage> findHistory(TransactionHistoryQuery query) {
+        return reactive.findHistory(query);
+    }
+
+    @Override
+    public Uni<List<CommissionReportDto>> getCommissionsReportData(LocalDate startDate, LocalDate endDate) {
+        return reactive.getCommissionsReportData(startDate, endDate);
+    }
+
+    @Override
+    public Multi<CommissionReportDto> streamCommissionsReportData(LocalDate startDate, LocalDate endDate) {
+        return reactive.streamCommissionsReportData(startDate, endDate);
+    }
+
+    @Override
+    public Uni<List<CommissionSummaryDto>> getCommissionsSummary(LocalDate startDate, LocalDate endDate, boolean groupByAccount,
+                                                                 CommissionReportSource source) {
+        return reactive.getCommissionsSummary(startDate, endDate, groupByAccount, source);
+    }
+
+    // --- Pasos imperativos ---
+
+    /** Lectura de la cuenta, fresca salvo con el ledger embebido; se usa para calcular el nuevo saldo. */
+    private AccountResponse loadAccount(String accountId, String notFoundMessage) {
+        AccountResponse account;
+        try {
+            account = fetchAccount(accountId);
+        } catch (RuntimeException e) {
+            // Antes del Core: el movimiento no se aplicó (ver IdempotencyService)
+            throw new AccountUnavailableException("Fallo en getAccountById (" + accountId + "): " + e.getMessage(), e);
+        }
+        if (account == null) {
+            throw new IllegalArgumentException(notFoundMessage + accountId);
+        }
+        return account;
+    }
+
+    /** Con el ledger embebido basta la lectura con caché (ver TransactionServiceImpl.loadAccountForCore). */
+    private AccountResponse fetchAccount(String accountId) {
+        return coreBankingGateway.requiresFreshAccount()
+                ? accountClient.getAccountById(accountId)
+                : reactive.loadAccountForCore(accountId).await().indefinitely();
+    }
+
+    /** Tarificación y abono del monto neto sobre la cuenta ya cargada (dentro del turno de la cuenta). */
+    private AppliedCore credit(AccountResponse account, TransactionRequest request) {
+        Money fee = TransactionPricing.feeFor(account);
+        Money netAmount = Money.of(request.amount()).subtract(fee); // Monto real a depositar
+        return new AppliedCore(account, fee, netAmount, applyCore(account, netAmount, fee, TransactionType.DEPOSIT));
+    }
+
+    /** Tarificación y débito (monto + comisión); el saldo suficiente lo valida el Core de forma atómica. */
+    private AppliedCore debit(AccountResponse account, TransactionRequest request) {
+        Money fee = TransactionPricing.feeFor(account);
+        Money amount = Money.of(request.amount());
+        Money totalDebitAmount = amount.add(fee);
+        try {
+            // Se persiste el monto solicitado original en negativo.
+            return new AppliedCore(account, fee, amount.negate(), applyCore(account, totalDebitAmount.negate(), fee, TransactionType.WITHDRAWAL));
+        } catch (InsufficientFundsException e) {
+            log.warn("RETIRO RECHAZADO: Saldo insuficiente. Cuenta: {}", request.accountId());
+            throw e;
+        }
+    }
+
+    /** Abono interno (transferencia y reversión): turno de la cuenta para el Core y después el registro local. */
+    private TransactionResponse creditAndRecord(TransactionRequest request) {
+        AppliedCore applied = exclusive(request.accountId(),
+                () -> credit(loadAccount(request.accountId(), "Account not found with ID: "), request));
+        return record(request, applied, TransactionType.DEPOSIT);
+    }
+
+    /**
+     * Movimiento en el Core (CoreBankingGateway, el mismo que el modo reactivo), esperado en el hilo virtual.
+     * @return La referencia de la transacción en el Core.
+     */
+    private String applyCore(AccountResponse account, Money netAmount, Money fee, TransactionType type) {
+        return coreBankingGateway.post(account, netAmount, fee, type).await().indefinitely().coreTransactionId();
+    }
+
+    /** Movimiento de pagos y consumos en el Core (CoreBankingGateway) y su registro (sin comisión), dentro del turno de la cuenta. */
+    private TransactionResponse updateAndRecord(AccountResponse updatedAccount, TransactionRequest request, TransactionType type) {
+        coreBankingGateway.postCredit(updatedAccount, type).await().indefinitely();
+        Transaction transaction = transactionMapper.toEntity(request);
+        transaction.setTransactionType(type);
+        transaction.setTransactionDate(LocalDateTime.now());
+        transactionRepository.persist(transaction);
+        return transactionMapper.toResponse(transaction);
+    }
+
+    /** Contador (agregado), registro local y bucket diario de comisiones de una operación ya aplicada en el Core. */
+    private TransactionResponse record(TransactionRequest request, AppliedCore applied, TransactionType type) {
+        return record(reactive.newLocalTransaction(request, applied.account(), applied.coreTransactionId(),
+                applied.amount(), applied.fee(), type));
+    }
+
+    private TransactionResponse record(Transaction transaction) {
+        transactionCounterAggregator.increment(transaction.getAccountId());
+        transactionRepository.persist(transaction);
+        commissionRollupService.record(transaction).await().indefinitely();
+        return transactionMapper.toResponse(transaction);
+    }
+
+    /**
+     * Reintento en segundo plano del registro del retiro (solo la persistencia, el contador ya se incrementó).
+     * Como en el modo reactivo, cada intento inserta el mismo documento y un _id duplicado cuenta como insertado.
+     */
+    private boolean retryWithdrawalRecord(Transaction withdrawalRecord) {
+        return sideEffectDispatcher.dispatch(SideEffectType.TRANSFER_WITHDRAWAL_RECORD, withdrawalRecord.getAccountId(),
+                reactive.withdrawalRecordPayload(withdrawalRecord),
+                () -> onVirtualThread(() -> {
+                    transactionRepository.insertIfAbsent(withdrawalRecord);
+                    commissionRollupService.record(withdrawalRecord).await().indefinitely();
+                    return null;
+                }));
+    }
+
+    /**
+     * Ejecuta el bloque en exclusiva para la cuenta. Usa el mismo AccountSequencer que el modo reactivo
+     * y la saga, así que ambos modos siguen serializando entre sí; el bloque corre en otro hilo virtual.
+     * <p>
+     * Como en el modo reactivo, si el llamador de la operación canceló (p. ej. @Timeout) antes de llegar
+     * el turno, el bloque no se ejecuta; si ya empezó, termina igualmente.
+     */
+    private <T> T exclusive(String accountId, Supplier<T> block) {
+        AtomicBoolean callerCancelled = CALLER_CANCELLED.get();
+        return accountSequencer.run(accountId, () -> callerCancelled != null && callerCancelled.get()
+                        ? Uni.createFrom().<T>failure(new CancellationException("Operación cancelada antes de su turno en la cuenta " + accountId))
+                        : onVirtualThread(block))
+                .await().indefinitely();
+    }
+
+    /**
+     * Desde aquí la operación ya movió fondos: lo que resta en este hilo (depósito en destino o reversión)
+     * no se omite aunque el llamador cancele.
+     */
+    private static void detachFromCaller() {
+        CALLER_CANCELLED.remove();
+    }
+
+    /**
+     * Ejecuta el bloque en un hilo virtual. El Uni solo transporta el resultado: cancelarlo no interrumpe
+     * el hilo, pero queda registrado para que {@link #exclusive} no empiece operaciones aún en espera.
+     * Si la cancelación llega antes de que el hilo arranque, el bloque no se ejecuta.
+     */
+    private <T> Uni<T> onVirtualThread(Supplier<T> block) {
+        return Uni.createFrom().deferred(() -> {
+            AtomicBoolean cancelled = new AtomicBoolean();
+            return Uni.createFrom().item(() -> {
+                        if (cancelled.get()) {
+                            throw new CancellationException("Operación cancelada antes de empezar");
+                        }
+                        CALLER_CANCELLED.set(cancelled);
+                        try {
+                            return block.get();
+                        } finally {
+                            CALLER_CANCELLED.remove();
+                        }
+                    })
+                    .runSubscriptionOn(virtualThreads)
+                    .onCancellation().invoke(() -> cancelled.set(true));
+        });
+    }
+
+    private record TransferAccounts(AccountResponse source, AccountResponse target) {}
+
+    /** Cuenta cargada y resultado de la fase Core, reutilizados en el registro local. */
+    private record AppliedCore(AccountResponse account, Money fee, Money amount, String coreTransactionId) {}
+
+    // --- Fallbacks: mismos mensajes y métricas que el modo reactivo ---
+
+    public Uni<TransactionResponse> fallbackProcessDeposit(TransactionRequest request, String idempotencyKey, Throwable failure) {
+        return reactive.fallbackProcessDeposit(request, idempotencyKey, failure);
+    }
+
+    public Uni<TransactionResponse> fallbackProcessWithdrawal(TransactionRequest request, String idempotencyKey, Throwable failure) {
+        return reactive.fallbackProcessWithdrawal(request, idempotencyKey, failure);
+    }
+
+    public Uni<TransactionResponse> fallbackProcessTransfer(TransferRequest request, String idempotencyKey, Throwable failure) {
+        return reactive.fallbackProcessTransfer(request, idempotencyKey, failure);
+    }
+}
@@ -0,0 +1,121 @@
+package com.bancario.transaction.tracing;
+
+import com.bancario.transaction.enums.TransactionType;
+import com.bancario.transaction.money.Money;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanBuilder;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.subscription.Cancellable;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Spans de OpenTelemetry para los pasos de los pipelines de transacciones.
+ * <p>
+ * Las llamadas al Account-Service (REST client, con propagación W3C 'traceparent') y las operaciones
+ * de MongoDB se trazan automáticamente; esta clase añade los pasos de negocio (operación completa,
+ * resolución de cuentas, tramos de la transferencia y reversión) para que cuelguen de ellos.
+ * <p>
+ * El paso se construye Y se suscribe con su span como contexto actual: gracias a la propagación de
+ * contexto de Mutiny, los callbacks creados dentro del paso (y las llamadas que lanzan) heredan el span
+ * aunque se ejecuten más tarde en el event-loop.
+ * <p>
+ * Con el muestreo desactivado para una traza los spans no se registran y el coste es mínimo;
+ * los atributos calculados (comisión) solo se generan si el span se está registrando.
+ */
+@ApplicationScoped
+public class TransactionTracing {
+
+    public static final AttributeKey<String> ACCOUNT_ID = AttributeKey.stringKey("bank.account.id");
+    public static final AttributeKey<String> TRANSACTION_TYPE = AttributeKey.stringKey("bank.transaction.type");
+    public static final AttributeKey<String> FEE = AttributeKey.stringKey("bank.transaction.fee");
+    public static final AttributeKey<String> SOURCE_ACCOUNT_ID = AttributeKey.stringKey("bank.transfer.source.account.id");
+    public static final AttributeKey<String> TARGET_ACCOUNT_ID = AttributeKey.stringKey("bank.transfer.target.account.id");
+    public static final AttributeKey<Boolean> CANCELLED = AttributeKey.booleanKey("bank.cancelled");
+
+    @Inject
+    Tracer tracer;
+
+    /**
+     * Ejecuta un paso dentro de un span hijo del contexto actual.
+     * El span termina cuando el paso emite, falla (se marca como ERROR) o se cancela (p. ej. por @Timeout).
+     *
+     * @param name      Nombre del span (p. ej. "transfer.withdrawal").
+     * @param type      Tipo de transacción del paso.
+     * @param accountId Cuenta afectada; null si aún no se conoce.
+     * @param step      Proveedor del Uni del paso; se invoca con el span como contexto actual.
+     */
+    public <T> Uni<T> span(String name, TransactionType type, String accountId, Supplier<Uni<T>> step) {
+        return Uni.createFrom().emitter(emitter -> {
+            SpanBuilder builder = tracer.spanBuilder(name).setAttribute(TRANSACTION_TYPE, type.name());
+            if (accountId != null) {
+                builder.setAttribute(ACCOUNT_ID, accountId);
+            }
+            Span span = builder.startSpan();
+            AtomicBoolean ended = new AtomicBoolean();
+            AtomicReference<Cancellable> subscription = new AtomicReference<>();
+
+            emitter.onTermination(() -> {
+                // Si el span sigue abierto, el consumidor canceló antes de que el paso terminara.
+                if (ended.compareAndSet(false, true)) {
+                    span.setAttribute(CANCELLED, true);
+                    span.end();
+                }
+                Cancellable upstream = subscription.get();
+                if (upstream != null) {
+                    upstream.cancel();
+                }
+            });
+
+            try (Scope ignored = span.makeCurrent()) {
+                subscription.set(step.get().subscribe().with(
+                        item -> {
+                            if (ended.compareAndSet(false, true)) {
+                                span.end();
+                            }
+                            emitter.complete(item);
+                        },
+                        failure -> {
+                            fail(span, ended, failure);
+                            emitter.fail(failure);
+                        }));
+            } catch (RuntimeException e) {
+                fail(span, ended, e);
+                emitter.fail(e);
+            }
+        });
+    }
+
+    /** Añade la comisión aplicada al span actual (el del paso en curso). */
+    public void tagFee(Money fee) {
+        Span current = Span.current();
+        if (current.isRecording()) {
+            current.setAttribute(FEE, fee.toString());
+        }
+    }
+
+    /** Añade al span actual las cuentas resueltas de una transferencia. */
+    public void tagTransfer(String sourceAccountId, String targetAccountId) {
+        Span current = Span.current();
+        if (current.isRecording()) {
+            current.setAttribute(SOURCE_ACCOUNT_ID, sourceAccountId);
+            current.setAttribute(TARGET_ACCOUNT_ID, targetAccountId);
+        }
+    }
+
+    private static void fail(Span span, AtomicBoolean ended, Throwable failure) {
+        if (ended.compareAndSet(false, true)) {
+            span.recordException(failure);
+            span.setStatus(StatusCode.ERROR, failure.getMessage());
+            span.end();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.bancario.transaction.client;
+
+import com.bancario.transaction.dto.AccountResponse;
+import com.bancario.transaction.support.AccountServiceStub;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.smallrye.mutiny.Uni;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.NotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Micro-batching de búsquedas (AccountLookupBatcher) contra los endpoints masivos del stub:
+ * las mismas búsquedas concurrentes que {@link AccountLookupUnbatchedTest} con unas pocas llamadas.
+ */
+@QuarkusTest
+@TestProfile(AccountLookupBatchingTest.BatchingEnabled.class)
+class AccountLookupBatchingTest extends AccountLookupTestSupport {
+
+    private static final int MAX_BATCH_SIZE = 50;
+
+    public static class BatchingEnabled implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of(
+                    "transaction-service.account-batching.enabled", "true",
+                    "transaction-service.account-batching.window-ms", "20",
+                    "transaction-service.account-batching.max-batch-size", String.valueOf(MAX_BATCH_SIZE));
+        }
+    }
+
+    @Inject
+    CachedAccountServiceClient client;
+
+    @BeforeEach
+    void reset() {
+        resetStub(client);
+    }
+
+    @Test
+    void concurrentLookupsByIdAreResolvedWithBulkCalls() {
+        List<String> ids = accountIds(1, CONCURRENT_LOOKUPS);
+        AccountServiceStub.resetCalls();
+
+        List<AccountResponse> accounts = lookUpConcurrently(ids, client::getAccountById);
+
+        assertEquals(ids, accounts.stream().map(AccountResponse::id).toList(), "cada Uni recibe su propia cuenta");
+        Map<String, Long> calls = AccountServiceStub.calls();
+        assertEquals(0L, calls.getOrDefault("getAccountById", 0L), calls.toString());
+        long bulkCalls = calls.getOrDefault("getAccountsByIds", 0L);
+        // Lotes llenos de 50 más, como mucho, algún lote parcial por la ventana de tiempo.
+        assertTrue(bulkCalls >= CONCURRENT_LOOKUPS / MAX_BATCH_SIZE && bulkCalls <= CONCURRENT_LOOKUPS / MAX_BATCH_SIZE + 2,
+                "llamadas masivas: " + bulkCalls + " (sin batching serían " + CONCURRENT_LOOKUPS + ")");
+    }
+
+    @Test
+    void concurrentLookupsByNumberAreResolvedWithBulkCalls() {
+        List<String> numbers = accountNumbers(201, CONCURRENT_LOOKUPS);
+        AccountServiceStub.resetCalls();
+
+        List<AccountResponse> accounts = lookUpConcurrently(numbers, client::getAccountByNumber);
+
+        assertEquals(numbers, accounts.stream().map(AccountResponse::accountNumber).toList());
+        Map<String, Long> calls = AccountServiceStub.calls();
+        assertEquals(0L, calls.getOrDefault("getAccountByNumber", 0L), calls.toString());
+        assertTrue(calls.getOrDefault("getAccountsByNumbers", 0L) <= CONCURRENT_LOOKUPS / MAX_BATCH_SIZE + 2, calls.toString());
+    }
+
+    @Test
+    void repeatedKeysInAWindowAreFetchedOnce() {
+        String id = AccountServiceStub.accountId(7);
+        AccountServiceStub.resetCalls();
+
+        List<AccountResponse> accounts = lookUpConcurrently(List.of(id, id, id, id), client::getAccountById);
+
+        assertTrue(accounts.stream().allMatch(account -> id.equals(account.id())));
+        assertEquals(1L, AccountServiceStub.calls("getAccountsByIds"));
+    }
+
+    @Test
+    void unknownAccountFailsOnlyItsOwnLookup() {
+        String known = AccountServiceStub.accountId(8);
+        List<Uni<AccountResponse>> lookups = new ArrayList<>();
+        lookups.add(client.getAccountById(known));
+        lookups.add(client.getAccountById("acc-missing"));
+
+        List<Object> outcomes = Uni.join().all(lookups.stream()
+                        .map(lookup -> lookup.onItem().<Object>transform(account -> account).onFailure().recoverWithItem(failure -> failure))
+                        .toList())
+                .andFailFast().await().atMost(Duration.ofSeconds(10));
+
+        assertEquals(known, ((AccountResponse) outcomes.get(0)).id());
+        assertInstanceOf(NotFoundException.class, outcomes.get(1));
+    }
+}
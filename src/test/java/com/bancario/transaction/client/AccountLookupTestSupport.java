@@ -0,0 +1,52 @@
+package com.bancario.transaction.client;
+
+import com.bancario.transaction.dto.AccountResponse;
+import com.bancario.transaction.support.AccountServiceStub;
+import io.smallrye.mutiny.Uni;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Base común de las pruebas de búsquedas de cuentas con y sin micro-batching: mismas cuentas y
+ * misma concurrencia, de modo que el número de llamadas al Account-Service es comparable.
+ */
+abstract class AccountLookupTestSupport {
+
+    static final int ACCOUNTS = 400;
+    static final int CONCURRENT_LOOKUPS = 200;
+
+    void resetStub(CachedAccountServiceClient client) {
+        AccountServiceStub.reset(ACCOUNTS, new BigDecimal("1000.00"));
+        // Las cuentas pueden estar en caché por pruebas anteriores de la misma aplicación.
+        for (int i = 1; i <= ACCOUNTS; i++) {
+            client.invalidateAccount(AccountServiceStub.accountId(i)).await().atMost(Duration.ofSeconds(5));
+        }
+    }
+
+    /** Lanza todas las búsquedas a la vez y espera sus resultados, en el orden de las claves. */
+    static List<AccountResponse> lookUpConcurrently(List<String> keys, Function<String, Uni<AccountResponse>> lookup) {
+        List<Uni<AccountResponse>> lookups = new ArrayList<>(keys.size());
+        keys.forEach(key -> lookups.add(lookup.apply(key)));
+        return Uni.join().all(lookups).andFailFast().await().atMost(Duration.ofSeconds(30));
+    }
+
+    static List<String> accountIds(int from, int count) {
+        List<String> ids = new ArrayList<>(count);
+        for (int i = from; i < from + count; i++) {
+            ids.add(AccountServiceStub.accountId(i));
+        }
+        return ids;
+    }
+
+    static List<String> accountNumbers(int from, int count) {
+        List<String> numbers = new ArrayList<>(count);
+        for (int i = from; i < from + count; i++) {
+            numbers.add(AccountServiceStub.accountNumber(i));
+        }
+        return numbers;
+    }
+}
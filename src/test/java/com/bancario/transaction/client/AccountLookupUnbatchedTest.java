@@ -0,0 +1,42 @@
+package com.bancario.transaction.client;
+
+import com.bancario.transaction.dto.AccountResponse;
+import com.bancario.transaction.support.AccountServiceStub;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Referencia sin micro-batching (configuración por defecto): una llamada al Account-Service por
+ * cuenta buscada. Comparar con {@link AccountLookupBatchingTest}.
+ */
+@QuarkusTest
+class AccountLookupUnbatchedTest extends AccountLookupTestSupport {
+
+    @Inject
+    CachedAccountServiceClient client;
+
+    @BeforeEach
+    void reset() {
+        resetStub(client);
+    }
+
+    @Test
+    void everyCacheMissIsOneCallPerAccount() {
+        List<String> ids = accountIds(1, CONCURRENT_LOOKUPS);
+        AccountServiceStub.resetCalls();
+
+        List<AccountResponse> accounts = lookUpConcurrently(ids, client::getAccountById);
+
+        assertEquals(ids, accounts.stream().map(AccountResponse::id).toList());
+        Map<String, Long> calls = AccountServiceStub.calls();
+        assertEquals((long) CONCURRENT_LOOKUPS, calls.getOrDefault("getAccountById", 0L), calls.toString());
+        assertEquals(0L, calls.getOrDefault("getAccountsByIds", 0L), calls.toString());
+    }
+}
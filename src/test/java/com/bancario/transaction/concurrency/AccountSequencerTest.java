@@ -0,0 +1,237 @@
+package com.bancario.transaction.concurrency;
+
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.subscription.Cancellable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Garantías de AccountSequencer frente a un saldo remoto con lectura y escritura separadas
+ * (el mismo patrón GET + PUT update-balance del Core simulado).
+ */
+class AccountSequencerTest {
+
+    private static final Duration WAIT = Duration.ofSeconds(30);
+
+    private final AccountSequencer sequencer = new AccountSequencer();
+    private final RemoteBalances balances = new RemoteBalances();
+    private final ExecutorService callers = Executors.newFixedThreadPool(16);
+
+    @AfterEach
+    void shutdown() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    void concurrentReadModifyWritesOnHotAccountsLoseNoUpdates() {
+        int accounts = 4;
+        int operationsPerAccount = 1000;
+        for (int a = 0; a < accounts; a++) {
+            balances.set("acc-" + a, 0);
+        }
+
+        List<Uni<Long>> operations = new ArrayList<>();
+        for (int i = 0; i < operationsPerAccount; i++) {
+            for (int a = 0; a < accounts; a++) {
+                String accountId = "acc-" + a;
+                long delta = i % 3 == 0 ? -1 : 2;
+                operations.add(sequencer.run(accountId, () -> balances.add(accountId, delta))
+                        .runSubscriptionOn(callers));
+            }
+        }
+
+        Uni.join().all(operations).andFailFast().await().atMost(WAIT);
+
+        long expectedPerAccount = 0;
+        for (int i = 0; i < operationsPerAccount; i++) {
+            expectedPerAccount += i % 3 == 0 ? -1 : 2;
+        }
+        for (int a = 0; a < accounts; a++) {
+            assertEquals(expectedPerAccount, balances.get("acc-" + a), "saldo final de acc-" + a);
+        }
+        assertEquals(0, sequencer.activeAccounts(), "no quedan colas de cuentas sin operaciones");
+    }
+
+    @Test
+    void sameAccountRunsOneAtATimeWhileUnrelatedAccountsOverlap() {
+        ConcurrentMap<String, AtomicInteger> inFlightByAccount = new ConcurrentHashMap<>();
+        AtomicInteger maxPerAccount = new AtomicInteger();
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxOverall = new AtomicInteger();
+
+        List<Uni<Void>> operations = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            String accountId = "acc-" + (i % 20);
+            operations.add(sequencer.run(accountId, () -> {
+                int perAccount = inFlightByAccount.computeIfAbsent(accountId, id -> new AtomicInteger()).incrementAndGet();
+                maxPerAccount.accumulateAndGet(perAccount, Math::max);
+                maxOverall.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                return Uni.createFrom().voidItem()
+                        .onItem().delayIt().by(Duration.ofMillis(5))
+                        .onTermination().invoke(() -> {
+                            inFlight.decrementAndGet();
+                            inFlightByAccount.get(accountId).decrementAndGet();
+                        });
+            }).runSubscriptionOn(callers));
+        }
+
+        Uni.join().all(operations).andFailFast().await().atMost(WAIT);
+
+        assertEquals(1, maxPerAccount.get(), "una sola operación en curso por cuenta");
+        assertTrue(maxOverall.get() > 1, "las cuentas distintas se ejecutan en paralelo (máximo observado: " + maxOverall.get() + ")");
+    }
+
+    @Test
+    void cancellationWhileBalanceWriteIsInFlightKeepsTheTurnUntilTheWriteLands() throws Exception {
+        balances.set("acc-1", 100);
+        CompletableFuture<Void> writeInFlight = new CompletableFuture<>();
+        CountDownLatch firstRead = new CountDownLatch(1);
+
+        // 1. La primera operación lee el saldo y su escritura queda en vuelo; el llamador la abandona por timeout.
+        Uni<Long> first = sequencer.run("acc-1", () -> balances.read("acc-1")
+                .invoke(firstRead::countDown)
+                .chain(balance -> Uni.createFrom().completionStage(writeInFlight)
+                        .chain(() -> balances.write("acc-1", balance + 10))));
+        CompletableFuture<Long> firstCaller = first
+                .ifNoItem().after(Duration.ofMillis(100)).failWith(TimeoutException::new)
+                .subscribeAsCompletionStage();
+        assertTrue(firstRead.await(5, TimeUnit.SECONDS));
+        Exception timeout = assertThrows(Exception.class, () -> firstCaller.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(TimeoutException.class, timeout.getCause());
+
+        // 2. La siguiente operación sobre la cuenta no puede leer mientras la escritura anterior no termine.
+        AtomicBoolean secondStarted = new AtomicBoolean();
+        CompletableFuture<Long> second = sequencer.run("acc-1", () -> {
+            secondStarted.set(true);
+            return balances.add("acc-1", 5);
+        }).subscribeAsCompletionStage();
+
+        Thread.sleep(200);
+        assertFalse(secondStarted.get(), "la segunda operación esperó a que la primera terminara");
+        assertFalse(second.isDone());
+
+        // 3. La escritura de la primera llega; solo entonces entra la segunda y ninguna se pierde.
+        writeInFlight.complete(null);
+        assertEquals(115, second.get(5, TimeUnit.SECONDS));
+        assertEquals(115, balances.get("acc-1"));
+    }
+
+    @Test
+    void cancellationBeforeTheTurnSkipsTheOperationAndKeepsTheOrder() throws Exception {
+        balances.set("acc-1", 0);
+        CompletableFuture<Void> firstGate = new CompletableFuture<>();
+        List<String> executed = new CopyOnWriteArrayList<>();
+
+        CompletableFuture<Long> first = sequencer.run("acc-1", () -> {
+            executed.add("first");
+            return Uni.createFrom().completionStage(firstGate).chain(() -> balances.add("acc-1", 1));
+        }).subscribeAsCompletionStage();
+
+        Cancellable waiting = sequencer.run("acc-1", () -> {
+            executed.add("cancelled");
+            return balances.add("acc-1", 100);
+        }).subscribe().with(ignored -> { }, failure -> { });
+
+        CompletableFuture<Long> third = sequencer.run("acc-1", () -> {
+            executed.add("third");
+            return balances.add("acc-1", 10);
+        }).subscribeAsCompletionStage();
+
+        waiting.cancel();
+        Thread.sleep(50);
+        assertFalse(third.isDone(), "la tercera sigue detrás de la primera pese a la cancelación intermedia");
+
+        firstGate.complete(null);
+        assertEquals(1, first.get(5, TimeUnit.SECONDS));
+        assertEquals(11, third.get(5, TimeUnit.SECONDS));
+        assertEquals(List.of("first", "third"), executed);
+    }
+
+    @Test
+    void failureReleasesTheTurn() throws Exception {
+        balances.set("acc-1", 0);
+
+        CompletableFuture<Object> failed = sequencer.run("acc-1", () -> Uni.createFrom().failure(new IllegalStateException("boom")))
+                .subscribeAsCompletionStage();
+        CompletableFuture<Long> next = sequencer.run("acc-1", () -> balances.add("acc-1", 7)).subscribeAsCompletionStage();
+
+        Exception failure = assertThrows(Exception.class, () -> failed.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, failure.getCause());
+        assertEquals(7, next.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void continuationCompletesAfterCancellationWithoutHoldingTheTurn() throws Exception {
+        balances.set("acc-1", 0);
+        CompletableFuture<Void> coreApplied = new CompletableFuture<>();
+        CompletableFuture<Void> recordGate = new CompletableFuture<>();
+        CompletableFuture<Long> recorded = new CompletableFuture<>();
+
+        Cancellable caller = sequencer.run("acc-1",
+                        () -> Uni.createFrom().completionStage(coreApplied).chain(() -> balances.add("acc-1", 50)),
+                        balance -> Uni.createFrom().completionStage(recordGate).invoke(() -> recorded.complete(balance)))
+                .subscribe().with(ignored -> { }, failure -> { });
+
+        // El llamador abandona con el movimiento en vuelo.
+        caller.cancel();
+        coreApplied.complete(null);
+
+        // El turno se libera al aplicarse el movimiento, sin esperar a la continuación...
+        assertEquals(60, sequencer.run("acc-1", () -> balances.add("acc-1", 10)).await().atMost(WAIT));
+        assertFalse(recorded.isDone());
+
+        // ...y la continuación (registro local) termina igualmente.
+        recordGate.complete(null);
+        assertEquals(50, recorded.get(5, TimeUnit.SECONDS));
+    }
+
+    /** Saldos "remotos": lectura y escritura son llamadas asíncronas independientes, con latencia aleatoria. */
+    private static final class RemoteBalances {
+
+        private final ConcurrentMap<String, Long> values = new ConcurrentHashMap<>();
+
+        void set(String accountId, long balance) {
+            values.put(accountId, balance);
+        }
+
+        long get(String accountId) {
+            return values.get(accountId);
+        }
+
+        Uni<Long> read(String accountId) {
+            return latency().replaceWith(() -> values.get(accountId));
+        }
+
+        Uni<Long> write(String accountId, long balance) {
+            return latency().invoke(() -> values.put(accountId, balance)).replaceWith(balance);
+        }
+
+        /** Lectura-modificación-escritura sin protección propia: solo es correcta dentro del turno de la cuenta. */
+        Uni<Long> add(String accountId, long delta) {
+            return read(accountId).chain(balance -> write(accountId, balance + delta));
+        }
+
+        private static Uni<Void> latency() {
+            long micros = ThreadLocalRandom.current().nextLong(1, 500);
+            return Uni.createFrom().voidItem().onItem().delayIt().by(Duration.ofNanos(micros * 1_000));
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.bancario.transaction.money;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MoneyTest {
+
+    @Test
+    void clientAmountsWithMoreDecimalsThanTheCurrencyAreRejected() {
+        assertEquals(Money.ofMinor(10_050), Money.of(new BigDecimal("100.5")));
+        assertThrows(IllegalArgumentException.class, () -> Money.of(new BigDecimal("100.505")));
+    }
+
+    @Test
+    void externalAmountsAreRoundedHalfEven() {
+        assertEquals(Money.ofMinor(1_002), Money.fromExternal(new BigDecimal("10.025")));
+        assertEquals(Money.ofMinor(1_004), Money.fromExternal(new BigDecimal("10.035")));
+        assertEquals(Money.ofMinor(-1_002), Money.fromExternal(new BigDecimal("-10.0249")));
+        assertEquals(Money.ofMinor(123_456), Money.fromExternal(new BigDecimal("1234.56")));
+    }
+
+    @Test
+    void amountsThatDoNotFitInALongAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> Money.fromExternal(new BigDecimal("1e20")));
+    }
+
+    @Test
+    void arithmeticIsExact() {
+        Money balance = Money.fromExternal(new BigDecimal("15230.75"));
+        Money net = Money.of(new BigDecimal("100.00")).subtract(Money.of(new BigDecimal("2.50")));
+        assertEquals(new BigDecimal("15328.25"), balance.add(net).toBigDecimal());
+        assertSame(balance, balance.add(Money.ZERO));
+        assertThrows(ArithmeticException.class, () -> Money.ofMinor(Long.MAX_VALUE).add(Money.ofMinor(1)));
+    }
+
+    @Test
+    void toStringMatchesThePlainBigDecimal() {
+        for (String amount : new String[]{"0.00", "0.05", "-0.05", "1.10", "-100.50", "15230.75", "-7.00"}) {
+            assertEquals(amount, Money.of(new BigDecimal(amount)).toString());
+            assertEquals(amount, Money.of(new BigDecimal(amount)).toBigDecimal().toPlainString());
+        }
+    }
+}
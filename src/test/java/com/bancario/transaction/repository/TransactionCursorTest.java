@@ -0,0 +1,54 @@
+package com.bancario.transaction.repository;
+
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionCursorTest {
+
+    @Test
+    void roundTripKeepsDateAndId() {
+        TransactionCursor cursor = new TransactionCursor(LocalDateTime.of(2025, 3, 14, 9, 26, 53, 589_000_000), new ObjectId());
+
+        assertEquals(cursor, TransactionCursor.decode(cursor.encode()));
+    }
+
+    @Test
+    void roundTripWithWholeSecondsAndNanos() {
+        // LocalDateTime.toString omite los segundos en cero y usa hasta 9 decimales.
+        TransactionCursor wholeMinute = new TransactionCursor(LocalDateTime.of(2025, 1, 1, 0, 0), new ObjectId());
+        TransactionCursor nanos = new TransactionCursor(LocalDateTime.of(2025, 1, 1, 0, 0, 0, 1), new ObjectId());
+
+        assertEquals(wholeMinute, TransactionCursor.decode(wholeMinute.encode()));
+        assertEquals(nanos, TransactionCursor.decode(nanos.encode()));
+    }
+
+    @Test
+    void tokenIsUrlSafe() {
+        String token = new TransactionCursor(LocalDateTime.now(), new ObjectId()).encode();
+
+        assertTrue(token.matches("[A-Za-z0-9_-]+"), token);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "not base64!", "bm8tc2VwYXJhdG9y", "MjAyNS0wMS0wMVQwMDowMHxub3QtYW4taWQ", "fDY1ZjAwMDAwMDAwMDAwMDAwMDAwMDAwMA"})
+    void foreignTokensAreRejected(String token) {
+        IllegalArgumentException failure = assertThrows(IllegalArgumentException.class, () -> TransactionCursor.decode(token));
+        assertEquals("Invalid pagination cursor.", failure.getMessage());
+    }
+
+    @Test
+    void tamperedDateIsRejected() {
+        String raw = "2025-13-01T00:00|" + new ObjectId().toHexString();
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(IllegalArgumentException.class, () -> TransactionCursor.decode(token));
+    }
+}
@@ -0,0 +1,76 @@
+package com.bancario.transaction.repository;
+
+import com.mongodb.client.model.IndexModel;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Comparación de un índice declarado con el que devuelve listIndexes.
+ */
+class TransactionIndexManagerTest {
+
+    private static final IndexModel COMMISSIONS = TransactionIndexManager.INDEXES.stream()
+            .filter(index -> "transactionDate_1_fee_gt_0".equals(index.getOptions().getName()))
+            .findFirst().orElseThrow();
+
+    @Test
+    void samePartialFilterMatches() {
+        assertTrue(TransactionIndexManager.sameDefinition(COMMISSIONS,
+                existing(new Document("fee", new Document("$gt", new Decimal128(BigDecimal.ZERO))))));
+    }
+
+    @Test
+    void numericTypeOfTheFilterValueDoesNotMatter() {
+        // Creado desde la shell: { fee: { $gt: 0 } } se guarda como int32.
+        assertTrue(TransactionIndexManager.sameDefinition(COMMISSIONS, existing(new Document("fee", new Document("$gt", 0)))));
+        assertTrue(TransactionIndexManager.sameDefinition(COMMISSIONS, existing(new Document("fee", new Document("$gt", 0.0)))));
+    }
+
+    @Test
+    void differentPartialFilterIsDetected() {
+        assertFalse(TransactionIndexManager.sameDefinition(COMMISSIONS,
+                existing(new Document("fee", new Document("$gte", new Decimal128(BigDecimal.ZERO))))));
+        assertFalse(TransactionIndexManager.sameDefinition(COMMISSIONS,
+                existing(new Document("fee", new Document("$gt", new Decimal128(BigDecimal.ONE))))));
+        assertFalse(TransactionIndexManager.sameDefinition(COMMISSIONS,
+                existing(new Document("amount", new Document("$gt", new Decimal128(BigDecimal.ZERO))))));
+    }
+
+    @Test
+    void missingOrUnexpectedPartialFilterIsDetected() {
+        assertFalse(TransactionIndexManager.sameDefinition(COMMISSIONS, existing(null)));
+
+        IndexModel externalReference = TransactionIndexManager.INDEXES.stream()
+                .filter(index -> "externalReference_1".equals(index.getOptions().getName()))
+                .findFirst().orElseThrow();
+        Document withFilter = new Document("key", new Document("externalReference", 1))
+                .append("name", "externalReference_1")
+                .append("partialFilterExpression", new Document("externalReference", new Document("$exists", true)));
+        assertFalse(TransactionIndexManager.sameDefinition(externalReference, withFilter));
+    }
+
+    @Test
+    void differentKeysAreDetected() {
+        Document descending = new Document("key", new Document("transactionDate", -1))
+                .append("name", "transactionDate_1_fee_gt_0")
+                .append("partialFilterExpression", new Document("fee", new Document("$gt", new Decimal128(BigDecimal.ZERO))));
+        assertFalse(TransactionIndexManager.sameDefinition(COMMISSIONS, descending));
+    }
+
+    /** Índice tal como lo devuelve listIndexes, con las mismas claves que COMMISSIONS. */
+    private static Document existing(Document partialFilter) {
+        Document index = new Document("v", 2)
+                .append("key", new Document("transactionDate", 1))
+                .append("name", "transactionDate_1_fee_gt_0");
+        if (partialFilter != null) {
+            index.append("partialFilterExpression", partialFilter);
+        }
+        return index;
+    }
+}
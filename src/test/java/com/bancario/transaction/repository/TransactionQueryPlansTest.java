@@ -0,0 +1,87 @@
+package com.bancario.transaction.repository;
+
+import com.bancario.transaction.enums.ProductType;
+import com.bancario.transaction.enums.TransactionType;
+import com.bancario.transaction.money.Money;
+import com.bancario.transaction.repository.entity.Transaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Con la colección poblada y los índices declarados creados, ninguna consulta del repositorio
+ * se resuelve con un COLLSCAN ('explain' sobre las mismas consultas que verifica el arranque).
+ */
+@QuarkusTest
+class TransactionQueryPlansTest {
+
+    private static final Duration WAIT = Duration.ofSeconds(30);
+
+    @Inject
+    TransactionRepository transactionRepository;
+
+    @Inject
+    TransactionIndexManager transactionIndexManager;
+
+    @BeforeEach
+    void seed() {
+        transactionRepository.deleteAll().await().atMost(WAIT);
+        List<Transaction> transactions = new ArrayList<>();
+        LocalDateTime start = LocalDateTime.now().minusDays(30);
+        TransactionType[] types = {TransactionType.DEPOSIT, TransactionType.WITHDRAWAL, TransactionType.PAYMENT};
+        for (int i = 0; i < 2000; i++) {
+            Transaction transaction = new Transaction();
+            transaction.setAccountId("acc-" + (i % 50));
+            transaction.setCustomerId("cust-" + (i % 50));
+            transaction.setTransactionType(types[i % types.length]);
+            transaction.setAmount(Money.of(new BigDecimal("10.00")));
+            // Solo una parte de los movimientos cobra comisión (entra al índice parcial).
+            transaction.setFee(i % 5 == 0 ? Money.of(new BigDecimal("1.00")) : Money.ZERO);
+            transaction.setProductType(ProductType.PASSIVE);
+            transaction.setProductName("SAVINGS_ACCOUNT");
+            transaction.setTransactionDate(start.plusMinutes(i * 20L));
+            transaction.setDescription("seed");
+            transaction.setExternalReference("core-" + i);
+            transactions.add(transaction);
+        }
+        transactionRepository.persist(transactions).await().atMost(WAIT);
+        transactionIndexManager.ensureIndexes().await().atMost(WAIT);
+    }
+
+    @Test
+    void repositoryQueriesUseIndexes() {
+        Map<String, Document> plans = transactionIndexManager.explainQueryPlans().await().atMost(WAIT);
+
+        assertEquals(List.of("findByAccountId", "findCommissionsByDateRange", "findHistoryPage"),
+                plans.keySet().stream().sorted().toList());
+        plans.forEach((repositoryMethod, plan) ->
+                assertFalse(TransactionIndexManager.containsStage(plan, "COLLSCAN"), repositoryMethod + ": " + plan.toJson()));
+    }
+
+    @Test
+    void commissionsQueryUsesThePartialIndex() {
+        Document plan = transactionIndexManager.explainQueryPlans().await().atMost(WAIT).get("findCommissionsByDateRange");
+
+        assertTrue(plan.toJson().contains("transactionDate_1_fee_gt_0"), plan.toJson());
+    }
+
+    @Test
+    void historyQueryByTypeUsesTheTypeIndexWithoutSorting() {
+        Document plan = transactionIndexManager.explainQueryPlans().await().atMost(WAIT).get("findHistoryPage");
+
+        assertTrue(plan.toJson().contains("accountId_1_transactionType_1_transactionDate_-1__id_-1"), plan.toJson());
+        // El orden (transactionDate, _id) sale del propio índice: sin etapa SORT en memoria.
+        assertFalse(TransactionIndexManager.containsStage(plan, "SORT"), plan.toJson());
+    }
+}
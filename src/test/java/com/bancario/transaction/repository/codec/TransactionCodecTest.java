@@ -0,0 +1,166 @@
+package com.bancario.transaction.repository.codec;
+
+import com.bancario.transaction.enums.ProductType;
+import com.bancario.transaction.enums.TransactionType;
+import com.bancario.transaction.money.Money;
+import com.bancario.transaction.repository.entity.Transaction;
+import com.mongodb.MongoClientSettings;
+import org.bson.BsonDateTime;
+import org.bson.BsonDecimal128;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.BsonDocumentWriter;
+import org.bson.BsonInt32;
+import org.bson.BsonInt64;
+import org.bson.BsonNull;
+import org.bson.BsonObjectId;
+import org.bson.BsonString;
+import org.bson.BsonType;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.codecs.pojo.PojoCodecProvider;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Ida y vuelta de {@link TransactionCodec} y compatibilidad con los documentos del codec POJO.
+ */
+class TransactionCodecTest {
+
+    private static final LocalDateTime DATE = LocalDateTime.of(2025, 1, 15, 10, 30, 45, 123_000_000);
+
+    /** El codec POJO del driver, con los codecs de Money y enums que registra TransactionCodecProvider. */
+    private final CodecRegistry pojoRegistry = CodecRegistries.fromRegistries(
+            CodecRegistries.fromCodecs(new MoneyCodec(),
+                    new LenientEnumCodec<>(TransactionType.class, TransactionType.values()),
+                    new LenientEnumCodec<>(ProductType.class, ProductType.values())),
+            MongoClientSettings.getDefaultCodecRegistry(),
+            CodecRegistries.fromProviders(PojoCodecProvider.builder().automatic(true).build()));
+
+    @ParameterizedTest
+    @EnumSource(EnumEncoding.class)
+    void roundTripKeepsEveryField(EnumEncoding encoding) {
+        TransactionCodec codec = new TransactionCodec(encoding);
+        Transaction original = transaction();
+
+        Transaction decoded = decode(codec, encode(codec, original));
+
+        assertEquals(original, decoded);
+    }
+
+    @Test
+    void stringEncodingWritesTheSameDocumentAsThePojoCodec() {
+        Transaction original = transaction();
+
+        BsonDocument handWritten = encode(new TransactionCodec(EnumEncoding.STRING), original);
+        BsonDocument pojo = encode(pojoRegistry.get(Transaction.class), original);
+
+        // BsonDocument.equals no depende del orden de los campos.
+        assertEquals(pojo, handWritten);
+        assertEquals(new BsonString("WITHDRAWAL"), handWritten.get("transactionType"));
+        assertEquals(new BsonDecimal128(new Decimal128(new BigDecimal("-97.50"))), handWritten.get("amount"));
+        assertEquals(new BsonDateTime(DATE.toInstant(ZoneOffset.UTC).toEpochMilli()), handWritten.get("transactionDate"));
+    }
+
+    @Test
+    void documentsWrittenByThePojoCodecAreReadByTheHandWrittenCodec() {
+        Transaction original = transaction();
+        BsonDocument pojo = encode(pojoRegistry.get(Transaction.class), original);
+
+        assertEquals(original, decode(new TransactionCodec(EnumEncoding.ORDINAL), pojo));
+    }
+
+    @Test
+    void ordinalEncodingWritesInt32AndStaysReadableByTheStringCodecAndThePojoCodec() {
+        Transaction original = transaction();
+
+        BsonDocument ordinal = encode(new TransactionCodec(EnumEncoding.ORDINAL), original);
+
+        assertEquals(new BsonInt32(TransactionType.WITHDRAWAL.ordinal()), ordinal.get("transactionType"));
+        assertEquals(new BsonInt32(ProductType.PASSIVE.ordinal()), ordinal.get("productType"));
+        assertEquals(original, decode(new TransactionCodec(EnumEncoding.STRING), ordinal));
+        assertEquals(original, decode(pojoRegistry.get(Transaction.class), ordinal));
+    }
+
+    @Test
+    void nullFieldsAreOmittedAndNullOrUnknownFieldsAreSkippedOnRead() {
+        TransactionCodec codec = new TransactionCodec(EnumEncoding.STRING);
+        Transaction sparse = new Transaction();
+        sparse.setAccountId("acc-1");
+        sparse.setAmount(Money.ofMinor(100));
+
+        BsonDocument document = encode(codec, sparse);
+
+        assertNotNull(sparse.getId(), "el _id se genera al codificar");
+        assertEquals(3, document.size(), document.toJson());
+        assertFalse(document.containsKey("fee"));
+
+        document.append("fee", BsonNull.VALUE).append("legacyField", new BsonString("x"));
+        Transaction decoded = decode(codec, document);
+        assertEquals(sparse, decoded);
+        assertNull(decoded.getFee());
+    }
+
+    @Test
+    void moneyIsReadFromDecimal128WithExtraDecimalsAndFromInt64() {
+        TransactionCodec codec = new TransactionCodec(EnumEncoding.STRING);
+        BsonDocument document = new BsonDocument()
+                .append("_id", new BsonObjectId(new ObjectId()))
+                .append("amount", new BsonDecimal128(new Decimal128(new BigDecimal("10.025"))))
+                .append("fee", new BsonInt64(250));
+
+        Transaction decoded = decode(codec, document);
+
+        assertEquals(Money.ofMinor(1_002), decoded.getAmount(), "Decimal128 con 3 decimales: HALF_EVEN");
+        assertEquals(Money.ofMinor(250), decoded.getFee(), "int64 en unidades mínimas");
+    }
+
+    @Test
+    void moneyIsWrittenAsDecimal128WithTheCurrencyScale() {
+        BsonDocument document = encode(new TransactionCodec(EnumEncoding.STRING), transaction());
+
+        assertEquals(BsonType.DECIMAL128, document.get("fee").getBsonType());
+        assertEquals(new BigDecimal("2.50"), document.getDecimal128("fee").getValue().bigDecimalValue());
+    }
+
+    private static <T> BsonDocument encode(Codec<T> codec, T value) {
+        BsonDocument document = new BsonDocument();
+        codec.encode(new BsonDocumentWriter(document), value, EncoderContext.builder().isEncodingCollectibleDocument(true).build());
+        return document;
+    }
+
+    private static <T> T decode(Codec<T> codec, BsonDocument document) {
+        return codec.decode(new BsonDocumentReader(document), DecoderContext.builder().build());
+    }
+
+    private static Transaction transaction() {
+        Transaction transaction = new Transaction();
+        transaction.setId(new ObjectId("65a1f0c2e4b0a1b2c3d4e5f7"));
+        transaction.setAccountId("65a1f0c2e4b0a1b2c3d4e5f6");
+        transaction.setCustomerId("CUST-000123");
+        transaction.setTransactionType(TransactionType.WITHDRAWAL);
+        transaction.setAmount(Money.ofMinor(-9_750));
+        transaction.setFee(Money.ofMinor(250));
+        transaction.setProductType(ProductType.PASSIVE);
+        transaction.setProductName("SAVINGS_ACCOUNT");
+        transaction.setTransactionDate(DATE);
+        transaction.setDescription("Retiro en cajero (Fee: 2.50)");
+        transaction.setExternalReference("CORE-123456");
+        return transaction;
+    }
+}
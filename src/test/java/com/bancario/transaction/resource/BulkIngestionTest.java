@@ -0,0 +1,124 @@
+package com.bancario.transaction.resource;
+
+import com.bancario.transaction.support.AccountServiceStub;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * POST /transactions/bulk: resultados por línea, líneas mal formadas y aislamiento de la política
+ * de tolerancia a fallos de las operaciones interactivas.
+ */
+@QuarkusTest
+class BulkIngestionTest {
+
+    private static final String NDJSON = "application/x-ndjson";
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @BeforeEach
+    void resetStub() {
+        AccountServiceStub.reset(10, new BigDecimal("1000.00"));
+    }
+
+    @Test
+    void malformedNdjsonLineIsReportedAndTheRestOfTheLoadIsProcessed() throws Exception {
+        String body = String.join("\n",
+                deposit("acc-000001", "10.00"),
+                "{\"transactionType\":\"DEPOSIT\",\"accountId\":\"acc-000001\",",     // JSON truncado
+                "",
+                "{\"transactionType\":\"NOT_A_TYPE\",\"accountId\":\"acc-000001\",\"customerId\":\"c\",\"amount\":1}",
+                deposit("acc-000001", "5.00"));
+
+        List<Map<String, Object>> events = post(body, NDJSON);
+
+        Map<String, Object> summary = events.get(events.size() - 1);
+        assertEquals(4, ((Number) summary.get("total")).intValue(), "la línea en blanco no cuenta: " + events);
+        assertEquals(2, ((Number) summary.get("succeeded")).intValue());
+        assertEquals(2, ((Number) summary.get("failed")).intValue());
+
+        List<Map<String, Object>> results = results(events);
+        assertEquals(List.of(1, 2, 4, 5), results.stream().map(result -> ((Number) result.get("line")).intValue()).toList(),
+                "los números de línea son los del cuerpo NDJSON");
+        assertEquals(List.of(true, false, false, true), results.stream().map(result -> result.get("success")).toList());
+        assertTrue(((String) results.get(1).get("error")).startsWith("Línea mal formada"));
+        assertEquals(0, new BigDecimal("1015.00").compareTo(AccountServiceStub.balance("acc-000001")));
+    }
+
+    @Test
+    void invalidElementOfAJsonArrayIsSkipped() throws Exception {
+        String body = "[" + deposit("acc-000002", "10.00") + ","
+                + "{\"transactionType\":\"DEPOSIT\",\"accountId\":\"acc-000002\",\"customerId\":\"c\",\"amount\":\"abc\"},"
+                + deposit("acc-000002", "20.00") + "]";
+
+        List<Map<String, Object>> results = results(post(body, ContentType.JSON.toString()));
+
+        assertEquals(List.of(true, false, true), results.stream().map(result -> result.get("success")).toList());
+        assertEquals(0, new BigDecimal("1030.00").compareTo(AccountServiceStub.balance("acc-000002")));
+    }
+
+    @Test
+    void rejectedBulkLinesDoNotOpenTheInteractiveCircuitBreaker() throws Exception {
+        // Muchas más líneas rechazadas (saldo insuficiente) que el volumen del Circuit Breaker de processWithdrawal.
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            lines.add(withdrawal("acc-000003", "999999.00"));
+        }
+        List<Map<String, Object>> events = post(String.join("\n", lines), NDJSON);
+        assertEquals(40, ((Number) events.get(events.size() - 1).get("failed")).intValue());
+
+        // Un retiro interactivo válido sigue pasando (no 503 del @Fallback por circuito abierto).
+        given().contentType(ContentType.JSON)
+                .body(Map.of("accountId", "acc-000004", "customerId", "cust-000004", "amount", "10.00"))
+                .post("/transactions/withdrawal")
+                .then().statusCode(200);
+    }
+
+    private List<Map<String, Object>> post(String body, String contentType) throws Exception {
+        String response = given().contentType(contentType).body(body)
+                .post("/transactions/bulk")
+                .then().statusCode(200)
+                .extract().asString();
+        List<Map<String, Object>> events = new ArrayList<>();
+        for (String line : response.split("\n")) {
+            if (!line.isBlank()) {
+                events.add(objectMapper.readValue(line, new TypeReference<>() { }));
+            }
+        }
+        return events;
+    }
+
+    private static List<Map<String, Object>> results(List<Map<String, Object>> events) {
+        return events.stream()
+                .filter(event -> event.containsKey("line"))
+                .sorted(Comparator.comparingInt(event -> ((Number) event.get("line")).intValue()))
+                .toList();
+    }
+
+    private static String deposit(String accountId, String amount) {
+        return operation("DEPOSIT", accountId, amount);
+    }
+
+    private static String withdrawal(String accountId, String amount) {
+        return operation("WITHDRAWAL", accountId, amount);
+    }
+
+    private static String operation(String type, String accountId, String amount) {
+        return String.format("{\"transactionType\":\"%s\",\"accountId\":\"%s\",\"customerId\":\"cust\",\"amount\":%s}",
+                type, accountId, amount);
+    }
+}
@@ -0,0 +1,176 @@
+package com.bancario.transaction.resource;
+
+import com.bancario.transaction.enums.ProductType;
+import com.bancario.transaction.enums.TransactionType;
+import com.bancario.transaction.money.Money;
+import com.bancario.transaction.repository.TransactionRepository;
+import com.bancario.transaction.repository.entity.Transaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.path.json.JsonPath;
+import io.restassured.specification.RequestSpecification;
+import jakarta.inject.Inject;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Paginación por keyset de GET /transactions/history sobre datos sembrados: recorrer todas las
+ * páginas devuelve cada movimiento una sola vez y en orden (transactionDate desc, _id desc), también
+ * cuando varios movimientos comparten fecha y con filtros.
+ */
+@QuarkusTest
+class TransactionHistoryPaginationTest {
+
+    private static final String ACCOUNT = "history-acc";
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 6, 1, 12, 0);
+
+    @Inject
+    TransactionRepository transactionRepository;
+
+    private final List<Transaction> seeded = new ArrayList<>();
+
+    @BeforeEach
+    void seed() {
+        transactionRepository.delete("accountId in ?1", List.of(ACCOUNT, "other-acc")).await().atMost(Duration.ofSeconds(10));
+        seeded.clear();
+        TransactionType[] types = {TransactionType.DEPOSIT, TransactionType.WITHDRAWAL, TransactionType.PAYMENT};
+        List<Transaction> all = new ArrayList<>();
+        for (int i = 0; i < 53; i++) {
+            // Grupos de 4 movimientos con la misma fecha: el desempate por _id debe cruzar páginas.
+            Transaction transaction = transaction(ACCOUNT, types[i % types.length], BigDecimal.valueOf(i + 1), BASE.minusMinutes(i / 4));
+            seeded.add(transaction);
+            all.add(transaction);
+        }
+        for (int i = 0; i < 20; i++) {
+            all.add(transaction("other-acc", TransactionType.DEPOSIT, BigDecimal.TEN, BASE.minusMinutes(i)));
+        }
+        transactionRepository.persist(all).await().atMost(Duration.ofSeconds(10));
+    }
+
+    @Test
+    void walkingAllPagesReturnsEveryTransactionOnceInKeysetOrder() {
+        List<Map<String, Object>> items = walk(7, spec -> spec);
+
+        List<String> expected = seeded.stream()
+                .sorted(Comparator.comparing(Transaction::getTransactionDate).thenComparing(Transaction::getId).reversed())
+                .map(transaction -> transaction.getId().toHexString())
+                .toList();
+        List<String> actual = items.stream().map(item -> (String) item.get("id")).toList();
+        assertEquals(expected, actual);
+        assertEquals(actual.size(), new HashSet<>(actual).size(), "sin duplicados entre páginas");
+    }
+
+    @Test
+    void filtersAreAppliedOnEveryPage() {
+        List<Map<String, Object>> items = walk(4, spec -> spec
+                .queryParam("transactionType", "DEPOSIT")
+                .queryParam("minAmount", "10")
+                .queryParam("maxAmount", "40"));
+
+        List<String> expected = seeded.stream()
+                .filter(transaction -> transaction.getTransactionType() == TransactionType.DEPOSIT)
+                .filter(transaction -> transaction.getAmount().toBigDecimal().compareTo(BigDecimal.TEN) >= 0
+                        && transaction.getAmount().toBigDecimal().compareTo(BigDecimal.valueOf(40)) <= 0)
+                .sorted(Comparator.comparing(Transaction::getTransactionDate).thenComparing(Transaction::getId).reversed())
+                .map(transaction -> transaction.getId().toHexString())
+                .toList();
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, items.stream().map(item -> (String) item.get("id")).toList());
+        assertTrue(items.stream().allMatch(item -> "DEPOSIT".equals(item.get("transactionType"))));
+    }
+
+    @Test
+    void exactMultipleOfThePageSizeEndsWithoutAnEmptyPage() {
+        JsonPath first = page(53, null, spec -> spec);
+
+        assertEquals(53, first.getList("items").size());
+        assertNull(first.getString("nextCursor"));
+    }
+
+    @Test
+    void slimViewPagesLikeTheFullView() {
+        List<Map<String, Object>> full = walk(10, spec -> spec);
+        List<Map<String, Object>> slim = walk(10, spec -> spec.queryParam("view", "SLIM"));
+
+        assertEquals(full.stream().map(item -> item.get("id")).toList(), slim.stream().map(item -> item.get("id")).toList());
+        assertTrue(slim.stream().allMatch(item -> item.get("description") == null));
+    }
+
+    @Test
+    void invalidCursorAndPageSizeAreRejected() {
+        given().queryParam("accountId", ACCOUNT).queryParam("cursor", "not-a-cursor")
+                .get("/transactions/history")
+                .then().statusCode(400);
+        given().queryParam("accountId", ACCOUNT).queryParam("limit", 0)
+                .get("/transactions/history")
+                .then().statusCode(400);
+        given().queryParam("accountId", ACCOUNT).queryParam("limit", 501)
+                .get("/transactions/history")
+                .then().statusCode(400);
+    }
+
+    @Test
+    void unknownAccountReturnsAnEmptyLastPage() {
+        given().queryParam("accountId", "no-such-account")
+                .get("/transactions/history")
+                .then().statusCode(200)
+                .body("items.size()", equalTo(0))
+                .body("nextCursor", equalTo(null));
+    }
+
+    private List<Map<String, Object>> walk(int limit, UnaryOperator<RequestSpecification> filters) {
+        List<Map<String, Object>> items = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            JsonPath page = page(limit, cursor, filters);
+            List<Map<String, Object>> pageItems = page.getList("items");
+            assertTrue(pageItems.size() <= limit);
+            items.addAll(pageItems);
+            cursor = page.getString("nextCursor");
+            assertTrue(++pages <= 100, "la paginación termina");
+        } while (cursor != null);
+        return items;
+    }
+
+    private static JsonPath page(int limit, String cursor, UnaryOperator<RequestSpecification> filters) {
+        RequestSpecification spec = given().queryParam("accountId", ACCOUNT).queryParam("limit", limit);
+        if (cursor != null) {
+            spec.queryParam("cursor", cursor);
+        }
+        return filters.apply(spec)
+                .get("/transactions/history")
+                .then().statusCode(200)
+                .extract().jsonPath();
+    }
+
+    private static Transaction transaction(String accountId, TransactionType type, BigDecimal amount, LocalDateTime date) {
+        Transaction transaction = new Transaction();
+        transaction.setId(new ObjectId());
+        transaction.setAccountId(accountId);
+        transaction.setCustomerId("cust");
+        transaction.setTransactionType(type);
+        transaction.setAmount(Money.of(amount));
+        transaction.setFee(Money.ZERO);
+        transaction.setProductType(ProductType.PASSIVE);
+        transaction.setProductName("SAVINGS_ACCOUNT");
+        transaction.setTransactionDate(date);
+        transaction.setDescription("seed " + amount);
+        transaction.setExternalReference("core");
+        return transaction;
+    }
+}
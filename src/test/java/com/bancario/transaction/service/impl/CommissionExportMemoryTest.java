@@ -0,0 +1,162 @@
+package com.bancario.transaction.service.impl;
+
+import com.bancario.transaction.dto.CommissionReportDto;
+import com.bancario.transaction.enums.ProductType;
+import com.bancario.transaction.enums.TransactionType;
+import com.bancario.transaction.money.Money;
+import com.bancario.transaction.repository.TransactionRepository;
+import com.bancario.transaction.repository.entity.Transaction;
+import com.bancario.transaction.service.TransactionService;
+import com.bancario.transaction.support.MongoCommandCounter;
+import io.quarkus.test.junit.QuarkusTest;
+import io.smallrye.mutiny.helpers.test.AssertSubscriber;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * La exportación en streaming de comisiones mantiene acotada la memoria con un rango grande:
+ * el cursor de MongoDB solo avanza al ritmo del consumidor y lo ya exportado no queda retenido.
+ */
+@QuarkusTest
+class CommissionExportMemoryTest {
+
+    private static final int DOCUMENTS = 200_000;
+    private static final LocalDate START = LocalDate.of(2019, 1, 1);
+    private static final LocalDate END = LocalDate.of(2019, 12, 31);
+    // 200.000 CommissionReportDto en memoria ocuparían del orden de 100 MB.
+    private static final long MAX_RETAINED_BYTES = 32L * 1024 * 1024;
+
+    private static boolean seeded;
+
+    @Inject
+    TransactionService transactionService;
+
+    @Inject
+    TransactionRepository transactionRepository;
+
+    @Inject
+    MongoCommandCounter mongoCommands;
+
+    @ConfigProperty(name = "transaction-service.commission-export.batch-size")
+    int batchSize;
+
+    @BeforeEach
+    void seed() {
+        if (seeded) {
+            return;
+        }
+        LocalDateTime from = START.atStartOfDay();
+        transactionRepository.delete("transactionDate >= ?1 and transactionDate < ?2", from, END.plusDays(1).atStartOfDay())
+                .await().atMost(Duration.ofSeconds(60));
+        List<Transaction> chunk = new ArrayList<>(10_000);
+        for (int i = 0; i < DOCUMENTS; i++) {
+            chunk.add(commission(i, from.plusSeconds(i * 150L)));
+            if (chunk.size() == 10_000) {
+                transactionRepository.persist(chunk).await().atMost(Duration.ofSeconds(60));
+                chunk = new ArrayList<>(10_000);
+            }
+        }
+        seeded = true;
+    }
+
+    @Test
+    void cursorAdvancesOnlyAsFastAsTheConsumer() throws Exception {
+        mongoCommands.reset();
+        AssertSubscriber<CommissionReportDto> consumer = transactionService.streamCommissionsReportData(START, END)
+                .subscribe().withSubscriber(AssertSubscriber.create(10));
+
+        consumer.awaitItems(10, Duration.ofSeconds(30));
+        // El consumidor se detiene: el servicio no debe seguir leyendo el cursor.
+        Thread.sleep(500);
+
+        assertEquals(10, consumer.getItems().size());
+        assertTrue(mongoCommands.cursorDocuments() <= 2L * batchSize,
+                "documentos leídos de MongoDB con el consumidor detenido: " + mongoCommands.cursorDocuments());
+        assertTrue(mongoCommands.getMores() <= 1, "getMore ejecutados: " + mongoCommands.getMores());
+        consumer.cancel();
+    }
+
+    @Test
+    void fullExportKeepsRetainedHeapBounded() throws Exception {
+        long baseline = retainedHeap();
+        AtomicLong maxRetained = new AtomicLong();
+        AtomicLong exported = new AtomicLong();
+        CompletableFuture<Void> done = new CompletableFuture<>();
+
+        transactionService.streamCommissionsReportData(START, END)
+                .subscribe().withSubscriber(new Flow.Subscriber<CommissionReportDto>() {
+                    private Flow.Subscription subscription;
+
+                    @Override
+                    public void onSubscribe(Flow.Subscription subscription) {
+                        this.subscription = subscription;
+                        subscription.request(100);
+                    }
+
+                    @Override
+                    public void onNext(CommissionReportDto item) {
+                        long count = exported.incrementAndGet();
+                        if (count % 20_000 == 0) {
+                            maxRetained.accumulateAndGet(retainedHeap() - baseline, Math::max);
+                        }
+                        if (count % 100 == 0) {
+                            subscription.request(100);
+                        }
+                    }
+
+                    @Override
+                    public void onError(Throwable failure) {
+                        done.completeExceptionally(failure);
+                    }
+
+                    @Override
+                    public void onComplete() {
+                        done.complete(null);
+                    }
+                });
+
+        done.get(5, TimeUnit.MINUTES);
+        assertEquals(DOCUMENTS, exported.get());
+        assertTrue(maxRetained.get() < MAX_RETAINED_BYTES,
+                "heap retenido durante la exportación: " + maxRetained.get() / (1024 * 1024) + " MB");
+    }
+
+    /** Heap ocupado tras una recolección completa (lo que sigue referenciado). */
+    private static long retainedHeap() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    private static Transaction commission(int i, LocalDateTime date) {
+        Transaction transaction = new Transaction();
+        transaction.setAccountId("export-acc-" + (i % 1000));
+        transaction.setCustomerId("cust");
+        transaction.setTransactionType(TransactionType.WITHDRAWAL);
+        transaction.setAmount(Money.of(new BigDecimal("-10.00")));
+        transaction.setFee(Money.of(new BigDecimal("1.50")));
+        transaction.setProductType(ProductType.PASSIVE);
+        transaction.setProductName("SAVINGS_ACCOUNT");
+        transaction.setTransactionDate(date);
+        transaction.setDescription("export seed");
+        transaction.setExternalReference("core-" + i);
+        return transaction;
+    }
+}
@@ -0,0 +1,63 @@
+package com.bancario.transaction.service.impl;
+
+import com.bancario.transaction.support.AccountServiceStub;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Llamadas al Account-Service por depósito: una lectura (contexto de la cuenta) y una escritura (Core).
+ */
+@QuarkusTest
+class DepositAccountServiceCallsTest {
+
+    @BeforeEach
+    void resetStub() {
+        AccountServiceStub.reset(10, new BigDecimal("1000.00"));
+    }
+
+    @Test
+    void depositReadsTheAccountOnceAndWritesTheBalanceOnce() {
+        String accountId = AccountServiceStub.accountId(1);
+
+        given().contentType(ContentType.JSON)
+                .body(Map.of("accountId", accountId, "customerId", "cust-000001", "amount", "100.00"))
+                .post("/transactions/deposit")
+                .then().statusCode(200)
+                .body("accountId", equalTo(accountId));
+
+        Map<String, Long> calls = AccountServiceStub.calls();
+        assertEquals(1L, calls.getOrDefault("getAccountById", 0L), "una sola lectura de la cuenta: " + calls);
+        assertEquals(1L, calls.getOrDefault("updateAccountBalance", 0L), "una sola escritura de saldo: " + calls);
+        assertEquals(0L, calls.getOrDefault("getTransactionStatus", 0L), "el estado de transacciones sale de la misma lectura: " + calls);
+        assertEquals(0L, calls.getOrDefault("getAccountByNumber", 0L), calls.toString());
+        // Sin comisión (dentro de las 20 transacciones gratuitas): el saldo sube exactamente el monto.
+        assertEquals(0, new BigDecimal("1100.00").compareTo(AccountServiceStub.balance(accountId)));
+    }
+
+    @Test
+    void consecutiveDepositsKeepTheSameCallBudget() {
+        String accountId = AccountServiceStub.accountId(2);
+        int deposits = 5;
+
+        for (int i = 0; i < deposits; i++) {
+            given().contentType(ContentType.JSON)
+                    .body(Map.of("accountId", accountId, "customerId", "cust-000002", "amount", "10.00"))
+                    .post("/transactions/deposit")
+                    .then().statusCode(200);
+        }
+
+        Map<String, Long> calls = AccountServiceStub.calls();
+        assertEquals((long) deposits, calls.getOrDefault("getAccountById", 0L), calls.toString());
+        assertEquals((long) deposits, calls.getOrDefault("updateAccountBalance", 0L), calls.toString());
+        assertEquals(0, new BigDecimal("1050.00").compareTo(AccountServiceStub.balance(accountId)));
+    }
+}
@@ -0,0 +1,208 @@
+package com.bancario.transaction.service.impl;
+
+import com.bancario.transaction.concurrency.AccountSequencer;
+import com.bancario.transaction.dto.TransactionRequest;
+import com.bancario.transaction.dto.TransactionResponse;
+import com.bancario.transaction.dto.TransferRequest;
+import com.bancario.transaction.loadtest.StubFaults;
+import com.bancario.transaction.service.TransactionService;
+import com.bancario.transaction.support.AccountServiceStub;
+import io.quarkus.arc.ClientProxy;
+import io.restassured.http.ContentType;
+import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
+import io.smallrye.mutiny.TimeoutException;
+import io.smallrye.mutiny.Uni;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Comportamiento común a los dos modos de ejecución (transaction-service.execution-mode): cada subclase
+ * arranca la aplicación en un modo y ejecuta las mismas pruebas contra el Account-Service simulado.
+ */
+abstract class ExecutionModeBehaviorTest {
+
+    private static final Duration WAIT = Duration.ofSeconds(10);
+
+    @Inject
+    TransactionService transactionService;
+
+    @Inject
+    AccountSequencer accountSequencer;
+
+    /** Implementación que debe atender las operaciones en el modo de la subclase. */
+    abstract Class<? extends TransactionService> expectedImplementation();
+
+    @BeforeEach
+    void resetStub() {
+        AccountServiceStub.reset(60, new BigDecimal("1000.00"));
+    }
+
+    @Test
+    void theConfiguredModeServesTheOperations() {
+        assertInstanceOf(expectedImplementation(), ClientProxy.unwrap(transactionService));
+    }
+
+    @Test
+    void depositMovesTheBalanceOnce() {
+        String accountId = AccountServiceStub.accountId(1);
+
+        post("/transactions/deposit", body(accountId, "100.00"), null)
+                .then().statusCode(200)
+                .body("accountId", equalTo(accountId));
+
+        assertBalance(accountId, "1100.00");
+        assertEquals(1L, AccountServiceStub.calls("updateAccountBalance"));
+    }
+
+    @Test
+    void rejectedWithdrawalLeavesTheBalanceUntouched() {
+        String accountId = AccountServiceStub.accountId(2);
+
+        post("/transactions/withdrawal", body(accountId, "5000.00"), null)
+                .then().statusCode(400);
+
+        assertBalance(accountId, "1000.00");
+    }
+
+    @Test
+    void transferMovesFundsBetweenAccounts() {
+        post("/transactions/transfers", Map.of(
+                "sourceAccountNumber", AccountServiceStub.accountNumber(3),
+                "targetAccountNumber", AccountServiceStub.accountNumber(4),
+                "amount", "100.00",
+                "description", "modo"), null)
+                .then().statusCode(200);
+
+        assertBalance(AccountServiceStub.accountId(3), "900.00");
+        assertBalance(AccountServiceStub.accountId(4), "1100.00");
+    }
+
+    @Test
+    void concurrentDepositsOnTheSameAccountLoseNoUpdates() {
+        String accountId = AccountServiceStub.accountId(5);
+        int deposits = 10;
+
+        List<CompletableFuture<Void>> requests = new ArrayList<>();
+        for (int i = 0; i < deposits; i++) {
+            requests.add(CompletableFuture.runAsync(() ->
+                    post("/transactions/deposit", body(accountId, "10.00"), null).then().statusCode(200)));
+        }
+        requests.forEach(CompletableFuture::join);
+
+        assertBalance(accountId, "1100.00");
+    }
+
+    @Test
+    void replayWithTheSameIdempotencyKeyDoesNotApplyTwice() {
+        String accountId = AccountServiceStub.accountId(6);
+        String key = UUID.randomUUID().toString();
+
+        String first = post("/transactions/deposit", body(accountId, "50.00"), key)
+                .then().statusCode(200).extract().path("id");
+        String replay = post("/transactions/deposit", body(accountId, "50.00"), key)
+                .then().statusCode(200).extract().path("id");
+
+        assertEquals(first, replay);
+        assertBalance(accountId, "1050.00");
+    }
+
+    @Test
+    void cancellationBeforeTheAccountTurnSkipsTheOperation() {
+        String accountId = AccountServiceStub.accountId(7);
+        CompletableFuture<Void> turnHeld = new CompletableFuture<>();
+        CompletableFuture<Void> holder = accountSequencer.run(accountId, () -> Uni.createFrom().completionStage(turnHeld))
+                .subscribeAsCompletionStage();
+
+        Uni<TransactionResponse> deposit = transactionService.processBulkDeposit(request(accountId, "100.00"))
+                .ifNoItem().after(Duration.ofMillis(200)).fail();
+        assertThrows(TimeoutException.class, () -> deposit.await().atMost(WAIT));
+
+        turnHeld.complete(null);
+        holder.join();
+        // El turno siguiente en la cuenta ya no encuentra la operación cancelada delante.
+        accountSequencer.run(accountId, () -> Uni.createFrom().voidItem()).await().atMost(WAIT);
+
+        assertEquals(0L, AccountServiceStub.calls("updateAccountBalance"), "la operación cancelada no llegó al Core");
+        assertBalance(accountId, "1000.00");
+    }
+
+    @Test
+    void startedOperationCompletesAfterCancellation() {
+        String accountId = AccountServiceStub.accountId(8);
+        AccountServiceStub.faults(new StubFaults(300, 0, 0));
+
+        Uni<TransactionResponse> deposit = transactionService.processBulkDeposit(request(accountId, "100.00"))
+                .ifNoItem().after(Duration.ofMillis(100)).fail();
+        assertThrows(TimeoutException.class, () -> deposit.await().atMost(WAIT));
+
+        AccountServiceStub.faults(StubFaults.NONE);
+        awaitBalance(accountId, "1100.00");
+    }
+
+    @Test
+    void transferCancelledAfterTheWithdrawalStillDeposits() {
+        String source = AccountServiceStub.accountId(9);
+        String target = AccountServiceStub.accountId(10);
+        // Búsqueda de cuentas (300 ms) + retiro (lectura y escritura, 600 ms): la cancelación llega en el depósito.
+        AccountServiceStub.faults(new StubFaults(300, 0, 0));
+
+        Uni<TransactionResponse> transfer = transactionService.processTransfer(new TransferRequest(
+                        AccountServiceStub.accountNumber(9), AccountServiceStub.accountNumber(10), new BigDecimal("100.00"), "cancelada"), null)
+                .ifNoItem().after(Duration.ofMillis(1100)).fail();
+        assertThrows(TimeoutException.class, () -> transfer.await().atMost(WAIT));
+
+        AccountServiceStub.faults(StubFaults.NONE);
+        awaitBalance(target, "1100.00");
+        assertBalance(source, "900.00");
+    }
+
+    private static TransactionRequest request(String accountId, String amount) {
+        return new TransactionRequest(accountId, "cust-" + accountId.substring("acc-".length()), new BigDecimal(amount), "modo");
+    }
+
+    private static Map<String, String> body(String accountId, String amount) {
+        return Map.of("accountId", accountId, "customerId", "cust-" + accountId.substring("acc-".length()), "amount", amount);
+    }
+
+    private static Response post(String path, Object body, String idempotencyKey) {
+        RequestSpecification request = given().contentType(ContentType.JSON).body(body);
+        if (idempotencyKey != null) {
+            request.header("Idempotency-Key", idempotencyKey);
+        }
+        return request.post(path);
+    }
+
+    private static void assertBalance(String accountId, String expected) {
+        BigDecimal balance = AccountServiceStub.balance(accountId);
+        assertEquals(0, new BigDecimal(expected).compareTo(balance), accountId + ": " + balance);
+    }
+
+    private static void awaitBalance(String accountId, String expected) {
+        long deadline = System.nanoTime() + WAIT.toNanos();
+        while (new BigDecimal(expected).compareTo(AccountServiceStub.balance(accountId)) != 0 && System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        assertBalance(accountId, expected);
+    }
+}
@@ -0,0 +1,123 @@
+package com.bancario.transaction.service.impl;
+
+import com.bancario.transaction.enums.IdempotencyStatus;
+import com.bancario.transaction.enums.TransactionType;
+import com.bancario.transaction.exception.AccountUnavailableException;
+import com.bancario.transaction.exception.InsufficientFundsException;
+import com.bancario.transaction.loadtest.StubFaults;
+import com.bancario.transaction.repository.IdempotencyRepository;
+import com.bancario.transaction.repository.entity.IdempotencyRecord;
+import com.bancario.transaction.support.AccountServiceStub;
+import io.quarkus.cache.Cache;
+import io.quarkus.cache.CacheName;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import io.restassured.response.ValidatableResponse;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * La clave de idempotencia solo se libera cuando la operación fallida no movió saldo.
+ */
+@QuarkusTest
+class IdempotencyFailureTest {
+
+    private static final Duration WAIT = Duration.ofSeconds(5);
+
+    @Inject
+    IdempotencyRepository idempotencyRepository;
+
+    @Inject
+    @CacheName("idempotency-responses")
+    Cache completedResponses;
+
+    @BeforeEach
+    void resetStub() {
+        AccountServiceStub.reset(10, new BigDecimal("1000.00"));
+    }
+
+    @Test
+    void onlyFailuresWithoutEffectReleaseTheKey() {
+        assertTrue(IdempotencyServiceImpl.hadNoEffect(new IllegalArgumentException("validación")));
+        assertTrue(IdempotencyServiceImpl.hadNoEffect(new InsufficientFundsException("saldo")));
+        assertTrue(IdempotencyServiceImpl.hadNoEffect(new AccountUnavailableException("lectura", new RuntimeException())));
+        assertFalse(IdempotencyServiceImpl.hadNoEffect(new IllegalStateException("persistencia tras el Core")));
+        assertFalse(IdempotencyServiceImpl.hadNoEffect(new RuntimeException("PUT update-balance sin respuesta")));
+    }
+
+    @Test
+    void rejectedWithdrawalReleasesTheKeyAndTheRetryRunsAgain() {
+        String accountId = AccountServiceStub.accountId(1);
+        String key = UUID.randomUUID().toString();
+
+        withdraw(accountId, "5000.00", key).statusCode(not(equalTo(200)));
+        assertReleased(TransactionType.WITHDRAWAL, key);
+
+        long readsBefore = AccountServiceStub.calls("getAccountById");
+        withdraw(accountId, "5000.00", key).statusCode(not(equalTo(409)));
+        assertEquals(readsBefore + 1, AccountServiceStub.calls("getAccountById"), "el reintento se ejecutó de nuevo");
+    }
+
+    @Test
+    void accountServiceDownBeforeTheCoreReleasesTheKey() {
+        String accountId = AccountServiceStub.accountId(2);
+        String key = UUID.randomUUID().toString();
+
+        AccountServiceStub.faults(new StubFaults(0, 0, 1.0));
+        withdraw(accountId, "10.00", key).statusCode(not(equalTo(200)));
+        assertReleased(TransactionType.WITHDRAWAL, key);
+
+        AccountServiceStub.faults(StubFaults.NONE);
+        withdraw(accountId, "10.00", key).statusCode(200);
+        assertEquals(0, new BigDecimal("990.00").compareTo(AccountServiceStub.balance(accountId)));
+    }
+
+    @Test
+    void keyLeftFailedIsNeverExecutedAgain() {
+        String accountId = AccountServiceStub.accountId(3);
+        String key = UUID.randomUUID().toString();
+        String id = IdempotencyRecord.recordId(TransactionType.WITHDRAWAL, key);
+
+        // Se ejecuta con la clave y después se deja el registro como lo deja un fallo con resultado incierto.
+        withdraw(accountId, "10.00", key).statusCode(200);
+        IdempotencyRecord record = idempotencyRepository.findById(id).await().atMost(WAIT);
+        record.setStatus(IdempotencyStatus.FAILED);
+        record.setResponse(null);
+        record.setError("java.lang.IllegalStateException: Transaction persistence not acknowledged");
+        idempotencyRepository.update(record).await().atMost(WAIT);
+        completedResponses.invalidate(id).await().atMost(WAIT);
+        AccountServiceStub.resetCalls();
+
+        withdraw(accountId, "10.00", key).statusCode(409);
+        assertEquals(0, AccountServiceStub.calls("getAccountById"), "sin llamadas: la operación no se reejecuta");
+        assertEquals(0, new BigDecimal("990.00").compareTo(AccountServiceStub.balance(accountId)));
+    }
+
+    /** La clave se libera antes de entregar el fallo al llamador (settle tras release). */
+    private void assertReleased(TransactionType type, String key) {
+        String id = IdempotencyRecord.recordId(type, key);
+        assertNull(idempotencyRepository.findById(id).await().atMost(WAIT), "la clave " + id + " no se liberó");
+    }
+
+    private static ValidatableResponse withdraw(String accountId, String amount, String key) {
+        return given().contentType(ContentType.JSON)
+                .header("Idempotency-Key", key)
+                .body(Map.of("accountId", accountId, "customerId", "cust-" + accountId.substring(4), "amount", amount))
+                .post("/transactions/withdrawal")
+                .then();
+    }
+}
@@ -0,0 +1,16 @@
+package com.bancario.transaction.service.impl;
+
+import com.bancario.transaction.service.TransactionService;
+import io.quarkus.test.junit.QuarkusTest;
+
+/**
+ * {@link ExecutionModeBehaviorTest} en modo reactivo (configuración por defecto).
+ */
+@QuarkusTest
+class ReactiveModeBehaviorTest extends ExecutionModeBehaviorTest {
+
+    @Override
+    Class<? extends TransactionService> expectedImplementation() {
+        return TransactionServiceImpl.class;
+    }
+}
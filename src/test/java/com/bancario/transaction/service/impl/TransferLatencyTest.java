@@ -0,0 +1,94 @@
+package com.bancario.transaction.service.impl;
+
+import com.bancario.transaction.loadtest.StubFaults;
+import com.bancario.transaction.support.AccountServiceStub;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Latencia de la transferencia con un Account-Service lento: los pasos independientes (búsqueda de
+ * ambas cuentas, registro del retiro y depósito en destino) se solapan, así que la transferencia tarda
+ * menos que la suma de las llamadas que hace.
+ */
+@QuarkusTest
+class TransferLatencyTest {
+
+    private static final long LATENCY_MS = 150;
+
+    // Cuentas fuera del rango usado por otras pruebas: las búsquedas por número no salen de la caché.
+    private static final int FIRST_ACCOUNT = 101;
+
+    // Llamadas del camino de la transferencia; el PATCH del contador es asíncrono y agregado.
+    private static final List<String> TRANSFER_CALLS = List.of("getAccountByNumber", "getAccountById", "updateAccountBalance");
+
+    @BeforeEach
+    void resetStub() {
+        AccountServiceStub.reset(FIRST_ACCOUNT + 20, new BigDecimal("1000.00"));
+        // Calentamiento sin latencia, para no medir la carga de clases de la primera petición.
+        transfer(1, 2, "1.00");
+        AccountServiceStub.faults(new StubFaults(LATENCY_MS, 0, 0));
+        AccountServiceStub.resetCalls();
+    }
+
+    @Test
+    void transferTakesLessThanTheSumOfItsAccountServiceCalls() {
+        long started = System.nanoTime();
+        transfer(FIRST_ACCOUNT, FIRST_ACCOUNT + 1, "100.00");
+        long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+
+        Map<String, Long> calls = AccountServiceStub.calls();
+        long stepCalls = TRANSFER_CALLS.stream().mapToLong(operation -> calls.getOrDefault(operation, 0L)).sum();
+        assertEquals(2L, calls.getOrDefault("getAccountByNumber", 0L), "ambas cuentas se buscan en el Account-Service: " + calls);
+
+        long sumOfStepsMs = stepCalls * LATENCY_MS;
+        assertTrue(elapsedMs < sumOfStepsMs,
+                "transferencia en " + elapsedMs + " ms, suma de pasos " + sumOfStepsMs + " ms (" + calls + ")");
+
+        assertEquals(0, new BigDecimal("900.00").compareTo(AccountServiceStub.balance(AccountServiceStub.accountId(FIRST_ACCOUNT))));
+        assertEquals(0, new BigDecimal("1100.00").compareTo(AccountServiceStub.balance(AccountServiceStub.accountId(FIRST_ACCOUNT + 1))));
+    }
+
+    @Test
+    void transfersBetweenUnrelatedAccountsOverlap() {
+        int transfers = 4;
+
+        long started = System.nanoTime();
+        transfer(FIRST_ACCOUNT + 2, FIRST_ACCOUNT + 3, "10.00");
+        long singleMs = (System.nanoTime() - started) / 1_000_000;
+
+        started = System.nanoTime();
+        List<CompletableFuture<Void>> concurrent = IntStream.range(0, transfers)
+                .mapToObj(i -> CompletableFuture.runAsync(() ->
+                        transfer(FIRST_ACCOUNT + 4 + 2 * i, FIRST_ACCOUNT + 5 + 2 * i, "10.00")))
+                .toList();
+        concurrent.forEach(CompletableFuture::join);
+        long concurrentMs = (System.nanoTime() - started) / 1_000_000;
+
+        // Serializadas tardarían transfers * singleMs: cuentas distintas no comparten turno.
+        assertTrue(concurrentMs < 2 * singleMs,
+                transfers + " transferencias concurrentes en " + concurrentMs + " ms, una sola en " + singleMs + " ms");
+    }
+
+    private static void transfer(int source, int target, String amount) {
+        given().contentType(ContentType.JSON)
+                .body(Map.of(
+                        "sourceAccountNumber", AccountServiceStub.accountNumber(source),
+                        "targetAccountNumber", AccountServiceStub.accountNumber(target),
+                        "amount", amount,
+                        "description", "latencia"))
+                .post("/transactions/transfers")
+                .then().statusCode(200);
+    }
+}
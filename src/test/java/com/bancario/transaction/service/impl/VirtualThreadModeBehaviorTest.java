@@ -0,0 +1,28 @@
+package com.bancario.transaction.service.impl;
+
+import com.bancario.transaction.service.TransactionService;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+
+import java.util.Map;
+
+/**
+ * {@link ExecutionModeBehaviorTest} en modo hilos virtuales (VirtualThreadTransactionServiceImpl).
+ */
+@QuarkusTest
+@TestProfile(VirtualThreadModeBehaviorTest.VirtualThreads.class)
+class VirtualThreadModeBehaviorTest extends ExecutionModeBehaviorTest {
+
+    public static class VirtualThreads implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("transaction-service.execution-mode", "virtual-threads");
+        }
+    }
+
+    @Override
+    Class<? extends TransactionService> expectedImplementation() {
+        return VirtualThreadTransactionServiceImpl.class;
+    }
+}
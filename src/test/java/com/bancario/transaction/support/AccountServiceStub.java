@@ -0,0 +1,63 @@
+package com.bancario.transaction.support;
+
+import com.bancario.transaction.loadtest.StubFaults;
+import io.restassured.http.ContentType;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static io.restassured.RestAssured.given;
+
+/**
+ * Acceso desde las pruebas al Account-Service simulado (AccountServiceStubResource, perfil 'test').
+ */
+public final class AccountServiceStub {
+
+    private static final String BASE = "/stub/accounts";
+
+    private AccountServiceStub() {
+    }
+
+    /** Reinicia el stub: cuentas acc-000001..acc-N con el saldo indicado, sin degradación y sin llamadas contadas. */
+    public static void reset(int accounts, BigDecimal balance) {
+        given().queryParam("count", accounts).queryParam("balance", balance)
+                .post(BASE + "/_seed").then().statusCode(204);
+        faults(StubFaults.NONE);
+        resetCalls();
+    }
+
+    public static void faults(StubFaults faults) {
+        given().contentType(ContentType.JSON).body(faults)
+                .put(BASE + "/_faults").then().statusCode(200);
+    }
+
+    public static void resetCalls() {
+        given().delete(BASE + "/_calls").then().statusCode(204);
+    }
+
+    /** Llamadas recibidas por operación (getAccountById, updateAccountBalance...). */
+    public static Map<String, Long> calls() {
+        Map<String, Object> raw = given().get(BASE + "/_calls").then().statusCode(200).extract().jsonPath().getMap("");
+        return raw.entrySet().stream().collect(Collectors.toMap(Map.Entry::getKey, entry -> ((Number) entry.getValue()).longValue()));
+    }
+
+    public static long calls(String operation) {
+        return calls().getOrDefault(operation, 0L);
+    }
+
+    /** Saldo actual de la cuenta en el stub. */
+    public static BigDecimal balance(String accountId) {
+        return given().get(BASE + "/" + accountId).then().statusCode(200)
+                .extract().jsonPath().getObject("balance", BigDecimal.class);
+    }
+
+    /** Id y número de la cuenta i-ésima creada por {@link #reset(int, BigDecimal)}. */
+    public static String accountId(int index) {
+        return String.format("acc-%06d", index);
+    }
+
+    public static String accountNumber(int index) {
+        return String.format("num-%06d", index);
+    }
+}
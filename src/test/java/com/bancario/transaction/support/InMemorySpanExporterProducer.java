@@ -0,0 +1,20 @@
+package com.bancario.transaction.support;
+
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Produces;
+import jakarta.inject.Singleton;
+
+/**
+ * Exportador de spans en memoria para las pruebas: Quarkus registra los SpanExporter de CDI
+ * (quarkus.otel.traces.exporter=cdi), así que los spans terminados quedan disponibles para inspeccionar.
+ */
+@ApplicationScoped
+public class InMemorySpanExporterProducer {
+
+    @Produces
+    @Singleton
+    InMemorySpanExporter inMemorySpanExporter() {
+        return InMemorySpanExporter.create();
+    }
+}
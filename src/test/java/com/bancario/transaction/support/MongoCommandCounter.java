@@ -0,0 +1,52 @@
+package com.bancario.transaction.support;
+
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cuenta los lotes del cursor (find/getMore) que MongoDB entrega al servicio y los documentos que
+ * contienen. Quarkus registra los CommandListener que son beans CDI en el cliente de MongoDB.
+ */
+@ApplicationScoped
+public class MongoCommandCounter implements CommandListener {
+
+    private final AtomicLong getMores = new AtomicLong();
+    private final AtomicLong cursorDocuments = new AtomicLong();
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        if ("getMore".equals(event.getCommandName())) {
+            getMores.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        BsonDocument cursor = event.getResponse().getDocument("cursor", null);
+        if (cursor == null) {
+            return;
+        }
+        BsonArray batch = cursor.containsKey("firstBatch") ? cursor.getArray("firstBatch") : cursor.getArray("nextBatch", new BsonArray());
+        cursorDocuments.addAndGet(batch.size());
+    }
+
+    public void reset() {
+        getMores.set(0);
+        cursorDocuments.set(0);
+    }
+
+    public long getMores() {
+        return getMores.get();
+    }
+
+    /** Documentos recibidos de MongoDB en lotes de cursor desde el último reinicio. */
+    public long cursorDocuments() {
+        return cursorDocuments.get();
+    }
+}
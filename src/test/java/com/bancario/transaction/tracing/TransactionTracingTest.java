@@ -0,0 +1,218 @@
+package com.bancario.transaction.tracing;
+
+import com.bancario.transaction.support.AccountServiceStub;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Árbol de spans de las operaciones: pasos de negocio, llamadas al Account-Service y propagación
+ * del contexto hasta el servidor (el stub en proceso recibe el 'traceparent' y su span cuelga de la llamada).
+ */
+@QuarkusTest
+class TransactionTracingTest {
+
+    private static final long EXPORT_WAIT_MS = 5_000;
+
+    @Inject
+    InMemorySpanExporter exporter;
+
+    @BeforeEach
+    void reset() {
+        AccountServiceStub.reset(10, new BigDecimal("1000.00"));
+        exporter.reset();
+    }
+
+    @Test
+    void depositSpanIsTaggedAndParentsTheAccountServiceCalls() {
+        String accountId = AccountServiceStub.accountId(1);
+
+        given().contentType(ContentType.JSON)
+                .body(Map.of("accountId", accountId, "customerId", "cust-000001", "amount", "100.00"))
+                .post("/transactions/deposit")
+                .then().statusCode(200);
+
+        SpanData deposit = awaitSpan("transaction.deposit");
+        Trace trace = awaitTrace(deposit, t -> t.clientCallsUnder(deposit).size() >= 2);
+
+        assertEquals(accountId, deposit.getAttributes().get(TransactionTracing.ACCOUNT_ID));
+        assertEquals("DEPOSIT", deposit.getAttributes().get(TransactionTracing.TRANSACTION_TYPE));
+        assertEquals("0.00", deposit.getAttributes().get(TransactionTracing.FEE));
+        assertEquals(StatusCode.UNSET, deposit.getStatus().getStatusCode());
+
+        // El span de negocio cuelga de la petición HTTP entrante.
+        SpanData parent = trace.parentOf(deposit).orElseThrow(() -> new AssertionError("transaction.deposit sin padre"));
+        assertEquals(SpanKind.SERVER, parent.getKind());
+
+        // Lectura y escritura de saldo al Account-Service, dentro del span del depósito...
+        List<SpanData> calls = trace.clientCallsUnder(deposit);
+        assertTrue(calls.stream().anyMatch(span -> span.getName().startsWith("GET")), trace.describe());
+        assertTrue(calls.stream().anyMatch(span -> span.getName().startsWith("PUT")), trace.describe());
+
+        // ...y el servidor (stub) continúa la misma traza: 'traceparent' propagado.
+        for (SpanData call : calls) {
+            assertTrue(trace.spans.stream().anyMatch(span -> span.getKind() == SpanKind.SERVER
+                            && call.getSpanId().equals(span.getParentSpanId())),
+                    "sin span de servidor para " + call.getName() + ": " + trace.describe());
+        }
+    }
+
+    @Test
+    void transferHasOneSpanPerOrchestrationStep() {
+        given().contentType(ContentType.JSON)
+                .body(Map.of(
+                        "sourceAccountNumber", AccountServiceStub.accountNumber(1),
+                        "targetAccountNumber", AccountServiceStub.accountNumber(2),
+                        "amount", "50.00",
+                        "description", "traza"))
+                .post("/transactions/transfers")
+                .then().statusCode(200);
+
+        SpanData transfer = awaitSpan("transaction.transfer");
+        Trace trace = awaitTrace(transfer, candidate -> candidate.named("transfer.deposit").isPresent()
+                && candidate.named("transfer.withdrawal").isPresent());
+
+        SpanData resolve = trace.named("transfer.resolve-accounts").orElseThrow();
+        SpanData withdrawal = trace.named("transfer.withdrawal").orElseThrow();
+        SpanData deposit = trace.named("transfer.deposit").orElseThrow();
+
+        for (SpanData step : List.of(resolve, withdrawal, deposit)) {
+            assertTrue(trace.isDescendant(step, transfer), step.getName() + " fuera de la transferencia: " + trace.describe());
+        }
+        assertFalse(trace.named("transfer.reversal").isPresent(), "sin reversión en una transferencia correcta");
+
+        assertEquals(AccountServiceStub.accountId(1), withdrawal.getAttributes().get(TransactionTracing.ACCOUNT_ID));
+        assertEquals("WITHDRAWAL", withdrawal.getAttributes().get(TransactionTracing.TRANSACTION_TYPE));
+        assertEquals(AccountServiceStub.accountId(2), deposit.getAttributes().get(TransactionTracing.ACCOUNT_ID));
+        assertEquals("DEPOSIT", deposit.getAttributes().get(TransactionTracing.TRANSACTION_TYPE));
+        assertTrue(trace.spans.stream().anyMatch(span ->
+                        AccountServiceStub.accountId(1).equals(span.getAttributes().get(TransactionTracing.SOURCE_ACCOUNT_ID))
+                                && AccountServiceStub.accountId(2).equals(span.getAttributes().get(TransactionTracing.TARGET_ACCOUNT_ID))),
+                "cuentas resueltas etiquetadas: " + trace.describe());
+
+        // Cada paso agrupa sus propias llamadas al Account-Service.
+        assertFalse(trace.clientCallsUnder(resolve).isEmpty(), trace.describe());
+        assertFalse(trace.clientCallsUnder(withdrawal).isEmpty(), trace.describe());
+        assertFalse(trace.clientCallsUnder(deposit).isEmpty(), trace.describe());
+    }
+
+    @Test
+    void rejectedWithdrawalEndsItsSpanWithError() {
+        String accountId = AccountServiceStub.accountId(3);
+
+        given().contentType(ContentType.JSON)
+                .body(Map.of("accountId", accountId, "customerId", "cust-000003", "amount", "5000.00"))
+                .post("/transactions/withdrawal");
+
+        SpanData withdrawal = awaitSpan("transaction.withdrawal");
+
+        assertEquals(StatusCode.ERROR, withdrawal.getStatus().getStatusCode());
+        assertEquals(accountId, withdrawal.getAttributes().get(TransactionTracing.ACCOUNT_ID));
+        assertTrue(withdrawal.getEvents().stream().anyMatch(event -> "exception".equals(event.getName())),
+                "la excepción queda registrada en el span");
+    }
+
+    private SpanData awaitSpan(String name) {
+        long deadline = System.currentTimeMillis() + EXPORT_WAIT_MS;
+        while (System.currentTimeMillis() < deadline) {
+            Optional<SpanData> span = exporter.getFinishedSpanItems().stream()
+                    .filter(candidate -> candidate.getName().equals(name))
+                    .findFirst();
+            if (span.isPresent()) {
+                return span.get();
+            }
+            sleep();
+        }
+        return fail("span no exportado: " + name + " (exportados: " + names(exporter.getFinishedSpanItems()) + ")");
+    }
+
+    /** Espera a que la traza del span tenga lo esperado (los spans hijos se exportan en lotes, no todos a la vez). */
+    private Trace awaitTrace(SpanData member, Predicate<Trace> complete) {
+        long deadline = System.currentTimeMillis() + EXPORT_WAIT_MS;
+        Trace trace = Trace.of(exporter.getFinishedSpanItems(), member.getTraceId());
+        while (!complete.test(trace) && System.currentTimeMillis() < deadline) {
+            sleep();
+            trace = Trace.of(exporter.getFinishedSpanItems(), member.getTraceId());
+        }
+        return trace;
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(25);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String names(List<SpanData> spans) {
+        return spans.stream().map(SpanData::getName).collect(Collectors.joining(", "));
+    }
+
+    /** Spans terminados de una traza, con navegación por parentSpanId. */
+    private record Trace(List<SpanData> spans, Map<String, SpanData> bySpanId) {
+
+        static Trace of(List<SpanData> exported, String traceId) {
+            List<SpanData> spans = exported.stream().filter(span -> span.getTraceId().equals(traceId)).toList();
+            return new Trace(spans, spans.stream().collect(Collectors.toMap(SpanData::getSpanId, span -> span, (a, b) -> a)));
+        }
+
+        Optional<SpanData> named(String name) {
+            return spans.stream().filter(span -> span.getName().equals(name)).findFirst();
+        }
+
+        Optional<SpanData> parentOf(SpanData span) {
+            return Optional.ofNullable(bySpanId.get(span.getParentSpanId()));
+        }
+
+        boolean isDescendant(SpanData span, SpanData ancestor) {
+            Optional<SpanData> parent = parentOf(span);
+            while (parent.isPresent()) {
+                if (parent.get().getSpanId().equals(ancestor.getSpanId())) {
+                    return true;
+                }
+                parent = parentOf(parent.get());
+            }
+            return false;
+        }
+
+        /** Llamadas HTTP salientes (REST client al Account-Service) hechas dentro del span indicado. */
+        List<SpanData> clientCallsUnder(SpanData ancestor) {
+            return spans.stream()
+                    .filter(span -> span.getKind() == SpanKind.CLIENT && isHttp(span) && isDescendant(span, ancestor))
+                    .toList();
+        }
+
+        String describe() {
+            return spans.stream()
+                    .map(span -> span.getName() + "[" + span.getKind() + ", " + span.getSpanId() + " <- " + span.getParentSpanId() + "]")
+                    .collect(Collectors.joining(", "));
+        }
+
+        private static boolean isHttp(SpanData span) {
+            return span.getAttributes().get(AttributeKey.stringKey("http.request.method")) != null
+                    || span.getAttributes().get(AttributeKey.stringKey("http.method")) != null;
+        }
+    }
+}